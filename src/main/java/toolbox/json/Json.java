@@ -1,9 +1,10 @@
 package toolbox.json;
 
+import java.io.*;
+import java.nio.*;
+import java.util.*;
 import java.util.regex.*;
 
-import toolbox.*;
-
 
 
 /**
@@ -27,7 +28,34 @@ public abstract class Json {
 	 * @return Srialise l'lment Json.
 	 */
 	public final String serialize() {
-		return serialize(null);
+		return serialize((String) null);
+	}
+
+
+
+	/**
+	 * Srialise cet lment Json sans prsentation (indentation, ...) directement dans la destination indique.
+	 * @param appendable Destination (ne doit pas tre <code>null</code>).
+	 * @throws IOException En cas d'erreur d'criture.
+	 */
+	public final void serialize(Appendable appendable) throws IOException {
+		serialize(appendable, null);
+	}
+
+
+
+	/**
+	 * Srialise cet lment Json directement dans la destination indique, en une seule passe et sans chaine intermdiaire.<br>
+	 * Le rsultat est identique  celui de {@link #serialize(String)}. Si la destination est un {@link Writer}, il est prfrable qu'elle soit tamponne ({@link BufferedWriter}, ...).
+	 * @param appendable Destination (ne doit pas tre <code>null</code>).
+	 * @param indentation Indentation globale de prsentation de cet lment Json, ou <code>null</code> pour srialiser sans prsentation.
+	 * @throws IOException En cas d'erreur d'criture.
+	 */
+	public final void serialize(Appendable appendable, String indentation) throws IOException {
+		if (appendable == null) {
+			throw new NullPointerException();
+		}
+		write(appendable, indentation, 0);
 	}
 
 
@@ -37,7 +65,16 @@ public abstract class Json {
 	 * @param indentation Indentation globale de prsentation de cet lment Json, ou <code>null</code> pour srialiser sans prsentation.
 	 * @return Srialise l'lment Json.
 	 */
-	public abstract String serialize(String indentation);
+	public final String serialize(String indentation) {
+		StringBuilder builder = new StringBuilder();
+
+		try {
+			write(builder, indentation, 0);
+		} catch (IOException exception) {
+			throw new RuntimeException(exception);
+		}
+		return builder.toString();
+	}
 
 
 
@@ -45,11 +82,22 @@ public abstract class Json {
 	 * {@inheritDoc}
 	 */
 	@Override public String toString() {
-		return serialize(null);
+		return serialize((String) null);
 	}
 
 
 
+	/**
+	 * Srialise cet lment Json dans la destination indique.
+	 * @param appendable Destination.
+	 * @param indentation Indentation globale de prsentation de l'lment Json racine, ou <code>null</code> pour srialiser sans prsentation.
+	 * @param depth Profondeur de cet lment Json par rapport  l'lment Json racine, qui dtermine son indentation.
+	 * @throws IOException En cas d'erreur d'criture.
+	 */
+	protected abstract void write(Appendable appendable, String indentation, int depth) throws IOException;
+
+
+
 	/**
 	 * Retourne une chaine correspondant  la chaine indique mais o tous les caractres <code>'</code>, <code>"</code>, <code>\\</code>, <code>></code>, <code>&lt;</code>, ou dont le code est
 	 * suprieur ou gal  128, ou strictement infrieur  32 sauf TAB, CR et LF on t remplacs par des <code>&#92;uXXXX</code>, ou <code>null</code> si la chaine indique est <code>null</code>.<br>
@@ -60,280 +108,220 @@ public abstract class Json {
 	 *         <code>null</code>.
 	 */
 	protected static String encode(String string) {
-		int stringLength;
-		char stringChar;
-		StringBuilder escapedBuilder;
-		String escaped;
+		StringBuilder builder;
+
 		if (string == null) {
-			escaped = null;
+			return null;
 		} else {
-			escapedBuilder = new StringBuilder();
-			stringLength = string.length();
-			for (int i = 0; i < stringLength; i++) {
-				stringChar = string.charAt(i);
+			builder = new StringBuilder(string.length() + 16);
+			try {
+				encode(builder, string);
+			} catch (IOException exception) {
+				throw new RuntimeException(exception);
+			}
+			return builder.toString();
+		}
+	}
+
+
+
+	/**
+	 * crit la chaine indique dans la destination indique, code comme par {@link #encode(String)}.<br>
+	 * Les suites de caractres qui n'ont pas besoin d'tre cods sont crites en une seule fois.
+	 * @param appendable Destination.
+	 * @param string Chaine  coder (ne doit pas tre <code>null</code>).
+	 * @throws IOException En cas d'erreur d'criture.
+	 */
+	protected static void encode(Appendable appendable, String string) throws IOException {
+		int length = string.length();
+		int start = 0;
+		char stringChar;
+
+		for (int i = 0; i < length; i++) {
+			stringChar = string.charAt(i);
+			if ((stringChar < ((char) 32)) || (stringChar >= ((char) 128)) || (stringChar == '"') || (stringChar == '\\') || (stringChar == '/')) {
+				append(appendable, string, start, i);
+				start = i + 1;
 				if (stringChar == '"') {
-					escapedBuilder.append("\\\"");
+					appendable.append("\\\"");
 				} else if (stringChar == '\\') {
-					escapedBuilder.append("\\\\");
+					appendable.append("\\\\");
 				} else if (stringChar == '/') {
-					escapedBuilder.append("\\/");
+					appendable.append("\\/");
 				} else if (stringChar == '\b') {
-					escapedBuilder.append("\\b");
+					appendable.append("\\b");
 				} else if (stringChar == '\f') {
-					escapedBuilder.append("\\f");
+					appendable.append("\\f");
 				} else if (stringChar == '\n') {
-					escapedBuilder.append("\\n");
+					appendable.append("\\n");
 				} else if (stringChar == '\r') {
-					escapedBuilder.append("\\r");
+					appendable.append("\\r");
 				} else if (stringChar == '\t') {
-					escapedBuilder.append("\\t");
-				} else if ((stringChar < ((char) 32)) || (stringChar >= ((char) 128))) {
-					escapedBuilder.append(String.format("\\u%04X", (int) stringChar));
+					appendable.append("\\t");
 				} else {
-					escapedBuilder.append(stringChar);
+					appendable.append("\\u").append(HEX_DIGITS[(stringChar >> 12) & 0xF]).append(HEX_DIGITS[(stringChar >> 8) & 0xF]).append(HEX_DIGITS[(stringChar >> 4) & 0xF]).append(HEX_DIGITS[stringChar & 0xF]);
 				}
 			}
-			escaped = escapedBuilder.toString();
 		}
-		return escaped;
+		append(appendable, string, start, length);
 	}
 
 
 
 	/**
-	 * Simule l'appel  {@link Scanner#getMatchingPart(Pattern)} avec <code>\A"(?:\\([\\\/\"bfnrt])|\\u([0-9a-fA-F]{4})|([^\x01-\x1F\\\"]+))*"</code> comme expression rgulire.<br>
-	 * Permet d'viter les {@link StackOverflowError} si la chaine  parcourir est trop complexe.
-	 * @param scanner Chaine  parcourir.
-	 * @return Le fragment correspondant  une chaine json, ou <code>null</code>.
+	 * crit l'lment Json indiqu dans la destination indique, ou <code>null</code> si il est <code>null</code>.
+	 * @param appendable Destination.
+	 * @param json lment Json (peut tre <code>null</code>).
+	 * @param indentation Indentation globale de prsentation de l'lment Json racine, ou <code>null</code> pour srialiser sans prsentation.
+	 * @param depth Profondeur de l'lment Json par rapport  l'lment Json racine.
+	 * @throws IOException En cas d'erreur d'criture.
 	 */
-	private static String getMatchingPartForString(Scanner scanner) {
-		int initialIndex = scanner.getIndex();
-		StringBuilder string = new StringBuilder();
-		String fragment;
-
-		if (scanner.currentCharIsOneOf('"')) {
-			scanner.move(1);
-			while ((fragment = scanner.getMatchingPart(STRING_FRAGMENT_PATTERN)) != null) {
-				string.append(fragment);
-			}
-			if (scanner.currentCharIsOneOf('"')) {
-				scanner.move(1);
-				return string.toString();
-			}
+	protected static void write(Appendable appendable, Json json, String indentation, int depth) throws IOException {
+		if (json == null) {
+			appendable.append("null");
+		} else {
+			json.write(appendable, indentation, depth);
 		}
-		scanner.setIndex(initialIndex);
-		return null;
 	}
 
 
 
 	/**
-	 * Construit l'lment Json correspondant  la chaine indique.
-	 * @param scanner Element Json srialis en cours de parsage.
-	 * @return L'lment Json.
-	 * @throws JsonException
-	 * @throws StringIndexOutOfBoundsException
+	 * crit un saut de ligne suivi de l'indentation correspondant  la profondeur indique dans la destination indique.
+	 * @param appendable Destination.
+	 * @param indentation Indentation globale de prsentation de l'lment Json racine (ne doit pas tre <code>null</code>).
+	 * @param depth Profondeur.
+	 * @throws IOException En cas d'erreur d'criture.
 	 */
-	private static Json parse(Scanner scanner) throws JsonException {
-		JsonArray jsonArray;
-		JsonObject jsonObject;
-		Json jsonName;
-		int index = 0;
-		String string;
-		Matcher matcher;
-		StringBuilder builder;
-
-		scanner.skipWhitespaces();
-
-		if (scanner.currentCharIsOneOf('{')) {
-			jsonObject = new JsonObject();
-			scanner.moveThenSkipWhitespaces(1);
-			if (scanner.currentCharIsOneOf('}')) {
-				scanner.move(1);
-				return jsonObject;
-			} else {
-				for (;;) {
-					index = scanner.getIndex();
-					if (!((jsonName = parse(scanner)) instanceof JsonString)) {
-						throw new JsonException("Nom de proprit Json attendu: " + scanner.getFragment(index, 5, 5));
-					}
-					if (jsonObject.has(((JsonString) jsonName).getValue())) {
-						throw new JsonException("Il a a plusieurs proprits \"" + ((JsonString) jsonName).getValue() + "\" dans le mme objet Json: " + scanner.getFragment(index, 5, 50));
-					}
-					scanner.skipWhitespaces();
-					if (scanner.currentCharIsNoneOf(':')) {
-						throw new JsonException("\":\" attendu: " + scanner.getFragment(5, 5));
-					}
-					scanner.moveThenSkipWhitespaces(1);
-					jsonObject.set(((JsonString) jsonName).getValue(), parse(scanner));
-					scanner.skipWhitespaces();
-					if (scanner.currentCharIsOneOf(',')) {
-						scanner.moveThenSkipWhitespaces(1);
-					} else if (scanner.currentCharIsOneOf('}')) {
-						scanner.move(1);
-						return jsonObject;
-					} else if (scanner.hasCharToParse()) {
-						throw new JsonException("\"" + scanner.getCurrentChar() + "\" non attendu: " + scanner.getFragment(5, 5));
-					} else {
-						throw new JsonException("\",\" ou \"}\" attendu: " + scanner.getFragment(5, 5));
-					}
-				}
-			}
-
-		} else if (scanner.currentCharIsOneOf('[')) {
-			jsonArray = new JsonArray();
-			scanner.moveThenSkipWhitespaces(1);
-			if (scanner.currentCharIsOneOf(']')) {
-				scanner.move(1);
-				return jsonArray;
-			} else {
-				for (;;) {
-					jsonArray.append(parse(scanner));
-					scanner.skipWhitespaces();
-					if (scanner.currentCharIsOneOf(',')) {
-						scanner.moveThenSkipWhitespaces(1);
-					} else if (scanner.currentCharIsOneOf(']')) {
-						scanner.move(1);
-						return jsonArray;
-					} else if (scanner.hasCharToParse()) {
-						throw new JsonException("\"" + scanner.getCurrentChar() + "\" non attendu: " + scanner.getFragment(5, 5));
-					} else {
-						throw new JsonException("\",\" ou \"]\" attendu: " + scanner.getFragment(5, 5));
-					}
-				}
-			}
-
-		} else if ((string = scanner.getMatchingPart(BOOLEAN_PATTERN)) != null) {
-			return new JsonBoolean(Boolean.parseBoolean(string));
+	protected static void writeNewLine(Appendable appendable, String indentation, int depth) throws IOException {
+		appendable.append('\n').append(indentation);
+		for (int i = 0; i < depth; i++) {
+			appendable.append(INDENTATION);
+		}
+	}
 
-		} else if (scanner.getMatchingPart(NULL_PATTERN) != null) {
-			return null;
 
-		} else if ((string = getMatchingPartForString(scanner)) != null) {
-			builder = new StringBuilder();
-			matcher = ENCODING_PATTERN.matcher(string);
-			while (matcher.find()) {
-				if (matcher.group(1) != null) {
-					switch (matcher.group(1).charAt(0)) {
-					case '"':
-						builder.append("\"");
-						break;
-					case '/':
-						builder.append("/");
-						break;
-					case 'b':
-						builder.append("\b");
-						break;
-					case 'f':
-						builder.append("\f");
-						break;
-					case 'n':
-						builder.append("\n");
-						break;
-					case 'r':
-						builder.append("\r");
-						break;
-					case 't':
-						builder.append("\t");
-						break;
-					case '\\':
-						builder.append("\\");
-						break;
-					}
-				} else if (matcher.group(2) != null) {
-					builder.append((char) Long.parseLong(matcher.group(2), 16));
-				} else if (matcher.group(3) != null) {
-					builder.append(matcher.group(3));
-				} else {
-					throw new JsonException("Erreur dans le parsage de la chaine Json: " + scanner.getFragment(5, 5));
-				}
-			}
-			return new JsonString(builder.toString());
 
-		} else if ((string = scanner.getMatchingPart(NUMBER_PATTERN)) != null) {
-			if (INTEGER_PATTERN.matcher(string).matches()) {
-				return new JsonNumber(Long.valueOf(string));
-			} else {
-				return new JsonNumber(Double.valueOf(string));
-			}
-
-		} else if (scanner.hasCharToParse()) {
-			throw new JsonException("\"" + scanner.getCurrentChar() + "\" non attendu: " + scanner.getFragment(5, 5));
+	/**
+	 * crit la partie indique de la chaine indique dans la destination indique, sans crer de chaine intermdiaire lorsque la destination est un {@link Writer}.
+	 * @param appendable Destination.
+	 * @param string Chaine.
+	 * @param start Position du premier caractre.
+	 * @param end Position suivant le dernier caractre.
+	 * @throws IOException En cas d'erreur d'criture.
+	 */
+	private static void append(Appendable appendable, String string, int start, int end) throws IOException {
+		if (start == end) {
+			return;
+		} else if (appendable instanceof Writer) {
+			((Writer) appendable).write(string, start, end - start);
 		} else {
-			throw new JsonException("\",\" ou \"}\" attendu: " + scanner.getFragment(5, 5));
+			appendable.append(string, start, end);
 		}
 	}
 
 
 
 	/**
-	 * Construit l'lment Json correspondant  la chaine indique.
-	 * @param string lment Json srialis.
+	 * Construit l'lment Json correspondant aux octets cods en UTF-8 indiqus, sans les dcoder au pralable en chaine (voir {@link #parse(ByteBuffer)}).
+	 * @param bytes lment Json srialis, cod en UTF-8.
 	 * @return L'lment Json.
 	 * @throws JsonException
 	 */
-	public static Json parse(String string) throws JsonException {
-		Json json;
-		Scanner scanner;
-
-		if (string == null) {
+	public static Json parse(byte[] bytes) throws JsonException {
+		if (bytes == null) {
 			return null;
 		} else {
-			scanner = new Scanner(string);
-			scanner.skipWhitespaces();
-			if (!scanner.relativeCharIsOneOf(0, '{', '[')) {
-				throw new JsonException("\"{\" ou \"[\" attendu: " + scanner.getFragment(0, 10));
-			} else {
-				json = parse(scanner);
-				if (scanner.getCharsToParseCount() > 0) {
-					throw new JsonException("Caractres non attendus: " + scanner.getFragment(0, 10));
-				}
-				return json;
-			}
+			return new JsonUtf8Parser(ByteBuffer.wrap(bytes)).parse();
 		}
 	}
 
 
 
 	/**
-	 * Modle de syntaxe des boolens.
+	 * Construit l'lment Json correspondant aux octets cods en UTF-8 indiqus, de la position  la limite du tampon, sans modifier la position du tampon.<br>
+	 * Les octets ne sont pas dcods au pralable en chaine: seul le contenu des chaines Json est dcod. Le tampon peut notamment tre le rsultat de
+	 * {@link java.nio.channels.FileChannel#map(java.nio.channels.FileChannel.MapMode, long, long)}, pour construire l'lment Json correspondant  un fichier sans le lire en mmoire au pralable.
+	 * <br>
+	 * La syntaxe accepte et les messages d'erreur sont ceux de {@link #parse(String)}, les positions et les extraits tant compts en octets. Une marque d'ordre des octets (BOM) en tte des octets
+	 * est ignore, et les chaines Json contenant des octets qui ne sont pas de l'UTF-8 valide sont rejetes.
+	 * @param buffer lment Json srialis, cod en UTF-8.
+	 * @return L'lment Json.
+	 * @throws JsonException
 	 */
-	private static final Pattern BOOLEAN_PATTERN = Pattern.compile("\\A(true|false)");
+	public static Json parse(ByteBuffer buffer) throws JsonException {
+		if (buffer == null) {
+			return null;
+		} else {
+			return new JsonUtf8Parser(buffer).parse();
+		}
+	}
 
 
 
 	/**
-	 * Modle de syntaxe des fragments de chaines.
+	 * Construit l'lment Json correspondant au flux cod en UTF-8 indiqu, lu jusqu' sa fin, sans le dcoder au pralable en chaine (voir {@link #parse(ByteBuffer)}).<br>
+	 * Le flux n'est pas ferm. Pour les documents plus volumineux que la mmoire disponible, il faut utiliser un {@link JsonReader}.
+	 * @param stream lment Json srialis, cod en UTF-8.
+	 * @return L'lment Json.
+	 * @throws JsonException
+	 * @throws IOException En cas d'erreur de lecture.
 	 */
-	public static final Pattern ENCODING_PATTERN = Pattern.compile("\\A(?:\\\\([\\\\\\/\\\"bfnrt])|\\\\u([0-9a-fA-F]{4})|([^\\x01-\\x1F\\\\\\\"]+))");
+	public static Json parse(InputStream stream) throws JsonException, IOException {
+		byte[] bytes;
+		int count = 0;
+		int read;
+
+		if (stream == null) {
+			return null;
+		} else {
+			bytes = new byte[Math.max(stream.available(), 8192)];
+			while ((read = stream.read(bytes, count, bytes.length - count)) >= 0) {
+				count += read;
+				if (count == bytes.length) {
+					bytes = Arrays.copyOf(bytes, bytes.length * 2);
+				}
+			}
+			return new JsonUtf8Parser(ByteBuffer.wrap(bytes, 0, count)).parse();
+		}
+	}
 
 
 
 	/**
-	 * Chaine utilise pour chaque niveau d'indentation.
+	 * Construit l'lment Json correspondant  la chaine indique.
+	 * @param string lment Json srialis.
+	 * @return L'lment Json.
+	 * @throws JsonException
 	 */
-	public static final String INDENTATION = "\t";
+	public static Json parse(String string) throws JsonException {
+		if (string == null) {
+			return null;
+		} else {
+			return new JsonStringParser(string).parse();
+		}
+	}
 
 
 
 	/**
-	 * Modele de syntaxe des nombres entiers.
+	 * Modle de syntaxe des fragments de chaines.
 	 */
-	private static final Pattern INTEGER_PATTERN = Pattern.compile("\\A(-?(?:0|[1-9][0-9]*))\\z");
+	public static final Pattern ENCODING_PATTERN = Pattern.compile("\\A(?:\\\\([\\\\\\/\\\"bfnrt])|\\\\u([0-9a-fA-F]{4})|([^\\x01-\\x1F\\\\\\\"]+))");
 
 
 
 	/**
-	 * Modle de syntaxe des boolens.
+	 * Chiffres hexadcimaux.
 	 */
-	private static final Pattern NULL_PATTERN = Pattern.compile("\\A(null)");
+	private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
 
 
 
 	/**
-	 * Modle de syntaxe des nombres.
+	 * Chaine utilise pour chaque niveau d'indentation.
 	 */
-	private static final Pattern NUMBER_PATTERN = Pattern.compile("\\A(-?(?:0|[1-9][0-9]*)(?:\\.[0-9]+)?(?:[eE][-+]?[0-9]+)?)");
+	public static final String INDENTATION = "\t";
 
 
 
@@ -1,5 +1,6 @@
 package toolbox.json;
 
+import java.io.*;
 import java.util.*;
 
 
@@ -550,41 +551,39 @@ public class JsonArray extends JsonContainer implements Iterable<Json> {
 	/**
 	 * {@inheritDoc}
 	 */
-	@Override public String serialize(String indentation) {
-		StringBuilder builder = new StringBuilder();
-		String separator;
+	@Override protected void write(Appendable appendable, String indentation, int depth) throws IOException {
 		Json previous = null;
 		boolean first = true;
-		boolean hasNonAtomic = false;
+		boolean presented = false;
 
-		builder.append("[");
-		for (Json json : jsons) {
-			if ((json != null) && (!(json instanceof JsonAtomic))) {
-				hasNonAtomic = true;
-				break;
+		if (indentation != null) {
+			for (Json json : jsons) {
+				if ((json != null) && (!(json instanceof JsonAtomic))) {
+					presented = true;
+					break;
+				}
 			}
 		}
-		separator = (hasNonAtomic && (indentation != null)) ? "\n" + indentation + INDENTATION : "";
+		appendable.append('[');
 		for (Json json : jsons) {
-			builder.append(separator);
-			separator = ",";
-			if (hasNonAtomic && (indentation != null)) {
-				if (first) {
-					first = false;
-				} else if ((previous instanceof JsonObject) && (json instanceof JsonObject)) {
-					builder.append(" ");
+			if (!first) {
+				appendable.append(',');
+			}
+			if (presented) {
+				if (first || !(previous instanceof JsonObject) || !(json instanceof JsonObject)) {
+					writeNewLine(appendable, indentation, depth + 1);
 				} else {
-					builder.append("\n" + indentation + INDENTATION);
+					appendable.append(' ');
 				}
-				previous = json;
 			}
-			builder.append((json == null) ? "null" : json.serialize((indentation != null) ? indentation + INDENTATION : null));
+			first = false;
+			previous = json;
+			write(appendable, json, indentation, depth + 1);
 		}
-		if ((indentation != null) && !first) {
-			builder.append("\n" + indentation);
+		if (presented && !first) {
+			writeNewLine(appendable, indentation, depth);
 		}
-		builder.append("]");
-		return builder.toString();
+		appendable.append(']');
 	}
 
 
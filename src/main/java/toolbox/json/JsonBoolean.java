@@ -1,5 +1,7 @@
 package toolbox.json;
 
+import java.io.*;
+
 
 
 /**
@@ -128,11 +130,11 @@ public class JsonBoolean extends JsonAtomic {
 	/**
 	 * {@inheritDoc}
 	 */
-	@Override public String serialize(String indentation) {
+	@Override protected void write(Appendable appendable, String indentation, int depth) throws IOException {
 		if (value != null) {
-			return value ? "true" : "false";
+			appendable.append(value ? "true" : "false");
 		} else {
-			return "null";
+			appendable.append("null");
 		}
 	}
 
@@ -0,0 +1,24 @@
+package toolbox.json;
+
+
+
+/**
+ * La classe {@link JsonEvent} recense les vnements gnrs par un {@link JsonReader}.
+ * @author Ludovic WALLE
+ */
+public enum JsonEvent {
+	/** Fin du document. */
+	END_DOCUMENT,
+	/** Fin de tableau (<code>]</code>). */
+	END_ARRAY,
+	/** Fin d'objet (<code>}</code>). */
+	END_OBJECT,
+	/** Nom de proprit, disponible par {@link JsonReader#getName()}. */
+	NAME,
+	/** Dbut de tableau (<code>[</code>). */
+	START_ARRAY,
+	/** Dbut d'objet (<code>{</code>). */
+	START_OBJECT,
+	/** Valeur atomique (chaine, nombre, boolen ou <code>null</code>), disponible par {@link JsonReader#getValue()}. */
+	VALUE
+}
@@ -1,5 +1,7 @@
 package toolbox.json;
 
+import java.io.*;
+
 
 
 /**
@@ -87,12 +89,8 @@ public class JsonNumber extends JsonAtomic {
 	/**
 	 * {@inheritDoc}
 	 */
-	@Override public String serialize(String indentation) {
-		if (value != null) {
-			return value.toString();
-		} else {
-			return "null";
-		}
+	@Override protected void write(Appendable appendable, String indentation, int depth) throws IOException {
+		appendable.append((value != null) ? value.toString() : "null");
 	}
 
 
@@ -1,5 +1,6 @@
 package toolbox.json;
 
+import java.io.*;
 import java.util.*;
 import java.util.Map.*;
 
@@ -692,21 +693,27 @@ public class JsonObject extends JsonContainer implements Iterable<Entry<String,
 	/**
 	 * {@inheritDoc}
 	 */
-	@Override public String serialize(String indentation) {
-		StringBuilder builder = new StringBuilder();
-		String separator;
+	@Override protected void write(Appendable appendable, String indentation, int depth) throws IOException {
+		boolean first = true;
 
-		builder.append("{");
-		separator = (indentation != null) ? "\n" + indentation + INDENTATION : "";
+		appendable.append('{');
 		for (Entry<String, Json> pair : pairs.entrySet()) {
-			builder.append(separator + "\"" + encode(pair.getKey()) + "\":" + ((indentation != null) ? " " : "") + ((pair.getValue() == null) ? "null" : pair.getValue().serialize((indentation != null) ? indentation + INDENTATION : null)));
-			separator = (indentation != null) ? ",\n" + indentation + INDENTATION : ",";
+			if (!first) {
+				appendable.append(',');
+			}
+			first = false;
+			if (indentation != null) {
+				writeNewLine(appendable, indentation, depth + 1);
+			}
+			appendable.append('"');
+			encode(appendable, pair.getKey());
+			appendable.append((indentation != null) ? "\": " : "\":");
+			write(appendable, pair.getValue(), indentation, depth + 1);
 		}
 		if (indentation != null) {
-			builder.append("\n" + indentation);
+			writeNewLine(appendable, indentation, depth);
 		}
-		builder.append("}");
-		return builder.toString();
+		appendable.append('}');
 	}
 
 
@@ -0,0 +1,553 @@
+package toolbox.json;
+
+
+
+/**
+ * La classe {@link JsonParser} construit l'lment Json correspondant  une suite d'units (caractres ou octets), en une seule passe, unit par unit, par descente rcursive.<br>
+ * Elle accepte la mme syntaxe et gnre les mmes messages d'erreur que l'analyse par expressions rgulires qu'elle remplace, sans crer d'objet intermdiaire: les chaines sans caractre
+ * d'chappement sont extraites directement des units analyses, et les nombres ne sont convertis qu'une fois leur tendue connue.<br>
+ * La grammaire ne dpend que des dlimiteurs, des littraux et des nombres Json, tous US-ASCII, qui ont la mme valeur que l'unit soit un caractre ou un octet cod en UTF-8. Les classes drives
+ * ne fournissent que l'accs aux units et leur dcodage: {@link JsonStringParser} pour les chaines, {@link JsonUtf8Parser} pour les octets cods en UTF-8.
+ * @author Ludovic WALLE
+ */
+abstract class JsonParser {
+
+
+
+	/**
+	 * @param start Position de la premire unit  analyser.
+	 * @param length Nombre d'units.
+	 */
+	JsonParser(int start, int length) {
+		this.index = start;
+		this.length = length;
+	}
+
+
+
+	/**
+	 * Retourne le caractre Unicode qui commence  la position indique, pour les messages d'erreur.
+	 * @param position Position de la premire unit du caractre (doit tre dans les units).
+	 * @return Le caractre Unicode.
+	 */
+	abstract String characterAt(int position);
+
+
+
+	/**
+	 * Dcode les units indiques.
+	 * @param start Position de la premire unit.
+	 * @param end Position suivant la dernire unit.
+	 * @param ascii <code>true</code> si les units sont toutes US-ASCII, <code>false</code> sinon.
+	 * @return La chaine dcode.
+	 * @throws JsonException Si les units sont mal codes.
+	 */
+	abstract String decode(int start, int end, boolean ascii) throws JsonException;
+
+
+
+	/**
+	 * Retourne l'extrait des units indiques, pour les messages d'erreur. Les limites de l'extrait peuvent tre tendues pour ne pas couper de caractre.
+	 * @param first Position de la premire unit.
+	 * @param last Position suivant la dernire unit.
+	 * @return L'extrait.
+	 */
+	abstract String extract(int first, int last);
+
+
+
+	/**
+	 * Retourne un extrait des units, encadr par des <code>...</code> lorsqu'il est tronqu (voir {@link toolbox.Scanner#getFragment(int, int, int)}).
+	 * @param index Position dans les units.
+	 * @param before Nombre d'units  extraire avant la position.
+	 * @param after Nombre d'units  extraire aprs la position.
+	 * @return L'extrait des units.
+	 */
+	final String getFragment(@SuppressWarnings("hiding") int index, int before, int after) {
+		int first;
+		String textBefore;
+		int last;
+		String textAfter;
+
+		if ((index - before) > 0) {
+			first = index - before;
+			textBefore = "...";
+		} else {
+			first = 0;
+			textBefore = "";
+		}
+		if ((index + after) < length) {
+			last = index + after;
+			textAfter = "...";
+		} else {
+			last = length;
+			textAfter = "";
+		}
+		return textBefore + extract(first, last) + textAfter;
+	}
+
+
+
+	/**
+	 * Construit l'lment Json correspondant aux units, qui doivent tre un objet ou un tableau Json, ventuellement prcd de blancs.
+	 * @return L'lment Json.
+	 * @throws JsonException
+	 */
+	final Json parse() throws JsonException {
+		Json json;
+
+		skipWhitespaces();
+		if ((index >= length) || ((unitAt(index) != '{') && (unitAt(index) != '['))) {
+			throw new JsonException("\"{\" ou \"[\" attendu: " + getFragment(index, 0, 10));
+		}
+		json = parseValue();
+		if (index < length) {
+			throw new JsonException("Caractres non attendus: " + getFragment(index, 0, 10));
+		}
+		return json;
+	}
+
+
+
+	/**
+	 * Retourne l'unit  la position indique, sous forme d'entier positif: le caractre, ou l'octet non sign.
+	 * @param position Position (doit tre dans les units).
+	 * @return L'unit  la position indique.
+	 */
+	abstract int unitAt(int position);
+
+
+
+	/**
+	 * Retourne le nombre d'units du blanc non US-ASCII qui commence  la position indique (voir {@link Character#isWhitespace(int)}), ou 0 si ce n'est pas un blanc.
+	 * @param position Position (doit tre dans les units).
+	 * @return Le nombre d'units du blanc, ou 0 si ce n'est pas un blanc.
+	 */
+	abstract int whitespaceLength(int position);
+
+
+
+	/**
+	 * Teste si les units commencent par le mot US-ASCII indiqu  la position courante.
+	 * @param word Mot.
+	 * @return <code>true</code> si les units commencent par le mot indiqu  la position courante, <code>false</code> sinon.
+	 */
+	private boolean isAt(String word) {
+		return ((index + word.length()) <= length) && matches(word, index, index + word.length());
+	}
+
+
+
+	/**
+	 * Teste si l'unit  la position courante est le caractre US-ASCII indiqu.
+	 * @param expectedChar Caractre attendu.
+	 * @return <code>true</code> si l'unit  la position courante est le caractre indiqu, <code>false</code> sinon, ou si la position courante est en dehors des units.
+	 */
+	private boolean isAt(char expectedChar) {
+		return (index < length) && (unitAt(index) == expectedChar);
+	}
+
+
+
+	/**
+	 * Teste si les units US-ASCII indiques forment la chaine indique.
+	 * @param string Chaine.
+	 * @param start Position de la premire unit.
+	 * @param end Position suivant la dernire unit.
+	 * @return <code>true</code> si les units indiques forment la chaine indique, <code>false</code> sinon.
+	 */
+	private boolean matches(String string, int start, int end) {
+		if (string.length() != (end - start)) {
+			return false;
+		}
+		for (int i = start; i < end; i++) {
+			if (unitAt(i) != string.charAt(i - start)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+
+	/**
+	 * Retourne le nom de proprit form des units US-ASCII indiques, en rutilisant si possible le mme nom rencontr prcdemment, les documents volumineux rptant gnralement les mmes noms
+	 * dans tous leurs objets.
+	 * @param start Position de la premire unit du nom.
+	 * @param end Position suivant la dernire unit du nom.
+	 * @return Le nom de proprit.
+	 * @throws JsonException
+	 */
+	private String newName(int start, int end) throws JsonException {
+		int hash = 0;
+		int slot;
+		String name;
+
+		for (int i = start; i < end; i++) {
+			hash = (31 * hash) + unitAt(i);
+		}
+		slot = (hash ^ (hash >>> 16)) & (names.length - 1);
+		if (((name = names[slot]) == null) || !matches(name, start, end)) {
+			name = decode(start, end, true);
+			names[slot] = name;
+		}
+		return name;
+	}
+
+
+
+	/**
+	 * Construit le nombre Json qui commence  la position courante, ou retourne <code>null</code> et laisse la position courante inchange si il n'y en a pas.<br>
+	 * Les nombres sans partie dcimale ni exposant sont des {@link Long}, les autres des {@link Double}. Les entiers d'au plus 18 chiffres sont convertis directement, sans chaine intermdiaire.
+	 * @return Le nombre Json, ou <code>null</code> si il n'y en a pas.
+	 * @throws JsonException
+	 */
+	private JsonNumber parseNumber() throws JsonException {
+		int start = index;
+		int end = index;
+		boolean integer = true;
+		boolean negative = false;
+		int next;
+		long value = 0;
+
+		if ((end < length) && (unitAt(end) == '-')) {
+			negative = true;
+			end++;
+		}
+		if ((end < length) && (unitAt(end) == '0')) {
+			end++;
+		} else if ((end < length) && (unitAt(end) >= '1') && (unitAt(end) <= '9')) {
+			end = skipDigits(end + 1);
+		} else {
+			return null;
+		}
+		if (((end + 1) < length) && (unitAt(end) == '.') && isDigit(unitAt(end + 1))) {
+			end = skipDigits(end + 2);
+			integer = false;
+		}
+		if ((end < length) && ((unitAt(end) == 'e') || (unitAt(end) == 'E'))) {
+			next = end + 1;
+			if ((next < length) && ((unitAt(next) == '-') || (unitAt(next) == '+'))) {
+				next++;
+			}
+			if ((next < length) && isDigit(unitAt(next))) {
+				end = skipDigits(next + 1);
+				integer = false;
+			}
+		}
+		index = end;
+		if (!integer) {
+			return new JsonNumber(Double.valueOf(decode(start, end, true)));
+		} else if ((end - start - (negative ? 1 : 0)) <= 18) {
+			for (int i = negative ? (start + 1) : start; i < end; i++) {
+				value = (value * 10) + (unitAt(i) - '0');
+			}
+			return new JsonNumber(Long.valueOf(negative ? -value : value));
+		} else {
+			return new JsonNumber(Long.valueOf(decode(start, end, true)));
+		}
+	}
+
+
+
+	/**
+	 * Retourne la valeur de la chaine Json qui commence  la position courante, ou retourne <code>null</code> et laisse la position courante inchange si elle est mal forme.<br>
+	 * Les units sont dcodes par suites entre les squences d'chappement. Les noms de proprits US-ASCII sans caractre d'chappement sont partags entre les objets (voir
+	 * {@link #newName(int, int)}).
+	 * @param name <code>true</code> si la chaine est un nom de proprit, <code>false</code> sinon.
+	 * @return La valeur de la chaine Json, ou <code>null</code> si elle est mal forme.
+	 * @throws JsonException Si les units sont mal codes.
+	 */
+	private String parseString(boolean name) throws JsonException {
+		int start = index + 1;
+		int current = start;
+		boolean ascii = true;
+		StringBuilder builder = null;
+		int unit;
+
+		while (current < length) {
+			unit = unitAt(current);
+			if (unit == '"') {
+				index = current + 1;
+				if (builder != null) {
+					return builder.append(decode(start, current, ascii)).toString();
+				} else if (name && ascii) {
+					return newName(start, current);
+				} else {
+					return decode(start, current, ascii);
+				}
+			} else if (unit == '\\') {
+				if (builder == null) {
+					builder = new StringBuilder((current - start) + 16);
+				}
+				builder.append(decode(start, current, ascii));
+				ascii = true;
+				if ((current + 1) >= length) {
+					return null;
+				}
+				switch (unitAt(current + 1)) {
+				case '"':
+					builder.append('"');
+					break;
+				case '/':
+					builder.append('/');
+					break;
+				case 'b':
+					builder.append('\b');
+					break;
+				case 'f':
+					builder.append('\f');
+					break;
+				case 'n':
+					builder.append('\n');
+					break;
+				case 'r':
+					builder.append('\r');
+					break;
+				case 't':
+					builder.append('\t');
+					break;
+				case '\\':
+					builder.append('\\');
+					break;
+				case 'u':
+					if (((current + 6) > length) || !isHexDigit(unitAt(current + 2)) || !isHexDigit(unitAt(current + 3)) || !isHexDigit(unitAt(current + 4)) || !isHexDigit(unitAt(current + 5))) {
+						return null;
+					}
+					builder.append((char) ((Character.digit(unitAt(current + 2), 16) << 12) | (Character.digit(unitAt(current + 3), 16) << 8) | (Character.digit(unitAt(current + 4), 16) << 4) | Character.digit(unitAt(current + 5), 16)));
+					current += 4;
+					break;
+				default:
+					return null;
+				}
+				current += 2;
+				start = current;
+			} else if ((unit >= 0x01) && (unit <= 0x1F)) {
+				return null;
+			} else {
+				if (unit >= 0x80) {
+					ascii = false;
+				}
+				current++;
+			}
+		}
+		return null;
+	}
+
+
+
+	/**
+	 * Construit l'lment Json qui commence  la position courante, aprs d'ventuels blancs.
+	 * @return L'lment Json (<code>null</code> pour le littral <code>null</code>).
+	 * @throws JsonException
+	 */
+	private Json parseValue() throws JsonException {
+		JsonObject jsonObject;
+		JsonArray jsonArray;
+		Json json;
+		String string;
+		String name;
+		int nameIndex;
+
+		skipWhitespaces();
+		if (index < length) {
+			switch (unitAt(index)) {
+			case '{':
+				jsonObject = new JsonObject();
+				index++;
+				skipWhitespaces();
+				if (isAt('}')) {
+					index++;
+					return jsonObject;
+				}
+				for (;;) {
+					nameIndex = index;
+					if (!isAt('"') || ((name = parseString(true)) == null)) {
+						if (!((json = parseValue()) instanceof JsonString)) {
+							throw new JsonException("Nom de proprit Json attendu: " + getFragment(nameIndex, 5, 5));
+						}
+						name = ((JsonString) json).getValue();
+					}
+					if (jsonObject.has(name)) {
+						throw new JsonException("Il a a plusieurs proprits \"" + name + "\" dans le mme objet Json: " + getFragment(nameIndex, 5, 50));
+					}
+					skipWhitespaces();
+					if ((index < length) && (unitAt(index) != ':')) {
+						throw new JsonException("\":\" attendu: " + getFragment(index, 5, 5));
+					}
+					index++;
+					skipWhitespaces();
+					jsonObject.set(name, parseValue());
+					skipWhitespaces();
+					if (isAt(',')) {
+						index++;
+						skipWhitespaces();
+					} else if (isAt('}')) {
+						index++;
+						return jsonObject;
+					} else {
+						throw unexpected("\",\" ou \"}\" attendu: ");
+					}
+				}
+			case '[':
+				jsonArray = new JsonArray();
+				index++;
+				skipWhitespaces();
+				if (isAt(']')) {
+					index++;
+					return jsonArray;
+				}
+				for (;;) {
+					jsonArray.append(parseValue());
+					skipWhitespaces();
+					if (isAt(',')) {
+						index++;
+						skipWhitespaces();
+					} else if (isAt(']')) {
+						index++;
+						return jsonArray;
+					} else {
+						throw unexpected("\",\" ou \"]\" attendu: ");
+					}
+				}
+			case '"':
+				if ((string = parseString(false)) != null) {
+					return new JsonString(string);
+				}
+				break;
+			case 't':
+				if (isAt("true")) {
+					index += 4;
+					return new JsonBoolean(Boolean.TRUE);
+				}
+				break;
+			case 'f':
+				if (isAt("false")) {
+					index += 5;
+					return new JsonBoolean(Boolean.FALSE);
+				}
+				break;
+			case 'n':
+				if (isAt("null")) {
+					index += 4;
+					return null;
+				}
+				break;
+			default:
+				if ((json = parseNumber()) != null) {
+					return json;
+				}
+				break;
+			}
+		}
+		throw unexpected("\",\" ou \"}\" attendu: ");
+	}
+
+
+
+	/**
+	 * Retourne la position de la premire unit qui n'est pas un chiffre  partir de la position indique.
+	 * @param from Position de dpart.
+	 * @return La position de la premire unit qui n'est pas un chiffre.
+	 */
+	private int skipDigits(int from) {
+		int current = from;
+
+		while ((current < length) && isDigit(unitAt(current))) {
+			current++;
+		}
+		return current;
+	}
+
+
+
+	/**
+	 * Avance la position courante jusqu' la premire unit qui n'est pas un blanc (voir {@link Character#isWhitespace(int)}), en ne dcodant que les caractres non US-ASCII.
+	 */
+	private void skipWhitespaces() {
+		int unit;
+		int whitespaceLength;
+
+		while (index < length) {
+			unit = unitAt(index);
+			if (unit < 0x80) {
+				if (!Character.isWhitespace(unit)) {
+					return;
+				}
+				index++;
+			} else if ((whitespaceLength = whitespaceLength(index)) > 0) {
+				index += whitespaceLength;
+			} else {
+				return;
+			}
+		}
+	}
+
+
+
+	/**
+	 * Retourne l'exception signalant le caractre non attendu  la position courante, ou le message indiqu si les units sont termines.
+	 * @param expected Message  utiliser si les units sont termines.
+	 * @return L'exception.
+	 */
+	private JsonException unexpected(String expected) {
+		if (index < length) {
+			return new JsonException("\"" + characterAt(index) + "\" non attendu: " + getFragment(index, 5, 5));
+		} else {
+			return new JsonException(expected + getFragment(index, 5, 5));
+		}
+	}
+
+
+
+	/**
+	 * Teste si l'unit indique est un chiffre dcimal US-ASCII.
+	 * @param unit Unit.
+	 * @return <code>true</code> si l'unit indique est un chiffre dcimal, <code>false</code> sinon.
+	 */
+	private static boolean isDigit(int unit) {
+		return (unit >= '0') && (unit <= '9');
+	}
+
+
+
+	/**
+	 * Teste si l'unit indique est un chiffre hexadcimal US-ASCII.
+	 * @param unit Unit.
+	 * @return <code>true</code> si l'unit indique est un chiffre hexadcimal, <code>false</code> sinon.
+	 */
+	private static boolean isHexDigit(int unit) {
+		return ((unit >= '0') && (unit <= '9')) || ((unit >= 'a') && (unit <= 'f')) || ((unit >= 'A') && (unit <= 'F'));
+	}
+
+
+
+	/**
+	 * Position courante dans les units, qui peut dpasser la fin des units.
+	 */
+	private int index;
+
+
+
+	/**
+	 * Nombre d'units.
+	 */
+	private final int length;
+
+
+
+	/**
+	 * Noms de proprits dj rencontrs, indexs par leur code de hachage.
+	 */
+	private final String[] names = new String[NAME_CACHE_SIZE];
+
+
+
+	/**
+	 * Nombre de noms de proprits mmoriss (doit tre une puissance de 2).
+	 */
+	private static final int NAME_CACHE_SIZE = 256;
+
+
+
+}
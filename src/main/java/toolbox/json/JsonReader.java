@@ -0,0 +1,690 @@
+package toolbox.json;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.util.*;
+
+
+
+/**
+ * La classe {@link JsonReader} lit un document Json au fil de l'eau, sous forme d'une suite d'vnements ({@link JsonEvent}), sans construire l'lment Json correspondant.<br>
+ * Elle permet de traiter des documents plus volumineux que la mmoire disponible, par exemple un tableau de plusieurs millions d'enregistrements, en matrialisant chaque enregistrement l'un aprs
+ * l'autre ({@link #readJson()}) ou en sautant ceux qui ne sont pas utiles ({@link #skip()}). La mmoire utilise ne dpend que de la profondeur du document et de la taille des valeurs
+ * atomiques.<br>
+ * La syntaxe accepte est celle de {@link Json#parse(String)},  deux diffrences prs: le document, qui doit tre un objet ou un tableau ventuellement prcd de blancs, peut aussi tre suivi
+ * de blancs (typiquement la fin de ligne qui termine un fichier), alors que {@link Json#parse(String)} les refuse; et l'unicit des noms de proprits n'est vrifie que pour les objets
+ * matrialiss.<br>
+ * Les messages d'erreur indiquent la position, compte  partir de 0, du caractre en cause dans le document.<br>
+ * Exemple:
+ *
+ * <pre>
+ * try (JsonReader reader = new JsonReader(stream)) {
+ * 	reader.next(); // START_ARRAY
+ * 	while (reader.next() == JsonEvent.START_OBJECT) {
+ * 		process((JsonObject) reader.readJson());
+ * 	}
+ * }
+ * </pre>
+ *
+ * Cette classe n'est pas synchronise.
+ * @author Ludovic WALLE
+ */
+public class JsonReader implements Closeable {
+
+
+
+	/**
+	 * Cre un lecteur de document Json cod en UTF-8.
+	 * @param stream Flux du document Json (ne doit pas tre <code>null</code>).
+	 */
+	public JsonReader(InputStream stream) {
+		this(new InputStreamReader(stream, StandardCharsets.UTF_8));
+	}
+
+
+
+	/**
+	 * @param reader Lecteur du document Json (ne doit pas tre <code>null</code>).
+	 */
+	public JsonReader(Reader reader) {
+		if (reader == null) {
+			throw new NullPointerException();
+		}
+		this.reader = reader;
+	}
+
+
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override public void close() throws IOException {
+		reader.close();
+	}
+
+
+
+	/**
+	 * Retourne la profondeur courante, c'est  dire le nombre d'objets et de tableaux ouverts et pas encore ferms.
+	 * @return La profondeur courante.
+	 */
+	public final int getDepth() {
+		return depth;
+	}
+
+
+
+	/**
+	 * Retourne l'vnement courant.
+	 * @return L'vnement courant, ou <code>null</code> si la lecture n'a pas commenc.
+	 */
+	public final JsonEvent getEvent() {
+		return event;
+	}
+
+
+
+	/**
+	 * Retourne le nom de proprit de l'vnement courant.
+	 * @return Le nom de proprit si l'vnement courant est {@link JsonEvent#NAME}, <code>null</code> sinon.
+	 */
+	public final String getName() {
+		return name;
+	}
+
+
+
+	/**
+	 * Retourne la valeur atomique de l'vnement courant.
+	 * @return La valeur atomique si l'vnement courant est {@link JsonEvent#VALUE} ({@link JsonString}, {@link JsonNumber}, {@link JsonBoolean}, ou <code>null</code> pour le littral
+	 *         <code>null</code>), <code>null</code> sinon.
+	 */
+	public final Json getValue() {
+		return value;
+	}
+
+
+
+	/**
+	 * Lit l'vnement suivant.<br>
+	 * Une fois la fin du document atteinte, cette mthode retourne toujours {@link JsonEvent#END_DOCUMENT}.
+	 * @return L'vnement suivant.
+	 * @throws IOException En cas d'erreur de lecture.
+	 * @throws JsonException Si le document est mal form.
+	 */
+	public final JsonEvent next() throws IOException, JsonException {
+		int c;
+		char closing;
+
+		name = null;
+		value = null;
+		if (event == JsonEvent.END_DOCUMENT) {
+			return event;
+		}
+		c = skipWhitespacesThenPeek();
+		if (depth == 0) {
+			if (event == null) {
+				if ((c != '{') && (c != '[')) {
+					throw error("\"{\" ou \"[\" attendu");
+				}
+				return open(c);
+			} else if (c == -1) {
+				return event = JsonEvent.END_DOCUMENT;
+			} else {
+				throw error("Caractres non attendus");
+			}
+		} else if (event == JsonEvent.NAME) {
+			return readValue(c);
+		} else {
+			closing = (stack[depth - 1] == '{') ? '}' : ']';
+			if (c == closing) {
+				position++;
+				return closeContainer();
+			}
+			if (!first) {
+				if (c != ',') {
+					throw unexpected(c, "\",\" ou \"" + closing + "\" attendu");
+				}
+				position++;
+				c = skipWhitespacesThenPeek();
+			}
+			first = false;
+			if (closing == '}') {
+				return readName(c);
+			} else {
+				return readValue(c);
+			}
+		}
+	}
+
+
+
+	/**
+	 * Matrialise la valeur de l'vnement courant.<br>
+	 * Si l'vnement courant est un dbut d'objet ou de tableau, l'objet ou le tableau est lu jusqu' sa fin, qui devient l'vnement courant. Si l'vnement courant est un nom de proprit, c'est
+	 * la valeur de cette proprit qui est matrialise.
+	 * @return La valeur de l'vnement courant (<code>null</code> pour le littral <code>null</code>).
+	 * @throws IOException En cas d'erreur de lecture.
+	 * @throws JsonException Si le document est mal form.
+	 * @throws IllegalStateException Si l'vnement courant n'a pas de valeur.
+	 */
+	public final Json readJson() throws IOException, JsonException {
+		JsonObject jsonObject;
+		JsonArray jsonArray;
+		@SuppressWarnings("hiding") String name;
+
+		if (event == null) {
+			throw new IllegalStateException("La lecture n'a pas commenc.");
+		}
+		switch (event) {
+		case NAME:
+			next();
+			return readJson();
+		case VALUE:
+			return value;
+		case START_OBJECT:
+			jsonObject = new JsonObject();
+			while (next() != JsonEvent.END_OBJECT) {
+				name = this.name;
+				if (jsonObject.has(name)) {
+					throw error("Il y a plusieurs proprits \"" + name + "\" dans le mme objet Json");
+				}
+				next();
+				jsonObject.set(name, readJson());
+			}
+			return jsonObject;
+		case START_ARRAY:
+			jsonArray = new JsonArray();
+			while (next() != JsonEvent.END_ARRAY) {
+				jsonArray.append(readJson());
+			}
+			return jsonArray;
+		default:
+			throw new IllegalStateException("L'vnement courant n'a pas de valeur: " + event);
+		}
+	}
+
+
+
+	/**
+	 * Saute la valeur de l'vnement courant, sans la matrialiser.<br>
+	 * Si l'vnement courant est un dbut d'objet ou de tableau, l'objet ou le tableau est lu jusqu' sa fin, qui devient l'vnement courant. Si l'vnement courant est un nom de proprit, c'est
+	 * la valeur de cette proprit qui est saute. Sinon, cette mthode ne fait rien.
+	 * @throws IOException En cas d'erreur de lecture.
+	 * @throws JsonException Si le document est mal form.
+	 */
+	public final void skip() throws IOException, JsonException {
+		int target;
+
+		if (event == JsonEvent.NAME) {
+			next();
+		}
+		if ((event == JsonEvent.START_OBJECT) || (event == JsonEvent.START_ARRAY)) {
+			target = depth - 1;
+			while (depth > target) {
+				next();
+			}
+		}
+	}
+
+
+
+	/**
+	 * Ferme l'objet ou le tableau courant.
+	 * @return L'vnement de fin d'objet ou de tableau.
+	 */
+	private JsonEvent closeContainer() {
+		first = false;
+		return event = (stack[--depth] == '{') ? JsonEvent.END_OBJECT : JsonEvent.END_ARRAY;
+	}
+
+
+
+	/**
+	 * S'assure que le tampon contient au moins le nombre indiqu de caractres  partir de la position courante, en le compltant si ncessaire.
+	 * @param count Nombre de caractres (doit tre infrieur ou gal  la taille du tampon).
+	 * @return <code>true</code> si le tampon contient au moins le nombre indiqu de caractres, <code>false</code> si la fin du document est atteinte avant.
+	 * @throws IOException En cas d'erreur de lecture.
+	 */
+	private boolean ensure(int count) throws IOException {
+		int read;
+
+		if ((limit - position) >= count) {
+			return true;
+		}
+		if (position > 0) {
+			System.arraycopy(buffer, position, buffer, 0, limit - position);
+			offset += position;
+			limit -= position;
+			position = 0;
+		}
+		while (limit < count) {
+			if ((read = reader.read(buffer, limit, buffer.length - limit)) < 0) {
+				return false;
+			}
+			limit += read;
+		}
+		return true;
+	}
+
+
+
+	/**
+	 * Retourne l'exception correspondant au message indiqu, complt par la position courante dans le document.
+	 * @param message Message.
+	 * @return L'exception.
+	 */
+	private JsonException error(String message) {
+		return new JsonException(message + " (caractre " + (offset + position) + ")");
+	}
+
+
+
+	/**
+	 * Teste si le document contient le mot indiqu  la position courante, et le passe si c'est le cas.
+	 * @param word Mot.
+	 * @return <code>true</code> si le document contient le mot indiqu  la position courante, <code>false</code> sinon.
+	 * @throws IOException En cas d'erreur de lecture.
+	 */
+	private boolean isAt(String word) throws IOException {
+		if (!ensure(word.length())) {
+			return false;
+		}
+		for (int i = 0; i < word.length(); i++) {
+			if (buffer[position + i] != word.charAt(i)) {
+				return false;
+			}
+		}
+		position += word.length();
+		return true;
+	}
+
+
+
+	/**
+	 * Ouvre un objet ou un tableau.
+	 * @param c Caractre ouvrant (<code>{</code> ou <code>[</code>).
+	 * @return L'vnement de dbut d'objet ou de tableau.
+	 */
+	private JsonEvent open(int c) {
+		if (depth == stack.length) {
+			stack = Arrays.copyOf(stack, depth * 2);
+		}
+		stack[depth++] = (char) c;
+		first = true;
+		position++;
+		return event = (c == '{') ? JsonEvent.START_OBJECT : JsonEvent.START_ARRAY;
+	}
+
+
+
+	/**
+	 * Retourne le caractre  la position courante, sans le passer.
+	 * @param ahead Dcalage par rapport  la position courante (doit tre infrieur  la taille du tampon).
+	 * @return Le caractre, ou -1 si la fin du document est atteinte.
+	 * @throws IOException En cas d'erreur de lecture.
+	 */
+	private int peek(int ahead) throws IOException {
+		if (((position + ahead) < limit) || ensure(ahead + 1)) {
+			return buffer[position + ahead];
+		} else {
+			return -1;
+		}
+	}
+
+
+
+	/**
+	 * Passe les chiffres dcimaux  partir de la position courante, en les ajoutant au constructeur de chaines.
+	 * @throws IOException En cas d'erreur de lecture.
+	 */
+	private void readDigits() throws IOException {
+		int c;
+
+		while (((c = peek(0)) >= '0') && (c <= '9')) {
+			builder.append((char) c);
+			position++;
+		}
+	}
+
+
+
+	/**
+	 * Lit un nom de proprit suivi de <code>:</code>.
+	 * @param c Caractre  la position courante.
+	 * @return L'vnement de nom de proprit.
+	 * @throws IOException En cas d'erreur de lecture.
+	 * @throws JsonException Si le document est mal form.
+	 */
+	private JsonEvent readName(int c) throws IOException, JsonException {
+		@SuppressWarnings("hiding") String name;
+
+		if (c != '"') {
+			throw unexpected(c, "Nom de proprit Json attendu");
+		}
+		name = readString();
+		if ((c = skipWhitespacesThenPeek()) != ':') {
+			throw unexpected(c, "\":\" attendu");
+		}
+		position++;
+		this.name = name;
+		return event = JsonEvent.NAME;
+	}
+
+
+
+	/**
+	 * Lit un nombre. Les nombres sans partie dcimale ni exposant sont des {@link Long}, les autres des {@link Double}.
+	 * @return Le nombre.
+	 * @throws IOException En cas d'erreur de lecture.
+	 * @throws JsonException Si le document est mal form.
+	 */
+	private JsonNumber readNumber() throws IOException, JsonException {
+		boolean integer = true;
+		int c;
+		int signLength;
+
+		builder.setLength(0);
+		if (peek(0) == '-') {
+			builder.append('-');
+			position++;
+		}
+		if ((c = peek(0)) == '0') {
+			builder.append('0');
+			position++;
+		} else if ((c >= '1') && (c <= '9')) {
+			readDigits();
+		} else {
+			throw unexpected(c, "Chiffre attendu");
+		}
+		if ((peek(0) == '.') && isDigit(peek(1))) {
+			builder.append('.');
+			position++;
+			readDigits();
+			integer = false;
+		}
+		if (((c = peek(0)) == 'e') || (c == 'E')) {
+			signLength = ((peek(1) == '-') || (peek(1) == '+')) ? 1 : 0;
+			if (isDigit(peek(1 + signLength))) {
+				builder.append(buffer, position, 1 + signLength);
+				position += 1 + signLength;
+				readDigits();
+				integer = false;
+			}
+		}
+		if (integer) {
+			return new JsonNumber(Long.valueOf(builder.toString()));
+		} else {
+			return new JsonNumber(Double.valueOf(builder.toString()));
+		}
+	}
+
+
+
+	/**
+	 * Lit une chaine, et la dcode.
+	 * @return La valeur de la chaine.
+	 * @throws IOException En cas d'erreur de lecture.
+	 * @throws JsonException Si le document est mal form.
+	 */
+	private String readString() throws IOException, JsonException {
+		int start;
+		char c;
+
+		builder.setLength(0);
+		position++;
+		for (;;) {
+			start = position;
+			while ((position < limit) && ((c = buffer[position]) != '"') && (c != '\\') && ((c < '\u0001') || (c > '\u001F'))) {
+				position++;
+			}
+			builder.append(buffer, start, position - start);
+			if (!ensure(1)) {
+				throw error("Fin de chaine Json attendue");
+			}
+			switch (c = buffer[position]) {
+			case '"':
+				position++;
+				return builder.toString();
+			case '\\':
+				if (!ensure(2)) {
+					throw error("Fin de chaine Json attendue");
+				}
+				switch (buffer[position + 1]) {
+				case '"':
+					builder.append('"');
+					break;
+				case '/':
+					builder.append('/');
+					break;
+				case 'b':
+					builder.append('\b');
+					break;
+				case 'f':
+					builder.append('\f');
+					break;
+				case 'n':
+					builder.append('\n');
+					break;
+				case 'r':
+					builder.append('\r');
+					break;
+				case 't':
+					builder.append('\t');
+					break;
+				case '\\':
+					builder.append('\\');
+					break;
+				case 'u':
+					if (!ensure(6) || !isHexDigit(buffer[position + 2]) || !isHexDigit(buffer[position + 3]) || !isHexDigit(buffer[position + 4]) || !isHexDigit(buffer[position + 5])) {
+						throw error("Squence d'chappement Json invalide");
+					}
+					builder.append((char) ((Character.digit(buffer[position + 2], 16) << 12) | (Character.digit(buffer[position + 3], 16) << 8) | (Character.digit(buffer[position + 4], 16) << 4) | Character.digit(buffer[position + 5], 16)));
+					position += 4;
+					break;
+				default:
+					throw error("Squence d'chappement Json invalide");
+				}
+				position += 2;
+				break;
+			default:
+				if ((c >= '\u0001') && (c <= '\u001F')) {
+					throw error("Caractre de contrle non attendu dans une chaine Json");
+				}
+				break;
+			}
+		}
+	}
+
+
+
+	/**
+	 * Lit une valeur.
+	 * @param c Caractre  la position courante.
+	 * @return L'vnement de valeur atomique, ou de dbut d'objet ou de tableau.
+	 * @throws IOException En cas d'erreur de lecture.
+	 * @throws JsonException Si le document est mal form.
+	 */
+	private JsonEvent readValue(int c) throws IOException, JsonException {
+		switch (c) {
+		case '{':
+		case '[':
+			return open(c);
+		case '"':
+			value = new JsonString(readString());
+			return event = JsonEvent.VALUE;
+		case 't':
+			if (isAt("true")) {
+				value = new JsonBoolean(Boolean.TRUE);
+				return event = JsonEvent.VALUE;
+			}
+			break;
+		case 'f':
+			if (isAt("false")) {
+				value = new JsonBoolean(Boolean.FALSE);
+				return event = JsonEvent.VALUE;
+			}
+			break;
+		case 'n':
+			if (isAt("null")) {
+				return event = JsonEvent.VALUE;
+			}
+			break;
+		default:
+			if ((c == '-') || isDigit(c)) {
+				value = readNumber();
+				return event = JsonEvent.VALUE;
+			}
+			break;
+		}
+		throw unexpected(c, "Valeur Json attendue");
+	}
+
+
+
+	/**
+	 * Passe les blancs (voir {@link Character#isWhitespace(char)})  partir de la position courante.
+	 * @return Le premier caractre qui n'est pas un blanc, ou -1 si la fin du document est atteinte.
+	 * @throws IOException En cas d'erreur de lecture.
+	 */
+	private int skipWhitespacesThenPeek() throws IOException {
+		int c;
+
+		while (((c = peek(0)) != -1) && Character.isWhitespace((char) c)) {
+			position++;
+		}
+		return c;
+	}
+
+
+
+	/**
+	 * Retourne l'exception signalant le caractre non attendu indiqu, ou le message indiqu si la fin du document est atteinte.
+	 * @param c Caractre non attendu, ou -1 si la fin du document est atteinte.
+	 * @param expected Message  utiliser si la fin du document est atteinte.
+	 * @return L'exception.
+	 */
+	private JsonException unexpected(int c, String expected) {
+		if (c == -1) {
+			return error(expected);
+		} else {
+			return error("\"" + (char) c + "\" non attendu");
+		}
+	}
+
+
+
+	/**
+	 * Teste si le caractre indiqu est un chiffre dcimal.
+	 * @param c Caractre, ou -1.
+	 * @return <code>true</code> si le caractre indiqu est un chiffre dcimal, <code>false</code> sinon.
+	 */
+	private static boolean isDigit(int c) {
+		return (c >= '0') && (c <= '9');
+	}
+
+
+
+	/**
+	 * Teste si le caractre indiqu est un chiffre hexadcimal.
+	 * @param c Caractre.
+	 * @return <code>true</code> si le caractre indiqu est un chiffre hexadcimal, <code>false</code> sinon.
+	 */
+	private static boolean isHexDigit(char c) {
+		return ((c >= '0') && (c <= '9')) || ((c >= 'a') && (c <= 'f')) || ((c >= 'A') && (c <= 'F'));
+	}
+
+
+
+	/**
+	 * Tampon de lecture.
+	 */
+	private final char[] buffer = new char[BUFFER_SIZE];
+
+
+
+	/**
+	 * Constructeur des chaines et des nombres en cours de lecture.
+	 */
+	private final StringBuilder builder = new StringBuilder();
+
+
+
+	/**
+	 * Profondeur courante.
+	 */
+	private int depth = 0;
+
+
+
+	/**
+	 * vnement courant, ou <code>null</code> si la lecture n'a pas commenc.
+	 */
+	private JsonEvent event = null;
+
+
+
+	/**
+	 * Indicateur d'objet ou de tableau courant encore vide.
+	 */
+	private boolean first;
+
+
+
+	/**
+	 * Nombre de caractres du tampon valides.
+	 */
+	private int limit = 0;
+
+
+
+	/**
+	 * Nom de proprit de l'vnement courant, ou <code>null</code>.
+	 */
+	private String name = null;
+
+
+
+	/**
+	 * Position dans le document du premier caractre du tampon.
+	 */
+	private long offset = 0;
+
+
+
+	/**
+	 * Position courante dans le tampon.
+	 */
+	private int position = 0;
+
+
+
+	/**
+	 * Lecteur du document Json.
+	 */
+	private final Reader reader;
+
+
+
+	/**
+	 * Caractres ouvrants (<code>{</code> ou <code>[</code>) des objets et tableaux ouverts.
+	 */
+	private char[] stack = new char[16];
+
+
+
+	/**
+	 * Valeur atomique de l'vnement courant, ou <code>null</code>.
+	 */
+	private Json value = null;
+
+
+
+	/**
+	 * Taille du tampon de lecture.
+	 */
+	private static final int BUFFER_SIZE = 8192;
+
+
+
+}
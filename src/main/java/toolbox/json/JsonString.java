@@ -1,5 +1,7 @@
 package toolbox.json;
 
+import java.io.*;
+
 
 
 /**
@@ -87,11 +89,13 @@ public class JsonString extends JsonAtomic {
 	/**
 	 * {@inheritDoc} Les # doivent tre encods pour viter les interfrences avec les templates Kendo.
 	 */
-	@Override public String serialize(String indentation) {
+	@Override protected void write(Appendable appendable, String indentation, int depth) throws IOException {
 		if (value != null) {
-			return "\"" + encode(value) + "\"";
+			appendable.append('"');
+			encode(appendable, value);
+			appendable.append('"');
 		} else {
-			return "null";
+			appendable.append("null");
 		}
 	}
 
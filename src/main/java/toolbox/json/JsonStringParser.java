@@ -0,0 +1,75 @@
+package toolbox.json;
+
+
+
+/**
+ * La classe {@link JsonStringParser} construit l'lment Json correspondant  une chaine (voir {@link JsonParser}). Les units sont les caractres de la chaine.
+ * @author Ludovic WALLE
+ */
+final class JsonStringParser extends JsonParser {
+
+
+
+	/**
+	 * @param string lment Json srialis (ne doit pas tre <code>null</code>).
+	 */
+	JsonStringParser(String string) {
+		super(0, string.length());
+		this.chars = string.toCharArray();
+	}
+
+
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override String characterAt(int position) {
+		return String.valueOf(chars[position]);
+	}
+
+
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override String decode(int start, int end, boolean ascii) {
+		return new String(chars, start, end - start);
+	}
+
+
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override String extract(int first, int last) {
+		return new String(chars, first, last - first);
+	}
+
+
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override int unitAt(int position) {
+		return chars[position];
+	}
+
+
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override int whitespaceLength(int position) {
+		return Character.isWhitespace(chars[position]) ? 1 : 0;
+	}
+
+
+
+	/**
+	 * Caractres de l'lment Json srialis.
+	 */
+	private final char[] chars;
+
+
+
+}
@@ -0,0 +1,193 @@
+package toolbox.json;
+
+import java.nio.*;
+import java.nio.charset.*;
+
+
+
+/**
+ * La classe {@link JsonUtf8Parser} construit l'lment Json correspondant  des octets cods en UTF-8 (voir {@link JsonParser}), sans dcoder au pralable l'ensemble des octets en chaine: seul le
+ * contenu des chaines Json est dcod, au moment o elles sont construites. Les dlimiteurs, les littraux et les nombres Json tant tous US-ASCII, ils sont reconnus directement sur les octets, qui
+ * peuvent rester dans un {@link MappedByteBuffer}.<br>
+ * Une marque d'ordre des octets (BOM) en tte des octets est ignore. Les chaines Json contenant des octets qui ne sont pas de l'UTF-8 valide sont rejetes.<br>
+ * Les messages d'erreur sont ceux de {@link JsonStringParser}, les positions et les extraits tant compts en octets plutt qu'en caractres, ce qui ne fait une diffrence que pour les documents
+ * contenant des caractres non US-ASCII.
+ * @author Ludovic WALLE
+ */
+final class JsonUtf8Parser extends JsonParser {
+
+
+
+	/**
+	 * @param bytes Octets de l'lment Json srialis, de la position  la limite du tampon (ne doit pas tre <code>null</code>). La position du tampon n'est pas modifie.
+	 */
+	JsonUtf8Parser(ByteBuffer bytes) {
+		super(getByteOrderMarkLength(bytes), bytes.remaining());
+		this.bytes = bytes.slice();
+	}
+
+
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override String characterAt(int position) {
+		return new String(Character.toChars(codePointAt(position)));
+	}
+
+
+
+	/**
+	 * {@inheritDoc}<br>
+	 * Les octets sont dcods directement en US-ASCII si ils le sont tous, en UTF-8 sinon.
+	 */
+	@Override String decode(int start, int end, boolean ascii) throws JsonException {
+		String string = decodeLeniently(start, end, ascii ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+		ByteBuffer in;
+
+		if (!ascii && (string.indexOf(REPLACEMENT_CHARACTER) >= 0)) {
+			in = bytes.duplicate();
+			in.limit(end).position(start);
+			decoder.reset();
+			if (decoder.decode(in, CharBuffer.allocate(end - start), true).isError() || decoder.flush(CharBuffer.allocate(0)).isError()) {
+				throw new JsonException("Octets UTF-8 mal forms: " + getFragment(in.position(), 5, 5));
+			}
+		}
+		return string;
+	}
+
+
+
+	/**
+	 * {@inheritDoc}<br>
+	 * Les limites de l'extrait sont tendues pour ne pas couper de caractre cod sur plusieurs octets, et les octets mal forms sont remplacs par {@link #REPLACEMENT_CHARACTER}.
+	 */
+	@Override String extract(int first, int last) {
+		int start = first;
+		int end = last;
+
+		while ((start < end) && isContinuation(bytes.get(start))) {
+			start++;
+		}
+		while ((end < bytes.limit()) && isContinuation(bytes.get(end))) {
+			end++;
+		}
+		return decodeLeniently(start, end, StandardCharsets.UTF_8);
+	}
+
+
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override int unitAt(int position) {
+		return bytes.get(position) & 0xFF;
+	}
+
+
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override int whitespaceLength(int position) {
+		int codePoint = codePointAt(position);
+
+		if (!Character.isWhitespace(codePoint)) {
+			return 0;
+		} else {
+			return (codePoint < 0x800) ? 2 : (codePoint < 0x10000) ? 3 : 4;
+		}
+	}
+
+
+
+	/**
+	 * Retourne le caractre Unicode qui commence  la position indique.
+	 * @param position Position du premier octet du caractre (doit tre dans les octets).
+	 * @return Le caractre Unicode ({@link #REPLACEMENT_CHARACTER} si il est mal cod).
+	 */
+	private int codePointAt(int position) {
+		return decodeLeniently(position, Math.min(position + 4, bytes.limit()), StandardCharsets.UTF_8).codePointAt(0);
+	}
+
+
+
+	/**
+	 * Dcode les octets indiqus, en remplaant les octets mal forms par {@link #REPLACEMENT_CHARACTER}.
+	 * @param start Position du premier octet.
+	 * @param end Position suivant le dernier octet.
+	 * @param charset Jeu de caractres.
+	 * @return La chaine dcode.
+	 */
+	private String decodeLeniently(int start, int end, Charset charset) {
+		if (bytes.hasArray()) {
+			return new String(bytes.array(), bytes.arrayOffset() + start, end - start, charset);
+		}
+		if (scratch.length < (end - start)) {
+			scratch = new byte[Math.max(end - start, scratch.length * 2)];
+		}
+		for (int i = start; i < end; i++) {
+			scratch[i - start] = bytes.get(i);
+		}
+		return new String(scratch, 0, end - start, charset);
+	}
+
+
+
+	/**
+	 * Retourne la longueur de la marque d'ordre des octets (BOM) UTF-8 qui commence  la position du tampon indiqu, ou 0 si il n'y en a pas.
+	 * @param bytes Octets.
+	 * @return La longueur de la marque d'ordre des octets, ou 0 si il n'y en a pas.
+	 */
+	private static int getByteOrderMarkLength(@SuppressWarnings("hiding") ByteBuffer bytes) {
+		int position = bytes.position();
+
+		if ((bytes.remaining() >= 3) && (bytes.get(position) == (byte) 0xEF) && (bytes.get(position + 1) == (byte) 0xBB) && (bytes.get(position + 2) == (byte) 0xBF)) {
+			return 3;
+		} else {
+			return 0;
+		}
+	}
+
+
+
+	/**
+	 * Teste si l'octet indiqu est un octet de continuation UTF-8.
+	 * @param b Octet.
+	 * @return <code>true</code> si l'octet indiqu est un octet de continuation UTF-8, <code>false</code> sinon.
+	 */
+	private static boolean isContinuation(byte b) {
+		return (b & 0xC0) == 0x80;
+	}
+
+
+
+	/**
+	 * Octets de l'lment Json srialis, de la position 0  la limite du tampon.
+	 */
+	private final ByteBuffer bytes;
+
+
+
+	/**
+	 * Dcodeur UTF-8 strict, pour vrifier les chaines contenant des caractres de remplacement.
+	 */
+	private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+
+
+
+	/**
+	 * Tampon de copie des octets  dcoder, lorsque les octets ne sont pas dans un tableau.
+	 */
+	private byte[] scratch = new byte[256];
+
+
+
+	/**
+	 * Caractre de remplacement des octets mal forms.
+	 */
+	private static final char REPLACEMENT_CHARACTER = '\uFFFD';
+
+
+
+}
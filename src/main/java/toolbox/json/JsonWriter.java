@@ -0,0 +1,564 @@
+package toolbox.json;
+
+import java.io.*;
+import java.util.*;
+
+
+
+/**
+ * La classe {@link JsonWriter} crit un document Json au fil de l'eau, sans construire l'lment Json correspondant.<br>
+ * Elle permet par exemple  une servlet de produire une rponse de plusieurs millions d'enregistrements en mmoire constante. Le document est crit sans prsentation, et le rsultat est identique
+ *  celui de {@link Json#serialize()} pour le mme contenu,  condition d'crire les proprits de chaque objet dans l'ordre alphabtique de leurs noms, puisque c'est l'ordre dans lequel
+ * {@link JsonObject} les srialise.<br>
+ * Comme pour {@link Json#serialize()}, les caractres dont le code est suprieur ou gal  128 sont cods en <code>&#92;uXXXX</code>: le document ne contient que des caractres US-ASCII, et
+ * est donc crit tel quel, en UTF-8, dans un {@link OutputStream}.<br>
+ * L'criture est tamponne: les caractres ne sont transmis  la destination que lorsque le tampon est plein, ou lors des appels  {@link #flush()} et {@link #close()}.<br>
+ * L'ordre des appels est vrifi (nom de proprit avant chaque valeur dans un objet, objets et tableaux correctement ferms, une seule valeur racine, rien aprs la fermeture), et une
+ * {@link IllegalStateException} est gnre si il n'est pas respect, y compris par {@link #close()} si le document n'est pas termin.<br>
+ * Exemple:
+ *
+ * <pre>
+ * try (JsonWriter writer = new JsonWriter(response.getOutputStream())) {
+ * 	writer.beginArray();
+ * 	while (resultSet.next()) {
+ * 		writer.beginObject().name("id").value(resultSet.getLong(1)).name("title").value(resultSet.getString(2)).endObject();
+ * 	}
+ * 	writer.endArray();
+ * }
+ * </pre>
+ *
+ * Cette classe n'est pas synchronise.
+ * @author Ludovic WALLE
+ */
+public class JsonWriter implements Closeable, Flushable {
+
+
+
+	/**
+	 * Cre un gnrateur de document Json cod en UTF-8.
+	 * @param stream Flux de destination (ne doit pas tre <code>null</code>).
+	 */
+	public JsonWriter(OutputStream stream) {
+		if (stream == null) {
+			throw new NullPointerException();
+		}
+		this.stream = stream;
+		this.writer = null;
+		this.bytes = new byte[BUFFER_SIZE];
+	}
+
+
+
+	/**
+	 * @param writer Destination (ne doit pas tre <code>null</code>).
+	 */
+	public JsonWriter(Writer writer) {
+		if (writer == null) {
+			throw new NullPointerException();
+		}
+		this.stream = null;
+		this.writer = writer;
+		this.bytes = null;
+	}
+
+
+
+	/**
+	 * Commence un tableau.
+	 * @return Ce gnrateur, pour pouvoir chainer les appels.
+	 * @throws IOException En cas d'erreur d'criture.
+	 */
+	public JsonWriter beginArray() throws IOException {
+		return begin('[');
+	}
+
+
+
+	/**
+	 * Commence un objet.
+	 * @return Ce gnrateur, pour pouvoir chainer les appels.
+	 * @throws IOException En cas d'erreur d'criture.
+	 */
+	public JsonWriter beginObject() throws IOException {
+		return begin('{');
+	}
+
+
+
+	/**
+	 * Vide le tampon puis ferme la destination.<br>
+	 * Le document n'est pas complt si il n'est pas termin, mais une {@link IllegalStateException} est alors gnre, une fois la destination ferme. Les appels suivants ne font rien.
+	 * @throws IOException En cas d'erreur d'criture.
+	 * @throws IllegalStateException Si le document n'est pas termin.
+	 */
+	@Override public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			flushBuffer();
+		} finally {
+			if (writer != null) {
+				writer.close();
+			} else {
+				stream.close();
+			}
+		}
+		if (!done) {
+			throw new IllegalStateException((depth > 0) ? "Le document n'est pas termin: " + depth + " objet(s) ou tableau(x) non termin(s)." : "Le document est vide.");
+		}
+	}
+
+
+
+	/**
+	 * Termine le tableau courant.
+	 * @return Ce gnrateur, pour pouvoir chainer les appels.
+	 * @throws IOException En cas d'erreur d'criture.
+	 */
+	public JsonWriter endArray() throws IOException {
+		return end('[');
+	}
+
+
+
+	/**
+	 * Termine l'objet courant.
+	 * @return Ce gnrateur, pour pouvoir chainer les appels.
+	 * @throws IOException En cas d'erreur d'criture.
+	 */
+	public JsonWriter endObject() throws IOException {
+		return end('{');
+	}
+
+
+
+	/**
+	 * Vide le tampon puis la destination.
+	 * @throws IOException En cas d'erreur d'criture.
+	 */
+	@Override public void flush() throws IOException {
+		flushBuffer();
+		if (writer != null) {
+			writer.flush();
+		} else {
+			stream.flush();
+		}
+	}
+
+
+
+	/**
+	 * Retourne la profondeur courante, c'est  dire le nombre d'objets et de tableaux commencs et pas encore termins.
+	 * @return La profondeur courante.
+	 */
+	public final int getDepth() {
+		return depth;
+	}
+
+
+
+	/**
+	 * crit un nom de proprit de l'objet courant, qui doit tre suivi de sa valeur.
+	 * @param name Nom de proprit (ne doit pas tre <code>null</code>).
+	 * @return Ce gnrateur, pour pouvoir chainer les appels.
+	 * @throws IOException En cas d'erreur d'criture.
+	 */
+	public JsonWriter name(String name) throws IOException {
+		if (name == null) {
+			throw new NullPointerException();
+		} else if (closed) {
+			throw new IllegalStateException("Le gnrateur est ferm.");
+		} else if ((depth == 0) || (stack[depth - 1] != '{')) {
+			throw new IllegalStateException("Nom de proprit en dehors d'un objet: " + name);
+		} else if (named) {
+			throw new IllegalStateException("Valeur attendue avant le nom de proprit: " + name);
+		}
+		if (!first) {
+			output.append(',');
+		}
+		first = false;
+		output.append('"');
+		Json.encode(output, name);
+		output.append("\":");
+		named = true;
+		return this;
+	}
+
+
+
+	/**
+	 * crit la valeur <code>null</code>.
+	 * @return Ce gnrateur, pour pouvoir chainer les appels.
+	 * @throws IOException En cas d'erreur d'criture.
+	 */
+	public JsonWriter nullValue() throws IOException {
+		beforeValue();
+		output.append("null");
+		afterValue();
+		return this;
+	}
+
+
+
+	/**
+	 * crit un boolen.
+	 * @param value Valeur.
+	 * @return Ce gnrateur, pour pouvoir chainer les appels.
+	 * @throws IOException En cas d'erreur d'criture.
+	 */
+	public JsonWriter value(boolean value) throws IOException {
+		beforeValue();
+		output.append(value ? "true" : "false");
+		afterValue();
+		return this;
+	}
+
+
+
+	/**
+	 * crit un boolen.
+	 * @param value Valeur (peut tre <code>null</code>).
+	 * @return Ce gnrateur, pour pouvoir chainer les appels.
+	 * @throws IOException En cas d'erreur d'criture.
+	 */
+	public JsonWriter value(Boolean value) throws IOException {
+		return (value == null) ? nullValue() : value(value.booleanValue());
+	}
+
+
+
+	/**
+	 * crit un nombre, comme un {@link JsonNumber} contenant un {@link Double}.
+	 * @param value Valeur.
+	 * @return Ce gnrateur, pour pouvoir chainer les appels.
+	 * @throws IOException En cas d'erreur d'criture.
+	 */
+	public JsonWriter value(double value) throws IOException {
+		beforeValue();
+		output.append(Double.toString(value));
+		afterValue();
+		return this;
+	}
+
+
+
+	/**
+	 * crit un lment Json dj construit, par exemple un enregistrement lu par un {@link JsonReader}.
+	 * @param value lment Json (peut tre <code>null</code>).
+	 * @return Ce gnrateur, pour pouvoir chainer les appels.
+	 * @throws IOException En cas d'erreur d'criture.
+	 */
+	public JsonWriter value(Json value) throws IOException {
+		beforeValue();
+		Json.write(output, value, null, 0);
+		afterValue();
+		return this;
+	}
+
+
+
+	/**
+	 * crit un nombre, comme un {@link JsonNumber} contenant un {@link Long}.
+	 * @param value Valeur.
+	 * @return Ce gnrateur, pour pouvoir chainer les appels.
+	 * @throws IOException En cas d'erreur d'criture.
+	 */
+	public JsonWriter value(long value) throws IOException {
+		beforeValue();
+		output.append(Long.toString(value));
+		afterValue();
+		return this;
+	}
+
+
+
+	/**
+	 * crit un nombre.
+	 * @param value Valeur (peut tre <code>null</code>).
+	 * @return Ce gnrateur, pour pouvoir chainer les appels.
+	 * @throws IOException En cas d'erreur d'criture.
+	 */
+	public JsonWriter value(Number value) throws IOException {
+		beforeValue();
+		output.append((value != null) ? value.toString() : "null");
+		afterValue();
+		return this;
+	}
+
+
+
+	/**
+	 * crit une chaine.
+	 * @param value Valeur (peut tre <code>null</code>).
+	 * @return Ce gnrateur, pour pouvoir chainer les appels.
+	 * @throws IOException En cas d'erreur d'criture.
+	 */
+	public JsonWriter value(String value) throws IOException {
+		beforeValue();
+		if (value != null) {
+			output.append('"');
+			Json.encode(output, value);
+			output.append('"');
+		} else {
+			output.append("null");
+		}
+		afterValue();
+		return this;
+	}
+
+
+
+	/**
+	 * Met  jour l'tat du gnrateur aprs l'criture d'une valeur.
+	 */
+	private void afterValue() {
+		first = false;
+		done = depth == 0;
+	}
+
+
+
+	/**
+	 * Vrifie qu'une valeur peut tre crite, et crit le sparateur qui la prcde si ncessaire.
+	 * @throws IOException En cas d'erreur d'criture.
+	 */
+	private void beforeValue() throws IOException {
+		if (closed) {
+			throw new IllegalStateException("Le gnrateur est ferm.");
+		} else if (done) {
+			throw new IllegalStateException("Le document est dj termin.");
+		} else if (depth > 0) {
+			if (stack[depth - 1] == '{') {
+				if (!named) {
+					throw new IllegalStateException("Nom de proprit attendu avant la valeur.");
+				}
+				named = false;
+			} else if (!first) {
+				output.append(',');
+			}
+		}
+	}
+
+
+
+	/**
+	 * Commence un objet ou un tableau.
+	 * @param c Caractre ouvrant (<code>{</code> ou <code>[</code>).
+	 * @return Ce gnrateur, pour pouvoir chainer les appels.
+	 * @throws IOException En cas d'erreur d'criture.
+	 */
+	private JsonWriter begin(char c) throws IOException {
+		beforeValue();
+		if (depth == stack.length) {
+			stack = Arrays.copyOf(stack, depth * 2);
+		}
+		stack[depth++] = c;
+		output.append(c);
+		first = true;
+		return this;
+	}
+
+
+
+	/**
+	 * Termine un objet ou un tableau.
+	 * @param c Caractre ouvrant (<code>{</code> ou <code>[</code>) de l'objet ou du tableau  terminer.
+	 * @return Ce gnrateur, pour pouvoir chainer les appels.
+	 * @throws IOException En cas d'erreur d'criture.
+	 */
+	private JsonWriter end(char c) throws IOException {
+		if (closed) {
+			throw new IllegalStateException("Le gnrateur est ferm.");
+		} else if ((depth == 0) || (stack[depth - 1] != c)) {
+			throw new IllegalStateException((c == '{') ? "Pas d'objet  terminer." : "Pas de tableau  terminer.");
+		} else if (named) {
+			throw new IllegalStateException("Valeur attendue avant la fin de l'objet.");
+		}
+		depth--;
+		output.append((c == '{') ? '}' : ']');
+		afterValue();
+		return this;
+	}
+
+
+
+	/**
+	 * Transmet le contenu du tampon  la destination.
+	 * @throws IOException En cas d'erreur d'criture.
+	 */
+	private void flushBuffer() throws IOException {
+		if (count > 0) {
+			if (writer != null) {
+				writer.write(buffer, 0, count);
+			} else {
+				for (int i = 0; i < count; i++) {
+					bytes[i] = (byte) buffer[i];
+				}
+				stream.write(bytes, 0, count);
+			}
+			count = 0;
+		}
+	}
+
+
+
+	/**
+	 * Tampon d'criture.
+	 */
+	private final char[] buffer = new char[BUFFER_SIZE];
+
+
+
+	/**
+	 * Tampon de conversion en octets, ou <code>null</code> si la destination est un {@link Writer}.
+	 */
+	private final byte[] bytes;
+
+
+
+	/**
+	 * Indicateur de gnrateur ferm.
+	 */
+	private boolean closed = false;
+
+
+
+	/**
+	 * Nombre de caractres du tampon d'criture.
+	 */
+	private int count = 0;
+
+
+
+	/**
+	 * Profondeur courante.
+	 */
+	private int depth = 0;
+
+
+
+	/**
+	 * Indicateur de document termin.
+	 */
+	private boolean done = false;
+
+
+
+	/**
+	 * Indicateur d'objet ou de tableau courant encore vide.
+	 */
+	private boolean first = false;
+
+
+
+	/**
+	 * Indicateur de nom de proprit crit, en attente de sa valeur.
+	 */
+	private boolean named = false;
+
+
+
+	/**
+	 * Vue du tampon d'criture utilise par la srialisation.
+	 */
+	private final Output output = new Output();
+
+
+
+	/**
+	 * Caractres ouvrants (<code>{</code> ou <code>[</code>) des objets et tableaux commencs.
+	 */
+	private char[] stack = new char[16];
+
+
+
+	/**
+	 * Flux de destination, ou <code>null</code> si la destination est un {@link Writer}.
+	 */
+	private final OutputStream stream;
+
+
+
+	/**
+	 * Destination, ou <code>null</code> si la destination est un {@link OutputStream}.
+	 */
+	private final Writer writer;
+
+
+
+	/**
+	 * Taille des tampons.
+	 */
+	private static final int BUFFER_SIZE = 8192;
+
+
+
+	/**
+	 * La classe {@link Output} permet d'crire dans le tampon d'criture sans synchronisation, comme dans tout autre {@link Appendable}.
+	 * @author Ludovic WALLE
+	 */
+	private class Output implements Appendable {
+
+
+
+		/**	 */
+		public Output() {}
+
+
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override public Output append(char c) throws IOException {
+			if (count == buffer.length) {
+				flushBuffer();
+			}
+			buffer[count++] = c;
+			return this;
+		}
+
+
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override public Output append(CharSequence sequence) throws IOException {
+			return append(sequence, 0, sequence.length());
+		}
+
+
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override public Output append(CharSequence sequence, int start, int end) throws IOException {
+			int from = start;
+			int length;
+
+			while (from < end) {
+				if (count == buffer.length) {
+					flushBuffer();
+				}
+				length = Math.min(end - from, buffer.length - count);
+				if (sequence instanceof String) {
+					((String) sequence).getChars(from, from + length, buffer, count);
+				} else {
+					for (int i = 0; i < length; i++) {
+						buffer[count + i] = sequence.charAt(from + i);
+					}
+				}
+				count += length;
+				from += length;
+			}
+			return this;
+		}
+
+
+
+	}
+
+
+
+}
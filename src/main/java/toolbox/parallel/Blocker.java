@@ -0,0 +1,97 @@
+package toolbox.parallel;
+
+import java.util.concurrent.*;
+import java.util.concurrent.locks.*;
+
+
+
+/**
+ * La classe {@link Blocker} implmente l'attente d'une condition par un ouvrier, qui prvient le {@link ForkJoinPool} dans lequel il est ventuellement excut (voir
+ * {@link Enterprise#Enterprise(String, int, Missionner, Worker, ExecutorService)}) qu'il est bloqu.<br>
+ * Le pool peut alors activer un thread de compensation pour excuter d'autres tches pendant l'attente. Sans cela, un pool partag par plusieurs entreprises, par exemple les tages d'un
+ * {@link Pipeline}, resterait bloqu si tous ses threads excutaient des ouvriers attendant des missions que seuls des ouvriers en attente d'un thread pourraient produire.<br>
+ * En dehors d'un {@link ForkJoinPool}, l'attente est une simple attente de la condition. C'est aussi le cas  partir de Java 14, o les conditions des verrous de
+ * {@link java.util.concurrent.locks} prviennent elles mmes le pool, pour ne pas activer deux threads de compensation pour une mme attente.
+ * @author Ludovic WALLE
+ */
+final class Blocker implements ForkJoinPool.ManagedBlocker {
+
+
+
+	/**
+	 * @param condition Condition  attendre.
+	 */
+	private Blocker(Condition condition) {
+		this.condition = condition;
+	}
+
+
+
+	/**
+	 * {@inheritDoc}<br>
+	 * L'attente n'est faite qu'une fois, l'appelant testant lui mme si il doit attendre  nouveau.
+	 */
+	@Override public boolean block() throws InterruptedException {
+		condition.await();
+		return true;
+	}
+
+
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override public boolean isReleasable() {
+		return false;
+	}
+
+
+
+	/**
+	 * Attend que la condition indique soit signale, en prvenant le {@link ForkJoinPool} dans lequel le thread courant est ventuellement excut.<br>
+	 * Cette mthode est bloquante, et doit tre appele en dtenant le verrou de la condition, comme {@link Condition#await()}.
+	 * @param condition Condition  attendre.
+	 * @throws InterruptedException Si l'attente est interrompue.
+	 */
+	static void await(Condition condition) throws InterruptedException {
+		if (!MANAGED_BY_CONDITIONS && (Thread.currentThread() instanceof ForkJoinWorkerThread)) {
+			ForkJoinPool.managedBlock(new Blocker(condition));
+		} else {
+			condition.await();
+		}
+	}
+
+
+
+	/**
+	 * Condition  attendre.
+	 */
+	private final Condition condition;
+
+
+
+	/**
+	 * Indicateur que les conditions des verrous de {@link java.util.concurrent.locks} prviennent elles mmes le {@link ForkJoinPool} de leurs attentes (Java 14 ou plus).
+	 */
+	private static final boolean MANAGED_BY_CONDITIONS;
+
+
+
+	/**
+	 * Dterminer la version de Java.
+	 */
+	static {
+		String version = System.getProperty("java.specification.version", "1.8");
+		int major;
+
+		try {
+			major = version.startsWith("1.") ? Integer.parseInt(version.substring(2)) : Integer.parseInt(version.replaceFirst("\\..*", ""));
+		} catch (NumberFormatException exception) {
+			major = 8;
+		}
+		MANAGED_BY_CONDITIONS = major >= 14;
+	}
+
+
+
+}
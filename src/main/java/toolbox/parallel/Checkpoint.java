@@ -0,0 +1,305 @@
+package toolbox.parallel;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+
+
+
+/**
+ * La classe {@link Checkpoint} implmente un point de reprise, qui mmorise les missions termines par une entreprise dans un fichier local, pour qu'une excution ultrieure puisse ne pas les
+ * refaire.<br>
+ * Les missions sont identifies par leur rang dans la suite des missions prpares par le distributeur, numrot  partir de 0. La reprise n'a donc de sens que si le distributeur prpare les
+ * missions dans le mme ordre d'une excution  l'autre.<br>
+ * Les ouvriers terminant les missions dans le dsordre, le point de reprise est constitu d'un rang plancher, en dessous duquel toutes les missions sont termines, et de l'ensemble des rangs des
+ * missions termines au del, qui reste petit puisqu'il est limit aux missions termines en avance sur d'autres. Il est enregistr priodiquement, ainsi qu' la fin de l'entreprise, dans un
+ * fichier texte contenant le rang plancher sur la premire ligne, puis un rang de mission termine au del par ligne. L'enregistrement passe par un fichier temporaire renomm ensuite, pour que le
+ * fichier reste utilisable si le programme s'arrte brutalement pendant l'criture.<br>
+ * Lors de la reprise, le distributeur saute les missions dj termines: il saute en une seule fois celles en dessous du rang plancher (voir {@link Missionner#delegateSkip(long)}), puis carte
+ * une  une les missions dj termines au del. Les missions distribues gardent des numros d'ordre conscutifs, ce qui permet d'utiliser un {@link Receiver} ordonn, mais l'ordre ne porte alors
+ * que sur les missions effectues lors de cette excution.<br>
+ * Une mission est considre comme termine ds que l'ouvrier l'a effectue. Si ses rsultats sont transmis  un {@link Receiver}, ceux qui n'ont pas encore t traits par celui ci lors d'un arrt
+ * brutal sont perdus.<br>
+ * Le point de reprise est indiqu  l'entreprise par {@link Enterprise#setCheckpoint(Checkpoint)}, et ne doit tre utilis que par une seule entreprise.
+ * @author Ludovic WALLE
+ */
+public class Checkpoint {
+
+
+
+	/**
+	 * Cre un point de reprise enregistr dans le fichier indiqu, en reprenant son contenu si il existe.
+	 * @param file Fichier d'enregistrement (ne doit pas tre <code>null</code>).
+	 * @param savePeriod Priode d'enregistrement, en millisecondes (doit tre strictement positive).
+	 * @throws IOException En cas d'erreur de lecture du fichier existant.
+	 */
+	public Checkpoint(File file, long savePeriod) throws IOException {
+		String line;
+		long index;
+
+		if (file == null) {
+			throw new NullPointerException();
+		} else if (savePeriod <= 0) {
+			throw new IllegalArgumentException("La priode d'enregistrement doit tre strictement positive: " + savePeriod);
+		}
+		this.file = file;
+		this.savePeriod = savePeriod;
+		if (file.exists()) {
+			try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.US_ASCII)) {
+				if ((line = reader.readLine()) != null) {
+					base = lowWaterMark = Long.parseLong(line.trim());
+				}
+				while ((line = reader.readLine()) != null) {
+					if (!(line = line.trim()).isEmpty()) {
+						if ((index = Long.parseLong(line)) < lowWaterMark) {
+							throw new IOException("Rang de mission termine infrieur au rang plancher dans " + file + ": " + index);
+						}
+						completed.set(toBit(index));
+					}
+				}
+			} catch (NumberFormatException exception) {
+				throw new IOException("Point de reprise invalide: " + file, exception);
+			}
+			advance();
+		}
+		resumedLowWaterMark = lowWaterMark;
+		nextSaveTime = System.currentTimeMillis() + savePeriod;
+	}
+
+
+
+	/**
+	 * Retourne le fichier d'enregistrement.
+	 * @return Le fichier d'enregistrement.
+	 */
+	public final File getFile() {
+		return file;
+	}
+
+
+
+	/**
+	 * Retourne le rang plancher, en dessous duquel toutes les missions sont termines.
+	 * @return Le rang plancher.
+	 */
+	public final synchronized long getLowWaterMark() {
+		return lowWaterMark;
+	}
+
+
+
+	/**
+	 * Retourne le nombre de missions termines au del du rang plancher.
+	 * @return Le nombre de missions termines au del du rang plancher.
+	 */
+	public final synchronized int getPendingCount() {
+		return completed.get((int) (lowWaterMark - base), Math.max((int) (lowWaterMark - base), completed.length())).cardinality();
+	}
+
+
+
+	/**
+	 * Teste si la mission dont le rang est indiqu est termine.
+	 * @param index Rang de la mission.
+	 * @return <code>true</code> si la mission est termine, <code>false</code> sinon.
+	 */
+	public final synchronized boolean isDone(long index) {
+		return (index < lowWaterMark) || (((index - base) <= Integer.MAX_VALUE) && completed.get((int) (index - base)));
+	}
+
+
+
+	/**
+	 * Enregistre le point de reprise dans son fichier.
+	 * @throws IOException En cas d'erreur d'criture.
+	 */
+	public final synchronized void save() throws IOException {
+		File temporary = new File(file.getPath() + ".tmp");
+
+		try (BufferedWriter writer = Files.newBufferedWriter(temporary.toPath(), StandardCharsets.US_ASCII)) {
+			writer.write(Long.toString(lowWaterMark));
+			writer.newLine();
+			for (int bit = completed.nextSetBit((int) (lowWaterMark - base)); bit >= 0; bit = completed.nextSetBit(bit + 1)) {
+				writer.write(Long.toString(base + bit));
+				writer.newLine();
+			}
+		}
+		Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		nextSaveTime = System.currentTimeMillis() + savePeriod;
+	}
+
+
+
+	/**
+	 * Signale que les missions dont les numros d'ordre commencent  celui indiqu sont termines, et enregistre le point de reprise si la priode d'enregistrement est coule.<br>
+	 * Cette mthode est appele par les ouvriers.
+	 * @param sequence Numro d'ordre de la premire mission.
+	 * @param count Nombre de missions, de numros d'ordre conscutifs.
+	 * @throws IOException En cas d'erreur d'enregistrement.
+	 */
+	final synchronized void collectDone(long sequence, int count) throws IOException {
+		Map.Entry<Long, Long> floor;
+
+		Long floorSequence;
+
+		for (long current = sequence; current < (sequence + count); current++) {
+			floor = offsets.floorEntry(current);
+			completed.set(toBit(floor.getValue() + (current - floor.getKey())));
+			doneSequences.set((int) (current - sequenceBase));
+		}
+		advance();
+		sequenceMark = sequenceBase + doneSequences.nextClearBit((int) (sequenceMark - sequenceBase));
+		if ((floorSequence = offsets.floorKey(sequenceMark)) != null) {
+			offsets.headMap(floorSequence, false).clear();
+		}
+		if ((sequenceMark - sequenceBase) >= COMPACTION_THRESHOLD) {
+			doneSequences = doneSequences.get((int) (sequenceMark - sequenceBase), Math.max((int) (sequenceMark - sequenceBase), doneSequences.length()));
+			sequenceBase = sequenceMark;
+		}
+		if (System.currentTimeMillis() >= nextSaveTime) {
+			save();
+		}
+	}
+
+
+
+	/**
+	 * Mmorise le rang de la mission qui reoit le numro d'ordre indiqu.<br>
+	 * Cette mthode est appele par le distributeur de missions, dans l'ordre des numros d'ordre, pour chaque mission place dans son tampon. Seules les discontinuits sont mmorises, et elles sont
+	 * oublies ds que toutes les missions concernes sont termines.
+	 * @param sequence Numro d'ordre de la mission.
+	 * @param index Rang de la mission.
+	 */
+	final synchronized void collectPrepared(long sequence, long index) {
+		Map.Entry<Long, Long> floor;
+
+		if (((floor = offsets.floorEntry(sequence)) == null) || ((floor.getValue() + (sequence - floor.getKey())) != index)) {
+			offsets.put(sequence, index);
+		}
+	}
+
+
+
+	/**
+	 * Retourne le rang plancher lu dans le fichier lors de la cration du point de reprise, c'est  dire le nombre de missions que le distributeur peut sauter en une seule fois.
+	 * @return Le rang plancher lu dans le fichier.
+	 */
+	final long getResumedLowWaterMark() {
+		return resumedLowWaterMark;
+	}
+
+
+
+	/**
+	 * Fait avancer le rang plancher au del des missions termines conscutives, et compacte l'ensemble des missions termines au del quand il s'est suffisamment dcal.
+	 */
+	private void advance() {
+		lowWaterMark = base + completed.nextClearBit((int) (lowWaterMark - base));
+		if ((lowWaterMark - base) >= COMPACTION_THRESHOLD) {
+			completed = completed.get((int) (lowWaterMark - base), Math.max((int) (lowWaterMark - base), completed.length()));
+			base = lowWaterMark;
+		}
+	}
+
+
+
+	/**
+	 * Retourne l'indice dans {@link #completed} du rang indiqu.
+	 * @param index Rang (doit tre suprieur ou gal  {@link #base}).
+	 * @return L'indice dans {@link #completed} du rang indiqu.
+	 */
+	private int toBit(long index) {
+		if ((index - base) > Integer.MAX_VALUE) {
+			throw new IllegalStateException("Trop de missions termines au del du rang plancher: " + index + " pour un rang plancher de " + lowWaterMark);
+		}
+		return (int) (index - base);
+	}
+
+
+
+	/**
+	 * Rang correspondant au premier bit de {@link #completed}.
+	 */
+	private long base = 0;
+
+
+
+	/**
+	 * Missions termines,  partir du rang {@link #base}.
+	 */
+	private BitSet completed = new BitSet();
+
+
+
+	/**
+	 * Missions termines lors de cette excution, par numro d'ordre,  partir du numro d'ordre {@link #sequenceBase}.
+	 */
+	private BitSet doneSequences = new BitSet();
+
+
+
+	/**
+	 * Fichier d'enregistrement.
+	 */
+	private final File file;
+
+
+
+	/**
+	 * Rang plancher, en dessous duquel toutes les missions sont termines.
+	 */
+	private long lowWaterMark = 0;
+
+
+
+	/**
+	 * Date du prochain enregistrement, en millisecondes.
+	 */
+	private long nextSaveTime;
+
+
+
+	/**
+	 * Rangs des missions, par numro d'ordre  partir duquel ils se suivent.
+	 */
+	private final TreeMap<Long, Long> offsets = new TreeMap<>();
+
+
+
+	/**
+	 * Rang plancher lu dans le fichier lors de la cration du point de reprise.
+	 */
+	private final long resumedLowWaterMark;
+
+
+
+	/**
+	 * Priode d'enregistrement, en millisecondes.
+	 */
+	private final long savePeriod;
+
+
+
+	/**
+	 * Numro d'ordre correspondant au premier bit de {@link #doneSequences}.
+	 */
+	private long sequenceBase = 0;
+
+
+
+	/**
+	 * Numro d'ordre en dessous duquel toutes les missions distribues lors de cette excution sont termines.
+	 */
+	private long sequenceMark = 0;
+
+
+
+	/**
+	 * Dcalage du rang plancher  partir duquel l'ensemble des missions termines au del est compact.
+	 */
+	private static final int COMPACTION_THRESHOLD = 1 << 16;
+
+
+
+}
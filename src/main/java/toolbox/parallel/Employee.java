@@ -1,6 +1,7 @@
 package toolbox.parallel;
 
 import java.util.*;
+import java.util.concurrent.locks.*;
 
 
 
@@ -97,7 +98,8 @@ abstract class Employee<M extends Mission> extends Thread {
 	 * @param enterprise Entreprise qui embauche l'employ (ne doit pas tre <code>null</code>).
 	 */
 	protected final void hiredBy(@SuppressWarnings("hiding") Enterprise<M> enterprise) {
-		synchronized (enterpriseLock) {
+		enterpriseLock.lock();
+		try {
 			if (enterprise == null) {
 				throw new NullPointerException();
 			} else if (this.enterprise != null) {
@@ -106,6 +108,8 @@ abstract class Employee<M extends Mission> extends Thread {
 				this.enterprise = enterprise;
 				this.enterprise.collectExceptions(getExceptions());
 			}
+		} finally {
+			enterpriseLock.unlock();
 		}
 	}
 
@@ -136,9 +140,9 @@ abstract class Employee<M extends Mission> extends Thread {
 
 
 	/**
-	 * Verrou pour l'entreprise.
+	 * Verrou pour l'entreprise, propre  chaque employ.
 	 */
-	private final Object enterpriseLock = "";
+	private final ReentrantLock enterpriseLock = new ReentrantLock();
 
 
 
@@ -1,6 +1,10 @@
 package toolbox.parallel;
 
+import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.*;
 
 
 
@@ -10,8 +14,28 @@ import java.util.*;
  * La concurrence ventuelle entre des traitements excuts simultanment doit tre gre  l'intrieur de ces traitements, et leur ordonancement ne doit pas avoir d'importance.<br>
  * Le traitement se lance par {@link #start()} pour une excution asynchrone, ou par {@link #run()} pour une excution synchrone. Il se termine lorsque tous les objets on t traits ou par un appel 
  * {@link #forbidForeverNewMissionsStart()}. Il peut tre suspendu par un appel  {@link #postponeNewMissionsStart()} et repris par un appel  {@link #allowNewMissionsStart()}. Le nombre de threads
- * peut tre ajust dynamiquement en cours de traitement par un appel  {@link #setWishedWorkersCount(int)}.<br>
- * L'entreprise s'arrte dfinitivement ds qu'une exception est collecte.
+ * peut tre ajust dynamiquement en cours de traitement par un appel  {@link #setWishedWorkersCount(int)}, ou confi  un {@link Manager} par un appel  {@link #setManager(Manager, long)}.<br>
+ * L'entreprise s'arrte dfinitivement ds qu'une exception est collecte.<br>
+ * <br>
+ * Par dfaut, chaque ouvrier est un {@link Thread} dmarr par l'entreprise. Si un {@link ExecutorService} est fourni au constructeur (par exemple un {@link ForkJoinPool} partag par
+ * plusieurs entreprises), les ouvriers y sont soumis en tant que {@link Runnable} et s'excutent dans les threads de celui ci, qui n'est jamais arrt par l'entreprise.<br>
+ * Un ouvrier occupe son thread tant qu'il travaille, y compris lorsqu'il attend une mission, de la place dans le tampon du rceptionnaire, ou la reprise des missions. Dans un {@link ForkJoinPool},
+ * ces attentes sont signales au pool (voir {@link ForkJoinPool.ManagedBlocker}), qui active si ncessaire des threads de compensation: un pool dimensionn sur le nombre de processeurs peut ainsi
+ * tre partag par plusieurs entreprises, ou par les tages d'un {@link Pipeline}, sans interblocage. Les autres services doivent disposer d'au moins autant de threads que le nombre total
+ * d'ouvriers des entreprises qui les partagent. Pour un {@link ThreadPoolExecutor}, l'entreprise refuse un nombre d'ouvriers souhait suprieur  son nombre de threads.<br>
+ * Pour des missions passant l'essentiel de leur temps  attendre des entres/sorties (JDBC, HTTP, ...), le service retourn par {@link #newVirtualThreadExecutor()} excute chaque ouvrier dans un
+ * thread virtuel  partir de Java 21, ce qui permet d'en employer des centaines sans mobiliser autant de threads systme. Avec une version antrieure, il excute chaque ouvrier dans un thread systme.<br>
+ * <br>
+ * Les compteurs de missions termines et de rsultats sont des {@link LongAdder}, que les ouvriers incrmentent sans se synchroniser entre eux, et l'entreprise n'est rveille que lors des
+ * changements d'tat (ouvrier dmarr ou fini, exception, nombre d'ouvriers souhait modifi, ...), pas  chaque mission termine. Les statistiques de chaque ouvrier ({@link Worker#getDoneCount()},
+ * {@link Worker#getBusyTime()}, {@link Worker#getIdleTime()}) permettent de reprer ceux qui sont  la traine.<br>
+ * Les histogrammes des dures de prparation des missions par le distributeur ({@link #getProductionLatencies()}), d'attente des missions par les ouvriers ({@link #getWaitLatencies()}) et
+ * d'excution des missions ({@link #getExecutionLatencies()}) permettent de savoir si un traitement lent est limit par le distributeur, par la transmission des missions, ou par les ouvriers. Leur
+ * enregistrement est assez peu couteux pour tre toujours actif.<br>
+ * Un point de reprise ({@link Checkpoint}), indiqu par {@link #setCheckpoint(Checkpoint)}, permet de ne pas refaire les missions dj termines lors d'une excution prcdente interrompue.<br>
+ * Une politique de traitement des checs de missions ({@link MissionPolicy}), indique par {@link #setMissionPolicy(MissionPolicy)}, permet de ne pas arrter l'entreprise pour une mission qui
+ * choue ou ne se termine pas: dlai imparti  chaque mission, surveill par un chien de garde, nouvelles tentatives, et mise en quarantaine des missions qui chouent systmatiquement.<br>
+ * Un limiteur de dbit ({@link RateLimiter}), indiqu par {@link #setRateLimiter(RateLimiter)}, limite le nombre de missions distribues par seconde plus finement que le nombre d'ouvriers.
  * @author Ludovic WALLE
  * @param <M> Type des missions.
  **/
@@ -37,6 +61,20 @@ public class Enterprise<M extends Mission> extends Thread {
 	 * @param stemWorker Ouvrier (ne doit pas tre <code>null</code>).
 	 */
 	public Enterprise(String name, int wishedWorkerCount, Missionner<M> missionner, Worker<M> stemWorker) {
+		this(name, wishedWorkerCount, missionner, stemWorker, null);
+	}
+
+
+
+	/**
+	 * @param name Nom de l'entreprise.
+	 * @param wishedWorkerCount Nombre d'ouvriers souhaits (doit tre positif ou nul).
+	 * @param missionner Distributeur de missions (ne doit pas tre <code>null</code>).
+	 * @param stemWorker Ouvrier (ne doit pas tre <code>null</code>).
+	 * @param executor Service d'excution des ouvriers, ou <code>null</code> pour que chaque ouvrier soit excut dans son propre thread. Si c'est un {@link ThreadPoolExecutor}, il doit disposer
+	 *            d'au moins autant de threads que le nombre d'ouvriers souhait.
+	 */
+	public Enterprise(String name, int wishedWorkerCount, Missionner<M> missionner, Worker<M> stemWorker, ExecutorService executor) {
 		super(name);
 		if (wishedWorkerCount <= 0) {
 			throw new IllegalArgumentException("Le nombre d'ouvriers souhait doit tre strictement positif: " + wishedWorkerCount);
@@ -44,11 +82,13 @@ public class Enterprise<M extends Mission> extends Thread {
 		if ((missionner == null) || (stemWorker == null)) {
 			throw new NullPointerException();
 		}
+		checkThreadCount(executor, wishedWorkerCount);
 		missionner.hiredBy(this);
 		stemWorker.hiredBy(this);
 		this.wishedWorkerCount = wishedWorkerCount;
 		this.missionner = missionner;
 		this.stemWorker = stemWorker;
+		this.executor = executor;
 		setDaemon(true);
 	}
 
@@ -58,18 +98,35 @@ public class Enterprise<M extends Mission> extends Thread {
 	 * Autorise le dmarrage de nouvelles missions.
 	 */
 	public final void allowNewMissionsStart() {
-		synchronized (newMissionsLock) {
+		newMissionsLock.lock();
+		try {
 			switch (newMissions) {
 			case POSTPONNED:
 				newMissions = NewMissions.ALLOWED;
 				startTime = System.currentTimeMillis();
+				newMissionsNotPostponed.signalAll();
 				//$FALL-THROUGH$
 			case ALLOWED:
 			case FORBIDDEN:
 			}
+		} finally {
+			newMissionsLock.unlock();
 		}
-		synchronized (enterpriseLock) {
-			enterpriseLock.notifyAll();
+		signalStateChanged();
+	}
+
+
+
+	/**
+	 * Signale au point de reprise, si il y en a un, que les missions dont les numros d'ordre commencent  celui indiqu sont termines.<br>
+	 * Cette mthode sera appele par les ouvriers  chaque fois qu'ils ont fini une mission ou un lot de missions.
+	 * @param sequence Numro d'ordre de la premire mission.
+	 * @param count Nombre de missions, de numros d'ordre conscutifs.
+	 * @throws IOException En cas d'erreur d'enregistrement du point de reprise.
+	 */
+	final void collectCheckpointed(long sequence, int count) throws IOException {
+		if (checkpoint != null) {
+			checkpoint.collectDone(sequence, count);
 		}
 	}
 
@@ -85,13 +142,27 @@ public class Enterprise<M extends Mission> extends Thread {
 		if (count < 0) {
 			throw new IllegalArgumentException("Le nombre de rsultats d'une mission doit tre positif ou nul: " + count);
 		}
-		synchronized (doneLock) {
-			lastDone = mission;
-			doneCount++;
-			producedCount += count;
+		lastDone = mission;
+		doneCount.increment();
+		producedCount.add(count);
+	}
+
+
+
+	/**
+	 * Signale que les missions indiques sont termines avec le nombre total de rsultats indiqu.<br>
+	 * Cette mthode sera appele par les ouvriers  chaque fois qu'ils ont fini un lot de missions.
+	 * @param missions Missions, dans l'ordre dans lequel elles ont t effectues.
+	 * @param count Nombre total de rsultats.
+	 */
+	protected final void collectDone(List<M> missions, int count) {
+		if (count < 0) {
+			throw new IllegalArgumentException("Le nombre de rsultats d'un lot de missions doit tre positif ou nul: " + count);
 		}
-		synchronized (enterpriseLock) {
-			enterpriseLock.notifyAll();
+		if (!missions.isEmpty()) {
+			lastDone = missions.get(missions.size() - 1);
+			doneCount.add(missions.size());
+			producedCount.add(count);
 		}
 	}
 
@@ -107,9 +178,7 @@ public class Enterprise<M extends Mission> extends Thread {
 				this.exceptions.add(exception);
 			}
 		}
-		synchronized (enterpriseLock) {
-			enterpriseLock.notifyAll();
-		}
+		signalStateChanged();
 	}
 
 
@@ -120,13 +189,36 @@ public class Enterprise<M extends Mission> extends Thread {
 	 * @param worker Ouvrier qui a fini de travailler.
 	 */
 	protected final void collectFinished(Worker<M> worker) {
-		synchronized (workersLock) {
+		workersLock.lock();
+		try {
+			finishedExecutionLatencies.add(worker.getExecutionLatencies());
+			finishedWaitLatencies.add(worker.getWaitLatencies());
 			activeWorkers.remove(worker);
 			dismissedWorkers.remove(worker);
+		} finally {
+			workersLock.unlock();
 		}
-		synchronized (enterpriseLock) {
-			enterpriseLock.notifyAll();
-		}
+		signalStateChanged();
+	}
+
+
+
+	/**
+	 * Signale qu'une mission a t mise en quarantaine.<br>
+	 * Cette mthode sera appele par les ouvriers  chaque fois qu'ils mettent une mission en quarantaine.
+	 */
+	final void collectQuarantined() {
+		quarantinedCount.increment();
+	}
+
+
+
+	/**
+	 * Signale qu'une mission qui a chou va tre retente.<br>
+	 * Cette mthode sera appele par les ouvriers  chaque fois qu'ils retentent une mission.
+	 */
+	final void collectRetried() {
+		retriedCount.increment();
 	}
 
 
@@ -136,9 +228,7 @@ public class Enterprise<M extends Mission> extends Thread {
 	 * Cette mthode sera appele par les ouvriers quand ils commencent  travailler.
 	 */
 	protected final void collectStarted() {
-		synchronized (enterpriseLock) {
-			enterpriseLock.notifyAll();
-		}
+		signalStateChanged();
 	}
 
 
@@ -147,7 +237,8 @@ public class Enterprise<M extends Mission> extends Thread {
 	 * Interdit dfinitivement le dmarrage de nouvelle mission.
 	 */
 	public final void forbidForeverNewMissionsStart() {
-		synchronized (newMissionsLock) {
+		newMissionsLock.lock();
+		try {
 			switch (newMissions) {
 			case ALLOWED:
 				previouslyElapsedTime += System.currentTimeMillis() - startTime;
@@ -155,10 +246,14 @@ public class Enterprise<M extends Mission> extends Thread {
 			case POSTPONNED:
 				missionner.stopDispensing();
 				newMissions = NewMissions.FORBIDDEN;
+				newMissionsNotPostponed.signalAll();
 				//$FALL-THROUGH$
 			case FORBIDDEN:
 			}
+		} finally {
+			newMissionsLock.unlock();
 		}
+		signalStateChanged();
 	}
 
 
@@ -174,6 +269,16 @@ public class Enterprise<M extends Mission> extends Thread {
 
 
 
+	/**
+	 * Retourne le point de reprise, ou <code>null</code> si il n'y en a pas.
+	 * @return Le point de reprise, ou <code>null</code> si il n'y en a pas.
+	 */
+	public final Checkpoint getCheckpoint() {
+		return checkpoint;
+	}
+
+
+
 	/**
 	 * Retourne le nombre d'ouvriers licencis finissant leur dernire mission.<br>
 	 * Cette mthode est non bloquante.
@@ -191,7 +296,7 @@ public class Enterprise<M extends Mission> extends Thread {
 	 * @return Le nombre de missions termines.
 	 */
 	public final int getDoneCount() {
-		return doneCount;
+		return (int) doneCount.sum();
 	}
 
 
@@ -208,6 +313,31 @@ public class Enterprise<M extends Mission> extends Thread {
 
 
 
+	/**
+	 * Retourne l'histogramme des dures d'excution de chaque mission (ou lot de missions), tous ouvriers confondus.<br>
+	 * Cette mthode est non bloquante.
+	 * @return L'histogramme des dures d'excution de chaque mission (ou lot de missions).
+	 */
+	public final Histogram getExecutionLatencies() {
+		Histogram latencies;
+
+		workersLock.lock();
+		try {
+			latencies = new Histogram(finishedExecutionLatencies);
+			for (Worker<M> worker : activeWorkers) {
+				latencies.add(worker.getExecutionLatencies());
+			}
+			for (Worker<M> worker : dismissedWorkers) {
+				latencies.add(worker.getExecutionLatencies());
+			}
+		} finally {
+			workersLock.unlock();
+		}
+		return latencies;
+	}
+
+
+
 	/**
 	 * Retourne les exceptions rencontres par l'entreprise.<br>
 	 * Si aucune exception n'a t rencontre, la mthode retourne un tableau vide, jamais <code>null</code>.<br>
@@ -255,6 +385,7 @@ public class Enterprise<M extends Mission> extends Thread {
 
 	/**
 	 * Retourne le dernire mission termine.<br>
+	 * Lorsque plusieurs ouvriers terminent des missions simultanment, il s'agit de l'une des dernires missions termines.<br>
 	 * Cette mthode est non bloquante.
 	 * @return Le dernire mission termine.
 	 */
@@ -264,6 +395,16 @@ public class Enterprise<M extends Mission> extends Thread {
 
 
 
+	/**
+	 * Retourne la politique de traitement des checs de missions, ou <code>null</code> si il n'y en a pas.
+	 * @return La politique de traitement des checs de missions, ou <code>null</code> si il n'y en a pas.
+	 */
+	public final MissionPolicy<M> getMissionPolicy() {
+		return missionPolicy;
+	}
+
+
+
 	/**
 	 * Retourne la mission suivante, ou <code>null</code> si il n'y en a plus.<br>
 	 * Cette mthode sera appele par les ouvriers.<br>
@@ -271,32 +412,170 @@ public class Enterprise<M extends Mission> extends Thread {
 	 * @return La mission suivante, ou <code>null</code> si il n'y en a plus.
 	 */
 	public final M getNext() {
+		return getNext(null);
+	}
+
+
+
+	/**
+	 * Retourne la mission suivante, ou <code>null</code> si il n'y en a plus, en communiquant son numro d'ordre  l'ouvrier indiqu.<br>
+	 * Cette mthode est bloquante, et attend qu'une mission soit disponible, ou qu'il n'y en ait plus  distribuer.
+	 * @param worker Ouvrier auquel la mission est distribue, ou <code>null</code> si il n'est pas connu.
+	 * @return La mission suivante, ou <code>null</code> si il n'y en a plus.
+	 */
+	final M getNext(Worker<M> worker) {
 		M next = null;
 
-		synchronized (newMissionsLock) {
-			while (newMissions == NewMissions.POSTPONNED) {
-				try {
-					newMissionsLock.wait();
-				} catch (InterruptedException exception) {
-					collectExceptions(exception);
-				}
+		@SuppressWarnings("hiding") RateLimiter rateLimiter = this.rateLimiter;
+
+		waitWhileNewMissionsPostponed();
+		if ((next = missionner.getNext(worker)) != null) {
+			if (startTime == -1) {
+				startTime = System.currentTimeMillis();
+			}
+			if (rateLimiter != null) {
+				rateLimiter.acquire(1);
 			}
-		}
-		if (((next = missionner.getNext()) != null) && (startTime == -1)) {
-			startTime = System.currentTimeMillis();
 		}
 		return next;
 	}
 
 
 
+	/**
+	 * Retourne au plus le nombre indiqu de missions suivantes, ou une liste vide si il n'y en a plus.<br>
+	 * Cette mthode sera appele par les ouvriers travaillant par lots.<br>
+	 * Cette mthode est bloquante, et attend qu'au moins une mission soit disponible, ou qu'il n'y en ait plus  distribuer.
+	 * @param maxCount Nombre maximal de missions  retourner (doit tre strictement positif).
+	 * @return Les missions suivantes, ou une liste vide si il n'y en a plus, jamais <code>null</code>.
+	 */
+	public final List<M> getNextBatch(int maxCount) {
+		return getNextBatch(maxCount, null);
+	}
+
+
+
+	/**
+	 * Retourne au plus le nombre indiqu de missions suivantes, ou une liste vide si il n'y en a plus, en communiquant le numro d'ordre de la premire d'entre elles  l'ouvrier indiqu.<br>
+	 * Cette mthode est bloquante, et attend qu'au moins une mission soit disponible, ou qu'il n'y en ait plus  distribuer.
+	 * @param maxCount Nombre maximal de missions  retourner (doit tre strictement positif).
+	 * @param worker Ouvrier auquel les missions sont distribues, ou <code>null</code> si il n'est pas connu.
+	 * @return Les missions suivantes, ou une liste vide si il n'y en a plus, jamais <code>null</code>.
+	 */
+	final List<M> getNextBatch(int maxCount, Worker<M> worker) {
+		@SuppressWarnings("hiding") RateLimiter rateLimiter = this.rateLimiter;
+		List<M> batch;
+
+		waitWhileNewMissionsPostponed();
+		if (!(batch = missionner.getNextBatch(maxCount, worker)).isEmpty()) {
+			if (startTime == -1) {
+				startTime = System.currentTimeMillis();
+			}
+			if (rateLimiter != null) {
+				rateLimiter.acquire(batch.size());
+			}
+		}
+		return batch;
+	}
+
+
+
 	/**
 	 * Retourne le nombre de rsultats des missions termines.<br>
 	 * Cette mthode est non bloquante.
 	 * @return Le nombre de rsultats des missions termines.
 	 */
 	public final int getProducedCount() {
-		return producedCount;
+		return (int) producedCount.sum();
+	}
+
+
+
+	/**
+	 * Retourne l'histogramme des dures de prparation des missions par le distributeur.<br>
+	 * Cette mthode est non bloquante.
+	 * @return L'histogramme des dures de prparation des missions par le distributeur.
+	 */
+	public final Histogram getProductionLatencies() {
+		return missionner.getProductionLatencies();
+	}
+
+
+
+	/**
+	 * Retourne le nombre de missions mises en quarantaine.<br>
+	 * Cette mthode est non bloquante.
+	 * @return Le nombre de missions mises en quarantaine.
+	 */
+	public final int getQuarantinedCount() {
+		return (int) quarantinedCount.sum();
+	}
+
+
+
+	/**
+	 * Retourne le limiteur de dbit, ou <code>null</code> si il n'y en a pas.
+	 * @return Le limiteur de dbit, ou <code>null</code> si il n'y en a pas.
+	 */
+	public final RateLimiter getRateLimiter() {
+		return rateLimiter;
+	}
+
+
+
+	/**
+	 * Retourne le rceptionnaire des rsultats des missions, ou <code>null</code> si il n'y en a pas.
+	 * @return Le rceptionnaire des rsultats des missions, ou <code>null</code> si il n'y en a pas.
+	 */
+	public final Receiver<M, ?> getReceiver() {
+		return receiver;
+	}
+
+
+
+	/**
+	 * Retourne le nombre de nouvelles tentatives de missions qui avaient chou.<br>
+	 * Cette mthode est non bloquante.
+	 * @return Le nombre de nouvelles tentatives de missions qui avaient chou.
+	 */
+	public final int getRetriedCount() {
+		return (int) retriedCount.sum();
+	}
+
+
+
+	/**
+	 * Retourne l'histogramme des dures d'attente de chaque mission (ou lot de missions) par les ouvriers, tous ouvriers confondus.<br>
+	 * Cette mthode est non bloquante.
+	 * @return L'histogramme des dures d'attente de chaque mission (ou lot de missions) par les ouvriers.
+	 */
+	public final Histogram getWaitLatencies() {
+		Histogram latencies;
+
+		workersLock.lock();
+		try {
+			latencies = new Histogram(finishedWaitLatencies);
+			for (Worker<M> worker : activeWorkers) {
+				latencies.add(worker.getWaitLatencies());
+			}
+			for (Worker<M> worker : dismissedWorkers) {
+				latencies.add(worker.getWaitLatencies());
+			}
+		} finally {
+			workersLock.unlock();
+		}
+		return latencies;
+	}
+
+
+
+	/**
+	 * Retourne le nombre d'ouvriers souhait.<br>
+	 * Cette mthode est non bloquante.
+	 * @return Le nombre d'ouvriers souhait.
+	 */
+	public final int getWishedWorkerCount() {
+		return wishedWorkerCount;
 	}
 
 
@@ -307,13 +586,36 @@ public class Enterprise<M extends Mission> extends Thread {
 	 * @return Le nombre d'ouvriers (actifs ou licencis).
 	 */
 	public final int getWorkerCount() {
-		synchronized (workersLock) {
+		workersLock.lock();
+		try {
 			return activeWorkers.size() + dismissedWorkers.size();
+		} finally {
+			workersLock.unlock();
 		}
 	}
 
 
 
+	/**
+	 * Retourne les ouvriers (actifs ou licencis), qui donnent accs  leurs statistiques individuelles. Les ouvriers qui ont fini de travailler n'en font plus partie.<br>
+	 * Cette mthode est non bloquante.
+	 * @return Une copie de la liste des ouvriers (actifs ou licencis).
+	 */
+	public final List<Worker<M>> getWorkers() {
+		List<Worker<M>> workers = new ArrayList<>();
+
+		workersLock.lock();
+		try {
+			workers.addAll(activeWorkers);
+			workers.addAll(dismissedWorkers);
+		} finally {
+			workersLock.unlock();
+		}
+		return workers;
+	}
+
+
+
 	/**
 	 * Teste si l'entreprise a ferm.<br>
 	 * L'entreprise ferme si toutes les missions ont t effectues, ou si il y eu une exception ou une interruption explicite par {@link Enterprise#forbidForeverNewMissionsStart()}.<br>
@@ -336,11 +638,38 @@ public class Enterprise<M extends Mission> extends Thread {
 
 
 
+	/**
+	 * Retourne un nouveau service d'excution crant un thread virtuel par ouvrier, destin  tre pass au constructeur
+	 * {@link #Enterprise(String, int, Missionner, Worker, ExecutorService)}.<br>
+	 * Les threads virtuels n'existent qu' partir de Java 21. Le service est obtenu par introspection pour que cette classe reste utilisable avec les versions antrieures, sans avoir  livrer un jar
+	 * multi-version. Avec une version antrieure, le service retourn cre  la place un thread systme (dmon) par ouvrier, en rutilisant ceux des ouvriers qui ont fini de travailler:
+	 * l'entreprise emploie alors autant de threads systme que d'ouvriers, comme sans service d'excution.<br>
+	 * Le service n'est pas arrt par l'entreprise, c'est  l'appelant de le faire.
+	 * @return Un nouveau service d'excution crant un thread virtuel par ouvrier, ou  dfaut un thread systme par ouvrier.
+	 */
+	public static ExecutorService newVirtualThreadExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (NoSuchMethodException exception) {
+			return Executors.newCachedThreadPool(runnable -> {
+				Thread thread = new Thread(runnable);
+
+				thread.setDaemon(true);
+				return thread;
+			});
+		} catch (ReflectiveOperationException exception) {
+			throw new RuntimeException(exception);
+		}
+	}
+
+
+
 	/**
 	 * Interdit temporairement le dmarrage de nouvelle mission.
 	 */
 	public final void postponeNewMissionsStart() {
-		synchronized (newMissionsLock) {
+		newMissionsLock.lock();
+		try {
 			switch (newMissions) {
 			case ALLOWED:
 				previouslyElapsedTime += System.currentTimeMillis() - startTime;
@@ -349,6 +678,8 @@ public class Enterprise<M extends Mission> extends Thread {
 			case POSTPONNED:
 			case FORBIDDEN:
 			}
+		} finally {
+			newMissionsLock.unlock();
 		}
 	}
 
@@ -360,18 +691,40 @@ public class Enterprise<M extends Mission> extends Thread {
 	@Override public void run() {
 		Worker<M> worker;
 		Vector<Worker<M>> remainingWorkers;
+		Thread watchdog = null;
 		boolean wait;
 
 		try {
+			if (missionPolicy != null) {
+				watchdog = new Thread(this::watch, getName() + "Watchdog");
+				watchdog.setDaemon(true);
+				watchdog.start();
+			}
+			if ((receiver != null) && receiver.isOrdered()) {
+				missionner.setOrderWindow(receiver.getCapacity());
+			}
 			missionner.start();
+			if (receiver != null) {
+				receiver.start();
+			}
 			allowNewMissionsStart();
 			while ((newMissions != NewMissions.FORBIDDEN) && missionner.hasNext() && !hasExceptions()) {
-				synchronized (workersLock) {
+				if ((manager != null) && (System.currentTimeMillis() >= nextManagementTime)) {
+					setWishedWorkersCount(manager.adjustWishedWorkerCount(this, wishedWorkerCount));
+					nextManagementTime = System.currentTimeMillis() + managementPeriod;
+				}
+				workersLock.lock();
+				try {
 					wait = false;
 					if (wishedWorkerCount > (activeWorkers.size() + dismissedWorkers.size())) {
 						worker = stemWorker.newOne();
-						activeWorkers.add(worker);
-						worker.start();
+						if (executor == null) {
+							activeWorkers.add(worker);
+							worker.start();
+						} else {
+							futures.put(worker, executor.submit(worker));
+							activeWorkers.add(worker);
+						}
 					} else if (wishedWorkerCount < activeWorkers.size()) {
 						worker = activeWorkers.lastElement();
 						activeWorkers.remove(worker);
@@ -380,52 +733,262 @@ public class Enterprise<M extends Mission> extends Thread {
 					} else {
 						wait = true;
 					}
+				} finally {
+					workersLock.unlock();
 				}
 				if (wait) {
+					enterpriseLock.lock();
 					try {
-						synchronized (enterpriseLock) {
-							enterpriseLock.wait();
+						if (!stateChanged) {
+							if (manager == null) {
+								stateChange.await();
+							} else {
+								stateChange.await(Math.max(1, nextManagementTime - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+							}
 						}
+						stateChanged = false;
 					} catch (Exception exception) {
 						collectExceptions(exception);
+					} finally {
+						enterpriseLock.unlock();
 					}
 				}
 			}
 			forbidForeverNewMissionsStart();
 			remainingWorkers = new Vector<>();
-			synchronized (workersLock) {
+			workersLock.lock();
+			try {
 				remainingWorkers.addAll(activeWorkers);
 				remainingWorkers.addAll(dismissedWorkers);
+			} finally {
+				workersLock.unlock();
 			}
 			if (hasExceptions()) {
 				for (Worker<M> remainingWorker : remainingWorkers) {
-					remainingWorker.interrupt();
+					if (executor == null) {
+						remainingWorker.interrupt();
+					} else {
+						futures.get(remainingWorker).cancel(true);
+					}
 				}
 				missionner.interrupt();
+				if (receiver != null) {
+					receiver.interrupt();
+				}
 			}
 			for (Worker<M> remainingWorker : remainingWorkers) {
-				remainingWorker.join();
+				if (executor == null) {
+					remainingWorker.join();
+				} else {
+					try {
+						futures.get(remainingWorker).get();
+					} catch (CancellationException exception) {}
+				}
 			}
-			closedDown = true;
-			synchronized (enterpriseLock) {
-				enterpriseLock.notifyAll();
+			workersLock.lock();
+			try {
+				futures.clear();
+			} finally {
+				workersLock.unlock();
 			}
+			if (receiver != null) {
+				receiver.close();
+				receiver.join();
+			}
+			if (checkpoint != null) {
+				checkpoint.save();
+			}
+			closedDown = true;
+			signalStateChanged();
 		} catch (Throwable exception) {
 			collectExceptions(exception);
+		} finally {
+			if (watchdog != null) {
+				watchdog.interrupt();
+			}
+		}
+	}
+
+
+
+	/**
+	 * Confie l'ajustement du nombre d'ouvriers souhait au responsable indiqu, qui sera consult priodiquement tant que l'entreprise fonctionne.
+	 * @param manager Responsable de l'ajustement du nombre d'ouvriers souhait, ou <code>null</code> pour que ce nombre ne soit plus ajust automatiquement.
+	 * @param managementPeriod Priode de consultation du responsable, en millisecondes (doit tre strictement positive).
+	 */
+	public final void setManager(@SuppressWarnings("hiding") Manager manager, @SuppressWarnings("hiding") long managementPeriod) {
+		if (managementPeriod <= 0) {
+			throw new IllegalArgumentException("La priode de consultation du responsable doit tre strictement positive: " + managementPeriod);
+		}
+		this.managementPeriod = managementPeriod;
+		this.nextManagementTime = System.currentTimeMillis() + managementPeriod;
+		this.manager = manager;
+		signalStateChanged();
+	}
+
+
+
+	/**
+	 * Indique le point de reprise dans lequel sont mmorises les missions termines, et  partir duquel les missions dj termines lors d'une excution prcdente sont sautes.<br>
+	 * Cette mthode ne peut tre appele qu'une seule fois, avant le dmarrage de l'entreprise. Le point de reprise est enregistr priodiquement, ainsi qu' la fin de l'entreprise.
+	 * @param checkpoint Point de reprise (ne doit pas tre <code>null</code>).
+	 */
+	public final void setCheckpoint(@SuppressWarnings("hiding") Checkpoint checkpoint) {
+		if (checkpoint == null) {
+			throw new NullPointerException();
+		}
+		if ((getState() != State.NEW) || (this.checkpoint != null)) {
+			throw new IllegalStateException("Le point de reprise ne peut tre indiqu qu'une seule fois, avant le dmarrage de l'entreprise.");
+		}
+		missionner.setCheckpoint(checkpoint);
+		this.checkpoint = checkpoint;
+	}
+
+
+
+	/**
+	 * Indique la politique de traitement des checs de missions.<br>
+	 * Cette mthode ne peut tre appele qu'une seule fois, avant le dmarrage de l'entreprise. La politique elle mme peut tre modifie ensuite.
+	 * @param missionPolicy Politique de traitement des checs de missions (ne doit pas tre <code>null</code>).
+	 */
+	public final void setMissionPolicy(@SuppressWarnings("hiding") MissionPolicy<M> missionPolicy) {
+		if (missionPolicy == null) {
+			throw new NullPointerException();
+		}
+		if ((getState() != State.NEW) || (this.missionPolicy != null)) {
+			throw new IllegalStateException("La politique de traitement des checs de missions ne peut tre indique qu'une seule fois, avant le dmarrage de l'entreprise.");
 		}
+		this.missionPolicy = missionPolicy;
+	}
+
+
+
+	/**
+	 * Indique le limiteur de dbit qui limite le nombre de missions distribues par seconde.<br>
+	 * Cette mthode peut tre appele  tout moment. Les missions distribues ensuite consomment chacune un jeton du limiteur, et l'ouvrier auquel elle est distribue attend si ncessaire qu'il
+	 * soit disponible avant de l'effectuer.
+	 * @param rateLimiter Limiteur de dbit, ou <code>null</code> pour ne plus limiter le dbit.
+	 */
+	public final void setRateLimiter(@SuppressWarnings("hiding") RateLimiter rateLimiter) {
+		this.rateLimiter = rateLimiter;
+	}
+
+
+
+	/**
+	 * Indique le rceptionnaire auquel les ouvriers ({@link ProducingWorker}) transmettent les rsultats des missions.<br>
+	 * Cette mthode ne peut tre appele qu'une seule fois, avant le dmarrage de l'entreprise. Le rceptionnaire est dmarr par l'entreprise, qui ne ferme qu'aprs qu'il ait reu tous les rsultats.
+	 * @param receiver Rceptionnaire (ne doit pas tre <code>null</code>).
+	 */
+	public final void setReceiver(@SuppressWarnings("hiding") Receiver<M, ?> receiver) {
+		if (receiver == null) {
+			throw new NullPointerException();
+		}
+		if ((getState() != State.NEW) || (this.receiver != null)) {
+			throw new IllegalStateException("Le rceptionnaire ne peut tre indiqu qu'une seule fois, avant le dmarrage de l'entreprise.");
+		}
+		receiver.hiredBy(this);
+		this.receiver = receiver;
 	}
 
 
 
 	/**
 	 * Ajuste le nombre d'ouvriers souhait.
-	 * @param wishedWorkerCount Nombre d'ouvriers souhait (doit tre positif ou nul).
+	 * @param wishedWorkerCount Nombre d'ouvriers souhait (doit tre positif ou nul, et ne pas dpasser le nombre de threads du service d'excution si c'est un {@link ThreadPoolExecutor}).
 	 */
 	public final void setWishedWorkersCount(int wishedWorkerCount) {
 		if (wishedWorkerCount <= 0) {
 			throw new IllegalArgumentException("Le nombre d'ouvriers souhait doit tre strictement positif: " + wishedWorkerCount);
 		}
+		checkThreadCount(executor, wishedWorkerCount);
 		this.wishedWorkerCount = wishedWorkerCount;
+		signalStateChanged();
+	}
+
+
+
+	/**
+	 * Signale un changement d'tat  l'entreprise (ouvrier dmarr ou fini, exception, nombre d'ouvriers souhait modifi, ...), pour qu'elle le prenne en compte.
+	 */
+	private void signalStateChanged() {
+		enterpriseLock.lock();
+		try {
+			stateChanged = true;
+			stateChange.signalAll();
+		} finally {
+			enterpriseLock.unlock();
+		}
+	}
+
+
+
+	/**
+	 * Attend que le dmarrage de nouvelles missions ne soit plus report.<br>
+	 * Cette mthode est bloquante tant que le dmarrage de nouvelles missions est report.
+	 */
+	private void waitWhileNewMissionsPostponed() {
+		if (newMissions == NewMissions.POSTPONNED) {
+			newMissionsLock.lock();
+			try {
+				while (newMissions == NewMissions.POSTPONNED) {
+					try {
+						Blocker.await(newMissionsNotPostponed);
+					} catch (InterruptedException exception) {
+						collectExceptions(exception);
+					}
+				}
+			} finally {
+				newMissionsLock.unlock();
+			}
+		}
+	}
+
+
+
+	/**
+	 * Surveille priodiquement que les missions en cours ne dpassent pas le dlai imparti par la politique de traitement des checs de missions, et interrompt les ouvriers dont la mission l'a
+	 * dpass.<br>
+	 * Cette mthode est excute par le chien de garde, jusqu' ce qu'il soit interrompu  la fermeture de l'entreprise.
+	 */
+	private void watch() {
+		long timeout;
+		long now;
+
+		try {
+			while (true) {
+				if ((timeout = missionPolicy.getTimeout()) > 0) {
+					now = System.nanoTime();
+					for (Worker<M> worker : getWorkers()) {
+						worker.checkDeadline(now);
+					}
+				}
+				Thread.sleep((timeout > 0) ? Math.max(1, Math.min(MAX_WATCHDOG_PERIOD, timeout / 10)) : MAX_WATCHDOG_PERIOD);
+			}
+		} catch (InterruptedException exception) {}
+	}
+
+
+
+	/**
+	 * Vrifie que le service d'excution indiqu dispose d'assez de threads pour le nombre d'ouvriers souhait indiqu, lorsque c'est un {@link ThreadPoolExecutor}. Un ouvrier qui attend son tour
+	 * dans la file d'un tel service ne peut pas prendre de mission, et un ouvrier qui occupe un thread peut attendre des missions que seuls des ouvriers d'une autre entreprise, en attente
+	 * d'un thread, produiraient.<br>
+	 * Les autres services ne sont pas vrifis: un {@link ForkJoinPool} compense les ouvriers bloqus, et le nombre de threads des autres n'est pas connu.
+	 * @param executor Service d'excution des ouvriers, ou <code>null</code> si chaque ouvrier est excut dans son propre thread.
+	 * @param wishedWorkerCount Nombre d'ouvriers souhait.
+	 */
+	private static void checkThreadCount(ExecutorService executor, int wishedWorkerCount) {
+		ThreadPoolExecutor pool;
+		int threadCount;
+
+		if (executor instanceof ThreadPoolExecutor) {
+			pool = (ThreadPoolExecutor) executor;
+			threadCount = (pool.getQueue().remainingCapacity() == Integer.MAX_VALUE) ? pool.getCorePoolSize() : pool.getMaximumPoolSize();
+			if (wishedWorkerCount > threadCount) {
+				throw new IllegalArgumentException("Le nombre d'ouvriers souhait dpasse le nombre de threads du service d'excution: " + wishedWorkerCount + " > " + threadCount);
+			}
+		}
 	}
 
 
@@ -437,6 +1000,13 @@ public class Enterprise<M extends Mission> extends Thread {
 
 
 
+	/**
+	 * Point de reprise, ou <code>null</code> si il n'y en a pas.
+	 */
+	private volatile Checkpoint checkpoint = null;
+
+
+
 	/**
 	 * Indique si l'entreprise a ferm.
 	 */
@@ -454,28 +1024,49 @@ public class Enterprise<M extends Mission> extends Thread {
 	/**
 	 * Nombre de missions termines.
 	 */
-	private volatile int doneCount = 0;
+	private final LongAdder doneCount = new LongAdder();
 
 
 
 	/**
-	 * Verrou pour les missions termines.
+	 * Verrou pour les changements d'tat de l'entreprise, propre  chaque entreprise.
 	 */
-	private final Object doneLock = "doneLock";
+	private final ReentrantLock enterpriseLock = new ReentrantLock();
 
 
 
 	/**
-	 * Verrou pour les employs.
+	 * Exceptions rencontres.
 	 */
-	private final Object enterpriseLock = "enterpriseLock";
+	private final Vector<Throwable> exceptions = new Vector<>();
 
 
 
 	/**
-	 * Exceptions rencontres.
+	 * Service d'excution des ouvriers, ou <code>null</code> si chaque ouvrier est excut dans son propre thread.
 	 */
-	private final Vector<Throwable> exceptions = new Vector<>();
+	private final ExecutorService executor;
+
+
+
+	/**
+	 * Histogramme des dures d'excution des missions par les ouvriers qui ont fini de travailler.
+	 */
+	private final Histogram finishedExecutionLatencies = new Histogram();
+
+
+
+	/**
+	 * Histogramme des dures d'attente des missions par les ouvriers qui ont fini de travailler.
+	 */
+	private final Histogram finishedWaitLatencies = new Histogram();
+
+
+
+	/**
+	 * Tches des ouvriers soumis au service d'excution, inutilis si il n'y en a pas.
+	 */
+	private final Map<Worker<M>, Future<?>> futures = new HashMap<>();
 
 
 
@@ -486,6 +1077,27 @@ public class Enterprise<M extends Mission> extends Thread {
 
 
 
+	/**
+	 * Priode de consultation du responsable de l'ajustement du nombre d'ouvriers souhait, en millisecondes.
+	 */
+	private volatile long managementPeriod;
+
+
+
+	/**
+	 * Responsable de l'ajustement du nombre d'ouvriers souhait, ou <code>null</code> si ce nombre n'est pas ajust automatiquement.
+	 */
+	private volatile Manager manager = null;
+
+
+
+	/**
+	 * Politique de traitement des checs de missions, ou <code>null</code> si il n'y en a pas.
+	 */
+	private volatile MissionPolicy<M> missionPolicy = null;
+
+
+
 	/**
 	 * Distributeur de missions.
 	 */
@@ -501,9 +1113,24 @@ public class Enterprise<M extends Mission> extends Thread {
 
 
 	/**
-	 * Verrou pour l'autorisation de dmarrage de nouvelles missions.
+	 * Verrou pour l'autorisation de dmarrage de nouvelles missions.<br>
+	 * Un {@link ReentrantLock} est utilis plutt qu'un moniteur pour que les ouvriers excuts dans des threads virtuels n'immobilisent pas leur thread porteur pendant l'attente.
+	 */
+	private final ReentrantLock newMissionsLock = new ReentrantLock();
+
+
+
+	/**
+	 * Condition signale lorsque le dmarrage de nouvelles missions cesse d'tre report.
 	 */
-	private final Object newMissionsLock = "newMissionsLock";
+	private final Condition newMissionsNotPostponed = newMissionsLock.newCondition();
+
+
+
+	/**
+	 * Date de la prochaine consultation du responsable de l'ajustement du nombre d'ouvriers souhait, en millisecondes.
+	 */
+	private volatile long nextManagementTime;
 
 
 
@@ -517,7 +1144,35 @@ public class Enterprise<M extends Mission> extends Thread {
 	/**
 	 * Nombre de rsulats de missions.
 	 */
-	private volatile int producedCount = 0;
+	private final LongAdder producedCount = new LongAdder();
+
+
+
+	/**
+	 * Nombre de missions mises en quarantaine.
+	 */
+	private final LongAdder quarantinedCount = new LongAdder();
+
+
+
+	/**
+	 * Limiteur de dbit, ou <code>null</code> si il n'y en a pas.
+	 */
+	private volatile RateLimiter rateLimiter = null;
+
+
+
+	/**
+	 * Rceptionnaire des rsultats des missions, ou <code>null</code> si il n'y en a pas.
+	 */
+	private volatile Receiver<M, ?> receiver = null;
+
+
+
+	/**
+	 * Nombre de nouvelles tentatives de missions qui avaient chou.
+	 */
+	private final LongAdder retriedCount = new LongAdder();
 
 
 
@@ -528,6 +1183,20 @@ public class Enterprise<M extends Mission> extends Thread {
 
 
 
+	/**
+	 * Condition signale lors d'un changement d'tat de l'entreprise.
+	 */
+	private final Condition stateChange = enterpriseLock.newCondition();
+
+
+
+	/**
+	 * Indicateur de changement d'tat de l'entreprise survenu depuis sa dernire prise en compte, qui vite de manquer un changement signal avant que l'entreprise ne se mette en attente.
+	 */
+	private boolean stateChanged = false;
+
+
+
 	/**
 	 * Ouvrier souche ( partir duquel on cre des clones).
 	 */
@@ -543,9 +1212,16 @@ public class Enterprise<M extends Mission> extends Thread {
 
 
 	/**
-	 * Verrou pour les ouvriers actifs et licencis.
+	 * Verrou pour les ouvriers actifs et licencis, propre  chaque entreprise.
+	 */
+	private final ReentrantLock workersLock = new ReentrantLock();
+
+
+
+	/**
+	 * Priode maximale de surveillance des missions en cours par le chien de garde, en millisecondes.
 	 */
-	private final Object workersLock = "workersLock";
+	private static final long MAX_WATCHDOG_PERIOD = 1000;
 
 
 
@@ -0,0 +1,234 @@
+package toolbox.parallel;
+
+import java.util.concurrent.atomic.*;
+
+
+
+/**
+ * La classe {@link Histogram} implmente un histogramme de dures en nanosecondes, destin  mesurer les latences (production, attente, excution des missions)  moindre cot.<br>
+ * Les dures sont rparties dans des classes de largeur croissante: les dures infrieures  {@value #SUB_BUCKET_COUNT} nanosecondes sont exactes, et chaque puissance de 2 au del est dcoupe
+ * en {@value #SUB_BUCKET_COUNT} classes, ce qui donne une prcision relative d'environ 6% quelle que soit la dure. L'histogramme occupe une taille fixe, et l'enregistrement d'une dure se
+ * limite  quelques oprations arithmtiques, sans allocation ni verrou.<br>
+ * Un seul thread doit enregistrer des dures dans un histogramme donn (par exemple un ouvrier dans le sien), mais d'autres threads peuvent le consulter ou le copier  tout moment, et obtenir
+ * une image approximative de son contenu.
+ * @author Ludovic WALLE
+ */
+public class Histogram {
+
+
+
+	/**
+	 * Cre un histogramme vide.
+	 */
+	public Histogram() {}
+
+
+
+	/**
+	 * Cre une copie de l'histogramme indiqu.
+	 * @param other Histogramme  copier (ne doit pas tre <code>null</code>).
+	 */
+	public Histogram(Histogram other) {
+		add(other);
+	}
+
+
+
+	/**
+	 * Ajoute  cet histogramme les dures de l'histogramme indiqu.<br>
+	 * Cette mthode ne doit pas tre appele en mme temps qu'une autre mthode modifiant cet histogramme.
+	 * @param other Histogramme  ajouter (ne doit pas tre <code>null</code>).
+	 */
+	public void add(Histogram other) {
+		@SuppressWarnings("hiding") long count;
+
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			if ((count = other.counts.get(i)) != 0) {
+				counts.lazySet(i, counts.get(i) + count);
+			}
+		}
+		this.count += other.count;
+		this.total += other.total;
+		this.max = Math.max(this.max, other.max);
+	}
+
+
+
+	/**
+	 * Retourne le nombre de dures enregistres.
+	 * @return Le nombre de dures enregistres.
+	 */
+	public long getCount() {
+		return count;
+	}
+
+
+
+	/**
+	 * Retourne la plus grande dure enregistre, en nanosecondes, ou 0 si il n'y en a pas.
+	 * @return La plus grande dure enregistre, en nanosecondes, ou 0 si il n'y en a pas.
+	 */
+	public long getMax() {
+		return max;
+	}
+
+
+
+	/**
+	 * Retourne la moyenne des dures enregistres, en nanosecondes, ou 0 si il n'y en a pas.
+	 * @return La moyenne des dures enregistres, en nanosecondes, ou 0 si il n'y en a pas.
+	 */
+	public double getMean() {
+		@SuppressWarnings("hiding") long count = this.count;
+
+		return (count == 0) ? 0 : (double) total / count;
+	}
+
+
+
+	/**
+	 * Retourne la dure en dessous de laquelle se trouve le pourcentage indiqu des dures enregistres, en nanosecondes, ou 0 si il n'y en a pas.<br>
+	 * La dure retourne est la borne suprieure de la classe contenant le centile, sans dpasser la plus grande dure enregistre.
+	 * @param percentile Pourcentage (doit tre compris entre 0 et 100 inclus).
+	 * @return La dure en dessous de laquelle se trouve le pourcentage indiqu des dures enregistres, en nanosecondes.
+	 */
+	public long getPercentile(double percentile) {
+		@SuppressWarnings("hiding") long[] counts = new long[BUCKET_COUNT];
+		@SuppressWarnings("hiding") long count = 0;
+		long rank;
+
+		if ((percentile < 0) || (percentile > 100)) {
+			throw new IllegalArgumentException("Le pourcentage doit tre compris entre 0 et 100: " + percentile);
+		}
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			count += (counts[i] = this.counts.get(i));
+		}
+		if (count == 0) {
+			return 0;
+		}
+		rank = Math.max(1, (long) Math.ceil((percentile * count) / 100));
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			if ((rank -= counts[i]) <= 0) {
+				return Math.min(getUpperBound(i), max);
+			}
+		}
+		return max;
+	}
+
+
+
+	/**
+	 * Enregistre la dure indique.<br>
+	 * Cette mthode ne doit tre appele que par un seul thread  la fois.
+	 * @param duration Dure, en nanosecondes (ramene  0 si elle est ngative).
+	 */
+	public void record(long duration) {
+		int index;
+
+		if (duration < 0) {
+			duration = 0;
+		}
+		index = getIndex(duration);
+		counts.lazySet(index, counts.get(index) + 1);
+		total += duration;
+		if (duration > max) {
+			max = duration;
+		}
+		count++;
+	}
+
+
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override public String toString() {
+		return String.format("n=%d, moyenne=%.0fns, p50=%dns, p90=%dns, p99=%dns, p99.9=%dns, max=%dns", getCount(), getMean(), getPercentile(50), getPercentile(90), getPercentile(99), getPercentile(99.9), getMax());
+	}
+
+
+
+	/**
+	 * Retourne l'indice de la classe de la dure indique.
+	 * @param duration Dure, en nanosecondes (doit tre positive ou nulle).
+	 * @return L'indice de la classe de la dure indique.
+	 */
+	private static int getIndex(long duration) {
+		int exponent;
+
+		if (duration < SUB_BUCKET_COUNT) {
+			return (int) duration;
+		}
+		exponent = 63 - Long.numberOfLeadingZeros(duration);
+		return ((exponent - SUB_BUCKET_BITS) + 1) * SUB_BUCKET_COUNT + (int) ((duration >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1));
+	}
+
+
+
+	/**
+	 * Retourne la plus grande dure de la classe dont l'indice est indiqu.
+	 * @param index Indice de la classe.
+	 * @return La plus grande dure de la classe dont l'indice est indiqu.
+	 */
+	private static long getUpperBound(int index) {
+		int shift;
+
+		if (index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+		shift = (index / SUB_BUCKET_COUNT) - 1;
+		return (((long) (SUB_BUCKET_COUNT + (index % SUB_BUCKET_COUNT)) + 1) << shift) - 1;
+	}
+
+
+
+	/**
+	 * Nombre de dures enregistres.
+	 */
+	private volatile long count = 0;
+
+
+
+	/**
+	 * Nombre de dures enregistres par classe.
+	 */
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+
+
+	/**
+	 * Plus grande dure enregistre.
+	 */
+	private volatile long max = 0;
+
+
+
+	/**
+	 * Somme des dures enregistres.
+	 */
+	private volatile long total = 0;
+
+
+
+	/**
+	 * Nombre de classes.
+	 */
+	private static final int BUCKET_COUNT = ((63 - Histogram.SUB_BUCKET_BITS) + 1) * Histogram.SUB_BUCKET_COUNT;
+
+
+
+	/**
+	 * Nombre de bits de dcoupage de chaque puissance de 2.
+	 */
+	private static final int SUB_BUCKET_BITS = 4;
+
+
+
+	/**
+	 * Nombre de classes par puissance de 2.
+	 */
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+
+
+}
@@ -0,0 +1,26 @@
+package toolbox.parallel;
+
+
+
+/**
+ * La classe {@link Manager} est l'interface des responsables de l'ajustement du nombre d'ouvriers d'une {@link Enterprise}.<br>
+ * Un responsable est consult priodiquement par l'entreprise (voir {@link Enterprise#setManager(Manager, long)}), dans le thread de celle ci. Il peut s'appuyer sur les indicateurs de l'entreprise
+ * ({@link Enterprise#getDoneCount()}, {@link Enterprise#getElapsedTime()}, ...) pour dcider du nombre d'ouvriers souhait. Les ouvriers en surnombre sont licencis, et finissent leur mission en
+ * cours avant de s'arrter.
+ * @author Ludovic WALLE
+ */
+public interface Manager {
+
+
+
+	/**
+	 * Retourne le nouveau nombre d'ouvriers souhait pour l'entreprise indique.
+	 * @param enterprise Entreprise.
+	 * @param wishedWorkerCount Nombre d'ouvriers actuellement souhait.
+	 * @return Le nouveau nombre d'ouvriers souhait (doit tre strictement positif).
+	 */
+	public int adjustWishedWorkerCount(Enterprise<?> enterprise, int wishedWorkerCount);
+
+
+
+}
@@ -6,4 +6,21 @@ package toolbox.parallel;
  * La classe {@link Mission} sert  marquer les classes servant  dcrire la mission qu'un ouvrier doit effectuer.
  * @author Ludovic WALLE
  */
-public interface Mission {}
+public interface Mission {
+
+
+
+	/**
+	 * Retourne la cl d'affinit de la mission, ou <code>null</code> si elle n'en a pas.<br>
+	 * Lorsque le distributeur rpartit les missions entre plusieurs files (voir {@link Missionner#setShardCount(int)}), les missions de mme cl sont toujours places dans la mme file, et donc
+	 * confies au mme ouvrier tant que celui ci en a, ce qui permet par exemple  chaque ouvrier d'avoir un cache par cl qui ne se remplit pas avec toutes les cls.<br>
+	 * Cette mthode est destine  tre surcharge. Par dfaut, elle retourne <code>null</code>.
+	 * @return La cl d'affinit de la mission, ou <code>null</code> si elle n'en a pas.
+	 */
+	default Object getAffinityKey() {
+		return null;
+	}
+
+
+
+}
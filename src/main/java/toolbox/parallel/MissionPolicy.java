@@ -0,0 +1,174 @@
+package toolbox.parallel;
+
+
+
+/**
+ * La classe {@link MissionPolicy} dcrit la politique de traitement des checs de missions d'une {@link Enterprise} (voir {@link Enterprise#setMissionPolicy(MissionPolicy)}).<br>
+ * Sans politique, la moindre exception gnre par une mission arrte l'entreprise. Avec une politique:
+ * <ul>
+ * <li>une mission qui dpasse le dlai imparti ({@link #setTimeout(long)}) est interrompue par un chien de garde de l'entreprise, et considre comme ayant chou,
+ * <li>une mission qui choue par une {@link Exception} est retente jusqu'au nombre de tentatives indiqu ({@link #setMaxAttempts(int)}), aprs une attente qui double  chaque tentative
+ * ({@link #setBackoff(long, long)}),
+ * <li>une mission qui a chou  toutes ses tentatives est confie au destinataire des missions mises en quarantaine ({@link #setQuarantine(Quarantine)}) si il y en a un, et l'entreprise continue
+ *  fonctionner, ou arrte l'entreprise sinon.
+ * </ul>
+ * Les {@link Error} arrtent toujours l'entreprise.<br>
+ * Le chien de garde ne peut qu'interrompre l'ouvrier ({@link Thread#interrupt()}): seules les missions qui ragissent  l'interruption (attentes, entres/sorties interruptibles,
+ * {@link RemoteWorker}, ...) sont effectivement abandonnes. Pour les requtes JDBC, il est prfrable d'indiquer aussi un dlai au pilote ({@link java.sql.Statement#setQueryTimeout(int)}).<br>
+ * Lorsque les missions sont prises par lots (voir {@link Worker#setBatchSize(int)}), le dlai imparti au lot est proportionnel au nombre de missions, et si le lot choue, ses missions sont refaites
+ * une par une avec cette politique, pour isoler celles qui chouent. Seules les missions que {@link Worker#delegateDoBatch(java.util.List)} n'a pas signales comme effectues de faon dfinitive
+ * (voir {@link Worker#reportBatchProgress(int, int)}) sont refaites: les autres missions du lot ne doivent pas avoir eu d'effet dfinitif, ou doivent pouvoir tre refaites sans dommage.<br>
+ * La politique peut tre modifie pendant le fonctionnement de l'entreprise.
+ * @author Ludovic WALLE
+ * @param <M> Type des missions.
+ */
+public class MissionPolicy<M extends Mission> {
+
+
+
+	/**
+	 * Cre une politique sans dlai imparti, avec une seule tentative et sans destinataire des missions mises en quarantaine, qui quivaut  l'absence de politique.
+	 */
+	public MissionPolicy() {}
+
+
+
+	/**
+	 * Retourne l'attente avant la deuxime tentative, en millisecondes.
+	 * @return L'attente avant la deuxime tentative, en millisecondes.
+	 */
+	public final long getBackoff() {
+		return backoff;
+	}
+
+
+
+	/**
+	 * Retourne le nombre maximal de tentatives pour chaque mission.
+	 * @return Le nombre maximal de tentatives pour chaque mission.
+	 */
+	public final int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+
+
+	/**
+	 * Retourne l'attente maximale entre deux tentatives, en millisecondes.
+	 * @return L'attente maximale entre deux tentatives, en millisecondes.
+	 */
+	public final long getMaxBackoff() {
+		return maxBackoff;
+	}
+
+
+
+	/**
+	 * Retourne le destinataire des missions mises en quarantaine, ou <code>null</code> si il n'y en a pas.
+	 * @return Le destinataire des missions mises en quarantaine, ou <code>null</code> si il n'y en a pas.
+	 */
+	public final Quarantine<M> getQuarantine() {
+		return quarantine;
+	}
+
+
+
+	/**
+	 * Retourne le dlai imparti  chaque mission, en millisecondes, ou 0 si il n'y en a pas.
+	 * @return Le dlai imparti  chaque mission, en millisecondes, ou 0 si il n'y en a pas.
+	 */
+	public final long getTimeout() {
+		return timeout;
+	}
+
+
+
+	/**
+	 * Fixe l'attente entre deux tentatives, qui double  chaque tentative.
+	 * @param backoff Attente avant la deuxime tentative, en millisecondes (doit tre positive ou nulle).
+	 * @param maxBackoff Attente maximale entre deux tentatives, en millisecondes (doit tre suprieure ou gale  <code>backoff</code>).
+	 */
+	public final void setBackoff(@SuppressWarnings("hiding") long backoff, @SuppressWarnings("hiding") long maxBackoff) {
+		if (backoff < 0) {
+			throw new IllegalArgumentException("L'attente entre deux tentatives doit tre positive ou nulle: " + backoff);
+		} else if (maxBackoff < backoff) {
+			throw new IllegalArgumentException("L'attente maximale entre deux tentatives doit tre suprieure ou gale  l'attente initiale: " + maxBackoff + " < " + backoff);
+		}
+		this.backoff = backoff;
+		this.maxBackoff = maxBackoff;
+	}
+
+
+
+	/**
+	 * Fixe le nombre maximal de tentatives pour chaque mission.
+	 * @param maxAttempts Nombre maximal de tentatives pour chaque mission (doit tre strictement positif).
+	 */
+	public final void setMaxAttempts(@SuppressWarnings("hiding") int maxAttempts) {
+		if (maxAttempts <= 0) {
+			throw new IllegalArgumentException("Le nombre maximal de tentatives doit tre strictement positif: " + maxAttempts);
+		}
+		this.maxAttempts = maxAttempts;
+	}
+
+
+
+	/**
+	 * Indique le destinataire des missions mises en quarantaine.
+	 * @param quarantine Destinataire des missions mises en quarantaine, ou <code>null</code> pour qu'une mission qui a chou  toutes ses tentatives arrte l'entreprise.
+	 */
+	public final void setQuarantine(@SuppressWarnings("hiding") Quarantine<M> quarantine) {
+		this.quarantine = quarantine;
+	}
+
+
+
+	/**
+	 * Fixe le dlai imparti  chaque mission.
+	 * @param timeout Dlai imparti  chaque mission, en millisecondes, ou 0 pour qu'il n'y en ait pas (doit tre positif ou nul).
+	 */
+	public final void setTimeout(@SuppressWarnings("hiding") long timeout) {
+		if (timeout < 0) {
+			throw new IllegalArgumentException("Le dlai imparti doit tre positif ou nul: " + timeout);
+		}
+		this.timeout = timeout;
+	}
+
+
+
+	/**
+	 * Attente avant la deuxime tentative, en millisecondes.
+	 */
+	private volatile long backoff = 100;
+
+
+
+	/**
+	 * Nombre maximal de tentatives pour chaque mission.
+	 */
+	private volatile int maxAttempts = 1;
+
+
+
+	/**
+	 * Attente maximale entre deux tentatives, en millisecondes.
+	 */
+	private volatile long maxBackoff = 10000;
+
+
+
+	/**
+	 * Destinataire des missions mises en quarantaine, ou <code>null</code> si il n'y en a pas.
+	 */
+	private volatile Quarantine<M> quarantine = null;
+
+
+
+	/**
+	 * Dlai imparti  chaque mission, en millisecondes, ou 0 si il n'y en a pas.
+	 */
+	private volatile long timeout = 0;
+
+
+
+}
@@ -1,10 +1,14 @@
 package toolbox.parallel;
 
+import java.util.*;
+import java.util.concurrent.locks.*;
+import java.util.stream.*;
+
 /**
  * La classe {@link Missionner} est la classe anctre de tous les distributeurs de missions.<br>
  * Les distributeurs fonctionnent de faon asynchrone, dans un {@link Thread} spar. Ils prparent une nouvelle mission ds que la prcdente a t attribue, au lieu d'attendre qu'on leur en demande
  * une pour le faire.<br>
- * Un distributeur peut tre utilis comme itrateur.<br>
+ * Un distributeur peut tre utilis comme itrateur, ou comme source d'un flux ({@link Stream}) ventuellement parallle (voir {@link #stream(boolean)}).<br>
  * <br>
  * Les mthodes appeles par la mthode {@link #run()} sont, dans l'ordre:
  * <ul>
@@ -13,7 +17,22 @@ package toolbox.parallel;
  * <li>{@link #delegateFinalize()}, une seule fois.
  * </ul>
  * Aucune de ces mthodes n'est appele de faon concurrente, et n'a besoin d'tre synchronise.<br>
- * Il est prfrable de faire les initialisations lentes dans la mthode {@link #delegateInitialize()}, excute de faon asynchrone, plutt que dans le constructeur, excut de faon synchrone.
+ * Il est prfrable de faire les initialisations lentes dans la mthode {@link #delegateInitialize()}, excute de faon asynchrone, plutt que dans le constructeur, excut de faon synchrone.<br>
+ * <br>
+ * Les missions prpares sont places dans un tampon dont la capacit est fixe par {@link #setBufferCapacity(int)} (une seule mission par dfaut). Un tampon plus grand permet au distributeur de
+ * prparer les missions  l'avance pendant que les ouvriers les consomment, ce qui rduit la contention lorsque les ouvriers sont nombreux et les missions rapides.<br>
+ * La dure de chaque appel  {@link #delegateGetNext()} est enregistre dans un histogramme, consultable par {@link #getProductionLatencies()}, qui permet de savoir si les ouvriers attendent
+ * aprs le distributeur.<br>
+ * <br>
+ * Le tampon peut tre rparti en plusieurs files par {@link #setShardCount(int)}. Chaque mission est alors place dans la file dtermine par sa cl d'affinit ({@link Mission#getAffinityKey()}),
+ * ou  tour de rle si elle n'en a pas, et chaque ouvrier prend les missions dans sa propre file. Il ne prend de missions dans une autre file, la plus remplie, que lorsque la sienne est vide. Les
+ * missions de mme cl sont ainsi toujours effectues par le mme ouvrier, tant que le tampon est assez grand pour que les files ne se vident pas.<br>
+ * <br>
+ * Chaque mission reoit un numro d'ordre lorsqu'elle est place dans le tampon, dans l'ordre o le distributeur les prpare. Il la suit quels que soient la file dans laquelle elle est place et
+ * l'ouvrier qui la prend, ce qui permet  un {@link Receiver} ordonn de recevoir les rsultats dans l'ordre de prparation des missions, mme lorsque les ouvriers prennent des missions dans
+ * d'autres files que la leur. Dans ce cas, un ouvrier ne prend pas dans sa file une mission dont le numro d'ordre dpasse de la capacit du rceptionnaire celui de la plus ancienne mission en
+ * attente dans une autre file, mais prend celle ci  la place: sans cela, tous les ouvriers pourraient attendre que le rceptionnaire ait de la place pour leur rsultat, alors que le rsultat qu'il
+ * attend est celui d'une mission reste dans une file.
  * @author Ludovic WALLE
  * @param <M> Missions.
  */
@@ -63,6 +82,28 @@ public abstract class Missionner<M extends Mission> extends Employee<M> {
 
 
 
+	/**
+	 * Saute le nombre indiqu de missions, lors d'une reprise  partir d'un {@link Checkpoint}, et retourne le nombre de missions effectivement sautes, qui n'est infrieur au nombre indiqu que si
+	 * il n'y a plus de mission.<br>
+	 * Cette mthode est destine  tre surcharge lorsque le distributeur peut avancer directement, sans prparer les missions sautes. Elle sera appele au plus une fois par le {@link Missionner},
+	 * aprs {@link #delegateInitialize()} et avant {@link #delegateGetNext()}.<br>
+	 * Par dfaut, cette mthode appelle {@link #delegateGetNext()} autant de fois que ncessaire, et ignore les missions retournes.
+	 * @param count Nombre de missions  sauter (strictement positif).
+	 * @return Le nombre de missions effectivement sautes.
+	 * @throws Throwable Pour que la mthode puisse gnrer des exceptions.<br>
+	 *             L'entreprise sera interrompue si cette mthode gnre une exception.
+	 */
+	protected long delegateSkip(long count) throws Throwable {
+		long skipped = 0;
+
+		while ((skipped < count) && (delegateGetNext() != null)) {
+			skipped++;
+		}
+		return skipped;
+	}
+
+
+
 	/**
 	 * Retourne le nombre attendu de rsultats (positif ou nul), ou {@link #NOT_COMPUTABLE} si il n'est pas calculable, ou {@link #NOT_AVAILABLE} si le calcul est en cours, ou {@link #NOT_COMPUTED} si
 	 * ni {@link #start()} ni {@link #run()} n'ont t appeles au pralable (le calcul n'a pas t lanc).
@@ -72,14 +113,17 @@ public abstract class Missionner<M extends Mission> extends Employee<M> {
 	 */
 	public final int getExpectedCount(boolean waitUntilComputed) {
 		if (waitUntilComputed) {
-			synchronized (expectedCountLock) {
+			expectedCountLock.lock();
+			try {
 				while (((expectedCount == NOT_AVAILABLE) || (expectedCount == NOT_COMPUTED)) && !hasExceptions()) {
 					try {
-						expectedCountLock.wait();
+						expectedCountReady.await();
 					} catch (InterruptedException exception) {
 						reportExceptions(exception);
 					}
 				}
+			} finally {
+				expectedCountLock.unlock();
 			}
 		}
 		return expectedCount;
@@ -87,22 +131,139 @@ public abstract class Missionner<M extends Mission> extends Employee<M> {
 
 
 
+	/**
+	 * Retourne la capacit du tampon des missions prpares.
+	 * @return La capacit du tampon des missions prpares.
+	 */
+	public final int getBufferCapacity() {
+		return bufferCapacity;
+	}
+
+
+
+	/**
+	 * Retourne une copie de l'histogramme des dures de prparation des missions (dures des appels  {@link #delegateGetNext()}).<br>
+	 * Cette mthode est non bloquante.
+	 * @return Une copie de l'histogramme des dures de prparation des missions.
+	 */
+	public final Histogram getProductionLatencies() {
+		return new Histogram(productionLatencies);
+	}
+
+
+
+	/**
+	 * Retourne le nombre de files entre lesquelles le tampon des missions prpares est rparti.
+	 * @return Le nombre de files entre lesquelles le tampon des missions prpares est rparti.
+	 */
+	public final int getShardCount() {
+		return shards.size();
+	}
+
+
+
+	/**
+	 * Retourne le nombre de missions prises par un ouvrier dans une autre file que la sienne, parce que la sienne tait vide.<br>
+	 * Cette mthode est non bloquante.
+	 * @return Le nombre de missions prises par un ouvrier dans une autre file que la sienne.
+	 */
+	public final long getStolenCount() {
+		return stolenCount;
+	}
+
+
+
 	/**
 	 * Distribue la mission suivante.<br>
 	 * Cette mthode est bloquante tant qu'il n'y a pas de mission disponible et qu'on ne sait pas si il n'y en a plus  distribuer.
 	 * @return La mission suivante, ou <code>null</code> si il n'y en a plus.
 	 */
 	public final M getNext() {
-		@SuppressWarnings("hiding") M next = null;
+		return getNext(null);
+	}
+
 
-		synchronized (nextLock) {
+
+	/**
+	 * Distribue la mission suivante  l'ouvrier indiqu, en lui communiquant son numro d'ordre.<br>
+	 * Cette mthode est bloquante tant qu'il n'y a pas de mission disponible et qu'on ne sait pas si il n'y en a plus  distribuer.
+	 * @param worker Ouvrier auquel la mission est distribue, ou <code>null</code> si il n'est pas connu.
+	 * @return La mission suivante, ou <code>null</code> si il n'y en a plus.
+	 */
+	final M getNext(Worker<M> worker) {
+		M next = null;
+		Prepared<M> prepared;
+
+		nextLock.lock();
+		try {
 			waitForNext();
-			if (!hasExceptions()) {
-				next = this.next;
-				this.next = null;
+			if (!hasExceptions() && (bufferSize > 0)) {
+				prepared = take(selectShard(worker));
+				if (worker != null) {
+					worker.setSequence(prepared.sequence);
+				}
+				next = prepared.mission;
 			}
-			nextLock.notifyAll();
+			notFull.signal();
 			return next;
+		} finally {
+			nextLock.unlock();
+		}
+	}
+
+
+
+	/**
+	 * Distribue au plus le nombre indiqu de missions suivantes, en une seule fois.<br>
+	 * Cette mthode est bloquante tant qu'il n'y a pas de mission disponible et qu'on ne sait pas si il n'y en a plus  distribuer. Elle ne retourne que les missions dj prpares, et n'attend pas
+	 * que le nombre indiqu soit atteint.
+	 * @param maxCount Nombre maximal de missions  distribuer (doit tre strictement positif).
+	 * @return Les missions suivantes, ou une liste vide si il n'y en a plus, jamais <code>null</code>.
+	 */
+	public final List<M> getNextBatch(int maxCount) {
+		return getNextBatch(maxCount, null);
+	}
+
+
+
+	/**
+	 * Distribue au plus le nombre indiqu de missions suivantes  l'ouvrier indiqu, en une seule fois, en lui communiquant leurs numros d'ordre.<br>
+	 * Cette mthode est bloquante tant qu'il n'y a pas de mission disponible et qu'on ne sait pas si il n'y en a plus  distribuer.
+	 * @param maxCount Nombre maximal de missions  distribuer (doit tre strictement positif).
+	 * @param worker Ouvrier auquel les missions sont distribues, ou <code>null</code> si il n'est pas connu.
+	 * @return Les missions suivantes, ou une liste vide si il n'y en a plus, jamais <code>null</code>.
+	 */
+	final List<M> getNextBatch(int maxCount, Worker<M> worker) {
+		List<M> batch;
+		Prepared<M> prepared;
+		long[] sequences;
+		long limit;
+		int shard;
+
+		if (maxCount <= 0) {
+			throw new IllegalArgumentException("Le nombre maximal de missions doit tre strictement positif: " + maxCount);
+		}
+		nextLock.lock();
+		try {
+			waitForNext();
+			batch = new ArrayList<>(Math.min(maxCount, bufferSize));
+			if (!hasExceptions() && (bufferSize > 0)) {
+				shard = selectShard(worker);
+				limit = getSequenceLimit(shard);
+				sequences = new long[maxCount];
+				while ((batch.size() < maxCount) && !shards.get(shard).isEmpty() && (shards.get(shard).peek().sequence < limit)) {
+					prepared = take(shard);
+					sequences[batch.size()] = prepared.sequence;
+					batch.add(prepared.mission);
+				}
+				if (worker != null) {
+					worker.setSequences(Arrays.copyOf(sequences, batch.size()));
+				}
+			}
+			notFull.signal();
+			return batch;
+		} finally {
+			nextLock.unlock();
 		}
 	}
 
@@ -116,9 +277,12 @@ public abstract class Missionner<M extends Mission> extends Employee<M> {
 	 * @return <code>true</code> si des missions peuvent encore tre distribues, <code>false</code> sinon.
 	 */
 	public final boolean hasNext() {
-		synchronized (nextLock) {
+		nextLock.lock();
+		try {
 			waitForNext();
-			return next != null;
+			return bufferSize > 0;
+		} finally {
+			nextLock.unlock();
 		}
 	}
 
@@ -128,36 +292,111 @@ public abstract class Missionner<M extends Mission> extends Employee<M> {
 	 * {@inheritDoc}
 	 */
 	@Override public final void run() {
-		@SuppressWarnings("hiding") M next = null;
+		M next = null;
 		ExpectedCounter expectedCounterThread = null;
+		long time;
+		long index = 0;
 
 		try {
 			delegateInitialize();
 			(expectedCounterThread = new ExpectedCounter()).start();
-			synchronized (nextLock) {
-				while (!finished && !hasExceptions() && ((next = delegateGetNext()) != null)) {
-					while (!finished && !hasExceptions() && (this.next != null)) {
-						try {
-							nextLock.wait();
-						} catch (Exception exception) {
-							reportExceptions(exception);
+			if ((checkpoint != null) && (checkpoint.getResumedLowWaterMark() > 0)) {
+				index = delegateSkip(checkpoint.getResumedLowWaterMark());
+			}
+			time = System.nanoTime();
+			while (!finished && !hasExceptions() && ((next = delegateGetNext()) != null)) {
+				productionLatencies.record(System.nanoTime() - time);
+				if ((checkpoint == null) || !checkpoint.isDone(index)) {
+					nextLock.lock();
+					try {
+						while (!finished && !hasExceptions() && (bufferSize >= bufferCapacity)) {
+							try {
+								notFull.await();
+							} catch (Exception exception) {
+								reportExceptions(exception);
+							}
 						}
-					}
-					if (!finished && !hasExceptions()) {
-						this.next = next;
-						nextLock.notifyAll();
+						if (!finished && !hasExceptions()) {
+							if (checkpoint != null) {
+								checkpoint.collectPrepared(preparedCount, index);
+							}
+							shards.get(route(next)).add(new Prepared<>(next, preparedCount++));
+							if (++bufferSize == 1) {
+								notEmpty.signalAll();
+							}
+						}
+					} finally {
+						nextLock.unlock();
 					}
 				}
+				index++;
+				time = System.nanoTime();
 			}
 			expectedCounterThread.interrupt();
-			finished = true;
+			nextLock.lock();
+			try {
+				finished = true;
+				notEmpty.signalAll();
+			} finally {
+				nextLock.unlock();
+			}
 			delegateFinalize();
 		} catch (Throwable exception) {
 			reportExceptions(exception);
+			nextLock.lock();
+			try {
+				notEmpty.signalAll();
+			} finally {
+				nextLock.unlock();
+			}
 		} finally {
-			synchronized (expectedCountLock) {
-				expectedCountLock.notifyAll();
+			signalExpectedCountComputed();
+		}
+	}
+
+
+
+	/**
+	 * Fixe la capacit du tampon des missions prpares.<br>
+	 * Cette mthode ne peut tre appele qu'avant le dmarrage du distributeur.
+	 * @param bufferCapacity Capacit du tampon des missions prpares (doit tre strictement positive).
+	 */
+	public final void setBufferCapacity(@SuppressWarnings("hiding") int bufferCapacity) {
+		if (bufferCapacity <= 0) {
+			throw new IllegalArgumentException("La capacit du tampon doit tre strictement positive: " + bufferCapacity);
+		}
+		nextLock.lock();
+		try {
+			if (started) {
+				throw new IllegalStateException("La capacit du tampon ne peut plus tre modifie aprs le dmarrage du distributeur.");
 			}
+			this.bufferCapacity = bufferCapacity;
+		} finally {
+			nextLock.unlock();
+		}
+	}
+
+
+
+	/**
+	 * Fixe le nombre de files entre lesquelles le tampon des missions prpares est rparti (une seule par dfaut).<br>
+	 * Il est conseill d'indiquer le nombre d'ouvriers, chaque ouvrier se voyant attribuer une file,  tour de rle, lors de sa premire demande de mission, et d'indiquer une capacit de tampon
+	 * ({@link #setBufferCapacity(int)}) de plusieurs missions par file.<br>
+	 * Cette mthode ne peut tre appele qu'avant le dmarrage du distributeur.
+	 * @param shardCount Nombre de files (doit tre strictement positif).
+	 */
+	public final void setShardCount(int shardCount) {
+		if (shardCount <= 0) {
+			throw new IllegalArgumentException("Le nombre de files doit tre strictement positif: " + shardCount);
+		}
+		nextLock.lock();
+		try {
+			if (started) {
+				throw new IllegalStateException("Le nombre de files ne peut plus tre modifi aprs le dmarrage du distributeur.");
+			}
+			shards = newQueues(shardCount);
+		} finally {
+			nextLock.unlock();
 		}
 	}
 
@@ -174,35 +413,239 @@ public abstract class Missionner<M extends Mission> extends Employee<M> {
 
 
 	/**
-	 * Arrte la distribution de missions, mme si il en reste.
+	 * Indique le point de reprise  partir duquel les missions dj termines sont sautes.<br>
+	 * Cette mthode est appele par l'entreprise, avant le dmarrage du distributeur.
+	 * @param checkpoint Point de reprise.
+	 */
+	final void setCheckpoint(@SuppressWarnings("hiding") Checkpoint checkpoint) {
+		if (started) {
+			throw new IllegalStateException("Le point de reprise ne peut plus tre indiqu aprs le dmarrage du distributeur.");
+		}
+		this.checkpoint = checkpoint;
+	}
+
+
+
+	/**
+	 * Indique l'cart maximal entre le numro d'ordre d'une mission prise dans une file et celui de la plus ancienne mission en attente dans les autres files.<br>
+	 * Cette mthode est appele par l'entreprise, avant le dmarrage du distributeur, avec la capacit de son rceptionnaire si il est ordonn.
+	 * @param orderWindow cart maximal, ou 0 si il n'y en a pas.
+	 */
+	final void setOrderWindow(@SuppressWarnings("hiding") int orderWindow) {
+		if (started) {
+			throw new IllegalStateException("L'cart maximal entre numros d'ordre ne peut plus tre indiqu aprs le dmarrage du distributeur.");
+		}
+		this.orderWindow = orderWindow;
+	}
+
+
+
+	/**
+	 * Retourne un flux des missions de ce distributeur, qui ne doit pas tre employ par une entreprise.<br>
+	 * Un flux parallle est trait par les threads du {@link java.util.concurrent.ForkJoinPool} commun, les missions lui tant transmises par lots (voir {@link MissionnerSpliterator}). Le flux ne
+	 * peut tre parcouru qu'une seule fois.
+	 * @param parallel Indicateur de flux parallle.
+	 * @return Un flux des missions de ce distributeur.
+	 */
+	public final Stream<M> stream(boolean parallel) {
+		return StreamSupport.stream(new MissionnerSpliterator<>(this), parallel);
+	}
+
+
+
+	/**
+	 * Arrte la distribution de missions, mme si il en reste, y compris celles dj prpares.
 	 */
 	public final void stopDispensing() {
-		finished = true;
+		nextLock.lock();
+		try {
+			finished = true;
+			for (int shard = 0; shard < shards.size(); shard++) {
+				shards.get(shard).clear();
+			}
+			bufferSize = 0;
+			notEmpty.signalAll();
+			notFull.signalAll();
+		} finally {
+			nextLock.unlock();
+		}
 	}
 
 
 
 	/**
-	 * Attend que la mission suivante soit disponible, ou qu'il n'y ait plus de mission  distribuer.<br>
-	 * Cette mthode est bloquante.
+	 * Retourne la file dans laquelle placer la mission indique.<br>
+	 * Cette mthode doit tre appele en dtenant le verrou {@link #nextLock}.
+	 * @param mission Mission.
+	 * @return La file dans laquelle placer la mission indique.
 	 */
-	private void waitForNext() {
-		synchronized (nextLock) {
-			if (!started) {
-				start();
+	private int route(M mission) {
+		Object key;
+		int hash;
+
+		if (shards.size() == 1) {
+			return 0;
+		} else if ((key = mission.getAffinityKey()) == null) {
+			return nextRoutedShard = (nextRoutedShard + 1) % shards.size();
+		} else {
+			hash = key.hashCode();
+			return ((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % shards.size();
+		}
+	}
+
+
+
+	/**
+	 * Retourne la limite des numros d'ordre des missions qui peuvent tre prises dans la file indique: la plus ancienne mission en attente dans les autres files augmente de l'cart maximal si il y
+	 * en a un, {@link Long#MAX_VALUE} sinon.<br>
+	 * Cette mthode doit tre appele en dtenant le verrou {@link #nextLock}.
+	 * @param shard File.
+	 * @return La limite (exclue) des numros d'ordre des missions qui peuvent tre prises dans la file indique.
+	 */
+	private long getSequenceLimit(int shard) {
+		long limit = Long.MAX_VALUE;
+
+		if (orderWindow > 0) {
+			for (int other = 0; other < shards.size(); other++) {
+				if ((other != shard) && !shards.get(other).isEmpty()) {
+					limit = Math.min(limit, shards.get(other).peek().sequence + orderWindow);
+				}
+			}
+		}
+		return limit;
+	}
+
+
+
+	/**
+	 * Retourne la file dans laquelle l'ouvrier indiqu doit prendre des missions: la sienne si elle n'est pas vide, sinon la plus remplie, sauf si la mission en tte de celle ci dpasse l'cart
+	 * maximal, auquel cas c'est celle dont la mission en tte est la plus ancienne. Une file est attribue  l'ouvrier si il n'en a pas encore.<br>
+	 * Cette mthode doit tre appele en dtenant le verrou {@link #nextLock}, alors que le tampon n'est pas vide.
+	 * @param worker Ouvrier, ou <code>null</code> si il n'est pas connu.
+	 * @return La file dans laquelle l'ouvrier indiqu doit prendre des missions.
+	 */
+	private int selectShard(Worker<M> worker) {
+		int home;
+		int selected;
+
+		if (shards.size() == 1) {
+			return 0;
+		}
+		if (worker == null) {
+			home = 0;
+		} else if ((home = worker.getShard()) < 0) {
+			worker.setShard(home = nextAssignedShard);
+			nextAssignedShard = (nextAssignedShard + 1) % shards.size();
+		}
+		if (!shards.get(home).isEmpty()) {
+			selected = home;
+		} else {
+			selected = home;
+			for (int shard = 0; shard < shards.size(); shard++) {
+				if (shards.get(shard).size() > shards.get(selected).size()) {
+					selected = shard;
+				}
 			}
-			while (!finished && !hasExceptions() && (this.next == null)) {
-				try {
-					nextLock.wait();
-				} catch (InterruptedException exception) {
-					reportExceptions(exception);
+		}
+		if (shards.get(selected).peek().sequence >= getSequenceLimit(selected)) {
+			for (int shard = 0; shard < shards.size(); shard++) {
+				if (!shards.get(shard).isEmpty() && (shards.get(shard).peek().sequence < shards.get(selected).peek().sequence)) {
+					selected = shard;
 				}
 			}
 		}
+		if ((worker != null) && (selected != home)) {
+			stolenCount++;
+		}
+		return selected;
 	}
 
 
 
+	/**
+	 * Retire la prochaine mission de la file indique, avec son numro d'ordre.<br>
+	 * Cette mthode doit tre appele en dtenant le verrou {@link #nextLock}, alors que la file n'est pas vide.
+	 * @param shard File.
+	 * @return La mission retire, avec son numro d'ordre.
+	 */
+	private Prepared<M> take(int shard) {
+		bufferSize--;
+		return shards.get(shard).poll();
+	}
+
+
+
+	/**
+	 * Rveille les threads qui attendent le nombre de rsultats attendus, parce qu'il a t calcul ou que son calcul a chou.
+	 */
+	private void signalExpectedCountComputed() {
+		expectedCountLock.lock();
+		try {
+			expectedCountReady.signalAll();
+		} finally {
+			expectedCountLock.unlock();
+		}
+	}
+
+
+
+	/**
+	 * Attend que la mission suivante soit disponible, ou qu'il n'y ait plus de mission  distribuer.<br>
+	 * Cette mthode est bloquante, et doit tre appele en dtenant le verrou {@link #nextLock}.
+	 */
+	private void waitForNext() {
+		if (!started) {
+			start();
+		}
+		while (!finished && !hasExceptions() && (bufferSize == 0)) {
+			try {
+				Blocker.await(notEmpty);
+			} catch (InterruptedException exception) {
+				reportExceptions(exception);
+			}
+		}
+	}
+
+
+
+	/**
+	 * Retourne une liste du nombre indiqu de nouvelles files vides.
+	 * @param <T> Type des lments des files.
+	 * @param count Nombre de files.
+	 * @return Une liste du nombre indiqu de nouvelles files vides.
+	 */
+	private static <T> List<ArrayDeque<T>> newQueues(int count) {
+		List<ArrayDeque<T>> queues = new ArrayList<>(count);
+
+		for (int i = 0; i < count; i++) {
+			queues.add(new ArrayDeque<>());
+		}
+		return queues;
+	}
+
+
+
+	/**
+	 * Capacit du tampon des missions prpares.
+	 */
+	private volatile int bufferCapacity = 1;
+
+
+
+	/**
+	 * Nombre de missions prpares et non encore distribues, toutes files confondues.
+	 */
+	private int bufferSize = 0;
+
+
+
+	/**
+	 * Point de reprise, ou <code>null</code> si il n'y en a pas.
+	 */
+	private volatile Checkpoint checkpoint = null;
+
+
+
 	/**
 	 * Nombre de rsultats attendus.
 	 */
@@ -211,9 +654,16 @@ public abstract class Missionner<M extends Mission> extends Employee<M> {
 
 
 	/**
-	 * Verrou pour le nombre de rsultats attendus.
+	 * Verrou pour le nombre de rsultats attendus, propre  chaque distributeur.
 	 */
-	private final Object expectedCountLock = "expectedCountLock";
+	private final ReentrantLock expectedCountLock = new ReentrantLock();
+
+
+
+	/**
+	 * Condition signale lorsque le nombre de rsultats attendus a t calcul, ou que son calcul a chou.
+	 */
+	private final Condition expectedCountReady = expectedCountLock.newCondition();
 
 
 
@@ -225,16 +675,66 @@ public abstract class Missionner<M extends Mission> extends Employee<M> {
 
 
 	/**
-	 * Mission suivante  distribuer, ou <code>null</code> si il n'y en a pas de disponible.
+	 * Verrou pour le tampon des missions prpares.<br>
+	 * Un {@link ReentrantLock} est utilis plutt qu'un moniteur pour que les ouvriers excuts dans des threads virtuels n'immobilisent pas leur thread porteur pendant l'attente.
+	 */
+	private final ReentrantLock nextLock = new ReentrantLock();
+
+
+
+	/**
+	 * Condition signale lorsque le tampon des missions prpares n'est plus vide, ou que la distribution est finie.
 	 */
-	private volatile M next = null;
+	private final Condition notEmpty = nextLock.newCondition();
 
 
 
 	/**
-	 * Verrou pour la mission suivante  distribuer.
+	 * Condition signale lorsque le tampon des missions prpares n'est plus plein, ou que la distribution est finie.
 	 */
-	private final Object nextLock = "nextLock";
+	private final Condition notFull = nextLock.newCondition();
+
+
+
+	/**
+	 * File attribue au prochain ouvrier qui n'en a pas encore.
+	 */
+	private int nextAssignedShard = 0;
+
+
+
+	/**
+	 * Dernire file dans laquelle une mission sans cl d'affinit a t place.
+	 */
+	private int nextRoutedShard = 0;
+
+
+
+	/**
+	 * cart maximal entre le numro d'ordre d'une mission prise dans une file et celui de la plus ancienne mission en attente dans les autres files, ou 0 si il n'y en a pas.
+	 */
+	private volatile int orderWindow = 0;
+
+
+
+	/**
+	 * Nombre de missions places dans le tampon, qui est aussi le numro d'ordre de la prochaine mission  y placer.
+	 */
+	private long preparedCount = 0;
+
+
+
+	/**
+	 * Histogramme des dures de prparation des missions.
+	 */
+	private final Histogram productionLatencies = new Histogram();
+
+
+
+	/**
+	 * Files des missions prpares et non encore distribues, avec leurs numros d'ordre.
+	 */
+	private List<ArrayDeque<Prepared<M>>> shards = newQueues(1);
 
 
 
@@ -245,6 +745,13 @@ public abstract class Missionner<M extends Mission> extends Employee<M> {
 
 
 
+	/**
+	 * Nombre de missions prises par un ouvrier dans une autre file que la sienne.
+	 */
+	private volatile long stolenCount = 0;
+
+
+
 	/**
 	 * Valeur pour indiquer que le calcul du nombre de rsultats attendus est en cours mais n'est pas encore disponible.
 	 */
@@ -266,6 +773,44 @@ public abstract class Missionner<M extends Mission> extends Employee<M> {
 
 
 
+	/**
+	 * La classe {@link Prepared} associe une mission prpare  son numro d'ordre, pendant qu'elle attend dans le tampon.
+	 * @author Ludovic WALLE
+	 * @param <M> Missions.
+	 */
+	private static final class Prepared<M> {
+
+
+
+		/**
+		 * @param mission Mission.
+		 * @param sequence Numro d'ordre de la mission.
+		 */
+		private Prepared(M mission, long sequence) {
+			this.mission = mission;
+			this.sequence = sequence;
+		}
+
+
+
+		/**
+		 * Mission.
+		 */
+		private final M mission;
+
+
+
+		/**
+		 * Numro d'ordre de la mission.
+		 */
+		private final long sequence;
+
+
+
+	}
+
+
+
 	/**
 	 * La classe {@link ExpectedCounter} implmente un compteur de missions attendues.
 	 * @author Ludovic WALLE
@@ -288,26 +833,30 @@ public abstract class Missionner<M extends Mission> extends Employee<M> {
 
 			try {
 				if (expectedCount == NOT_COMPUTED) {
-					synchronized (expectedCountLock) {
+					expectedCountLock.lock();
+					try {
 						if (expectedCount == NOT_COMPUTED) {
 							expectedCount = NOT_AVAILABLE;
 						}
+					} finally {
+						expectedCountLock.unlock();
 					}
 					count = delegateComputeExpectedCount();
 					if ((count < 0) && (count != NOT_COMPUTABLE)) {
 						reportExceptions(new Exception("La valeur renvoye par la mthode delegateComputeExpectedCount est invalide: " + count));
 					} else {
-						synchronized (expectedCountLock) {
+						expectedCountLock.lock();
+						try {
 							expectedCount = count;
+						} finally {
+							expectedCountLock.unlock();
 						}
 					}
 				}
 			} catch (Throwable exception) {
 				reportExceptions(exception);
 			} finally {
-				synchronized (expectedCountLock) {
-					expectedCountLock.notifyAll();
-				}
+				signalExpectedCountComputed();
 			}
 		}
 	}
@@ -0,0 +1,163 @@
+package toolbox.parallel;
+
+import java.util.*;
+import java.util.function.*;
+
+
+
+/**
+ * La classe {@link MissionnerSpliterator} permet de parcourir les missions d'un {@link Missionner} comme un {@link Spliterator}, et donc de les traiter par un flux ({@link java.util.stream.Stream}),
+ * ventuellement parallle (voir {@link Missionner#stream(boolean)}).<br>
+ * Le distributeur est dmarr  la premire demande de mission, et continue  prparer les missions  l'avance dans son propre thread. Le dcoupage ({@link #trySplit()}) retire du distributeur un
+ * lot de missions, dont la taille augmente  chaque dcoupage, comme pour les {@link Spliterator} construits sur un {@link Iterator}, et le confie  un {@link Spliterator} de tableau, lui mme
+ * dcoupable.<br>
+ * Si le distributeur rencontre une exception, elle est retransmise, encapsule dans une {@link RuntimeException}, au lieu de terminer silencieusement le parcours.
+ * @author Ludovic WALLE
+ * @param <M> Type des missions.
+ */
+public class MissionnerSpliterator<M extends Mission> implements Spliterator<M> {
+
+
+
+	/**
+	 * @param missionner Distributeur de missions, qui ne doit pas tre employ par une entreprise (ne doit pas tre <code>null</code>).
+	 */
+	public MissionnerSpliterator(Missionner<M> missionner) {
+		if (missionner == null) {
+			throw new NullPointerException();
+		}
+		this.missionner = missionner;
+	}
+
+
+
+	/**
+	 * {@inheritDoc}<br>
+	 * Les missions sont signales comme ordonnes si le tampon du distributeur n'est pas rparti en plusieurs files.
+	 */
+	@Override public int characteristics() {
+		return (missionner.getShardCount() == 1) ? ORDERED | NONNULL : NONNULL;
+	}
+
+
+
+	/**
+	 * {@inheritDoc}<br>
+	 * L'estimation est le nombre de rsultats attendus du distributeur (voir {@link Missionner#getExpectedCount(boolean)}), qui est en gnral le nombre de missions, diminu du nombre de missions
+	 * dj retires par ce {@link Spliterator}. Si le nombre de rsultats attendus n'est pas (encore) connu, cette mthode retourne {@link Long#MAX_VALUE}. Elle n'attend pas que le nombre de
+	 * rsultats attendus soit calcul, et ne dmarre pas le distributeur.
+	 */
+	@Override public long estimateSize() {
+		int expectedCount = missionner.getExpectedCount(false);
+
+		return (expectedCount >= 0) ? Math.max(0, expectedCount - takenCount) : Long.MAX_VALUE;
+	}
+
+
+
+	/**
+	 * {@inheritDoc}<br>
+	 * Les missions sont prises par lots, ce qui limite les synchronisations avec le distributeur.
+	 */
+	@Override public void forEachRemaining(Consumer<? super M> action) {
+		List<M> batch;
+
+		while (!(batch = missionner.getNextBatch(missionner.getBufferCapacity())).isEmpty()) {
+			takenCount += batch.size();
+			for (M mission : batch) {
+				action.accept(mission);
+			}
+		}
+		checkExceptions();
+	}
+
+
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override public boolean tryAdvance(Consumer<? super M> action) {
+		M mission;
+
+		if ((mission = missionner.getNext()) == null) {
+			checkExceptions();
+			return false;
+		}
+		takenCount++;
+		action.accept(mission);
+		return true;
+	}
+
+
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override public Spliterator<M> trySplit() {
+		Object[] missions = new Object[Math.min(batchSize + BATCH_UNIT, MAX_BATCH_SIZE)];
+		List<M> batch;
+		int count = 0;
+
+		while ((count < missions.length) && !(batch = missionner.getNextBatch(missions.length - count)).isEmpty()) {
+			for (M mission : batch) {
+				missions[count++] = mission;
+			}
+		}
+		if (count == 0) {
+			checkExceptions();
+			return null;
+		}
+		batchSize = count;
+		takenCount += count;
+		return Spliterators.spliterator(missions, 0, count, characteristics());
+	}
+
+
+
+	/**
+	 * Retransmet la premire exception rencontre par le distributeur, si il y en a une.
+	 */
+	private void checkExceptions() {
+		if (missionner.hasExceptions()) {
+			throw new RuntimeException(missionner.getExceptions()[0]);
+		}
+	}
+
+
+
+	/**
+	 * Taille du dernier lot retir par {@link #trySplit()}.
+	 */
+	private int batchSize = 0;
+
+
+
+	/**
+	 * Distributeur de missions.
+	 */
+	private final Missionner<M> missionner;
+
+
+
+	/**
+	 * Nombre de missions retires du distributeur par ce {@link Spliterator}.
+	 */
+	private long takenCount = 0;
+
+
+
+	/**
+	 * Augmentation de la taille des lots  chaque dcoupage.
+	 */
+	private static final int BATCH_UNIT = 1 << 10;
+
+
+
+	/**
+	 * Taille maximale des lots.
+	 */
+	private static final int MAX_BATCH_SIZE = 1 << 25;
+
+
+
+}
@@ -0,0 +1,303 @@
+package toolbox.parallel;
+
+import java.util.*;
+import java.util.concurrent.locks.*;
+
+
+
+/**
+ * La classe {@link Pipe} implmente un canal de capacit limite reliant deux tages d'un {@link Pipeline}: les rsultats produits par les ouvriers de l'entreprise amont deviennent les missions de
+ * l'entreprise aval.<br>
+ * Ct amont, le canal est aliment par le rceptionnaire retourn par {@link #newReceiver(boolean, int)},  indiquer  l'entreprise amont par {@link Enterprise#setReceiver(Receiver)}. Ct aval,
+ * il est vid par le distributeur de missions retourn par {@link #getMissionner()},  passer au constructeur de l'entreprise aval.<br>
+ * Lorsque le canal est plein, le rceptionnaire attend qu'il se vide, ce qui finit par bloquer les ouvriers amont: l'tage le plus lent impose son rythme aux autres, et la mmoire utilise reste
+ * borne. Le canal est ferm lorsque le rceptionnaire a reu tous les rsultats de l'entreprise amont, et le distributeur aval s'arrte lorsqu'il a distribu tout son contenu.
+ * @author Ludovic WALLE
+ * @param <M> Type des missions transmises.
+ */
+public class Pipe<M extends Mission> {
+
+
+
+	/**
+	 * @param capacity Capacit du canal (doit tre strictement positive).
+	 */
+	public Pipe(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("La capacit du canal doit tre strictement positive: " + capacity);
+		}
+		this.capacity = capacity;
+		this.queue = new ArrayDeque<>(capacity);
+	}
+
+
+
+	/**
+	 * Abandonne le canal: les missions qu'il contient sont perdues, et ses deux extrmits cessent d'attendre.<br>
+	 * Cette mthode est appele par le {@link Pipeline} lorsqu'un de ses tages a rencontr une exception.
+	 */
+	public final void abort() {
+		lock.lock();
+		try {
+			aborted = true;
+			closed = true;
+			queue.clear();
+			notEmpty.signalAll();
+			notFull.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+
+
+	/**
+	 * Retourne la capacit du canal.
+	 * @return La capacit du canal.
+	 */
+	public final int getCapacity() {
+		return capacity;
+	}
+
+
+
+	/**
+	 * Retourne le distributeur des missions contenues dans le canal, destin  l'entreprise aval.
+	 * @return Le distributeur des missions contenues dans le canal.
+	 */
+	public final Missionner<M> getMissionner() {
+		return missionner;
+	}
+
+
+
+	/**
+	 * Retourne le nombre de missions en attente dans le canal.<br>
+	 * Cette mthode est non bloquante.
+	 * @return Le nombre de missions en attente dans le canal.
+	 */
+	public final int getSize() {
+		return size;
+	}
+
+
+
+	/**
+	 * Cre le rceptionnaire alimentant le canal, destin  l'entreprise amont.<br>
+	 * Cette mthode ne peut tre appele qu'une seule fois.
+	 * @param <P> Type des missions de l'entreprise amont.
+	 * @param ordered Indicateur de transmission des rsultats dans l'ordre des missions de l'entreprise amont.
+	 * @param receiverCapacity Capacit du tampon du rceptionnaire (doit tre strictement positive).
+	 * @return Le rceptionnaire alimentant le canal.
+	 */
+	public final synchronized <P extends Mission> Receiver<P, M> newReceiver(boolean ordered, int receiverCapacity) {
+		if (receiverCreated) {
+			throw new IllegalStateException("Le rceptionnaire alimentant le canal a dj t cr.");
+		}
+		receiverCreated = true;
+		return new PipeReceiver<>(ordered, receiverCapacity);
+	}
+
+
+
+	/**
+	 * Signale qu'il n'y aura plus de mission  transmettre.
+	 */
+	private void close() {
+		lock.lock();
+		try {
+			closed = true;
+			notEmpty.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+
+
+	/**
+	 * Ajoute la mission indique au canal.<br>
+	 * Cette mthode est bloquante tant que le canal est plein.
+	 * @param mission Mission.
+	 * @throws InterruptedException Si l'attente est interrompue.
+	 */
+	private void put(M mission) throws InterruptedException {
+		lock.lock();
+		try {
+			while (!aborted && (queue.size() >= capacity)) {
+				notFull.await();
+			}
+			if (!aborted) {
+				queue.add(mission);
+				size = queue.size();
+				if (size == 1) {
+					notEmpty.signal();
+				}
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+
+
+	/**
+	 * Retire la prochaine mission du canal.<br>
+	 * Cette mthode est bloquante tant que le canal est vide et n'est pas ferm.
+	 * @return La prochaine mission, ou <code>null</code> si il n'y en a plus.
+	 * @throws InterruptedException Si l'attente est interrompue.
+	 */
+	private M take() throws InterruptedException {
+		M mission;
+
+		lock.lock();
+		try {
+			while (!closed && queue.isEmpty()) {
+				notEmpty.await();
+			}
+			if ((mission = queue.poll()) != null) {
+				size = queue.size();
+				notFull.signal();
+			}
+			return mission;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+
+
+	/**
+	 * Indicateur de canal abandonn.
+	 */
+	private boolean aborted = false;
+
+
+
+	/**
+	 * Capacit du canal.
+	 */
+	private final int capacity;
+
+
+
+	/**
+	 * Indicateur qu'il n'y aura plus de mission  transmettre.
+	 */
+	private boolean closed = false;
+
+
+
+	/**
+	 * Verrou pour le contenu du canal.
+	 */
+	private final ReentrantLock lock = new ReentrantLock();
+
+
+
+	/**
+	 * Distributeur des missions contenues dans le canal.
+	 */
+	private final Missionner<M> missionner = new PipeMissionner();
+
+
+
+	/**
+	 * Condition signale lorsque le canal n'est plus vide, ou qu'il a t ferm.
+	 */
+	private final Condition notEmpty = lock.newCondition();
+
+
+
+	/**
+	 * Condition signale lorsque le canal n'est plus plein, ou qu'il a t abandonn.
+	 */
+	private final Condition notFull = lock.newCondition();
+
+
+
+	/**
+	 * Missions en attente dans le canal.
+	 */
+	private final ArrayDeque<M> queue;
+
+
+
+	/**
+	 * Indicateur de rceptionnaire alimentant le canal dj cr.
+	 */
+	private boolean receiverCreated = false;
+
+
+
+	/**
+	 * Nombre de missions en attente dans le canal.
+	 */
+	private volatile int size = 0;
+
+
+
+	/**
+	 * La classe {@link PipeMissionner} implmente le distributeur des missions contenues dans le canal.
+	 * @author Ludovic WALLE
+	 */
+	private final class PipeMissionner extends Missionner<M> {
+
+
+
+		/**	*/
+		private PipeMissionner() {
+			super("PipeMissionner");
+		}
+
+
+
+		/** {@inheritDoc} */
+		@Override protected M delegateGetNext() throws InterruptedException {
+			return take();
+		}
+
+
+
+	}
+
+
+
+	/**
+	 * La classe {@link PipeReceiver} implmente le rceptionnaire alimentant le canal.
+	 * @author Ludovic WALLE
+	 * @param <P> Type des missions de l'entreprise amont.
+	 */
+	private final class PipeReceiver<P extends Mission> extends Receiver<P, M> {
+
+
+
+		/**
+		 * @param ordered Indicateur de transmission des rsultats dans l'ordre des missions de l'entreprise amont.
+		 * @param capacity Capacit du tampon du rceptionnaire (doit tre strictement positive).
+		 */
+		private PipeReceiver(boolean ordered, @SuppressWarnings("hiding") int capacity) {
+			super("PipeReceiver", ordered, capacity);
+		}
+
+
+
+		/** {@inheritDoc} */
+		@Override protected void delegateFinalize() {
+			Pipe.this.close();
+		}
+
+
+
+		/** {@inheritDoc} */
+		@Override protected void delegateReceive(M result) throws InterruptedException {
+			put(result);
+		}
+
+
+
+	}
+
+
+
+}
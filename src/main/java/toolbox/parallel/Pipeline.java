@@ -0,0 +1,190 @@
+package toolbox.parallel;
+
+import java.util.*;
+
+
+
+/**
+ * La classe {@link Pipeline} permet d'enchainer plusieurs entreprises (tages), les rsultats produits par les ouvriers d'un tage devenant les missions de l'tage suivant.<br>
+ * Les tages sont relis par des canaux de capacit limite ({@link Pipe}), crs par {@link #newPipe(int)}. Chaque tage a son propre nombre d'ouvriers, et ses propres indicateurs d'avancement
+ * ({@link Enterprise#getDoneCount()}, {@link Enterprise#getElapsedTime()}, ...). Tous les tages fonctionnent simultanment, les donnes traversant l'ensemble en une seule passe, sans fichiers
+ * intermdiaires et avec une mmoire borne.<br>
+ * Par exemple, pour analyser des lignes, les enrichir, puis les crire:
+ * <pre>
+ * Pipeline pipeline = new Pipeline();
+ * Pipe&lt;ParsedMission&gt; parsed = pipeline.newPipe(1000);
+ * Enterprise&lt;StringMission&gt; parse = new Enterprise&lt;&gt;("parse", 4, new StreamLineStringMissionner(reader), new ParseWorker());
+ * Enterprise&lt;ParsedMission&gt; enrich = new Enterprise&lt;&gt;("enrich", 32, parsed.getMissionner(), new EnrichWorker());
+ *
+ * parse.setReceiver(parsed.newReceiver(true, 256));
+ * enrich.setReceiver(new OutputReceiver(true, 256));
+ * pipeline.addStage(parse);
+ * pipeline.addStage(enrich);
+ * pipeline.run();
+ * </pre>
+ * Le traitement se lance par {@link #start()} pour une excution asynchrone, ou par {@link #run()} pour une excution synchrone. Il se termine lorsque tous les tages ont ferm. Si un tage
+ * rencontre une exception, le dmarrage de nouvelles missions est dfinitivement interdit dans tous les tages, et tous les canaux sont abandonns.
+ * @author Ludovic WALLE
+ */
+public class Pipeline extends Thread {
+
+
+
+	/**	 */
+	public Pipeline() {
+		this("Pipeline");
+	}
+
+
+
+	/**
+	 * @param name Nom de la chaine.
+	 */
+	public Pipeline(String name) {
+		super(name);
+		setDaemon(true);
+	}
+
+
+
+	/**
+	 * Ajoute l'tage indiqu  la chaine.<br>
+	 * Cette mthode ne peut tre appele qu'avant le dmarrage de la chaine.
+	 * @param stage Etage (ne doit pas tre <code>null</code>).
+	 */
+	public final void addStage(Enterprise<?> stage) {
+		if (stage == null) {
+			throw new NullPointerException();
+		}
+		synchronized (stages) {
+			if (getState() != State.NEW) {
+				throw new IllegalStateException("Les tages ne peuvent tre ajouts qu'avant le dmarrage de la chaine.");
+			}
+			stages.add(stage);
+		}
+	}
+
+
+
+	/**
+	 * Retourne les exceptions rencontres par les tages de la chaine.<br>
+	 * Si aucune exception n'a t rencontre, la mthode retourne un tableau vide, jamais <code>null</code>.<br>
+	 * Cette mthode est non bloquante.
+	 * @return Les exceptions rencontres par les tages de la chaine.
+	 */
+	public final Throwable[] getExceptions() {
+		List<Throwable> exceptions = new ArrayList<>();
+
+		for (Enterprise<?> stage : getStages()) {
+			exceptions.addAll(Arrays.asList(stage.getExceptions()));
+		}
+		return exceptions.toArray(new Throwable[exceptions.size()]);
+	}
+
+
+
+	/**
+	 * Retourne les tages de la chaine, dans l'ordre o ils ont t ajouts.
+	 * @return Les tages de la chaine.
+	 */
+	public final Enterprise<?>[] getStages() {
+		synchronized (stages) {
+			return stages.toArray(new Enterprise<?>[stages.size()]);
+		}
+	}
+
+
+
+	/**
+	 * Teste si un des tages de la chaine a rencontr des exceptions.
+	 * @return <code>true</code> si un des tages de la chaine a rencontr des exceptions, <code>false</code> sinon.
+	 */
+	public final boolean hasExceptions() {
+		for (Enterprise<?> stage : getStages()) {
+			if (stage.hasExceptions()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+
+	/**
+	 * Cre un nouveau canal de la capacit indique, qui sera abandonn si un des tages rencontre une exception.
+	 * @param <M> Type des missions transmises.
+	 * @param capacity Capacit du canal (doit tre strictement positive).
+	 * @return Le nouveau canal.
+	 */
+	public final <M extends Mission> Pipe<M> newPipe(int capacity) {
+		Pipe<M> pipe = new Pipe<>(capacity);
+
+		synchronized (pipes) {
+			pipes.add(pipe);
+		}
+		return pipe;
+	}
+
+
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override public void run() {
+		Enterprise<?>[] stages = getStages();
+		boolean aborted = false;
+		boolean alive;
+
+		try {
+			for (Enterprise<?> stage : stages) {
+				stage.start();
+			}
+			do {
+				alive = false;
+				for (Enterprise<?> stage : stages) {
+					stage.join(POLLING_PERIOD);
+					alive |= stage.isAlive();
+					if (!aborted && stage.hasExceptions()) {
+						aborted = true;
+						for (Enterprise<?> otherStage : stages) {
+							otherStage.forbidForeverNewMissionsStart();
+						}
+						synchronized (pipes) {
+							for (Pipe<?> pipe : pipes) {
+								pipe.abort();
+							}
+						}
+					}
+				}
+			} while (alive);
+		} catch (InterruptedException exception) {
+			for (Enterprise<?> stage : stages) {
+				stage.collectExceptions(exception);
+			}
+		}
+	}
+
+
+
+	/**
+	 * Canaux reliant les tages.
+	 */
+	private final List<Pipe<?>> pipes = new ArrayList<>();
+
+
+
+	/**
+	 * Etages, dans l'ordre o ils ont t ajouts.
+	 */
+	private final List<Enterprise<?>> stages = new ArrayList<>();
+
+
+
+	/**
+	 * Priode de surveillance des tages, en millisecondes.
+	 */
+	private static final long POLLING_PERIOD = 100;
+
+
+
+}
@@ -0,0 +1,123 @@
+package toolbox.parallel;
+
+import java.util.*;
+
+
+
+/**
+ * La classe {@link ProducingWorker} implmente un ouvrier dont chaque mission produit un rsultat, transmis au rceptionnaire de l'entreprise (voir {@link Enterprise#setReceiver(Receiver)}).<br>
+ * Chaque mission est comptabilise comme ayant produit un rsultat si elle en a produit un, aucun sinon.<br>
+ * Le dlai imparti aux missions (voir {@link MissionPolicy#setTimeout(long)}) ne couvre que leur excution, pas l'attente de place dans le tampon du rceptionnaire.
+ * @author Ludovic WALLE
+ * @param <M> Type des missions.
+ * @param <R> Type des rsultats.
+ */
+public abstract class ProducingWorker<M extends Mission, R> extends Worker<M> {
+
+
+
+	/**	 */
+	protected ProducingWorker() {}
+
+
+
+	/**
+	 * @param other Autre ouvrier (ne doit pas tre <code>null</code>).
+	 */
+	protected ProducingWorker(ProducingWorker<M, R> other) {
+		super(other);
+	}
+
+
+
+	/**
+	 * {@inheritDoc}<br>
+	 * L'absence de rsultat est transmise au rceptionnaire, pour qu'un rceptionnaire ordonn n'attende pas le rsultat de cette mission.
+	 */
+	@Override final void abandon(long sequence) {
+		deposit(sequence, null);
+	}
+
+
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override protected final int delegateDo(M mission) throws Throwable {
+		R result = delegateProduce(mission);
+
+		disarm();
+		return deposit(getSequence(), result);
+	}
+
+
+
+	/**
+	 * {@inheritDoc}<br>
+	 * Les rsultats ne sont transmis qu'une fois toutes les missions du lot effectues. Si une mission choue, les rsultats des missions prcdentes sont transmis et signals comme dfinitifs (voir
+	 * {@link #reportBatchProgress(int, int)}), pour que seules les missions suivantes soient refaites (voir {@link MissionPolicy}).
+	 */
+	@Override protected final int delegateDoBatch(List<M> missions) throws Throwable {
+		List<R> results = new ArrayList<>(missions.size());
+
+		try {
+			for (M mission : missions) {
+				results.add(delegateProduce(mission));
+			}
+		} catch (Throwable exception) {
+			disarm();
+			reportBatchProgress(results.size(), depositAll(results));
+			throw exception;
+		}
+		disarm();
+		return depositAll(results);
+	}
+
+
+
+	/**
+	 * Effectue la mission indique et retourne son rsultat. L'entreprise sera interrompue si cette mthode gnre une exception.
+	 * @param mission Mission.
+	 * @return Le rsultat de la mission, ou <code>null</code> si elle n'en produit pas.
+	 * @throws Throwable Pour que la mthode puisse gnrer des exceptions.
+	 */
+	protected abstract R delegateProduce(M mission) throws Throwable;
+
+
+
+	/**
+	 * Transmet au rceptionnaire de l'entreprise le rsultat de la mission dont le numro d'ordre est indiqu.<br>
+	 * Cette mthode est bloquante tant que le rceptionnaire n'a pas de place pour ce rsultat.
+	 * @param sequence Numro d'ordre de la mission.
+	 * @param result Rsultat, ou <code>null</code> si la mission n'en a pas produit.
+	 * @return Le nombre de rsultats  comptabiliser.
+	 */
+	@SuppressWarnings("unchecked") private int deposit(long sequence, R result) {
+		Receiver<M, R> receiver = (Receiver<M, R>) getEnterprise().getReceiver();
+
+		if (receiver == null) {
+			throw new IllegalStateException("L'entreprise n'a pas de rceptionnaire pour les rsultats des missions.");
+		}
+		receiver.deposit(sequence, result);
+		return (result == null) ? 0 : 1;
+	}
+
+
+
+	/**
+	 * Transmet au rceptionnaire de l'entreprise les rsultats indiqus, qui sont ceux des premires missions du lot en cours.<br>
+	 * Cette mthode est bloquante tant que le rceptionnaire n'a pas de place pour ces rsultats.
+	 * @param results Rsultats, dans l'ordre des missions.
+	 * @return Le nombre de rsultats  comptabiliser.
+	 */
+	private int depositAll(List<R> results) {
+		int count = 0;
+
+		for (int index = 0; index < results.size(); index++) {
+			count += deposit(getSequence(index), results.get(index));
+		}
+		return count;
+	}
+
+
+}
@@ -0,0 +1,30 @@
+package toolbox.parallel;
+
+
+
+/**
+ * La classe {@link Quarantine} est l'interface des destinataires des missions mises en quarantaine par une {@link Enterprise}, c'est  dire des missions qui ont chou autant de fois que le permet
+ * la politique de traitement des missions (voir {@link MissionPolicy#setQuarantine(Quarantine)}).<br>
+ * Une mission mise en quarantaine est considre comme termine, sans rsultat, et l'entreprise continue  fonctionner. Le destinataire peut par exemple la consigner dans un fichier pour qu'elle
+ * soit examine ou refaite plus tard.<br>
+ * Le destinataire est appel par les ouvriers, ventuellement de faon concurrente, et doit donc tre synchronis si ncessaire.
+ * @author Ludovic WALLE
+ * @param <M> Type des missions.
+ */
+public interface Quarantine<M extends Mission> {
+
+
+
+	/**
+	 * Met en quarantaine la mission indique.
+	 * @param mission Mission.
+	 * @param sequence Numro d'ordre de la mission.
+	 * @param exception Exception gnre lors de la dernire tentative (une {@link java.util.concurrent.TimeoutException} si elle a dpass le dlai imparti).
+	 * @throws Throwable Pour que la mthode puisse gnrer des exceptions.<br>
+	 *             L'entreprise sera interrompue si cette mthode gnre une exception.
+	 */
+	public void quarantine(M mission, long sequence, Throwable exception) throws Throwable;
+
+
+
+}
@@ -0,0 +1,338 @@
+package toolbox.parallel;
+
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.*;
+
+
+
+/**
+ * La classe {@link RateLimiter} implmente un limiteur de dbit par seau  jetons, qui limite le nombre de missions distribues par seconde par une {@link Enterprise} (voir
+ * {@link Enterprise#setRateLimiter(RateLimiter)}), par exemple pour mnager une base de donnes pendant les heures ouvres.<br>
+ * Le seau se remplit au dbit indiqu, jusqu' la taille de rafale indique, et chaque mission distribue en consomme un jeton. Un ouvrier qui demande plus de jetons qu'il n'y en a dans le seau
+ * les obtient quand mme, mais attend le temps ncessaire pour qu'ils se soient remplis, ce qui rpartit les missions rgulirement dans le temps sans faire attendre les ouvriers plus que
+ * ncessaire.<br>
+ * L'tat du seau se rduit  la date  laquelle il aura rattrap les jetons dj consomms, mise  jour par une seule opration atomique, sans verrou. L'attente se fait hors de tout verrou
+ * ({@link LockSupport#parkNanos(long)}), et est interrompue si l'ouvrier est interrompu.<br>
+ * Le dbit peut tre modifi  tout moment ({@link #setRate(double)}), et des plages horaires peuvent imposer un dbit diffrent ({@link #addWindow(LocalTime, LocalTime, double, DayOfWeek...)}),
+ * la premire plage horaire qui contient l'heure courante s'appliquant. Les plages horaires ne sont rvalues qu'une fois par seconde au plus.
+ * @author Ludovic WALLE
+ */
+public class RateLimiter {
+
+
+
+	/**
+	 * Cre un limiteur de dbit dont la taille de rafale est d'un seul jeton.
+	 * @param rate Dbit, en missions par seconde (doit tre strictement positif, {@link Double#POSITIVE_INFINITY} pour ne pas limiter le dbit).
+	 */
+	public RateLimiter(double rate) {
+		this(rate, 1);
+	}
+
+
+
+	/**
+	 * @param rate Dbit, en missions par seconde (doit tre strictement positif, {@link Double#POSITIVE_INFINITY} pour ne pas limiter le dbit).
+	 * @param burst Taille de rafale, c'est  dire nombre maximal de jetons accumuls dans le seau (doit tre strictement positive).
+	 */
+	public RateLimiter(double rate, int burst) {
+		if (burst <= 0) {
+			throw new IllegalArgumentException("La taille de rafale doit tre strictement positive: " + burst);
+		}
+		this.burst = burst;
+		setRate(rate);
+	}
+
+
+
+	/**
+	 * Prend le nombre indiqu de jetons, en attendant le temps ncessaire pour qu'ils soient disponibles.<br>
+	 * Cette mthode est bloquante tant que les jetons ne sont pas disponibles, sauf si le thread est interrompu.
+	 * @param permits Nombre de jetons (doit tre positif ou nul).
+	 * @return Le temps d'attente, en nanosecondes.
+	 */
+	public final long acquire(int permits) {
+		long now = System.nanoTime();
+		long interval = getInterval(now);
+		long previous;
+		long next;
+		long remaining;
+
+		if (permits < 0) {
+			throw new IllegalArgumentException("Le nombre de jetons doit tre positif ou nul: " + permits);
+		} else if ((interval == 0) || (permits == 0)) {
+			return 0;
+		}
+		do {
+			previous = nextFreeTime.get();
+			next = Math.max(previous, now - (burst * interval)) + (permits * interval);
+		} while (!nextFreeTime.compareAndSet(previous, next));
+		if ((next - now) <= 0) {
+			return 0;
+		}
+		while (((remaining = next - System.nanoTime()) > 0) && !Thread.currentThread().isInterrupted()) {
+			LockSupport.parkNanos(remaining);
+		}
+		throttledTime.add(next - now);
+		return next - now;
+	}
+
+
+
+	/**
+	 * Ajoute une plage horaire imposant le dbit indiqu.<br>
+	 * Si l'heure de fin prcde l'heure de dbut, la plage horaire s'tend jusqu'au lendemain. Les plages horaires sont examines dans l'ordre o elles ont t ajoutes.
+	 * @param from Heure de dbut, incluse (ne doit pas tre <code>null</code>).
+	 * @param to Heure de fin, exclue (ne doit pas tre <code>null</code>).
+	 * @param rate Dbit pendant la plage horaire, en missions par seconde (doit tre strictement positif, {@link Double#POSITIVE_INFINITY} pour ne pas limiter le dbit).
+	 * @param days Jours de dbut de la plage horaire, ou aucun pour tous les jours.
+	 */
+	public final void addWindow(LocalTime from, LocalTime to, double rate, DayOfWeek... days) {
+		if ((from == null) || (to == null) || (days == null)) {
+			throw new NullPointerException();
+		}
+		windows.add(new Window(from, to, toInterval(rate), (days.length == 0) ? EnumSet.allOf(DayOfWeek.class) : EnumSet.copyOf(Arrays.asList(days))));
+		nextScheduleTime = System.nanoTime();
+	}
+
+
+
+	/**
+	 * Retourne la taille de rafale.
+	 * @return La taille de rafale.
+	 */
+	public final int getBurst() {
+		return burst;
+	}
+
+
+
+	/**
+	 * Retourne le dbit qui s'applique actuellement, en missions par seconde, compte tenu des plages horaires.
+	 * @return Le dbit qui s'applique actuellement, en missions par seconde ({@link Double#POSITIVE_INFINITY} si il n'est pas limit).
+	 */
+	public final double getCurrentRate() {
+		return toRate(getInterval(System.nanoTime()));
+	}
+
+
+
+	/**
+	 * Retourne le dbit en dehors des plages horaires, en missions par seconde.
+	 * @return Le dbit en dehors des plages horaires, en missions par seconde ({@link Double#POSITIVE_INFINITY} si il n'est pas limit).
+	 */
+	public final double getRate() {
+		return toRate(defaultInterval);
+	}
+
+
+
+	/**
+	 * Retourne le temps total pass  attendre des jetons, tous threads confondus, en millisecondes.<br>
+	 * Cette mthode est non bloquante.
+	 * @return Le temps total pass  attendre des jetons, en millisecondes.
+	 */
+	public final long getThrottledTime() {
+		return throttledTime.sum() / 1000000;
+	}
+
+
+
+	/**
+	 * Fixe le dbit en dehors des plages horaires. Il s'applique immdiatement, y compris aux threads qui attendent dj, pour les jetons qu'ils demanderont ensuite.
+	 * @param rate Dbit, en missions par seconde (doit tre strictement positif, {@link Double#POSITIVE_INFINITY} pour ne pas limiter le dbit).
+	 */
+	public final void setRate(double rate) {
+		defaultInterval = toInterval(rate);
+		nextScheduleTime = System.nanoTime();
+	}
+
+
+
+	/**
+	 * Retourne l'intervalle entre deux jetons qui s'applique  la date indique, en rvaluant les plages horaires si ncessaire.
+	 * @param now Date courante, en nanosecondes (voir {@link System#nanoTime()}).
+	 * @return L'intervalle entre deux jetons, en nanosecondes, ou 0 si le dbit n'est pas limit.
+	 */
+	private long getInterval(long now) {
+		LocalDateTime dateTime;
+		long interval;
+
+		if (windows.isEmpty()) {
+			return defaultInterval;
+		} else if ((now - nextScheduleTime) >= 0) {
+			dateTime = LocalDateTime.now();
+			interval = defaultInterval;
+			for (Window window : windows) {
+				if (window.contains(dateTime)) {
+					interval = window.interval;
+					break;
+				}
+			}
+			scheduledInterval = interval;
+			nextScheduleTime = now + SCHEDULE_PERIOD;
+		}
+		return scheduledInterval;
+	}
+
+
+
+	/**
+	 * Retourne l'intervalle entre deux jetons correspondant au dbit indiqu.
+	 * @param rate Dbit, en missions par seconde (doit tre strictement positif, {@link Double#POSITIVE_INFINITY} pour ne pas limiter le dbit).
+	 * @return L'intervalle entre deux jetons, en nanosecondes, ou 0 si le dbit n'est pas limit.
+	 */
+	private static long toInterval(double rate) {
+		if (!(rate > 0)) {
+			throw new IllegalArgumentException("Le dbit doit tre strictement positif: " + rate);
+		}
+		return Math.round(1e9 / rate);
+	}
+
+
+
+	/**
+	 * Retourne le dbit correspondant  l'intervalle entre deux jetons indiqu.
+	 * @param interval Intervalle entre deux jetons, en nanosecondes, ou 0 si le dbit n'est pas limit.
+	 * @return Le dbit, en missions par seconde ({@link Double#POSITIVE_INFINITY} si il n'est pas limit).
+	 */
+	private static double toRate(long interval) {
+		return (interval == 0) ? Double.POSITIVE_INFINITY : 1e9 / interval;
+	}
+
+
+
+	/**
+	 * Taille de rafale.
+	 */
+	private final int burst;
+
+
+
+	/**
+	 * Intervalle entre deux jetons en dehors des plages horaires, en nanosecondes, ou 0 si le dbit n'est pas limit.
+	 */
+	private volatile long defaultInterval;
+
+
+
+	/**
+	 * Date  laquelle le seau aura rattrap les jetons dj consomms, en nanosecondes (voir {@link System#nanoTime()}).
+	 */
+	private final AtomicLong nextFreeTime = new AtomicLong(Long.MIN_VALUE);
+
+
+
+	/**
+	 * Date de la prochaine rvaluation des plages horaires, en nanosecondes (voir {@link System#nanoTime()}).
+	 */
+	private volatile long nextScheduleTime = System.nanoTime();
+
+
+
+	/**
+	 * Intervalle entre deux jetons qui s'applique depuis la dernire rvaluation des plages horaires, en nanosecondes, ou 0 si le dbit n'est pas limit.
+	 */
+	private volatile long scheduledInterval;
+
+
+
+	/**
+	 * Temps total pass  attendre des jetons, en nanosecondes.
+	 */
+	private final LongAdder throttledTime = new LongAdder();
+
+
+
+	/**
+	 * Plages horaires.
+	 */
+	private final List<Window> windows = new CopyOnWriteArrayList<>();
+
+
+
+	/**
+	 * Priode de rvaluation des plages horaires, en nanosecondes.
+	 */
+	private static final long SCHEDULE_PERIOD = 1000000000L;
+
+
+
+	/**
+	 * La classe {@link Window} dcrit une plage horaire imposant un dbit.
+	 * @author Ludovic WALLE
+	 */
+	private static class Window {
+
+
+
+		/**
+		 * @param from Heure de dbut, incluse.
+		 * @param to Heure de fin, exclue.
+		 * @param interval Intervalle entre deux jetons pendant la plage horaire, en nanosecondes, ou 0 si le dbit n'est pas limit.
+		 * @param days Jours de dbut de la plage horaire.
+		 */
+		public Window(LocalTime from, LocalTime to, long interval, Set<DayOfWeek> days) {
+			this.from = from;
+			this.to = to;
+			this.interval = interval;
+			this.days = days;
+		}
+
+
+
+		/**
+		 * Teste si la plage horaire contient la date indique.
+		 * @param dateTime Date.
+		 * @return <code>true</code> si la plage horaire contient la date indique, <code>false</code> sinon.
+		 */
+		public boolean contains(LocalDateTime dateTime) {
+			LocalTime time = dateTime.toLocalTime();
+
+			if (from.isBefore(to)) {
+				return days.contains(dateTime.getDayOfWeek()) && !time.isBefore(from) && time.isBefore(to);
+			} else if (!time.isBefore(from)) {
+				return days.contains(dateTime.getDayOfWeek());
+			} else {
+				return days.contains(dateTime.getDayOfWeek().minus(1)) && time.isBefore(to);
+			}
+		}
+
+
+
+		/**
+		 * Jours de dbut de la plage horaire.
+		 */
+		private final Set<DayOfWeek> days;
+
+
+
+		/**
+		 * Heure de dbut, incluse.
+		 */
+		private final LocalTime from;
+
+
+
+		/**
+		 * Intervalle entre deux jetons pendant la plage horaire, en nanosecondes, ou 0 si le dbit n'est pas limit.
+		 */
+		private final long interval;
+
+
+
+		/**
+		 * Heure de fin, exclue.
+		 */
+		private final LocalTime to;
+
+
+
+	}
+
+
+
+}
@@ -0,0 +1,333 @@
+package toolbox.parallel;
+
+import java.util.*;
+import java.util.concurrent.locks.*;
+
+
+
+/**
+ * La classe {@link Receiver} est la classe anctre de tous les rceptionnaires de rsultats.<br>
+ * Un rceptionnaire fonctionne dans un {@link Thread} spar, et reoit un  un les rsultats produits par les ouvriers ({@link ProducingWorker}) d'une entreprise (voir
+ * {@link Enterprise#setReceiver(Receiver)}). Comme il est le seul  les recevoir, il peut par exemple les crire dans un fichier sans autre synchronisation.<br>
+ * Les rsultats sont reus:
+ * <ul>
+ * <li>soit au fur et  mesure qu'ils sont produits, dans un ordre quelconque,
+ * <li>soit dans l'ordre o le distributeur a prpar les missions correspondantes.
+ * </ul>
+ * Dans les deux cas, les rsultats en attente de rception sont conservs dans un tampon de capacit limite, et les ouvriers attendent qu'il y ait de la place pour y dposer les leurs. Dans l'ordre
+ * des missions, un rsultat n'est accept que si son numro d'ordre est infrieur  celui du prochain rsultat  recevoir augment de la capacit du tampon.<br>
+ * <br>
+ * Les mthodes appeles par la mthode {@link #run()} sont, dans l'ordre:
+ * <ul>
+ * <li>{@link #delegateInitialize()}, une seule fois,
+ * <li>{@link #delegateReceive(Object)}, pour chaque rsultat,
+ * <li>{@link #delegateFinalize()}, une seule fois.
+ * </ul>
+ * Aucune de ces mthodes n'est appele de faon concurrente, et n'a besoin d'tre synchronise.
+ * @author Ludovic WALLE
+ * @param <M> Missions.
+ * @param <R> Rsultats.
+ */
+public abstract class Receiver<M extends Mission, R> extends Employee<M> {
+
+
+
+	/**
+	 * @param ordered Indicateur de rception des rsultats dans l'ordre des missions.
+	 * @param capacity Capacit du tampon des rsultats en attente de rception (doit tre strictement positive).
+	 */
+	protected Receiver(boolean ordered, int capacity) {
+		this("Receiver", ordered, capacity);
+	}
+
+
+
+	/**
+	 * @param name Nom du rceptionnaire.
+	 * @param ordered Indicateur de rception des rsultats dans l'ordre des missions.
+	 * @param capacity Capacit du tampon des rsultats en attente de rception (doit tre strictement positive).
+	 */
+	protected Receiver(String name, boolean ordered, int capacity) {
+		super(name);
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("La capacit du tampon doit tre strictement positive: " + capacity);
+		}
+		this.ordered = ordered;
+		if (ordered) {
+			slots = new Object[capacity];
+			queue = null;
+		} else {
+			slots = null;
+			queue = new ArrayDeque<>(capacity);
+		}
+		this.capacity = capacity;
+	}
+
+
+
+	/**
+	 * Signale qu'il n'y aura plus de rsultat  recevoir.<br>
+	 * Cette mthode est appele par l'entreprise lorsque tous les ouvriers ont fini de travailler. Le rceptionnaire s'arrte aprs avoir reu les rsultats en attente.
+	 */
+	final void close() {
+		lock.lock();
+		try {
+			closed = true;
+			notEmpty.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+
+
+	/**
+	 * Reoit le rsultat indiqu.
+	 * @param result Rsultat (jamais <code>null</code>).
+	 * @throws Throwable Pour que la mthode puisse gnrer des exceptions.<br>
+	 *             L'entreprise sera interrompue si cette mthode gnre une exception.
+	 */
+	protected abstract void delegateReceive(R result) throws Throwable;
+
+
+
+	/**
+	 * Dpose le rsultat de la mission dont le numro d'ordre est indiqu.<br>
+	 * Cette mthode est appele par les ouvriers. Elle est bloquante tant qu'il n'y a pas de place dans le tampon pour ce rsultat.
+	 * @param sequence Numro d'ordre de la mission.
+	 * @param result Rsultat, ou <code>null</code> si la mission n'en a pas produit.
+	 */
+	final void deposit(long sequence, R result) {
+		lock.lock();
+		try {
+			if (ordered) {
+				while (!hasExceptions() && (sequence >= (nextSequence + capacity))) {
+					awaitNotFull();
+				}
+				if (!hasExceptions()) {
+					slots[(int) (sequence % capacity)] = (result == null) ? NO_RESULT : result;
+					if (sequence == nextSequence) {
+						notEmpty.signal();
+					}
+				}
+			} else if (result != null) {
+				while (!hasExceptions() && (queue.size() >= capacity)) {
+					awaitNotFull();
+				}
+				if (!hasExceptions()) {
+					queue.add(result);
+					if (queue.size() == 1) {
+						notEmpty.signal();
+					}
+				}
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+
+
+	/**
+	 * Retourne la capacit du tampon des rsultats en attente de rception.
+	 * @return La capacit du tampon des rsultats en attente de rception.
+	 */
+	public final int getCapacity() {
+		return capacity;
+	}
+
+
+
+	/**
+	 * Retourne le nombre de rsultats reus.<br>
+	 * Cette mthode est non bloquante.
+	 * @return Le nombre de rsultats reus.
+	 */
+	public final long getReceivedCount() {
+		return receivedCount;
+	}
+
+
+
+	/**
+	 * Teste si les rsultats sont reus dans l'ordre des missions.
+	 * @return <code>true</code> si les rsultats sont reus dans l'ordre des missions, <code>false</code> sinon.
+	 */
+	public final boolean isOrdered() {
+		return ordered;
+	}
+
+
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override public final void run() {
+		List<R> results = new ArrayList<>();
+
+		try {
+			delegateInitialize();
+			while (take(results)) {
+				for (R result : results) {
+					delegateReceive(result);
+					receivedCount++;
+				}
+				results.clear();
+			}
+			delegateFinalize();
+		} catch (Throwable exception) {
+			reportExceptions(exception);
+			lock.lock();
+			try {
+				notFull.signalAll();
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+
+
+	/**
+	 * Attend qu'il y ait de la place dans le tampon.<br>
+	 * Cette mthode est bloquante, et doit tre appele en dtenant le verrou {@link #lock}.
+	 */
+	private void awaitNotFull() {
+		try {
+			Blocker.await(notFull);
+		} catch (InterruptedException exception) {
+			reportExceptions(exception);
+		}
+	}
+
+
+
+	/**
+	 * Retire du tampon les rsultats disponibles pour la rception et les ajoute  la liste indique.<br>
+	 * Cette mthode est bloquante tant qu'il n'y a pas de rsultat disponible et que le rceptionnaire n'a pas t ferm.
+	 * @param results Liste  laquelle ajouter les rsultats disponibles.
+	 * @return <code>false</code> si il n'y a plus de rsultat  recevoir, <code>true</code> sinon.
+	 */
+	@SuppressWarnings("unchecked") private boolean take(List<R> results) {
+		Object result;
+		int slot;
+		long firstSequence;
+
+		lock.lock();
+		try {
+			while (!hasExceptions()) {
+				if (ordered) {
+					firstSequence = nextSequence;
+					while ((result = slots[slot = (int) (nextSequence % capacity)]) != null) {
+						slots[slot] = null;
+						nextSequence++;
+						if (result != NO_RESULT) {
+							results.add((R) result);
+						}
+					}
+					if (nextSequence != firstSequence) {
+						notFull.signalAll();
+					}
+				} else if (!queue.isEmpty()) {
+					while (!queue.isEmpty()) {
+						results.add(queue.poll());
+					}
+					notFull.signalAll();
+				}
+				if (!results.isEmpty()) {
+					return true;
+				} else if (closed) {
+					return false;
+				}
+				try {
+					notEmpty.await();
+				} catch (InterruptedException exception) {
+					reportExceptions(exception);
+				}
+			}
+			return false;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+
+
+	/**
+	 * Capacit du tampon des rsultats en attente de rception.
+	 */
+	private final int capacity;
+
+
+
+	/**
+	 * Indicateur qu'il n'y aura plus de rsultat  recevoir.
+	 */
+	private boolean closed = false;
+
+
+
+	/**
+	 * Verrou pour le tampon des rsultats en attente de rception.
+	 */
+	private final ReentrantLock lock = new ReentrantLock();
+
+
+
+	/**
+	 * Numro d'ordre du prochain rsultat  recevoir, dans l'ordre des missions.
+	 */
+	private long nextSequence = 0;
+
+
+
+	/**
+	 * Condition signale lorsque des rsultats sont disponibles pour la rception, ou que le rceptionnaire a t ferm.
+	 */
+	private final Condition notEmpty = lock.newCondition();
+
+
+
+	/**
+	 * Condition signale lorsque de la place s'est libre dans le tampon.
+	 */
+	private final Condition notFull = lock.newCondition();
+
+
+
+	/**
+	 * Indicateur de rception des rsultats dans l'ordre des missions.
+	 */
+	private final boolean ordered;
+
+
+
+	/**
+	 * Rsultats en attente de rception, dans l'ordre o ils ont t dposs, inutilis si les rsultats sont reus dans l'ordre des missions.
+	 */
+	private final ArrayDeque<R> queue;
+
+
+
+	/**
+	 * Nombre de rsultats reus.
+	 */
+	private volatile long receivedCount = 0;
+
+
+
+	/**
+	 * Rsultats en attente de rception,  l'indice gal  leur numro d'ordre modulo la capacit du tampon, inutilis si les rsultats sont reus au fur et  mesure.
+	 */
+	private final Object[] slots;
+
+
+
+	/**
+	 * Marqueur d'une mission n'ayant pas produit de rsultat, dans l'ordre des missions.
+	 */
+	private static final Object NO_RESULT = new Object();
+
+
+
+}
@@ -0,0 +1,407 @@
+package toolbox.parallel;
+
+import java.io.*;
+import java.lang.reflect.*;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+
+
+/**
+ * La classe {@link RemoteWorker} implmente un ouvrier qui fait effectuer ses missions par un autre ouvrier, excut dans une machine virtuelle Java fille lance sur la mme machine.<br>
+ * Employ comme ouvrier souche d'une {@link Enterprise}, il en fait un coordinateur rpartissant les missions entre autant de machines virtuelles filles que d'ouvriers, ce qui permet de
+ * rpartir sur plusieurs tas de taille raisonnable des traitements gourmands en mmoire, dont les pauses du ramasse miettes seraient longues dans un seul tas de grande taille.<br>
+ * Chaque ouvrier distant lance au dbut de son travail une machine virtuelle fille, avec le mme chemin de classes et les options indiques, qui cre un ouvrier de la classe indique par son
+ * constructeur sans paramtre, puis se connecte  l'ouvrier distant par une socket sur l'interface de bouclage. Les missions (ou lots de missions) lui sont transmises par srialisation et
+ * doivent donc tre {@link Serializable}, et il retourne le nombre de rsultats  comptabiliser ou l'exception rencontre, qui interrompt l'entreprise comme pour un ouvrier local.<br>
+ * Si la machine virtuelle fille s'arrte brutalement (plantage, manque de mmoire, ...), l'ouvrier distant en relance une autre et lui confie  nouveau la mission en cours, qui garde son numro
+ * d'ordre, ce qui reste compatible avec un point de reprise ({@link Checkpoint}) ou un {@link Receiver} ordonn. La mission n'est confie que {@value #MAX_ATTEMPTS} fois au plus, pour qu'une
+ * mission qui fait systmatiquement planter la machine virtuelle fille n'en relance pas indfiniment.<br>
+ * L'ouvrier de la machine virtuelle fille n'appartient  aucune entreprise: il ne peut pas transmettre de rsultats  un {@link Receiver} (ce qui exclut les {@link ProducingWorker}), et ses
+ * statistiques sont tenues par l'ouvrier distant.
+ * @author Ludovic WALLE
+ * @param <M> Type des missions.
+ */
+public class RemoteWorker<M extends Mission> extends Worker<M> {
+
+
+
+	/**
+	 * @param workerClass Classe des ouvriers excuts dans les machines virtuelles filles, qui doit avoir un constructeur sans paramtre (ne doit pas tre <code>null</code>).
+	 * @param jvmOptions Options des machines virtuelles filles (par exemple <code>-Xmx512m</code>).
+	 */
+	public RemoteWorker(Class<? extends Worker<M>> workerClass, String... jvmOptions) {
+		if ((workerClass == null) || (jvmOptions == null)) {
+			throw new NullPointerException();
+		}
+		for (String jvmOption : jvmOptions) {
+			if (jvmOption == null) {
+				throw new NullPointerException();
+			}
+		}
+		this.workerClass = workerClass;
+		this.jvmOptions = jvmOptions.clone();
+	}
+
+
+
+	/**
+	 * @param other Autre ouvrier (ne doit pas tre <code>null</code>).
+	 */
+	protected RemoteWorker(RemoteWorker<M> other) {
+		super(other);
+		this.workerClass = other.workerClass;
+		this.jvmOptions = other.jvmOptions;
+	}
+
+
+
+	/**
+	 * {@inheritDoc}<br>
+	 * La mission est transmise  la machine virtuelle fille.
+	 */
+	@Override protected final int delegateDo(M mission) throws Throwable {
+		return delegateDoBatch(Collections.singletonList(mission));
+	}
+
+
+
+	/**
+	 * {@inheritDoc}<br>
+	 * Les missions sont transmises ensemble  la machine virtuelle fille, et  nouveau  une nouvelle machine virtuelle fille si elle s'arrte brutalement. La progression n'tant pas signale (voir
+	 * {@link #reportBatchProgress(int, int)}), toutes les missions d'un lot qui choue sont refaites une par une si l'entreprise a une politique de traitement des checs de missions.
+	 */
+	@Override protected final int delegateDoBatch(List<M> missions) throws Throwable {
+		long[] sequences = new long[missions.size()];
+		Object reply;
+
+		for (int index = 0; index < sequences.length; index++) {
+			sequences[index] = getSequence(index);
+		}
+		for (int attempt = 1;; attempt++) {
+			try {
+				output.writeObject(new ArrayList<>(missions));
+				output.writeObject(sequences);
+				output.reset();
+				output.flush();
+				reply = input.readObject();
+				break;
+			} catch (NotSerializableException exception) {
+				throw exception;
+			} catch (IOException exception) {
+				if (Thread.currentThread().isInterrupted()) {
+					throw new InterruptedIOException("L'ouvrier distant " + getName() + " a t interrompu.");
+				} else if (attempt >= MAX_ATTEMPTS) {
+					throw new IOException("La machine virtuelle fille de l'ouvrier distant " + getName() + " s'est arrte " + attempt + " fois sur la mme mission.", exception);
+				}
+				stopChild();
+				startChild();
+				restartCount++;
+			}
+		}
+		if (reply instanceof Throwable) {
+			stopChild();
+			throw (Throwable) reply;
+		}
+		return (Integer) reply;
+	}
+
+
+
+	/**
+	 * {@inheritDoc}<br>
+	 * La machine virtuelle fille termine le travail de son ouvrier, puis s'arrte.
+	 */
+	@Override protected void delegateFinalize() throws Throwable {
+		Object reply;
+
+		try {
+			output.writeObject(null);
+			output.flush();
+			reply = input.readObject();
+		} finally {
+			stopChild();
+		}
+		if (reply != null) {
+			throw (Throwable) reply;
+		}
+	}
+
+
+
+	/**
+	 * {@inheritDoc}<br>
+	 * La machine virtuelle fille est lance, et son ouvrier commence son travail.
+	 */
+	@Override protected void delegateInitialize() throws Throwable {
+		startChild();
+	}
+
+
+
+	/**
+	 * Retourne le nombre de fois o la machine virtuelle fille a t relance aprs s'tre arrte brutalement.<br>
+	 * Cette mthode est non bloquante.
+	 * @return Le nombre de fois o la machine virtuelle fille a t relance.
+	 */
+	public final int getRestartCount() {
+		return restartCount;
+	}
+
+
+
+	/**
+	 * Retourne la classe des ouvriers excuts dans les machines virtuelles filles.
+	 * @return La classe des ouvriers excuts dans les machines virtuelles filles.
+	 */
+	public final Class<? extends Worker<M>> getWorkerClass() {
+		return workerClass;
+	}
+
+
+
+	/**
+	 * {@inheritDoc}<br>
+	 * La machine virtuelle fille est arrte, pour dbloquer l'ouvrier si il attend sa rponse.
+	 */
+	@Override public void interrupt() {
+		@SuppressWarnings("hiding") Process process = this.process;
+
+		super.interrupt();
+		if (process != null) {
+			process.destroyForcibly();
+		}
+	}
+
+
+
+	/**
+	 * Programme excut par les machines virtuelles filles.<br>
+	 * Il cre un ouvrier de la classe indique, se connecte  l'ouvrier distant sur le port indiqu de l'interface de bouclage, puis effectue les missions qu'il reoit jusqu' ce que l'ouvrier
+	 * distant lui signale la fin du travail ou ferme la connexion.
+	 * @param args Port de l'ouvrier distant, puis nom de la classe des ouvriers.
+	 * @throws Exception En cas d'erreur de connexion ou de cration de l'ouvrier.
+	 */
+	@SuppressWarnings("unchecked") public static void main(String[] args) throws Exception {
+		ObjectOutputStream toParent;
+		ObjectInputStream fromParent;
+		Constructor<?> constructor;
+		Worker<Mission> worker;
+		List<Mission> missions;
+		Object reply;
+
+		if (args.length != 2) {
+			throw new IllegalArgumentException("Usage: RemoteWorker <port> <classe des ouvriers>");
+		}
+		try (Socket connection = new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(args[0]))) {
+			toParent = new ObjectOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+			toParent.flush();
+			fromParent = new ObjectInputStream(new BufferedInputStream(connection.getInputStream()));
+			constructor = Class.forName(args[1]).getDeclaredConstructor();
+			constructor.setAccessible(true);
+			worker = (Worker<Mission>) constructor.newInstance();
+			try {
+				worker.delegateInitialize();
+				reply = null;
+			} catch (Throwable exception) {
+				reply = transportable(exception);
+			}
+			toParent.writeObject(reply);
+			toParent.flush();
+			if (reply != null) {
+				return;
+			}
+			while ((missions = (List<Mission>) fromParent.readObject()) != null) {
+				worker.setSequences((long[]) fromParent.readObject());
+				try {
+					reply = worker.delegateDoBatch(missions);
+				} catch (Throwable exception) {
+					reply = transportable(exception);
+				}
+				toParent.writeObject(reply);
+				toParent.reset();
+				toParent.flush();
+			}
+			try {
+				worker.delegateFinalize();
+				reply = null;
+			} catch (Throwable exception) {
+				reply = transportable(exception);
+			}
+			toParent.writeObject(reply);
+			toParent.flush();
+		} catch (EOFException exception) {}
+	}
+
+
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override protected RemoteWorker<M> newOne() {
+		return new RemoteWorker<>(this);
+	}
+
+
+
+	/**
+	 * Lance la machine virtuelle fille, attend qu'elle se connecte, et rcupre le rsultat de l'initialisation de son ouvrier.
+	 * @throws Throwable Si la machine virtuelle fille n'a pas pu tre lance, ou si l'initialisation de son ouvrier a gnr une exception.
+	 */
+	private void startChild() throws Throwable {
+		List<String> command = new ArrayList<>();
+		Object reply;
+
+		try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+			command.add(new File(new File(System.getProperty("java.home"), "bin"), "java").getPath());
+			command.addAll(Arrays.asList(jvmOptions));
+			command.add("-cp");
+			command.add(System.getProperty("java.class.path"));
+			command.add(RemoteWorker.class.getName());
+			command.add(Integer.toString(server.getLocalPort()));
+			command.add(workerClass.getName());
+			process = new ProcessBuilder(command).inheritIO().start();
+			server.setSoTimeout(ACCEPT_PERIOD);
+			while (socket == null) {
+				try {
+					socket = server.accept();
+				} catch (SocketTimeoutException exception) {
+					if (!process.isAlive()) {
+						throw new IOException("La machine virtuelle fille de l'ouvrier distant " + getName() + " s'est arrte avant de se connecter (code de retour " + process.exitValue() + ").");
+					} else if (Thread.currentThread().isInterrupted()) {
+						throw new InterruptedIOException("L'ouvrier distant " + getName() + " a t interrompu.");
+					}
+				}
+			}
+			socket.setTcpNoDelay(true);
+			output = new ObjectOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+			output.flush();
+			input = new ObjectInputStream(new BufferedInputStream(socket.getInputStream()));
+			reply = input.readObject();
+		} catch (Throwable exception) {
+			stopChild();
+			throw exception;
+		}
+		if (reply != null) {
+			stopChild();
+			throw (Throwable) reply;
+		}
+	}
+
+
+
+	/**
+	 * Ferme la connexion avec la machine virtuelle fille, et attend qu'elle s'arrte, en l'arrtant de force si elle ne s'arrte pas d'elle mme.
+	 * @throws InterruptedException Si l'ouvrier distant a t interrompu pendant l'attente.
+	 */
+	private void stopChild() throws InterruptedException {
+		if (socket != null) {
+			try {
+				socket.close();
+			} catch (IOException exception) {}
+			socket = null;
+			input = null;
+			output = null;
+		}
+		if (process != null) {
+			if (!process.waitFor(STOP_TIMEOUT, TimeUnit.MILLISECONDS)) {
+				process.destroyForcibly().waitFor();
+			}
+			process = null;
+		}
+	}
+
+
+
+	/**
+	 * Retourne l'exception indique si elle peut tre transmise par srialisation, ou une exception de mme message et de mme pile d'appels sinon.
+	 * @param exception Exception.
+	 * @return L'exception  transmettre.
+	 */
+	private static Throwable transportable(Throwable exception) {
+		Exception substitute;
+
+		try (ObjectOutputStream test = new ObjectOutputStream(new ByteArrayOutputStream())) {
+			test.writeObject(exception);
+			return exception;
+		} catch (IOException serializationException) {
+			substitute = new Exception(exception.toString());
+			substitute.setStackTrace(exception.getStackTrace());
+			return substitute;
+		}
+	}
+
+
+
+	/**
+	 * Flux de rception des rponses de la machine virtuelle fille.
+	 */
+	private ObjectInputStream input = null;
+
+
+
+	/**
+	 * Options des machines virtuelles filles.
+	 */
+	private final String[] jvmOptions;
+
+
+
+	/**
+	 * Flux d'envoi des missions  la machine virtuelle fille.
+	 */
+	private ObjectOutputStream output = null;
+
+
+
+	/**
+	 * Machine virtuelle fille.
+	 */
+	private volatile Process process = null;
+
+
+
+	/**
+	 * Nombre de fois o la machine virtuelle fille a t relance aprs s'tre arrte brutalement.
+	 */
+	private volatile int restartCount = 0;
+
+
+
+	/**
+	 * Connexion avec la machine virtuelle fille.
+	 */
+	private Socket socket = null;
+
+
+
+	/**
+	 * Classe des ouvriers excuts dans les machines virtuelles filles.
+	 */
+	private final Class<? extends Worker<M>> workerClass;
+
+
+
+	/**
+	 * Priode de vrification que la machine virtuelle fille n'est pas arrte pendant l'attente de sa connexion, en millisecondes.
+	 */
+	private static final int ACCEPT_PERIOD = 1000;
+
+
+
+	/**
+	 * Nombre maximal de fois o une mme mission est confie  une machine virtuelle fille.
+	 */
+	private static final int MAX_ATTEMPTS = 3;
+
+
+
+	/**
+	 * Dlai d'attente de l'arrt de la machine virtuelle fille avant de l'arrter de force, en millisecondes.
+	 */
+	private static final long STOP_TIMEOUT = 10000;
+
+
+
+}
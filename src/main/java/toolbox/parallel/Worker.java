@@ -1,9 +1,18 @@
 package toolbox.parallel;
 
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
 
 
 /**
- * La classe {@link Worker} implmente un ouvrier effectuant des missions.
+ * La classe {@link Worker} implmente un ouvrier effectuant des missions.<br>
+ * Par dfaut, l'ouvrier prend les missions une par une. Si une taille de lot suprieure  1 est indique par {@link #setBatchSize(int)}, il prend les missions par lots, ce qui rduit le cot de
+ * synchronisation par mission lorsque les missions sont rapides.<br>
+ * L'ouvrier tient  jour ses propres statistiques (nombre de missions termines, temps pass  effectuer des missions et  en attendre, histogrammes des dures d'attente et d'excution de
+ * chaque mission ou lot de missions), sans synchronisation, qui permettent de reprer les ouvriers  la traine.<br>
+ * Si l'entreprise a une politique de traitement des checs de missions (voir {@link Enterprise#setMissionPolicy(MissionPolicy)}), l'ouvrier l'applique  chaque mission: dlai imparti surveill
+ * par le chien de garde de l'entreprise, nouvelles tentatives, et mise en quarantaine.
  * @author Ludovic WALLE
  * @param <M> Type des missions.
  */
@@ -23,6 +32,51 @@ public abstract class Worker<M extends Mission> extends Employee<M> {
 	 */
 	protected Worker(Worker<M> other) {
 		super(getNewWorkerName(), other);
+		this.batchSize = other.batchSize;
+	}
+
+
+
+	/**
+	 * Abandonne la mission dont le numro d'ordre est indiqu, qui vient d'tre mise en quarantaine.<br>
+	 * Cette mthode est surcharge par les ouvriers qui doivent signaler l'absence de rsultat pour cette mission. Par dfaut, elle ne fait rien.
+	 * @param sequence Numro d'ordre de la mission.
+	 */
+	void abandon(@SuppressWarnings("hiding") long sequence) {}
+
+
+
+	/**
+	 * Interrompt l'ouvrier si la mission (ou le lot de missions) en cours a dpass le dlai imparti.<br>
+	 * Cette mthode est appele priodiquement par le chien de garde de l'entreprise.
+	 * @param now Date courante, en nanosecondes (voir {@link System#nanoTime()}).
+	 */
+	final void checkDeadline(long now) {
+		synchronized (deadlineLock) {
+			if (armed && !timedOut && ((now - deadline) >= 0)) {
+				timedOut = true;
+				runner.interrupt();
+			}
+		}
+	}
+
+
+
+	/**
+	 * Dsarme le chien de garde, et efface l'interruption qu'il a ventuellement provoque.<br>
+	 * Cette mthode est aussi appele par les ouvriers dont les missions attendent aprs avoir t effectues, pour que cette attente ne soit pas compte dans le dlai imparti.
+	 * @return <code>true</code> si le dlai imparti a t dpass depuis que le chien de garde a t arm, <code>false</code> sinon.
+	 */
+	final boolean disarm() {
+		synchronized (deadlineLock) {
+			armed = false;
+			if (timedOut) {
+				timedOut = false;
+				Thread.interrupted();
+				return true;
+			}
+			return false;
+		}
 	}
 
 
@@ -37,6 +91,27 @@ public abstract class Worker<M extends Mission> extends Employee<M> {
 
 
 
+	/**
+	 * Effectue les missions indiques. L'entreprise sera interrompue si cette mthode gnre une exception.<br>
+	 * Cette mthode est destine  tre surcharge lorsque les missions peuvent tre traites plus efficacement ensemble.<br>
+	 * Par dfaut, cette mthode appelle {@link #delegateDo(Mission)} pour chaque mission, dans l'ordre, en signalant la progression aprs chacune (voir
+	 * {@link #reportBatchProgress(int, int)}).
+	 * @param missions Missions.
+	 * @return Le nombre total de rsultats  comptabiliser.
+	 * @throws Throwable Pour que la mthode puisse gnrer des exceptions.
+	 */
+	protected int delegateDoBatch(List<M> missions) throws Throwable {
+		int count = 0;
+
+		for (int index = 0; index < missions.size(); index++) {
+			count += delegateDo(missions.get(index));
+			reportBatchProgress(index + 1, count);
+		}
+		return count;
+	}
+
+
+
 	/**
 	 * Licencie l'ouvrier, qui s'arrtera ds qu'il aura fini sa mission en cours.
 	 */
@@ -46,6 +121,111 @@ public abstract class Worker<M extends Mission> extends Employee<M> {
 
 
 
+	/**
+	 * Retourne le nombre maximal de missions prises  la fois.
+	 * @return Le nombre maximal de missions prises  la fois.
+	 */
+	public final int getBatchSize() {
+		return batchSize;
+	}
+
+
+
+	/**
+	 * Retourne le temps pass par l'ouvrier  effectuer des missions, en millisecondes.<br>
+	 * Cette mthode est non bloquante.
+	 * @return Le temps pass par l'ouvrier  effectuer des missions, en millisecondes.
+	 */
+	public final long getBusyTime() {
+		return busyTime / 1000000;
+	}
+
+
+
+	/**
+	 * Retourne le nombre de missions termines par l'ouvrier.<br>
+	 * Cette mthode est non bloquante.
+	 * @return Le nombre de missions termines par l'ouvrier.
+	 */
+	public final long getDoneCount() {
+		return doneCount;
+	}
+
+
+
+	/**
+	 * Retourne une copie de l'histogramme des dures d'excution de chaque mission (ou lot de missions) par l'ouvrier.<br>
+	 * Cette mthode est non bloquante.
+	 * @return Une copie de l'histogramme des dures d'excution de chaque mission (ou lot de missions) par l'ouvrier.
+	 */
+	public final Histogram getExecutionLatencies() {
+		return new Histogram(executionLatencies);
+	}
+
+
+
+	/**
+	 * Retourne le temps pass par l'ouvrier  attendre des missions, en millisecondes.<br>
+	 * Cette mthode est non bloquante.
+	 * @return Le temps pass par l'ouvrier  attendre des missions, en millisecondes.
+	 */
+	public final long getIdleTime() {
+		return idleTime / 1000000;
+	}
+
+
+
+	/**
+	 * Retourne la file du distributeur de missions attribue  l'ouvrier, ou -1 si il n'en a pas encore.
+	 * @return La file du distributeur de missions attribue  l'ouvrier, ou -1 si il n'en a pas encore.
+	 */
+	final int getShard() {
+		return shard;
+	}
+
+
+
+	/**
+	 * Retourne une copie de l'histogramme des dures d'attente de chaque mission (ou lot de missions) par l'ouvrier, c'est  dire du temps pass  obtenir la mission auprs de l'entreprise.<br>
+	 * Cette mthode est non bloquante.
+	 * @return Une copie de l'histogramme des dures d'attente de chaque mission (ou lot de missions) par l'ouvrier.
+	 */
+	public final Histogram getWaitLatencies() {
+		return new Histogram(waitLatencies);
+	}
+
+
+
+	/**
+	 * Retourne le numro d'ordre de la mission en cours, ou de la premire mission du lot en cours (voir {@link #getSequence(int)}).<br>
+	 * Les missions sont numrotes  partir de 0, dans l'ordre o le distributeur les a prpares.
+	 * @return Le numro d'ordre de la mission en cours, ou de la premire mission du lot en cours.
+	 */
+	protected final long getSequence() {
+		return sequence;
+	}
+
+
+
+	/**
+	 * Retourne le numro d'ordre de la mission du lot en cours dont le rang dans le lot est indiqu, ou de la mission en cours pour le rang 0 si l'ouvrier ne travaille pas par lots.<br>
+	 * Les numros d'ordre des missions d'un lot sont croissants, mais pas forcment conscutifs: les missions prpares entre elles par le distributeur ont pu tre distribues  d'autres ouvriers.
+	 * @param index Rang de la mission dans le lot,  partir de 0.
+	 * @return Le numro d'ordre de la mission.
+	 * @throws IndexOutOfBoundsException Si le rang ne correspond  aucune mission du lot en cours.
+	 */
+	protected final long getSequence(int index) {
+		if (sequences != null) {
+			return sequences[index];
+		} else if (index == 0) {
+			return sequence;
+		} else {
+			throw new IndexOutOfBoundsException("Il n'y a pas de mission de rang " + index + " en cours.");
+		}
+	}
+
+
+
 	/**
 	 * Cre un nouvel ouvrier semblable  celui ci.<br>
 	 * Cette mthode est utilise par {@link Enterprise} pour embaucher de nouveaux ouvriers (crer de nouvelles instances).<br>
@@ -74,13 +254,50 @@ public abstract class Worker<M extends Mission> extends Employee<M> {
 
 
 
+	/**
+	 * Signale que les premires missions du lot en cours sont effectues de faon dfinitive, et le nombre de rsultats  comptabiliser pour elles.<br>
+	 * Cette mthode est destine  tre appele par {@link #delegateDoBatch(List)}. Si le lot choue ensuite et que l'entreprise a une politique de traitement des checs de missions (voir
+	 * {@link MissionPolicy}), seules les missions suivantes sont refaites une par une. Une surcharge de {@link #delegateDoBatch(List)} qui n'appelle pas cette mthode doit donc pouvoir refaire sans
+	 * dommage toutes les missions d'un lot qui a chou, c'est  dire ne rien avoir fait de dfinitif ou tre idempotente.
+	 * @param doneCount Nombre de missions effectues, depuis le dbut du lot.
+	 * @param count Nombre total de rsultats  comptabiliser pour ces missions.
+	 */
+	protected final void reportBatchProgress(int doneCount, int count) {
+		batchDoneCount = doneCount;
+		batchResultCount = count;
+	}
+
+
+
 	/**
 	 * Signale que l'ouvrier a fini la mission indique.
 	 * @param mission Mission.
 	 * @param count Nombre de rsultats  comptabiliser.
+	 * @throws IOException En cas d'erreur d'enregistrement du point de reprise.
 	 */
-	protected final void reportDone(M mission, int count) {
+	protected final void reportDone(M mission, int count) throws IOException {
 		getEnterprise().collectDone(mission, count);
+		getEnterprise().collectCheckpointed(sequence, 1);
+	}
+
+
+
+	/**
+	 * Signale que l'ouvrier a fini les missions indiques.
+	 * @param missions Missions.
+	 * @param count Nombre total de rsultats  comptabiliser.
+	 * @throws IOException En cas d'erreur d'enregistrement du point de reprise.
+	 */
+	protected final void reportDone(List<M> missions, int count) throws IOException {
+		int first = 0;
+
+		getEnterprise().collectDone(missions, count);
+		for (int index = 1; index <= missions.size(); index++) {
+			if ((index == missions.size()) || (getSequence(index) != (getSequence(index - 1) + 1))) {
+				getEnterprise().collectCheckpointed(getSequence(first), index - first);
+				first = index;
+			}
+		}
 	}
 
 
@@ -108,12 +325,35 @@ public abstract class Worker<M extends Mission> extends Employee<M> {
 	 */
 	@Override public final void run() {
 		M object;
+		List<M> objects;
+		long time;
+		long now;
+		long wait;
+		long execution;
 
 		try {
+			runner = Thread.currentThread();
 			delegateInitialize();
 			reportStarted();
-			while (!dismissed && ((object = getEnterprise().getNext()) != null)) {
-				reportDone(object, delegateDo(object));
+			time = System.nanoTime();
+			if (batchSize == 1) {
+				while (!dismissed && ((object = getEnterprise().getNext(this)) != null)) {
+					idleTime += (wait = (now = System.nanoTime()) - time);
+					reportDone(object, perform(object));
+					busyTime += (execution = (time = System.nanoTime()) - now);
+					doneCount++;
+					waitLatencies.record(wait);
+					executionLatencies.record(execution);
+				}
+			} else {
+				while (!dismissed && !(objects = getEnterprise().getNextBatch(batchSize, this)).isEmpty()) {
+					idleTime += (wait = (now = System.nanoTime()) - time);
+					reportDone(objects, performBatch(objects));
+					busyTime += (execution = (time = System.nanoTime()) - now);
+					doneCount += objects.size();
+					waitLatencies.record(wait);
+					executionLatencies.record(execution);
+				}
 			}
 			delegateFinalize();
 			reportFinished();
@@ -124,6 +364,162 @@ public abstract class Worker<M extends Mission> extends Employee<M> {
 
 
 
+	/**
+	 * Fixe le nombre maximal de missions prises  la fois.<br>
+	 * Cette mthode est destine  tre appele sur l'ouvrier souche, avant le dmarrage de l'entreprise. Les ouvriers embauchs ensuite en hritent.<br>
+	 * Pour tre efficace, la taille de lot ne doit pas dpasser la capacit du tampon du distributeur de missions (voir {@link Missionner#setBufferCapacity(int)}).
+	 * @param batchSize Nombre maximal de missions prises  la fois (doit tre strictement positif).
+	 */
+	public final void setBatchSize(@SuppressWarnings("hiding") int batchSize) {
+		if (batchSize <= 0) {
+			throw new IllegalArgumentException("La taille de lot doit tre strictement positive: " + batchSize);
+		}
+		this.batchSize = batchSize;
+	}
+
+
+
+	/**
+	 * Mmorise le numro d'ordre de la mission en cours.<br>
+	 * Cette mthode est appele par le distributeur de missions.
+	 * @param sequence Numro d'ordre.
+	 */
+	final void setSequence(@SuppressWarnings("hiding") long sequence) {
+		this.sequence = sequence;
+		this.sequences = null;
+	}
+
+
+
+	/**
+	 * Mmorise les numros d'ordre des missions du lot en cours.<br>
+	 * Cette mthode est appele par le distributeur de missions.
+	 * @param sequences Numros d'ordre, dans l'ordre des missions du lot (il doit y en avoir au moins un).
+	 */
+	final void setSequences(@SuppressWarnings("hiding") long[] sequences) {
+		this.sequence = sequences[0];
+		this.sequences = sequences;
+	}
+
+
+
+	/**
+	 * Mmorise la file du distributeur de missions attribue  l'ouvrier.<br>
+	 * Cette mthode est appele par le distributeur de missions.
+	 * @param shard File.
+	 */
+	final void setShard(@SuppressWarnings("hiding") int shard) {
+		this.shard = shard;
+	}
+
+
+
+	/**
+	 * Arme le chien de garde pour le dlai indiqu.
+	 * @param timeout Dlai imparti, en millisecondes, ou 0 si il n'y en a pas.
+	 */
+	private void arm(long timeout) {
+		synchronized (deadlineLock) {
+			armed = timeout > 0;
+			deadline = System.nanoTime() + (timeout * 1000000);
+			timedOut = false;
+		}
+	}
+
+
+
+	/**
+	 * Effectue la mission indique, en appliquant la politique de traitement des checs de missions de l'entreprise si il y en a une.
+	 * @param mission Mission.
+	 * @return Le nombre de rsultats  comptabiliser, 0 si la mission a t mise en quarantaine.
+	 * @throws Throwable Si la mission a gnr une exception qui doit interrompre l'entreprise.
+	 */
+	private int perform(M mission) throws Throwable {
+		MissionPolicy<M> policy = getEnterprise().getMissionPolicy();
+		Quarantine<M> quarantine;
+		Throwable failure;
+		long backoff;
+
+		if (policy == null) {
+			return delegateDo(mission);
+		}
+		backoff = policy.getBackoff();
+		for (int attempt = 1;; attempt++) {
+			arm(policy.getTimeout());
+			try {
+				return delegateDo(mission);
+			} catch (Exception exception) {
+				if (disarm()) {
+					failure = new TimeoutException("La mission a dpass le dlai imparti de " + policy.getTimeout() + "ms.");
+					failure.initCause(exception);
+				} else {
+					failure = exception;
+				}
+			} finally {
+				disarm();
+			}
+			if (getEnterprise().hasExceptions()) {
+				throw failure;
+			} else if (attempt >= policy.getMaxAttempts()) {
+				if ((quarantine = policy.getQuarantine()) == null) {
+					throw failure;
+				}
+				quarantine.quarantine(mission, sequence, failure);
+				abandon(sequence);
+				getEnterprise().collectQuarantined();
+				return 0;
+			}
+			getEnterprise().collectRetried();
+			Thread.sleep(backoff);
+			backoff = Math.min(2 * backoff, policy.getMaxBackoff());
+		}
+	}
+
+
+
+	/**
+	 * Effectue les missions indiques, en appliquant la politique de traitement des checs de missions de l'entreprise si il y en a une. Si le lot choue, ses missions qui n'ont pas t signales
+	 * comme effectues (voir {@link #reportBatchProgress(int, int)}) sont refaites une par une.
+	 * @param missions Missions.
+	 * @return Le nombre total de rsultats  comptabiliser.
+	 * @throws Throwable Si une mission a gnr une exception qui doit interrompre l'entreprise.
+	 */
+	private int performBatch(List<M> missions) throws Throwable {
+		MissionPolicy<M> policy = getEnterprise().getMissionPolicy();
+		long[] batchSequences = new long[missions.size()];
+		int count;
+
+		reportBatchProgress(0, 0);
+		if (policy == null) {
+			return delegateDoBatch(missions);
+		}
+		arm(policy.getTimeout() * missions.size());
+		try {
+			return delegateDoBatch(missions);
+		} catch (Exception exception) {
+			if (getEnterprise().hasExceptions()) {
+				throw exception;
+			}
+		} finally {
+			disarm();
+		}
+		for (int index = 0; index < batchSequences.length; index++) {
+			batchSequences[index] = getSequence(index);
+		}
+		count = batchResultCount;
+		try {
+			for (int index = batchDoneCount; index < batchSequences.length; index++) {
+				setSequence(batchSequences[index]);
+				count += perform(missions.get(index));
+			}
+		} finally {
+			setSequences(batchSequences);
+		}
+		return count;
+	}
+
+
+
 	/**
 	 * Retourne le nom  attribuer  l'ouvrier embauch.
 	 * @return Le nom  attribuer  l'ouvrier embauch.
@@ -136,6 +532,55 @@ public abstract class Worker<M extends Mission> extends Employee<M> {
 
 
 
+	/**
+	 * Indicateur de chien de garde arm.
+	 */
+	private boolean armed = false;
+
+
+
+	/**
+	 * Nombre de missions du lot en cours signales comme effectues de faon dfinitive.
+	 */
+	private int batchDoneCount = 0;
+
+
+
+	/**
+	 * Nombre total de rsultats  comptabiliser pour les missions du lot en cours signales comme effectues de faon dfinitive.
+	 */
+	private int batchResultCount = 0;
+
+
+
+	/**
+	 * Nombre maximal de missions prises  la fois.
+	 */
+	private volatile int batchSize = 1;
+
+
+
+	/**
+	 * Temps pass  effectuer des missions, en nanosecondes. Il n'est modifi que par l'ouvrier lui mme.
+	 */
+	private volatile long busyTime = 0;
+
+
+
+	/**
+	 * Date  laquelle la mission (ou le lot de missions) en cours dpasse le dlai imparti, en nanosecondes (voir {@link System#nanoTime()}), significative uniquement si le chien de garde est arm.
+	 */
+	private long deadline;
+
+
+
+	/**
+	 * Verrou pour le chien de garde, propre  chaque ouvrier.
+	 */
+	private final Object deadlineLock = new Object();
+
+
+
 	/**
 	 * Indication d'ouvrier licenci aprs la fin de la mission en cours.
 	 */
@@ -143,6 +588,69 @@ public abstract class Worker<M extends Mission> extends Employee<M> {
 
 
 
+	/**
+	 * Nombre de missions termines. Il n'est modifi que par l'ouvrier lui mme.
+	 */
+	private volatile long doneCount = 0;
+
+
+
+	/**
+	 * Histogramme des dures d'excution de chaque mission (ou lot de missions).
+	 */
+	private final Histogram executionLatencies = new Histogram();
+
+
+
+	/**
+	 * Temps pass  attendre des missions, en nanosecondes. Il n'est modifi que par l'ouvrier lui mme.
+	 */
+	private volatile long idleTime = 0;
+
+
+
+	/**
+	 * Thread excutant l'ouvrier, qui est l'ouvrier lui mme, ou un thread du service d'excution de l'entreprise.
+	 */
+	private volatile Thread runner = null;
+
+
+
+	/**
+	 * Numro d'ordre de la mission en cours, ou de la premire mission du lot en cours.
+	 */
+	private long sequence = -1;
+
+
+
+	/**
+	 * Numros d'ordre des missions du lot en cours, ou <code>null</code> si l'ouvrier ne travaille pas par lots.
+	 */
+	private long[] sequences = null;
+
+
+
+	/**
+	 * File du distributeur de missions attribue  l'ouvrier, ou -1 si il n'en a pas encore.
+	 */
+	private int shard = -1;
+
+
+
+	/**
+	 * Indicateur de dlai imparti dpass, qui a provoqu l'interruption de l'ouvrier.
+	 */
+	private boolean timedOut = false;
+
+
+
+	/**
+	 * Histogramme des dures d'attente de chaque mission (ou lot de missions).
+	 */
+	private final Histogram waitLatencies = new Histogram();
+
+
+
 	/**
 	 * Numro  attribuer au prochain ouvrier embauch.
 	 */
@@ -153,7 +661,7 @@ public abstract class Worker<M extends Mission> extends Employee<M> {
 	/**
 	 * Verrou du numro  attribuer au prochain ouvrier embauch.
 	 */
-	private static final Object newWorkerIdLock = "newWorkerId";
+	private static final Object newWorkerIdLock = new Object();
 
 
 
@@ -0,0 +1,120 @@
+package toolbox.parallel.managers;
+
+import toolbox.parallel.*;
+
+
+
+/**
+ * La classe {@link HillClimbingManager} implmente un responsable qui cherche le nombre d'ouvriers maximisant le dbit (missions termines par milliseconde) d'une entreprise, par une mthode de
+ * gradient.<br>
+ * A chaque consultation, il mesure le dbit depuis la consultation prcdente, et fait varier le nombre d'ouvriers souhait du pas indiqu, dans la mme direction que prcdemment si le dbit ne
+ * s'est pas dgrad, dans la direction oppose sinon. Le nombre d'ouvriers oscille ainsi autour de la meilleure valeur, en suivant ses variations (charge de la base de donnes, ...).<br>
+ * Les priodes pendant lesquelles le dmarrage de nouvelles missions est suspendu ne sont pas prises en compte.
+ * @author Ludovic WALLE
+ */
+public class HillClimbingManager implements Manager {
+
+
+
+	/**
+	 * @param minWorkerCount Nombre minimal d'ouvriers (doit tre strictement positif).
+	 * @param maxWorkerCount Nombre maximal d'ouvriers (doit tre suprieur ou gal au nombre minimal).
+	 * @param step Pas de variation du nombre d'ouvriers (doit tre strictement positif).
+	 */
+	public HillClimbingManager(int minWorkerCount, int maxWorkerCount, int step) {
+		if (minWorkerCount <= 0) {
+			throw new IllegalArgumentException("Le nombre minimal d'ouvriers doit tre strictement positif: " + minWorkerCount);
+		}
+		if (minWorkerCount > maxWorkerCount) {
+			throw new IllegalArgumentException("Le nombre minimal d'ouvriers (" + minWorkerCount + ") doit tre infrieur ou gal au nombre maximal (" + maxWorkerCount + ").");
+		}
+		if (step <= 0) {
+			throw new IllegalArgumentException("Le pas de variation du nombre d'ouvriers doit tre strictement positif: " + step);
+		}
+		this.minWorkerCount = minWorkerCount;
+		this.maxWorkerCount = maxWorkerCount;
+		this.step = step;
+	}
+
+
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override public synchronized int adjustWishedWorkerCount(Enterprise<?> enterprise, int wishedWorkerCount) {
+		int doneCount = enterprise.getDoneCount();
+		long elapsedTime = enterprise.getElapsedTime();
+		double throughput;
+		int adjusted;
+
+		if ((lastElapsedTime == -1) || (elapsedTime <= lastElapsedTime)) {
+			adjusted = wishedWorkerCount;
+		} else {
+			throughput = (doneCount - lastDoneCount) / (double) (elapsedTime - lastElapsedTime);
+			if (throughput < lastThroughput) {
+				direction = -direction;
+			}
+			lastThroughput = throughput;
+			adjusted = wishedWorkerCount + (direction * step);
+			if ((adjusted < minWorkerCount) || (adjusted > maxWorkerCount)) {
+				direction = -direction;
+				adjusted = Math.max(minWorkerCount, Math.min(maxWorkerCount, adjusted));
+			}
+		}
+		lastDoneCount = doneCount;
+		lastElapsedTime = elapsedTime;
+		return Math.max(minWorkerCount, Math.min(maxWorkerCount, adjusted));
+	}
+
+
+
+	/**
+	 * Sens de la prochaine variation du nombre d'ouvriers (1 ou -1).
+	 */
+	private int direction = 1;
+
+
+
+	/**
+	 * Nombre de missions termines lors de la consultation prcdente.
+	 */
+	private int lastDoneCount = 0;
+
+
+
+	/**
+	 * Temps de traitement coul lors de la consultation prcdente, en millisecondes, ou -1 si il n'y en a pas eu.
+	 */
+	private long lastElapsedTime = -1;
+
+
+
+	/**
+	 * Dbit mesur lors de la consultation prcdente, en missions par milliseconde.
+	 */
+	private double lastThroughput = 0;
+
+
+
+	/**
+	 * Nombre maximal d'ouvriers.
+	 */
+	private final int maxWorkerCount;
+
+
+
+	/**
+	 * Nombre minimal d'ouvriers.
+	 */
+	private final int minWorkerCount;
+
+
+
+	/**
+	 * Pas de variation du nombre d'ouvriers.
+	 */
+	private final int step;
+
+
+
+}
@@ -38,6 +38,18 @@ public class ArrayStringMissionner extends Missionner<StringMission> {
 
 
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override protected long delegateSkip(long count) {
+		int skipped = (int) Math.min(count, strings.length - iStrings);
+
+		iStrings += skipped;
+		return skipped;
+	}
+
+
+
 	/**
 	 * Indice de la prochaine chaine  retourner.
 	 */
@@ -1,13 +1,29 @@
 package toolbox.parallel.missionners;
 
 import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.locks.*;
 
 import toolbox.*;
+import toolbox.parallel.missions.*;
 
 
 
 /**
- * La classe {@link FileDelimitedStringMissionner} implmente un gnrateur qui retourne des chaines dlimites lues depuis un flux.
+ * La classe {@link FileDelimitedStringMissionner} implmente un gnrateur qui retourne des chaines dlimites lues depuis un flux.<br>
+ * <br>
+ * Le fichier peut tre lu squentiellement, au travers d'un {@link DelimitedReader}, ou tre projet en mmoire et lu en parallle par plusieurs lecteurs (voir
+ * {@link #FileDelimitedStringMissionner(String, Charset, String, boolean, String, boolean, int)}). Dans ce dernier cas, le fichier est dcoup en tranches d'octets, et chaque chaine dlimite
+ * appartient  la tranche dans laquelle commence sa chaine de dbut. La position  partir de laquelle une tranche doit tre lue dpend de la fin de la dernire chaine dlimite de la tranche
+ * prcdente: tant qu'elle n'est pas connue, un lecteur lit sa tranche  partir de son dbut en ne mmorisant que les positions des chaines trouves, puis les retient ou relit la tranche lorsqu'elle
+ * est connue. Les chaines dlimites obtenues sont donc exactement les mmes que par une lecture squentielle, aucune n'tant coupe ni duplique.<br>
+ * Les missions prpares par les lecteurs sont ranges par tranche, et distribues tranche aprs tranche, dans l'ordre du fichier comme lors d'une lecture squentielle, ce qui permet d'utiliser un
+ * {@link toolbox.parallel.Receiver} ordonn. Le nombre de missions prpares  l'avance est limit, sauf pour la tranche en cours de distribution, dont le lecteur ne doit pas attendre que les
+ * lecteurs des tranches suivantes librent de la place.
  * @author Ludovic WALLE
  */
 public class FileDelimitedStringMissionner extends StreamDelimitedStringMissionner {
@@ -32,26 +48,535 @@ public class FileDelimitedStringMissionner extends StreamDelimitedStringMissionn
 	@SuppressWarnings("resource") public FileDelimitedStringMissionner(String fileName, String from, boolean fromIncluded, String upto, boolean uptoIncluded) throws FileNotFoundException {
 		super(new BufferedReader(new FileReader(fileName)), from, fromIncluded, upto, uptoIncluded);
 		this.fileName = fileName;
+		this.charset = Charset.defaultCharset();
+		this.readerCount = 0;
+		if (isByteSearchable(charset) && charset.newEncoder().canEncode(from) && charset.newEncoder().canEncode(upto)) {
+			this.fromBytes = from.getBytes(charset);
+			this.uptoBytes = upto.getBytes(charset);
+		} else {
+			this.fromBytes = null;
+			this.uptoBytes = null;
+		}
+		this.records = null;
+		this.recordsCapacity = 0;
+		this.chunkSize = CHUNK_SIZE;
+		this.segmentSize = SEGMENT_SIZE;
 	}
 
 
 
 	/**
-	 * {@inheritDoc}
+	 * Extrait du fichier, projet en mmoire et lu en parallle par le nombre de lecteurs indiqu, les chaines dlimites par la premire occurrence de la chaine de dbut indique et la premire
+	 * occurrence de la chaine de fin indique, avec les mmes rgles que le constructeur {@link #FileDelimitedStringMissionner(String, String, boolean, String, boolean)}.<br>
+	 * Les chaines de dbut et de fin sont recherches octet par octet, ce qui n'est possible que pour les jeux de caractres codant chaque caractre sur un seul octet, ou pour UTF-8.
+	 * @param fileName Nom du fichier d'o proviennent les chaines dlimites.
+	 * @param charset Jeu de caractres du fichier (ne doit pas tre <code>null</code>).
+	 * @param from Chaine de dbut (ne doit pas tre <code>null</code>).<br>
+	 * @param fromIncluded Indicateur de chaine de dbut inclue dans la chaine extraite.
+	 * @param upto Chaine de fin (ne doit pas tre <code>null</code>).<br>
+	 *            Si la chaine est vide, la chaine extraite ira jusqu' la fin du fichier.
+	 * @param uptoIncluded Indicateur de chaine de fin inclue dans la chaine extraite.
+	 * @param readerCount Nombre de lecteurs (doit tre strictement positif).
+	 * @throws FileNotFoundException
+	 */
+	public FileDelimitedStringMissionner(String fileName, Charset charset, String from, boolean fromIncluded, String upto, boolean uptoIncluded, int readerCount) throws FileNotFoundException {
+		this(fileName, charset, from, fromIncluded, upto, uptoIncluded, readerCount, CHUNK_SIZE, SEGMENT_SIZE);
+	}
+
+
+
+	/**
+	 * Constructeur destin aux classes drives qui choisissent les tailles des tranches lues par les lecteurs et des segments projets en mmoire, par exemple pour prouver le dcoupage en
+	 * tranches sur de petits fichiers. Les rgles sont celles du constructeur {@link #FileDelimitedStringMissionner(String, Charset, String, boolean, String, boolean, int)}.
+	 * @param fileName Nom du fichier d'o proviennent les chaines dlimites.
+	 * @param charset Jeu de caractres du fichier (ne doit pas tre <code>null</code>).
+	 * @param from Chaine de dbut (ne doit pas tre <code>null</code>).<br>
+	 * @param fromIncluded Indicateur de chaine de dbut inclue dans la chaine extraite.
+	 * @param upto Chaine de fin (ne doit pas tre <code>null</code>).<br>
+	 *            Si la chaine est vide, la chaine extraite ira jusqu' la fin du fichier.
+	 * @param uptoIncluded Indicateur de chaine de fin inclue dans la chaine extraite.
+	 * @param readerCount Nombre de lecteurs (doit tre strictement positif).
+	 * @param chunkSize Taille des tranches lues par les lecteurs, en octets (doit tre strictement positive).
+	 * @param segmentSize Taille des segments du fichier projets en mmoire, en octets (doit tre strictement positive, et au plus {@link Integer#MAX_VALUE}).
+	 * @throws FileNotFoundException
 	 */
-	@Override protected int delegateComputeExpectedCount() throws Throwable {
+	protected FileDelimitedStringMissionner(String fileName, Charset charset, String from, boolean fromIncluded, String upto, boolean uptoIncluded, int readerCount, long chunkSize, long segmentSize) throws FileNotFoundException {
+		super(from, fromIncluded, upto, uptoIncluded);
+		if (charset == null) {
+			throw new NullPointerException();
+		} else if (readerCount <= 0) {
+			throw new IllegalArgumentException("Le nombre de lecteurs doit tre strictement positif: " + readerCount);
+		} else if (!isByteSearchable(charset)) {
+			throw new IllegalArgumentException("Le jeu de caractres ne permet pas de rechercher les chaines de dbut et de fin octet par octet: " + charset);
+		} else if (!charset.newEncoder().canEncode(from) || !charset.newEncoder().canEncode(upto)) {
+			throw new IllegalArgumentException("Les chaines de dbut et de fin ne peuvent pas tre codes dans le jeu de caractres " + charset);
+		} else if (chunkSize <= 0) {
+			throw new IllegalArgumentException("La taille des tranches doit tre strictement positive: " + chunkSize);
+		} else if ((segmentSize <= 0) || (segmentSize > Integer.MAX_VALUE)) {
+			throw new IllegalArgumentException("La taille des segments doit tre strictement positive et au plus " + Integer.MAX_VALUE + ": " + segmentSize);
+		} else if (!new File(fileName).isFile()) {
+			throw new FileNotFoundException(fileName);
+		}
+		this.fileName = fileName;
+		this.charset = charset;
+		this.readerCount = readerCount;
+		this.fromBytes = from.getBytes(charset);
+		this.uptoBytes = upto.getBytes(charset);
+		this.records = new HashMap<>();
+		this.recordsCapacity = readerCount * RECORDS_CAPACITY_PER_READER;
+		this.chunkSize = chunkSize;
+		this.segmentSize = segmentSize;
+	}
+
+
+
+	/**
+	 * {@inheritDoc}<br>
+	 * Lorsque le jeu de caractres le permet, les chaines dlimites sont comptes en recherchant directement les chaines de dbut et de fin dans les octets du fichier projet en mmoire, sans
+	 * dcoder ni construire les chaines dlimites. Sinon, le fichier est relu au travers d'un {@link DelimitedReader}.
+	 */
+	@SuppressWarnings("resource") @Override protected int delegateComputeExpectedCount() throws Throwable {
 		int count = 0;
+		long[] record;
+
+		if (fromBytes == null) {
+			try (DelimitedReader reader = new DelimitedReader(new BufferedReader(new InputStreamReader(new FileInputStream(fileName), charset)))) {
+				while (reader.read(getFrom(), isFromIncluded(), getUpto(), isUptoIncluded()) != null) {
+					count++;
+				}
+			}
+		} else {
+			for (long position = 0; (record = find(position, size)) != null; position = record[3]) {
+				if (record[1] != -1) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override protected void delegateFinalize() {
+		if (readerCount > 0) {
+			stopReaders();
+		}
+	}
+
+
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override protected StringMission delegateGetNext() throws Exception {
+		ArrayDeque<StringMission> chunkRecords;
+
+		if (readerCount == 0) {
+			return super.delegateGetNext();
+		}
+		recordsLock.lock();
+		try {
+			for (;;) {
+				if (failure instanceof Error) {
+					throw (Error) failure;
+				} else if (failure != null) {
+					throw (Exception) failure;
+				} else if (((chunkRecords = records.get(deliveredChunk)) != null) && !chunkRecords.isEmpty()) {
+					recordCount--;
+					recordsNotFull.signalAll();
+					return chunkRecords.poll();
+				} else if ((deliveredChunk < readChunks.length) && readChunks[deliveredChunk]) {
+					records.remove(deliveredChunk++);
+					recordsNotFull.signalAll();
+				} else if ((deliveredChunk >= readChunks.length) || (activeReaderCount == 0)) {
+					return null;
+				} else {
+					recordsNotEmpty.await();
+				}
+			}
+		} catch (InterruptedException exception) {
+			stopReaders();
+			throw exception;
+		} finally {
+			recordsLock.unlock();
+		}
+	}
+
+
+
+	/**
+	 * {@inheritDoc}<br>
+	 * Lorsque les chaines dlimites peuvent tre recherches octet par octet, le fichier est projet en mmoire ici, par le thread du distributeur, mme si il est lu squentiellement: le thread qui
+	 * compte les chaines dlimites (voir {@link #delegateComputeExpectedCount()}) est interrompu ds que toutes les missions ont t prpares, ce qui fermerait un canal qu'il aurait ouvert lui mme.
+	 */
+	@Override protected void delegateInitialize() throws IOException {
+		if (fromBytes != null) {
+			map();
+		}
+		if (readerCount > 0) {
+			entries = new long[(int) Math.max(1, (size + chunkSize - 1) / chunkSize) + 1];
+			Arrays.fill(entries, -1);
+			entries[0] = 0;
+			readChunks = new boolean[entries.length - 1];
+			activeReaderCount = readerCount;
+			for (int i = 0; i < readerCount; i++) {
+				new ChunkReader().start();
+			}
+		}
+	}
+
+
 
-		try (DelimitedReader reader = new DelimitedReader(new BufferedReader(new FileReader(fileName)))) {
-			while (reader.read(getFrom(), isFromIncluded(), getUpto(), isUptoIncluded()) != null) {
-				count++;
+	/**
+	 * Retourne le nombre de lecteurs lisant le fichier en parallle, ou 0 si il est lu squentiellement.
+	 * @return Le nombre de lecteurs lisant le fichier en parallle, ou 0 si il est lu squentiellement.
+	 */
+	public final int getReaderCount() {
+		return readerCount;
+	}
+
+
+
+	/**
+	 * Attend que la position  partir de laquelle doit tre lue la tranche indique soit connue.
+	 * @param chunk Tranche.
+	 * @return La position  partir de laquelle doit tre lue la tranche, ou -1 si les lecteurs ont t arrts.
+	 * @throws InterruptedException Si l'attente est interrompue.
+	 */
+	private long awaitEntry(int chunk) throws InterruptedException {
+		chunksLock.lock();
+		try {
+			while ((entries[chunk] == -1) && !stopped) {
+				entryKnown.await();
 			}
-			return count;
+			return stopped ? -1 : entries[chunk];
+		} finally {
+			chunksLock.unlock();
 		}
 	}
 
 
 
+	/**
+	 * Retourne l'octet du fichier  la position indique.
+	 * @param position Position.
+	 * @return L'octet du fichier  la position indique.
+	 */
+	private byte byteAt(long position) {
+		return segments[(int) (position / segmentSize)].get((int) (position % segmentSize));
+	}
+
+
+
+	/**
+	 * Cre la mission correspondant  la chaine dlimite indique, et l'ajoute aux missions prpares par les lecteurs pour la tranche indique.<br>
+	 * Cette mthode est bloquante tant qu'il y a trop de missions prpares, sauf pour la tranche en cours de distribution.
+	 * @param chunk Tranche dans laquelle commence la chaine dlimite.
+	 * @param record Chaine dlimite, sous la forme retourne par {@link #find(long, long)}.
+	 * @return <code>false</code> si les lecteurs ont t arrts, <code>true</code> sinon.
+	 * @throws InterruptedException Si l'attente est interrompue.
+	 */
+	private boolean emit(int chunk, long[] record) throws InterruptedException {
+		StringMission mission;
+		byte[] bytes;
+		ByteBuffer segment;
+		long position;
+		int offset = 0;
+		int length;
+
+		if (record[1] == -1) {
+			return !stopped;
+		} else if ((record[2] - record[1]) > Integer.MAX_VALUE) {
+			throw new IllegalStateException("Chaine dlimite trop longue  la position " + record[1] + ": " + (record[2] - record[1]) + " octets.");
+		}
+		bytes = new byte[(int) (record[2] - record[1])];
+		while (offset < bytes.length) {
+			position = record[1] + offset;
+			segment = segments[(int) (position / segmentSize)].duplicate();
+			segment.position((int) (position % segmentSize));
+			length = Math.min(bytes.length - offset, segment.remaining());
+			segment.get(bytes, offset, length);
+			offset += length;
+		}
+		mission = new StringMission(new String(bytes, charset));
+		recordsLock.lock();
+		try {
+			while ((recordCount >= recordsCapacity) && (chunk != deliveredChunk) && !stopped) {
+				recordsNotFull.await();
+			}
+			if (stopped) {
+				return false;
+			}
+			records.computeIfAbsent(chunk, key -> new ArrayDeque<>()).add(mission);
+			recordCount++;
+			if (chunk == deliveredChunk) {
+				recordsNotEmpty.signal();
+			}
+			return true;
+		} finally {
+			recordsLock.unlock();
+		}
+	}
+
+
+
+	/**
+	 * Cherche la prochaine chaine dlimite dont la chaine de dbut commence entre les positions indiques.
+	 * @param position Position  partir de laquelle chercher la chaine de dbut.
+	 * @param limit Position avant laquelle doit commencer la chaine de dbut.
+	 * @return Un tableau contenant la position de recherche, les positions de dbut (incluse) et de fin (exclue) de la chaine dlimite, et la position suivant sa chaine de fin, ou <code>null</code>
+	 *         si aucune chaine de dbut ne commence entre les positions indiques. Si la chaine de fin n'est pas trouve, les positions de dbut et de fin de la chaine dlimite valent -1, et la
+	 *         position suivant sa chaine de fin est la taille du fichier.
+	 */
+	private long[] find(long position, long limit) {
+		long fromStart;
+		long uptoStart;
+
+		if ((fromStart = indexOf(fromBytes, position, limit)) == -1) {
+			return null;
+		} else if (uptoBytes.length == 0) {
+			uptoStart = size;
+		} else if ((uptoStart = indexOf(uptoBytes, fromStart + fromBytes.length, size)) == -1) {
+			return new long[] {position, -1, -1, size};
+		}
+		return new long[] {position, isFromIncluded() ? fromStart : fromStart + fromBytes.length, isUptoIncluded() ? uptoStart + uptoBytes.length : uptoStart, uptoStart + uptoBytes.length};
+	}
+
+
+
+	/**
+	 * Retourne la position de la premire occurrence de la chaine indique, commenant entre les positions indiques, sans dborder de la fin du fichier.
+	 * @param bytes Chaine cherche.
+	 * @param position Position  partir de laquelle chercher (incluse).
+	 * @param limit Position avant laquelle doit commencer la chaine (exclue).
+	 * @return La position de la premire occurrence de la chaine indique, ou -1 si elle n'a pas t trouve.
+	 */
+	private long indexOf(byte[] bytes, long position, long limit) {
+		long last = Math.min(limit, (size - bytes.length) + 1);
+		int i;
+
+		if (bytes.length == 0) {
+			return (position < limit) ? position : -1;
+		}
+		for (long start = position; start < last; start++) {
+			if (byteAt(start) == bytes[0]) {
+				for (i = 1; (i < bytes.length) && (byteAt(start + i) == bytes[i]); i++) {}
+				if (i == bytes.length) {
+					return start;
+				}
+			}
+		}
+		return -1;
+	}
+
+
+
+	/**
+	 * Projette le fichier en mmoire, par segments.
+	 * @throws IOException En cas d'erreur d'entre/sortie.
+	 */
+	private void map() throws IOException {
+		MappedByteBuffer[] segments;
+
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			size = channel.size();
+			segments = new MappedByteBuffer[(int) ((size + segmentSize - 1) / segmentSize)];
+			for (int i = 0; i < segments.length; i++) {
+				segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, i * segmentSize, Math.min(segmentSize, size - (i * segmentSize)));
+			}
+			this.segments = segments;
+		}
+	}
+
+
+
+	/**
+	 * Lit la tranche indique.
+	 * @param chunk Tranche.
+	 * @throws InterruptedException Si une attente est interrompue.
+	 */
+	private void readChunk(int chunk) throws InterruptedException {
+		long limit = Math.min(size, (chunk + 1) * chunkSize);
+		long entry;
+		long position;
+		long retained;
+		List<long[]> candidates;
+		long[] record;
+
+		chunksLock.lock();
+		try {
+			entry = entries[chunk];
+		} finally {
+			chunksLock.unlock();
+		}
+		if (entry == -1) {
+			position = chunk * chunkSize;
+			candidates = new ArrayList<>();
+		} else {
+			position = entry;
+			candidates = null;
+		}
+		while (!stopped) {
+			record = (position < limit) ? find(position, limit) : null;
+			if (candidates != null) {
+				if (record == null) {
+					entry = awaitEntry(chunk);
+				} else {
+					chunksLock.lock();
+					try {
+						entry = entries[chunk];
+					} finally {
+						chunksLock.unlock();
+					}
+				}
+				if (entry != -1) {
+					retained = retain(chunk, candidates, entry, position);
+					candidates = null;
+					if (retained != position) {
+						position = retained;
+						continue;
+					}
+				} else if (record == null) {
+					return;
+				}
+			}
+			if (record == null) {
+				chunksLock.lock();
+				try {
+					entries[chunk + 1] = Math.max(position, limit);
+					entryKnown.signalAll();
+				} finally {
+					chunksLock.unlock();
+				}
+				return;
+			} else if (candidates != null) {
+				candidates.add(record);
+			} else if (!emit(chunk, record)) {
+				return;
+			}
+			position = record[3];
+		}
+	}
+
+
+
+	/**
+	 * Retient, parmi les chaines dlimites trouves en lisant une tranche  partir de son dbut, celles qui auraient t trouves en la lisant  partir de la position indique, et cre les missions
+	 * correspondantes.
+	 * @param chunk Tranche.
+	 * @param candidates Chaines dlimites trouves en lisant la tranche  partir de son dbut, sous la forme retourne par {@link #find(long, long)}.
+	 * @param entry Position  partir de laquelle la tranche doit tre lue.
+	 * @param position Position atteinte en lisant la tranche  partir de son dbut.
+	 * @return La position  partir de laquelle poursuivre la lecture de la tranche.
+	 * @throws InterruptedException Si une attente est interrompue.
+	 */
+	private long retain(int chunk, List<long[]> candidates, long entry, long position) throws InterruptedException {
+		for (int i = 0; i < candidates.size(); i++) {
+			if (candidates.get(i)[0] == entry) {
+				for (int j = i; j < candidates.size(); j++) {
+					if (!emit(chunk, candidates.get(j))) {
+						break;
+					}
+				}
+				return position;
+			}
+		}
+		return entry;
+	}
+
+
+
+	/**
+	 * Arrte les lecteurs.
+	 */
+	private void stopReaders() {
+		stopped = true;
+		recordsLock.lock();
+		try {
+			recordsNotFull.signalAll();
+		} finally {
+			recordsLock.unlock();
+		}
+		chunksLock.lock();
+		try {
+			entryKnown.signalAll();
+		} finally {
+			chunksLock.unlock();
+		}
+	}
+
+
+
+	/**
+	 * Teste si les chaines codes dans le jeu de caractres indiqu peuvent tre recherches octet par octet, c'est  dire si il code chaque caractre sur un seul octet, ou si c'est UTF-8.
+	 * @param charset Jeu de caractres.
+	 * @return <code>true</code> si les chaines codes dans le jeu de caractres indiqu peuvent tre recherches octet par octet, <code>false</code> sinon.
+	 */
+	private static boolean isByteSearchable(Charset charset) {
+		return (charset.newEncoder().maxBytesPerChar() == 1) || charset.equals(StandardCharsets.UTF_8);
+	}
+
+
+
+	/**
+	 * Nombre de lecteurs en activit.
+	 */
+	private int activeReaderCount = 0;
+
+
+
+	/**
+	 * Jeu de caractres du fichier (le jeu de caractres par dfaut si il est lu squentiellement).
+	 */
+	private final Charset charset;
+
+
+
+	/**
+	 * Taille des tranches lues par les lecteurs, en octets.
+	 */
+	private final long chunkSize;
+
+
+
+	/**
+	 * Verrou pour les tranches.
+	 */
+	private final ReentrantLock chunksLock = new ReentrantLock();
+
+
+
+	/**
+	 * Tranche dont les missions sont en cours de distribution.
+	 */
+	private int deliveredChunk = 0;
+
+
+
+	/**
+	 * Positions  partir desquelles doivent tre lues les tranches, ou -1 si elles ne sont pas encore connues.
+	 */
+	private long[] entries;
+
+
+
+	/**
+	 * Condition signale lorsque la position  partir de laquelle doit tre lue une tranche devient connue, ou que les lecteurs sont arrts.
+	 */
+	private final Condition entryKnown = chunksLock.newCondition();
+
+
+
+	/**
+	 * Premire exception rencontre par les lecteurs.
+	 */
+	private Throwable failure = null;
+
+
+
 	/**
 	 * Nom du fichier.
 	 */
@@ -59,4 +584,199 @@ public class FileDelimitedStringMissionner extends StreamDelimitedStringMissionn
 
 
 
+	/**
+	 * Chaine de dbut, code dans le jeu de caractres du fichier, ou <code>null</code> si elle ne peut pas tre recherche octet par octet.
+	 */
+	private final byte[] fromBytes;
+
+
+
+	/**
+	 * Prochaine tranche  lire.
+	 */
+	private int nextChunk = 0;
+
+
+
+	/**
+	 * Indicateurs de tranches entirement lues.
+	 */
+	private boolean[] readChunks;
+
+
+
+	/**
+	 * Nombre de lecteurs lisant le fichier en parallle, ou 0 si il est lu squentiellement.
+	 */
+	private final int readerCount;
+
+
+
+	/**
+	 * Nombre de missions prpares par les lecteurs et non encore distribues.
+	 */
+	private int recordCount = 0;
+
+
+
+	/**
+	 * Missions prpares par les lecteurs, par tranche, dans l'ordre du fichier.
+	 */
+	private final Map<Integer, ArrayDeque<StringMission>> records;
+
+
+
+	/**
+	 * Nombre maximal de missions prpares par les lecteurs.
+	 */
+	private final int recordsCapacity;
+
+
+
+	/**
+	 * Verrou pour les missions prpares par les lecteurs.
+	 */
+	private final ReentrantLock recordsLock = new ReentrantLock();
+
+
+
+	/**
+	 * Condition signale lorsque des missions ont t prpares par les lecteurs, ou que le dernier lecteur a fini.
+	 */
+	private final Condition recordsNotEmpty = recordsLock.newCondition();
+
+
+
+	/**
+	 * Condition signale lorsque la place s'est libre pour les missions prpares par les lecteurs, ou que les lecteurs sont arrts.
+	 */
+	private final Condition recordsNotFull = recordsLock.newCondition();
+
+
+
+	/**
+	 * Segments du fichier projets en mmoire.
+	 */
+	private volatile MappedByteBuffer[] segments;
+
+
+
+	/**
+	 * Taille des segments du fichier projets en mmoire, en octets.
+	 */
+	private final long segmentSize;
+
+
+
+	/**
+	 * Taille du fichier.
+	 */
+	private volatile long size;
+
+
+
+	/**
+	 * Indicateur de lecteurs arrts.
+	 */
+	private volatile boolean stopped = false;
+
+
+
+	/**
+	 * Chaine de fin, code dans le jeu de caractres du fichier, ou <code>null</code> si elle ne peut pas tre recherche octet par octet.
+	 */
+	private final byte[] uptoBytes;
+
+
+
+	/**
+	 * Taille par dfaut des tranches lues par les lecteurs.
+	 */
+	private static final long CHUNK_SIZE = 16 * 1024 * 1024;
+
+
+
+	/**
+	 * Nombre maximal de missions prpares  l'avance par lecteur.
+	 */
+	private static final int RECORDS_CAPACITY_PER_READER = 256;
+
+
+
+	/**
+	 * Taille par dfaut des segments du fichier projets en mmoire (une projection ne peut pas dpasser 2 Go).
+	 */
+	private static final long SEGMENT_SIZE = 1024 * 1024 * 1024;
+
+
+
+	/**
+	 * La classe {@link ChunkReader} implmente un lecteur, qui lit les tranches les unes aprs les autres, dans l'ordre, tant qu'il en reste.
+	 * @author Ludovic WALLE
+	 */
+	private final class ChunkReader extends Thread {
+
+
+
+		/**	*/
+		private ChunkReader() {
+			super("ChunkReader");
+			setDaemon(true);
+		}
+
+
+
+		/** {@inheritDoc} */
+		@Override public void run() {
+			int chunk;
+
+			try {
+				for (;;) {
+					chunksLock.lock();
+					try {
+						chunk = (nextChunk < (entries.length - 1)) ? nextChunk++ : -1;
+					} finally {
+						chunksLock.unlock();
+					}
+					if ((chunk == -1) || stopped) {
+						break;
+					}
+					readChunk(chunk);
+					recordsLock.lock();
+					try {
+						if (!stopped) {
+							readChunks[chunk] = true;
+							recordsNotEmpty.signal();
+						}
+					} finally {
+						recordsLock.unlock();
+					}
+				}
+			} catch (Throwable exception) {
+				recordsLock.lock();
+				try {
+					if (failure == null) {
+						failure = exception;
+					}
+				} finally {
+					recordsLock.unlock();
+				}
+				stopReaders();
+			} finally {
+				recordsLock.lock();
+				try {
+					activeReaderCount--;
+					recordsNotEmpty.signalAll();
+				} finally {
+					recordsLock.unlock();
+				}
+			}
+		}
+
+
+
+	}
+
+
+
 }
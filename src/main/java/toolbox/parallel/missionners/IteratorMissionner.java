@@ -0,0 +1,91 @@
+package toolbox.parallel.missionners;
+
+import java.util.*;
+import java.util.stream.*;
+
+import toolbox.parallel.*;
+
+
+
+/**
+ * La classe {@link IteratorMissionner} implmente un gnrateur qui retourne les missions fournies par un itrateur ou par un flux ({@link Stream}).<br>
+ * Elle permet de confier  une {@link Enterprise} des missions issues d'une source dj exprime sous forme de flux, sans la rcrire sous forme de {@link Missionner}. Le flux est parcouru
+ * squentiellement, dans le thread du distributeur, et ferm  la fin de la distribution.
+ * @author Ludovic WALLE
+ * @param <M> Type des missions.
+ */
+public class IteratorMissionner<M extends Mission> extends Missionner<M> {
+
+
+
+	/**
+	 * @param iterator Itrateur fournissant les missions, qui ne doivent pas tre <code>null</code> (ne doit pas tre <code>null</code>).
+	 */
+	public IteratorMissionner(Iterator<? extends M> iterator) {
+		if (iterator == null) {
+			throw new NullPointerException();
+		}
+		this.iterator = iterator;
+		this.stream = null;
+	}
+
+
+
+	/**
+	 * @param stream Flux fournissant les missions, qui ne doivent pas tre <code>null</code> (ne doit pas tre <code>null</code>).
+	 */
+	public IteratorMissionner(Stream<? extends M> stream) {
+		if (stream == null) {
+			throw new NullPointerException();
+		}
+		this.iterator = null;
+		this.stream = stream;
+	}
+
+
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override protected void delegateFinalize() {
+		if (stream != null) {
+			stream.close();
+		}
+	}
+
+
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override protected M delegateGetNext() {
+		M mission;
+
+		if (iterator == null) {
+			iterator = stream.sequential().iterator();
+		}
+		if (!iterator.hasNext()) {
+			return null;
+		} else if ((mission = iterator.next()) == null) {
+			throw new NullPointerException("Mission null fournie par " + ((stream != null) ? "le flux." : "l'itrateur."));
+		}
+		return mission;
+	}
+
+
+
+	/**
+	 * Itrateur fournissant les missions.
+	 */
+	private Iterator<? extends M> iterator;
+
+
+
+	/**
+	 * Flux fournissant les missions, ou <code>null</code> si elles sont fournies par un itrateur.
+	 */
+	private final Stream<? extends M> stream;
+
+
+
+}
@@ -0,0 +1,601 @@
+package toolbox.parallel.missionners;
+
+import java.util.*;
+import java.util.concurrent.locks.*;
+
+import toolbox.parallel.*;
+
+
+
+/**
+ * La classe {@link PriorityMissionner} implmente un gnrateur qui fusionne les missions de plusieurs voies, selon leur priorit.<br>
+ * Chaque voie est cre par {@link #addLane(int, int)}, avec une priorit et un poids, puis alimente:
+ * <ul>
+ * <li>soit par un autre distributeur ({@link #addSource(int, Missionner)}), qui ne doit pas tre employ par une entreprise, et dont les missions sont transfres dans la voie par un thread
+ * ddi,
+ * <li>soit directement par {@link #submit(int, Mission)}, par exemple pour faire passer des missions urgentes dans une entreprise qui fonctionne, jusqu' ce que la voie soit ferme par
+ * {@link #closeLane(int)}.
+ * </ul>
+ * Chaque voie contient au plus le nombre de missions indiqu au constructeur. La mission suivante est prise dans la voie non vide de plus haute priorit. Les voies non vides de mme priorit se
+ * partagent les missions proportionnellement  leur poids, de faon rgulire (tourniquet pondr liss). Pour qu'une voie de priorit faible ne soit pas indfiniment dlaisse, une voie non vide
+ * qui a t dlaisse le nombre de fois indiqu par {@link #setStarvationLimit(int)} est servie en priorit.<br>
+ * La fusion est faite dans le thread du distributeur, lors de la prparation des missions: les ouvriers prennent les missions dans le tampon du distributeur comme avec n'importe quel autre
+ * distributeur, sans synchronisation supplmentaire. Une mission urgente ne passe donc pas devant celles dj places dans le tampon, dont la capacit (une seule mission par dfaut, voir
+ * {@link #setBufferCapacity(int)}) doit rester petite pour que les priorits soient respectes.<br>
+ * La distribution se termine lorsque toutes les voies sont fermes et vides. Une voie alimente par un distributeur est ferme lorsque celui ci n'a plus de missions  distribuer.
+ * @author Ludovic WALLE
+ * @param <M> Type des missions.
+ */
+public class PriorityMissionner<M extends Mission> extends Missionner<M> {
+
+
+
+	/**
+	 * @param laneCapacity Nombre maximal de missions en attente dans chaque voie (doit tre strictement positif).
+	 */
+	public PriorityMissionner(int laneCapacity) {
+		if (laneCapacity <= 0) {
+			throw new IllegalArgumentException("La capacit des voies doit tre strictement positive: " + laneCapacity);
+		}
+		this.laneCapacity = laneCapacity;
+	}
+
+
+
+	/**
+	 * Cre une nouvelle voie, ouverte et vide.<br>
+	 * Cette mthode ne peut tre appele qu'avant le dmarrage du distributeur.
+	 * @param priority Priorit de la voie (les voies de plus haute priorit sont servies d'abord).
+	 * @param weight Poids de la voie par rapport aux autres voies de mme priorit (doit tre strictement positif).
+	 * @return Le numro de la voie cre.
+	 */
+	public final int addLane(int priority, int weight) {
+		if (weight <= 0) {
+			throw new IllegalArgumentException("Le poids d'une voie doit tre strictement positif: " + weight);
+		}
+		lock.lock();
+		try {
+			checkNotStarted();
+			lanes.add(new Lane<>(priority, weight));
+			return lanes.size() - 1;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+
+
+	/**
+	 * Indique le distributeur qui alimente la voie indique, qui sera ferme lorsqu'il n'aura plus de missions  distribuer.<br>
+	 * Cette mthode ne peut tre appele qu'avant le dmarrage du distributeur, et au plus une fois par voie.
+	 * @param lane Numro de la voie.
+	 * @param source Distributeur qui alimente la voie, qui ne doit pas tre employ par une entreprise (ne doit pas tre <code>null</code>).
+	 */
+	public final void addSource(int lane, Missionner<M> source) {
+		if (source == null) {
+			throw new NullPointerException();
+		}
+		lock.lock();
+		try {
+			checkNotStarted();
+			if (getLane(lane).source != null) {
+				throw new IllegalStateException("La voie " + lane + " est dj alimente par un distributeur.");
+			}
+			getLane(lane).source = source;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+
+
+	/**
+	 * Ferme la voie indique, qui n'acceptera plus de nouvelles missions. Les missions qu'elle contient encore seront distribues.
+	 * @param lane Numro de la voie.
+	 */
+	public final void closeLane(int lane) {
+		lock.lock();
+		try {
+			getLane(lane).closed = true;
+			notEmpty.signal();
+			notFull.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+
+
+	/**
+	 * {@inheritDoc}<br>
+	 * Le nombre de rsultats attendus n'est calculable que si toutes les voies sont alimentes par des distributeurs dont le nombre de rsultats attendus est calculable.<br>
+	 * Les nombres de rsultats attendus des distributeurs sont consults priodiquement, sans attendre qu'ils soient calculs ({@link Missionner#getExpectedCount(boolean)} signalerait comme une
+	 * exception du distributeur l'interruption de ce thread, qui a lieu lorsque toutes les missions ont t prpares). Le calcul est alors abandonn.
+	 */
+	@Override protected int delegateComputeExpectedCount() {
+		int expectedCount = 0;
+		int count;
+
+		for (Lane<M> lane : lanes) {
+			if (lane.source == null) {
+				return NOT_COMPUTABLE;
+			}
+		}
+		for (Lane<M> lane : lanes) {
+			while (((count = lane.source.getExpectedCount(false)) == NOT_AVAILABLE) || (count == NOT_COMPUTED)) {
+				if (hasExceptions() || lane.source.hasExceptions()) {
+					return NOT_COMPUTABLE;
+				}
+				try {
+					Thread.sleep(EXPECTED_COUNT_POLLING_PERIOD);
+				} catch (InterruptedException exception) {
+					return NOT_COMPUTABLE;
+				}
+			}
+			if (count < 0) {
+				return NOT_COMPUTABLE;
+			}
+			expectedCount += count;
+		}
+		return expectedCount;
+	}
+
+
+
+	/**
+	 * {@inheritDoc}<br>
+	 * Les distributeurs qui alimentent encore des voies sont arrts.
+	 */
+	@Override protected void delegateFinalize() {
+		lock.lock();
+		try {
+			for (Lane<M> lane : lanes) {
+				lane.closed = true;
+				lane.missions.clear();
+			}
+			notFull.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		for (Lane<M> lane : lanes) {
+			if (lane.source != null) {
+				lane.source.stopDispensing();
+			}
+		}
+	}
+
+
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override protected M delegateGetNext() throws InterruptedException {
+		Lane<M> lane;
+
+		lock.lock();
+		try {
+			while ((lane = select()) == null) {
+				if (hasExceptions() || allLanesClosed()) {
+					return null;
+				}
+				notEmpty.await();
+			}
+			notFull.signalAll();
+			return lane.missions.poll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+
+
+	/**
+	 * {@inheritDoc}<br>
+	 * Un thread est dmarr pour chaque voie alimente par un distributeur.
+	 */
+	@Override protected void delegateInitialize() {
+		Thread feeder;
+
+		for (int i = 0; i < lanes.size(); i++) {
+			if (lanes.get(i).source != null) {
+				feeder = new Thread(new Feeder(lanes.get(i)), getName() + "Lane" + i);
+				feeder.setDaemon(true);
+				feeder.start();
+			}
+		}
+	}
+
+
+
+	/**
+	 * Retourne le nombre de voies.
+	 * @return Le nombre de voies.
+	 */
+	public final int getLaneCount() {
+		lock.lock();
+		try {
+			return lanes.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+
+
+	/**
+	 * Retourne le nombre de missions distribues  partir de la voie indique.
+	 * @param lane Numro de la voie.
+	 * @return Le nombre de missions distribues  partir de la voie indique.
+	 */
+	public final long getSelectedCount(int lane) {
+		lock.lock();
+		try {
+			return getLane(lane).selectedCount;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+
+
+	/**
+	 * Retourne le nombre de fois conscutives qu'une voie non vide peut tre dlaisse avant d'tre servie en priorit.
+	 * @return Le nombre de fois conscutives qu'une voie non vide peut tre dlaisse avant d'tre servie en priorit.
+	 */
+	public final int getStarvationLimit() {
+		return starvationLimit;
+	}
+
+
+
+	/**
+	 * Fixe le nombre de fois conscutives qu'une voie non vide peut tre dlaisse avant d'tre servie en priorit ({@value #DEFAULT_STARVATION_LIMIT} par dfaut).<br>
+	 * Une voie dlaisse reoit ainsi au moins une mission sur <code>starvationLimit + 1</code> tant qu'elle n'est pas vide. {@link Integer#MAX_VALUE} rend les priorits strictes.
+	 * @param starvationLimit Nombre de fois conscutives qu'une voie non vide peut tre dlaisse (doit tre strictement positif).
+	 */
+	public final void setStarvationLimit(@SuppressWarnings("hiding") int starvationLimit) {
+		if (starvationLimit <= 0) {
+			throw new IllegalArgumentException("Le nombre de fois qu'une voie peut tre dlaisse doit tre strictement positif: " + starvationLimit);
+		}
+		this.starvationLimit = starvationLimit;
+	}
+
+
+
+	/**
+	 * Ajoute la mission indique  la voie indique.<br>
+	 * Cette mthode est bloquante tant que la voie est pleine.
+	 * @param lane Numro de la voie.
+	 * @param mission Mission (ne doit pas tre <code>null</code>).
+	 * @throws InterruptedException Si le thread est interrompu pendant l'attente.
+	 * @throws IllegalStateException Si la voie est ferme, ou a t ferme pendant l'attente.
+	 */
+	public final void submit(int lane, M mission) throws InterruptedException {
+		if (mission == null) {
+			throw new NullPointerException();
+		}
+		lock.lock();
+		try {
+			if (!offer(getLane(lane), mission)) {
+				throw new IllegalStateException("La voie est ferme.");
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+
+
+	/**
+	 * Teste si toutes les voies sont fermes.<br>
+	 * Cette mthode doit tre appele en dtenant le verrou {@link #lock}.
+	 * @return <code>true</code> si toutes les voies sont fermes, <code>false</code> sinon.
+	 */
+	private boolean allLanesClosed() {
+		for (Lane<M> lane : lanes) {
+			if (!lane.closed) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+
+	/**
+	 * Vrifie que le distributeur n'a pas dmarr.
+	 */
+	private void checkNotStarted() {
+		if (getState() != State.NEW) {
+			throw new IllegalStateException("Les voies ne peuvent plus tre modifies aprs le dmarrage du distributeur.");
+		}
+	}
+
+
+
+	/**
+	 * Retourne la voie dont le numro est indiqu.<br>
+	 * Cette mthode doit tre appele en dtenant le verrou {@link #lock}.
+	 * @param lane Numro de la voie.
+	 * @return La voie dont le numro est indiqu.
+	 */
+	private Lane<M> getLane(int lane) {
+		if ((lane < 0) || (lane >= lanes.size())) {
+			throw new IllegalArgumentException("Voie inexistante: " + lane);
+		}
+		return lanes.get(lane);
+	}
+
+
+
+	/**
+	 * Ajoute la mission indique  la voie indique, en attendant qu'il y ait de la place.<br>
+	 * Cette mthode est bloquante tant que la voie est pleine, et doit tre appele en dtenant le verrou {@link #lock}.
+	 * @param lane Voie.
+	 * @param mission Mission.
+	 * @return <code>true</code> si la mission a t ajoute, <code>false</code> si la voie est ferme, ou a t ferme pendant l'attente.
+	 * @throws InterruptedException Si le thread est interrompu pendant l'attente.
+	 */
+	private boolean offer(Lane<M> lane, M mission) throws InterruptedException {
+		while (!lane.closed && (lane.missions.size() >= laneCapacity)) {
+			notFull.await();
+		}
+		if (lane.closed) {
+			return false;
+		}
+		lane.missions.add(mission);
+		if (lane.missions.size() == 1) {
+			notEmpty.signal();
+		}
+		return true;
+	}
+
+
+
+	/**
+	 * Choisit la voie dans laquelle prendre la mission suivante, et met  jour l'tat de l'ordonnancement.<br>
+	 * Cette mthode doit tre appele en dtenant le verrou {@link #lock}.
+	 * @return La voie choisie, ou <code>null</code> si toutes les voies sont vides.
+	 */
+	private Lane<M> select() {
+		Lane<M> selected = null;
+		int topPriority = Integer.MIN_VALUE;
+		int totalWeight = 0;
+
+		for (Lane<M> lane : lanes) {
+			if (!lane.missions.isEmpty()) {
+				topPriority = Math.max(topPriority, lane.priority);
+				if ((lane.skippedCount >= starvationLimit) && ((selected == null) || (lane.skippedCount > selected.skippedCount))) {
+					selected = lane;
+				}
+			}
+		}
+		if (topPriority == Integer.MIN_VALUE) {
+			return null;
+		}
+		if (selected == null) {
+			for (Lane<M> lane : lanes) {
+				if (!lane.missions.isEmpty() && (lane.priority == topPriority)) {
+					lane.currentWeight += lane.weight;
+					totalWeight += lane.weight;
+					if ((selected == null) || (lane.currentWeight > selected.currentWeight)) {
+						selected = lane;
+					}
+				}
+			}
+			selected.currentWeight -= totalWeight;
+		}
+		for (Lane<M> lane : lanes) {
+			if (!lane.missions.isEmpty() && (lane != selected)) {
+				lane.skippedCount++;
+			}
+		}
+		selected.skippedCount = 0;
+		selected.selectedCount++;
+		return selected;
+	}
+
+
+
+	/**
+	 * Capacit de chaque voie.
+	 */
+	private final int laneCapacity;
+
+
+
+	/**
+	 * Voies.
+	 */
+	private final List<Lane<M>> lanes = new ArrayList<>();
+
+
+
+	/**
+	 * Verrou pour les voies.
+	 */
+	private final ReentrantLock lock = new ReentrantLock();
+
+
+
+	/**
+	 * Condition signale lorsqu'une voie cesse d'tre vide, ou est ferme.
+	 */
+	private final Condition notEmpty = lock.newCondition();
+
+
+
+	/**
+	 * Condition signale lorsque de la place s'est libre dans une voie, ou qu'elle est ferme.
+	 */
+	private final Condition notFull = lock.newCondition();
+
+
+
+	/**
+	 * Nombre de fois conscutives qu'une voie non vide peut tre dlaisse avant d'tre servie en priorit.
+	 */
+	private volatile int starvationLimit = DEFAULT_STARVATION_LIMIT;
+
+
+
+	/**
+	 * Nombre de fois conscutives qu'une voie non vide peut tre dlaisse avant d'tre servie en priorit, par dfaut.
+	 */
+	public static final int DEFAULT_STARVATION_LIMIT = 1000;
+
+
+
+	/**
+	 * Priode de consultation des nombres de rsultats attendus des distributeurs qui alimentent les voies, en millisecondes.
+	 */
+	private static final long EXPECTED_COUNT_POLLING_PERIOD = 10;
+
+
+
+	/**
+	 * La classe {@link Feeder} transfre dans une voie les missions du distributeur qui l'alimente, puis ferme la voie.<br>
+	 * Une voie ferme avant la fin du distributeur, lors de l'arrt anticip de la distribution (voir {@link PriorityMissionner#delegateFinalize()}), met fin au transfert comme la fin du distributeur,
+	 * sans exception.
+	 * @author Ludovic WALLE
+	 */
+	private class Feeder implements Runnable {
+
+
+
+		/**
+		 * @param lane Voie alimente.
+		 */
+		public Feeder(Lane<M> lane) {
+			this.lane = lane;
+		}
+
+
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override public void run() {
+			M mission;
+
+			try {
+				while ((mission = lane.source.getNext()) != null) {
+					lock.lock();
+					try {
+						if (!offer(lane, mission)) {
+							break;
+						}
+					} finally {
+						lock.unlock();
+					}
+				}
+				if (lane.source.hasExceptions()) {
+					reportExceptions(lane.source.getExceptions());
+				}
+			} catch (Throwable exception) {
+				reportExceptions(exception);
+			} finally {
+				lock.lock();
+				try {
+					lane.closed = true;
+					notEmpty.signal();
+				} finally {
+					lock.unlock();
+				}
+			}
+		}
+
+
+
+		/**
+		 * Voie alimente.
+		 */
+		private final Lane<M> lane;
+
+
+
+	}
+
+
+
+	/**
+	 * La classe {@link Lane} dcrit une voie.
+	 * @author Ludovic WALLE
+	 * @param <M> Type des missions.
+	 */
+	private static class Lane<M extends Mission> {
+
+
+
+		/**
+		 * @param priority Priorit de la voie.
+		 * @param weight Poids de la voie.
+		 */
+		public Lane(int priority, int weight) {
+			this.priority = priority;
+			this.weight = weight;
+		}
+
+
+
+		/**
+		 * Indicateur de voie ferme.
+		 */
+		private boolean closed = false;
+
+
+
+		/**
+		 * Poids courant de la voie, pour le tourniquet pondr liss.
+		 */
+		private int currentWeight = 0;
+
+
+
+		/**
+		 * Missions en attente dans la voie.
+		 */
+		private final ArrayDeque<M> missions = new ArrayDeque<>();
+
+
+
+		/**
+		 * Priorit de la voie.
+		 */
+		private final int priority;
+
+
+
+		/**
+		 * Nombre de missions distribues  partir de la voie.
+		 */
+		private long selectedCount = 0;
+
+
+
+		/**
+		 * Nombre de fois conscutives que la voie a t dlaisse alors qu'elle n'tait pas vide.
+		 */
+		private int skippedCount = 0;
+
+
+
+		/**
+		 * Distributeur qui alimente la voie, ou <code>null</code> si elle est alimente par {@link PriorityMissionner#submit(int, Mission)}.
+		 */
+		private Missionner<M> source = null;
+
+
+
+		/**
+		 * Poids de la voie.
+		 */
+		private final int weight;
+
+
+
+	}
+
+
+
+}
@@ -0,0 +1,123 @@
+package toolbox.parallel.missionners;
+
+import java.security.*;
+import java.util.*;
+
+import toolbox.parallel.*;
+import toolbox.parallel.missions.*;
+
+
+
+/**
+ * La classe {@link RandomNumberChunkMissionner} implmente un gnrateur qui retourne, par tableaux, des numros alatoires dans un intervalle donn.<br>
+ * Contrairement  {@link RandomNumberMissionner}, qui cre une mission par numro, chaque mission transmet un tableau de numros. Le nombre de rsultats attendus tant le nombre total de numros,
+ * les ouvriers doivent retourner le nombre de numros traits.
+ * @author Ludovic WALLE
+ */
+public class RandomNumberChunkMissionner extends Missionner<IntegerChunkMission> {
+
+
+
+	/**
+	 * Cre un gnrateur de nombre alatoire dont les valeurs sont comprises entre celles indiques (inclues).
+	 * @param min Valeur minimale.
+	 * @param max Valeur maximale.
+	 * @param count Nombre de valeurs  gnrer si positif ou nul, ou sans limite si ngatif.
+	 * @param chunkSize Nombre maximal de numros par mission (doit tre strictement positif).
+	 */
+	public RandomNumberChunkMissionner(int min, int max, int count, int chunkSize) {
+		super();
+		if (min <= 0) {
+			throw new InvalidParameterException("La valeur minimale du gnrateur alatoire (" + min + ") doit tre strictement positive.");
+		}
+		if (min > max) {
+			throw new InvalidParameterException("La valeur minimale du gnrateur alatoire (" + min + ") doit tre strictement infrieure  la valeur maximale(" + max + ").");
+		}
+		if (chunkSize <= 0) {
+			throw new InvalidParameterException("Le nombre maximal de numros par mission (" + chunkSize + ") doit tre strictement positif.");
+		}
+		this.count = count;
+		this.totalCount = count;
+		this.min = min;
+		this.max = max;
+		this.chunkSize = chunkSize;
+	}
+
+
+
+	/**
+	 * Retourne le nombre total de numros, ou {@link Missionner#NOT_COMPUTABLE} lorsqu'il n'est pas calculable.
+	 * @return Le nombre total de numros, ou {@link Missionner#NOT_COMPUTABLE} lorsqu'il n'est pas calculable.
+	 */
+	@Override protected synchronized int delegateComputeExpectedCount() {
+		return (totalCount >= 0) ? totalCount : NOT_COMPUTABLE;
+	}
+
+
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override protected IntegerChunkMission delegateGetNext() {
+		int[] numbers;
+
+		if (count == 0) {
+			return null;
+		} else if (count > 0) {
+			numbers = new int[Math.min(chunkSize, count)];
+			count -= numbers.length;
+		} else {
+			numbers = new int[chunkSize];
+		}
+		for (int i = 0; i < numbers.length; i++) {
+			numbers[i] = random.nextInt((max - min) + 1) + min;
+		}
+		return new IntegerChunkMission(numbers);
+	}
+
+
+
+	/**
+	 * Nombre maximal de numros par mission.
+	 */
+	private final int chunkSize;
+
+
+
+	/**
+	 * Nombre de valeurs restant  gnrer si positif ou nul, sans limite si ngatif.
+	 */
+	private int count;
+
+
+
+	/**
+	 * Valeur maximale gnrable (inclue).
+	 */
+	private final int max;
+
+
+
+	/**
+	 * Valeur minimale gnrable (inclue).
+	 */
+	private final int min;
+
+
+
+	/**
+	 * Gnrateur de nombres alatoires.
+	 */
+	private final Random random = new Random();
+
+
+
+	/**
+	 * Nombre total de valeurs  gnrer si positif ou nul, sans limite si ngatif. Contrairement  {@link #count}, il ne diminue pas au fur et  mesure de la distribution, dont le calcul du nombre
+	 * de rsultats attendus est concurrent.
+	 */
+	private final int totalCount;
+
+
+
+}
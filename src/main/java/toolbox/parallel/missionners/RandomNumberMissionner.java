@@ -42,6 +42,7 @@ public class RandomNumberMissionner extends Missionner<IntegerMission> {
 			throw new InvalidParameterException("La valeur minimale du gnrateur alatoire (" + min + ") doit tre strictement infrieure  la valeur maximale(" + max + ").");
 		}
 		this.count = count;
+		this.totalCount = count;
 		this.min = min;
 		this.max = max;
 	}
@@ -53,7 +54,7 @@ public class RandomNumberMissionner extends Missionner<IntegerMission> {
 	 * @return Le nombre total de numros, ou {@link Missionner#NOT_COMPUTABLE} lorsqu'il n'est pas calculable.
 	 */
 	@Override protected synchronized int delegateComputeExpectedCount() {
-		return (count >= 0) ? count : NOT_COMPUTABLE;
+		return (totalCount >= 0) ? totalCount : NOT_COMPUTABLE;
 	}
 
 
@@ -100,4 +101,12 @@ public class RandomNumberMissionner extends Missionner<IntegerMission> {
 
 
 
+	/**
+	 * Nombre total de valeurs  gnrer si positif ou nul, sans limite si ngatif. Contrairement  {@link #count}, il ne diminue pas au fur et  mesure de la distribution, dont le calcul du nombre
+	 * de rsultats attendus est concurrent.
+	 */
+	private final int totalCount;
+
+
+
 }
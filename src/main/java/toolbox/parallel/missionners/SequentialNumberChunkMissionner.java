@@ -0,0 +1,113 @@
+package toolbox.parallel.missionners;
+
+import java.security.*;
+
+import toolbox.parallel.*;
+import toolbox.parallel.missions.*;
+
+
+
+/**
+ * La classe {@link SequentialNumberChunkMissionner} implmente un gnrateur qui retourne dans l'ordre croissant, par intervalles, les nombres compris entre deux valeurs. Les deux valeurs doivent
+ * tre strictement positives.<br>
+ * Contrairement  {@link SequentialNumberMissionner}, qui cre une mission par nombre, chaque mission transmet un intervalle de nombres conscutifs, sans tableau ni objet par nombre. Le nombre de
+ * rsultats attendus tant le nombre total de nombres, les ouvriers doivent retourner le nombre de nombres traits.
+ * @author Ludovic WALLE
+ */
+public class SequentialNumberChunkMissionner extends Missionner<IntegerChunkMission> {
+
+
+
+	/**
+	 * Cre un gnrateur d'intervalles de nombres compris entre les deux valeurs indiques, dans l'ordre croissant. Les deux valeurs doivent tre strictement positives, et la valeur minimale doit
+	 * tre infrieure ou gale  la valeur maximale.
+	 * @param min Valeur minimale.
+	 * @param max Valeur maximale.
+	 * @param chunkSize Nombre maximal de nombres par mission (doit tre strictement positif).
+	 */
+	public SequentialNumberChunkMissionner(int min, int max, int chunkSize) {
+		super();
+		if (min <= 0) {
+			throw new InvalidParameterException("La valeur minimale du gnrateur squentiel (" + min + ") doit tre strictement positive.");
+		}
+		if (min > max) {
+			throw new InvalidParameterException("La valeur minimale du gnrateur squentiel (" + min + ") doit tre strictement infrieure  la valeur maximale(" + max + ").");
+		}
+		if (chunkSize <= 0) {
+			throw new InvalidParameterException("Le nombre maximal de nombres par mission (" + chunkSize + ") doit tre strictement positif.");
+		}
+		this.min = min;
+		this.max = max;
+		this.chunkSize = chunkSize;
+		this.next = min;
+	}
+
+
+
+	/**
+	 * Retourne le nombre total de numros  traiter.
+	 * @return Le nombre total de numros  traiter.
+	 */
+	@Override protected synchronized int delegateComputeExpectedCount() {
+		return (max - min) + 1;
+	}
+
+
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override protected IntegerChunkMission delegateGetNext() {
+		IntegerChunkMission mission;
+
+		if (next > max) {
+			return null;
+		}
+		mission = new IntegerChunkMission((int) next, (int) Math.min(chunkSize, (max - next) + 1));
+		next += mission.getCount();
+		return mission;
+	}
+
+
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override protected long delegateSkip(long count) {
+		long skipped = Math.min(count, (((max - next) + 1) + chunkSize - 1) / chunkSize);
+
+		next = Math.min(next + (skipped * chunkSize), (long) max + 1);
+		return skipped;
+	}
+
+
+
+	/**
+	 * Nombre maximal de nombres par mission.
+	 */
+	private final int chunkSize;
+
+
+
+	/**
+	 * Valeur maximale gnrable (inclue).
+	 */
+	private final int max;
+
+
+
+	/**
+	 * Valeur minimale gnrable (inclue).
+	 */
+	private final int min;
+
+
+
+	/**
+	 * Prochaine valeur  gnrer.
+	 */
+	private long next;
+
+
+
+}
@@ -30,6 +30,7 @@ public class SequentialNumberMissionner extends Missionner<IntegerMission> {
 		if (min > max) {
 			throw new InvalidParameterException("La valeur minimale du gnrateur squentiel (" + min + ") doit tre strictement infrieure  la valeur maximale(" + max + ").");
 		}
+		this.first = min;
 		this.min = min;
 		this.max = max;
 	}
@@ -41,7 +42,7 @@ public class SequentialNumberMissionner extends Missionner<IntegerMission> {
 	 * @return Le nombre total de numros  traiter.
 	 */
 	@Override protected synchronized int delegateComputeExpectedCount() {
-		return (max - min) + 1;
+		return (max - first) + 1;
 	}
 
 
@@ -58,6 +59,25 @@ public class SequentialNumberMissionner extends Missionner<IntegerMission> {
 
 
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override protected long delegateSkip(long count) {
+		long skipped = Math.min(count, Math.max(0, ((long) max - min) + 1));
+
+		min += skipped;
+		return skipped;
+	}
+
+
+
+	/**
+	 * Premire valeur gnre. Contrairement  {@link #min}, elle n'augmente pas au fur et  mesure de la distribution, dont le calcul du nombre de rsultats attendus est concurrent.
+	 */
+	private final int first;
+
+
+
 	/**
 	 * Valeur maximale gnrable (inclue).
 	 */
@@ -0,0 +1,169 @@
+package toolbox.parallel.missionners;
+
+import java.sql.*;
+import java.util.*;
+
+import toolbox.oracle.*;
+import toolbox.parallel.*;
+import toolbox.parallel.missions.*;
+
+
+
+/**
+ * La classe {@link SqlNumberChunkMissionner} implmente un gnrateur de numros  partir d'une requte SQL, qui les retourne par tableaux. La requte ne doit prendre aucun paramtre en entre et
+ * doit retourner une liste de numros.<br>
+ * Contrairement  {@link SqlNumberMissionner}, qui cre une mission par numro, chaque mission transmet un tableau de numros, et les numros sont lus par paquets de la mme taille. Le nombre de
+ * rsultats attendus tant le nombre total de numros, les ouvriers doivent retourner le nombre de numros traits.
+ * @author Ludovic WALLE
+ */
+public class SqlNumberChunkMissionner extends Missionner<IntegerChunkMission> {
+
+
+
+	/**
+	 * @param connection Connection.
+	 * @param query Texte de la requte de selection des numros.
+	 * @param closeConnection Indicateur de fermeture de connection en fin de traitement.
+	 * @param chunkSize Nombre maximal de numros par mission (doit tre strictement positif).
+	 */
+	public SqlNumberChunkMissionner(Connection connection, String query, boolean closeConnection, int chunkSize) {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("Le nombre maximal de numros par mission doit tre strictement positif: " + chunkSize);
+		}
+		this.connection = connection;
+		this.query = query;
+		this.closeConnection = closeConnection;
+		this.chunkSize = chunkSize;
+	}
+
+
+
+	/**
+	 * Retourne le nombre total de numros  traiter.
+	 * @return Le nombre total de numros  traiter.
+	 */
+	@Override protected synchronized int delegateComputeExpectedCount() {
+		String countQuery = "SELECT COUNT(*) FROM (" + query + ")";
+
+		try {
+			try (@SuppressWarnings("hiding") PreparedStatement statement = connection.prepareStatement(countQuery)) {
+				try (@SuppressWarnings("hiding") ResultSet resultSet = statement.executeQuery()) {
+					resultSet.next();
+					return resultSet.getInt(1);
+				}
+			}
+		} catch (SQLException exception) {
+			throw new RuntimeException(countQuery, exception);
+		}
+	}
+
+
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override protected void delegateFinalize() {
+		OracleTools.close(resultSet);
+		OracleTools.close(statement);
+		if (closeConnection) {
+			OracleTools.close(connection);
+		}
+	}
+
+
+
+	/**
+	 * {@inheritDoc}
+	 * @throws SQLException
+	 */
+	@Override protected IntegerChunkMission delegateGetNext() throws SQLException {
+		int[] numbers = new int[chunkSize];
+		int count = 0;
+
+		while (!exhausted && (count < chunkSize)) {
+			if (resultSet.next()) {
+				numbers[count] = resultSet.getInt(1);
+				if (resultSet.wasNull()) {
+					exhausted = true;
+				} else {
+					count++;
+				}
+			} else {
+				exhausted = true;
+			}
+		}
+		if (count == 0) {
+			return null;
+		} else if (count < chunkSize) {
+			numbers = Arrays.copyOf(numbers, count);
+		}
+		return new IntegerChunkMission(numbers);
+	}
+
+
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override protected void delegateInitialize() {
+		try {
+			statement = connection.prepareStatement(query);
+			statement.setFetchSize(chunkSize);
+			resultSet = statement.executeQuery();
+		} catch (SQLException exception) {
+			throw new RuntimeException(query, exception);
+		}
+	}
+
+
+
+	/**
+	 * Nombre maximal de numros par mission.
+	 */
+	private final int chunkSize;
+
+
+
+	/**
+	 * Indicateur de fermeture de connection en fin de traitement.
+	 */
+	private final boolean closeConnection;
+
+
+
+	/**
+	 * Connection  utiliser pour les accs  la base.
+	 */
+	private final Connection connection;
+
+
+
+	/**
+	 * Indicateur de numros puiss (fin des rsultats de la requte ou numro <code>null</code>).
+	 */
+	private boolean exhausted = false;
+
+
+
+	/**
+	 * Texte de la requte de slection des numros de composants  traiter.
+	 */
+	private final String query;
+
+
+
+	/**
+	 * ResultSet des numros de composants  traiter.
+	 */
+	private ResultSet resultSet;
+
+
+
+	/**
+	 * Requte de slection des numros de composants  traiter.
+	 */
+	private PreparedStatement statement;
+
+
+
+}
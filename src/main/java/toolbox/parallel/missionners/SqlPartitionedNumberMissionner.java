@@ -0,0 +1,403 @@
+package toolbox.parallel.missionners;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.locks.*;
+
+import javax.sql.*;
+
+import toolbox.parallel.*;
+import toolbox.parallel.missions.*;
+
+
+
+/**
+ * La classe {@link SqlPartitionedNumberMissionner} implmente un gnrateur de numros  partir d'une requte SQL, qui lit les numros en parallle, par intervalles de valeurs, et les retourne par
+ * tableaux. La requte ne doit prendre aucun paramtre en entre et doit retourner une colonne de numros, dont le nom est indiqu.<br>
+ * Une premire requte dtermine les valeurs minimale et maximale des numros ainsi que leur nombre, qui est le nombre de rsultats attendus. L'intervalle des valeurs est ensuite dcoup en
+ * partitions de mme largeur, et chaque partition est lue par un lecteur disposant de sa propre connexion, obtenue auprs de la source de donnes indique, et de son propre curseur, dont la taille
+ * des paquets lus est le nombre maximal de numros par mission. Les requtes excutes sont, pour une requte <code>query</code> et une colonne <code>key</code>:
+ * <pre>
+ * SELECT MIN(key), MAX(key), COUNT(key) FROM (query) partitioned_query
+ * SELECT key FROM (query) partitioned_query WHERE (key &gt;= ?) AND (key &lt; ?)
+ * </pre>
+ * Elles n'utilisent que du SQL standard, et peuvent tre excutes sur n'importe quelle base de donnes, y compris une base de donnes embarque.<br>
+ * Les numros <code>null</code> sont ignors, et les numros ne sont pas distribus dans l'ordre. Le nombre de rsultats attendus tant le nombre total de numros, les ouvriers doivent retourner le
+ * nombre de numros traits.
+ * @author Ludovic WALLE
+ */
+public class SqlPartitionedNumberMissionner extends Missionner<IntegerChunkMission> {
+
+
+
+	/**
+	 * @param dataSource Source des connexions  utiliser pour les accs  la base (ne doit pas tre <code>null</code>).
+	 * @param query Texte de la requte de selection des numros (ne doit pas tre <code>null</code>).
+	 * @param key Nom de la colonne des numros retourne par la requte (ne doit pas tre <code>null</code>).
+	 * @param partitionCount Nombre de partitions, et donc de lecteurs et de connexions (doit tre strictement positif).
+	 * @param chunkSize Nombre maximal de numros par mission (doit tre strictement positif).
+	 */
+	public SqlPartitionedNumberMissionner(DataSource dataSource, String query, String key, int partitionCount, int chunkSize) {
+		if ((dataSource == null) || (query == null) || (key == null)) {
+			throw new NullPointerException();
+		} else if (partitionCount <= 0) {
+			throw new IllegalArgumentException("Le nombre de partitions doit tre strictement positif: " + partitionCount);
+		} else if (chunkSize <= 0) {
+			throw new IllegalArgumentException("Le nombre maximal de numros par mission doit tre strictement positif: " + chunkSize);
+		}
+		this.dataSource = dataSource;
+		this.query = query;
+		this.key = key;
+		this.partitionCount = partitionCount;
+		this.chunkSize = chunkSize;
+		this.chunksCapacity = partitionCount * CHUNKS_CAPACITY_PER_PARTITION;
+	}
+
+
+
+	/**
+	 * Retourne le nombre total de numros  traiter, dtermin en mme temps que les bornes des partitions.
+	 * @return Le nombre total de numros  traiter.
+	 */
+	@Override protected int delegateComputeExpectedCount() {
+		return count;
+	}
+
+
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override protected void delegateFinalize() {
+		stopReaders();
+	}
+
+
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override protected IntegerChunkMission delegateGetNext() throws Exception {
+		IntegerChunkMission chunk;
+
+		chunksLock.lock();
+		try {
+			while (chunks.isEmpty() && (activeReaderCount > 0) && (failure == null)) {
+				chunksNotEmpty.await();
+			}
+			if (failure instanceof Error) {
+				throw (Error) failure;
+			} else if (failure != null) {
+				throw (Exception) failure;
+			}
+			if ((chunk = chunks.poll()) != null) {
+				chunksNotFull.signal();
+			}
+			return chunk;
+		} catch (InterruptedException exception) {
+			stopReaders();
+			throw exception;
+		} finally {
+			chunksLock.unlock();
+		}
+	}
+
+
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override protected void delegateInitialize() throws SQLException {
+		String boundsQuery = "SELECT MIN(" + key + "), MAX(" + key + "), COUNT(" + key + ") FROM (" + query + ") partitioned_query";
+		List<PartitionReader> readers = new ArrayList<>();
+		long min;
+		long max;
+		long width;
+
+		try (Connection connection = dataSource.getConnection(); PreparedStatement statement = connection.prepareStatement(boundsQuery); ResultSet resultSet = statement.executeQuery()) {
+			resultSet.next();
+			min = resultSet.getLong(1);
+			if (resultSet.wasNull()) {
+				count = 0;
+				return;
+			}
+			max = resultSet.getLong(2);
+			count = resultSet.getInt(3);
+		}
+		width = (((max - min) + 1) + partitionCount - 1) / partitionCount;
+		for (long lower = min; lower <= max; lower += width) {
+			readers.add(new PartitionReader(lower, Math.min(lower + width, max + 1)));
+		}
+		activeReaderCount = readers.size();
+		for (PartitionReader reader : readers) {
+			reader.start();
+		}
+	}
+
+
+
+	/**
+	 * Retourne le nombre de partitions.
+	 * @return Le nombre de partitions.
+	 */
+	public final int getPartitionCount() {
+		return partitionCount;
+	}
+
+
+
+	/**
+	 * Ajoute aux missions prpares par les lecteurs une mission transmettant les numros indiqus.<br>
+	 * Cette mthode est bloquante tant qu'il y a trop de missions prpares.
+	 * @param numbers Numros.
+	 * @return <code>false</code> si les lecteurs ont t arrts, <code>true</code> sinon.
+	 * @throws InterruptedException Si l'attente est interrompue.
+	 */
+	private boolean emit(int[] numbers) throws InterruptedException {
+		chunksLock.lock();
+		try {
+			while ((chunks.size() >= chunksCapacity) && !stopped) {
+				chunksNotFull.await();
+			}
+			if (stopped) {
+				return false;
+			}
+			chunks.add(new IntegerChunkMission(numbers));
+			if (chunks.size() == 1) {
+				chunksNotEmpty.signal();
+			}
+			return true;
+		} finally {
+			chunksLock.unlock();
+		}
+	}
+
+
+
+	/**
+	 * Lit les numros de la partition indique.
+	 * @param lower Borne infrieure de la partition (incluse).
+	 * @param upper Borne suprieure de la partition (exclue).
+	 * @throws SQLException En cas d'erreur SQL.
+	 * @throws InterruptedException Si une attente est interrompue.
+	 */
+	private void read(long lower, long upper) throws SQLException, InterruptedException {
+		String partitionQuery = "SELECT " + key + " FROM (" + query + ") partitioned_query WHERE (" + key + " >= ?) AND (" + key + " < ?)";
+		int[] numbers = new int[chunkSize];
+		int number;
+		@SuppressWarnings("hiding") int count = 0;
+
+		try (Connection connection = dataSource.getConnection(); PreparedStatement statement = connection.prepareStatement(partitionQuery)) {
+			statement.setFetchSize(chunkSize);
+			statement.setLong(1, lower);
+			statement.setLong(2, upper);
+			try (ResultSet resultSet = statement.executeQuery()) {
+				while (!stopped && resultSet.next()) {
+					number = resultSet.getInt(1);
+					if (!resultSet.wasNull()) {
+						numbers[count++] = number;
+						if (count == chunkSize) {
+							if (!emit(numbers)) {
+								return;
+							}
+							numbers = new int[chunkSize];
+							count = 0;
+						}
+					}
+				}
+			}
+		}
+		if ((count > 0) && !stopped) {
+			emit(Arrays.copyOf(numbers, count));
+		}
+	}
+
+
+
+	/**
+	 * Arrte les lecteurs.
+	 */
+	private void stopReaders() {
+		stopped = true;
+		chunksLock.lock();
+		try {
+			chunksNotFull.signalAll();
+		} finally {
+			chunksLock.unlock();
+		}
+	}
+
+
+
+	/**
+	 * Nombre de lecteurs en activit.
+	 */
+	private int activeReaderCount = 0;
+
+
+
+	/**
+	 * Missions prpares par les lecteurs.
+	 */
+	private final ArrayDeque<IntegerChunkMission> chunks = new ArrayDeque<>();
+
+
+
+	/**
+	 * Nombre maximal de missions prpares par les lecteurs.
+	 */
+	private final int chunksCapacity;
+
+
+
+	/**
+	 * Verrou pour les missions prpares par les lecteurs.
+	 */
+	private final ReentrantLock chunksLock = new ReentrantLock();
+
+
+
+	/**
+	 * Condition signale lorsque des missions ont t prpares par les lecteurs, ou que le dernier lecteur a fini.
+	 */
+	private final Condition chunksNotEmpty = chunksLock.newCondition();
+
+
+
+	/**
+	 * Condition signale lorsque la place s'est libre pour les missions prpares par les lecteurs, ou que les lecteurs sont arrts.
+	 */
+	private final Condition chunksNotFull = chunksLock.newCondition();
+
+
+
+	/**
+	 * Nombre maximal de numros par mission.
+	 */
+	private final int chunkSize;
+
+
+
+	/**
+	 * Nombre total de numros  traiter.
+	 */
+	private volatile int count = 0;
+
+
+
+	/**
+	 * Source des connexions  utiliser pour les accs  la base.
+	 */
+	private final DataSource dataSource;
+
+
+
+	/**
+	 * Premire exception rencontre par les lecteurs.
+	 */
+	private Throwable failure = null;
+
+
+
+	/**
+	 * Nom de la colonne des numros retourne par la requte.
+	 */
+	private final String key;
+
+
+
+	/**
+	 * Nombre de partitions.
+	 */
+	private final int partitionCount;
+
+
+
+	/**
+	 * Texte de la requte de slection des numros.
+	 */
+	private final String query;
+
+
+
+	/**
+	 * Indicateur de lecteurs arrts.
+	 */
+	private volatile boolean stopped = false;
+
+
+
+	/**
+	 * Nombre maximal de missions prpares  l'avance par partition.
+	 */
+	private static final int CHUNKS_CAPACITY_PER_PARTITION = 4;
+
+
+
+	/**
+	 * La classe {@link PartitionReader} implmente un lecteur d'une partition.
+	 * @author Ludovic WALLE
+	 */
+	private final class PartitionReader extends Thread {
+
+
+
+		/**
+		 * @param lower Borne infrieure de la partition (incluse).
+		 * @param upper Borne suprieure de la partition (exclue).
+		 */
+		private PartitionReader(long lower, long upper) {
+			super("PartitionReader");
+			setDaemon(true);
+			this.lower = lower;
+			this.upper = upper;
+		}
+
+
+
+		/** {@inheritDoc} */
+		@Override public void run() {
+			try {
+				read(lower, upper);
+			} catch (Throwable exception) {
+				chunksLock.lock();
+				try {
+					if (failure == null) {
+						failure = exception;
+					}
+				} finally {
+					chunksLock.unlock();
+				}
+				stopReaders();
+			} finally {
+				chunksLock.lock();
+				try {
+					activeReaderCount--;
+					chunksNotEmpty.signalAll();
+				} finally {
+					chunksLock.unlock();
+				}
+			}
+		}
+
+
+
+		/**
+		 * Borne infrieure de la partition (incluse).
+		 */
+		private final long lower;
+
+
+
+		/**
+		 * Borne suprieure de la partition (exclue).
+		 */
+		private final long upper;
+
+
+
+	}
+
+
+
+}
@@ -43,6 +43,28 @@ public class StreamDelimitedStringMissionner extends Missionner<StringMission> {
 
 
 
+	/**
+	 * Constructeur destin aux classes drives qui lisent elles mmes les chaines dlimites, sans passer par un flux.<br>
+	 * Les classes drives doivent alors redfinir la mthode {@link #delegateGetNext()}.
+	 * @param from Chaine de dbut (ne doit pas tre <code>null</code>).<br>
+	 * @param fromIncluded Indicateur de chaine de dbut inclue dans la chaine extraite.
+	 * @param upto Chaine de fin (ne doit pas tre <code>null</code>).<br>
+	 *            Si la chaine est vide, la chaine extraite ira jusqu' la fin du flux.
+	 * @param uptoIncluded Indicateur de chaine de fin inclue dans la chaine extraite.
+	 */
+	protected StreamDelimitedStringMissionner(String from, boolean fromIncluded, String upto, boolean uptoIncluded) {
+		if ((from == null) || (upto == null)) {
+			throw new NullPointerException();
+		}
+		this.reader = null;
+		this.from = from;
+		this.fromIncluded = fromIncluded;
+		this.upto = upto;
+		this.uptoIncluded = uptoIncluded;
+	}
+
+
+
 	/**
 	 * {@inheritDoc}
 	 */
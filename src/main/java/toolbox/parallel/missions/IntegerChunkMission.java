@@ -0,0 +1,115 @@
+package toolbox.parallel.missions;
+
+import java.io.*;
+
+import toolbox.parallel.*;
+
+/**
+ * La classe {@link IntegerChunkMission} implmente une mission dfinie par une suite de numros, qui est soit un intervalle de numros conscutifs, soit un tableau de numros quelconques.<br>
+ * Une seule mission transmet ainsi aux ouvriers des milliers de numros, qu'ils parcourent sans crer d'objet:
+ * <pre>
+ * for (int i = 0; i &lt; mission.getCount(); i++) {
+ * 	process(mission.getNumber(i));
+ * }
+ * </pre>
+ * @author Ludovic WALLE
+ */
+public class IntegerChunkMission implements Mission, Serializable {
+
+
+
+	/**
+	 * Cre une mission dfinie par les numros conscutifs de l'intervalle indiqu.
+	 * @param first Premier numro.
+	 * @param count Nombre de numros (doit tre positif ou nul).
+	 */
+	public IntegerChunkMission(int first, int count) {
+		if (count < 0) {
+			throw new IllegalArgumentException("Le nombre de numros doit tre positif ou nul: " + count);
+		}
+		this.first = first;
+		this.count = count;
+		this.numbers = null;
+	}
+
+
+
+	/**
+	 * Cre une mission dfinie par les numros du tableau indiqu.<br>
+	 * Le tableau n'est pas copi, et ne doit plus tre modifi.
+	 * @param numbers Numros (ne doit pas tre <code>null</code>).
+	 */
+	public IntegerChunkMission(int[] numbers) {
+		if (numbers == null) {
+			throw new NullPointerException();
+		}
+		this.first = 0;
+		this.count = numbers.length;
+		this.numbers = numbers;
+	}
+
+
+
+	/**
+	 * Retourne le nombre de numros.
+	 * @return Le nombre de numros.
+	 */
+	public int getCount() {
+		return count;
+	}
+
+
+
+	/**
+	 * Retourne le numro dont l'indice est indiqu.
+	 * @param index Indice du numro (doit tre compris entre 0 inclus et {@link #getCount()} exclus).
+	 * @return Le numro dont l'indice est indiqu.
+	 */
+	public int getNumber(int index) {
+		if ((index < 0) || (index >= count)) {
+			throw new IndexOutOfBoundsException("Indice de numro invalide: " + index);
+		}
+		return (numbers == null) ? first + index : numbers[index];
+	}
+
+
+
+	/**
+	 * Teste si les numros sont conscutifs, c'est  dire si la mission est dfinie par un intervalle.
+	 * @return <code>true</code> si les numros sont conscutifs, <code>false</code> sinon.
+	 */
+	public boolean isRange() {
+		return numbers == null;
+	}
+
+
+
+	/**
+	 * Nombre de numros.
+	 */
+	private final int count;
+
+
+
+	/**
+	 * Premier numro, si les numros sont conscutifs.
+	 */
+	private final int first;
+
+
+
+	/**
+	 * Numros, ou <code>null</code> si les numros sont conscutifs.
+	 */
+	private final int[] numbers;
+
+
+
+	/**
+	 * Numro de version de la forme srialise.
+	 */
+	private static final long serialVersionUID = 1L;
+
+
+
+}
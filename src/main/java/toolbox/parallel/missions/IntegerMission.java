@@ -1,12 +1,14 @@
 package toolbox.parallel.missions;
 
+import java.io.*;
+
 import toolbox.parallel.*;
 
 /**
  * La classe {@link IntegerMission} implmente une mission dfinie par un numro.
  * @author Ludovic WALLE
  */
-public class IntegerMission implements Mission {
+public class IntegerMission implements Mission, Serializable {
 
 
 
@@ -54,4 +56,11 @@ public class IntegerMission implements Mission {
 
 
 
+	/**
+	 * Numro de version de la forme srialise.
+	 */
+	private static final long serialVersionUID = 1L;
+
+
+
 }
@@ -1,12 +1,14 @@
 package toolbox.parallel.missions;
 
+import java.io.*;
+
 import toolbox.parallel.*;
 
 /**
  * La classe {@link StringMission} implmente une mission dfinie par une chaine.
  * @author Ludovic WALLE
  */
-public class StringMission implements Mission {
+public class StringMission implements Mission, Serializable {
 
 
 
@@ -36,4 +38,11 @@ public class StringMission implements Mission {
 
 
 
+	/**
+	 * Numro de version de la forme srialise.
+	 */
+	private static final long serialVersionUID = 1L;
+
+
+
 }
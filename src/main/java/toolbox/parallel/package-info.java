@@ -8,8 +8,12 @@ package toolbox.parallel;
  * <li>{@link Mission} contient les caractristiques d'une tche  effectuer.
  * <li>{@link Employee} regroupe les caractristiques communes  tous les types d'employs.
  * <li>{@link Worker} est un type d'employ dont le rle est d'effectuer les tches qui lui sont attribues. Il ne doit y en avoir qu'un.
+ * <li>{@link RemoteWorker} fait effectuer les tches par des ouvriers excuts dans des machines virtuelles filles, pour rpartir les traitements gourmands en mmoire sur plusieurs tas.
  * <li>{@link Missionner} est un type d'employ dont le rle est de distribuer les tches aux ouvriers.
+ * <li>{@link Receiver} est un type d'employ, facultatif, dont le rle est de recevoir les rsultats produits par les ouvriers ({@link ProducingWorker}), ventuellement dans l'ordre des tches.
+ * <li>{@link Manager} ajuste ventuellement le nombre d'ouvriers en fonction du dbit observ.
  * <li>{@link Enterprise} fait fonctionner le tout.
+ * <li>{@link Pipeline} enchaine ventuellement plusieurs entreprises, relies par des canaux ({@link Pipe}) de capacit limite.
  * </ul>
  * Le nombre d'ouvriers est limit, souvent infrieur au nombre de tches  effectuer, mais ils travaillent en parallle, chacun sur sa tche.<br>
  * L'entreprise ferme lorsque toutes les tches ont t effectues. Il est possible de suspendre temporairement l'entreprise, de la fermer volontairement, d'embaucher et de dbaucher
@@ -0,0 +1,394 @@
+package fr.inist.toolbox.json;
+
+import java.nio.charset.*;
+import java.util.Objects;
+import java.util.Random;
+import java.util.regex.*;
+
+import toolbox.*;
+import toolbox.json.*;
+
+
+
+/**
+ * La classe {@link JsonParseBenchmark} compare le dbit de {@link Json#parse(String)}  celui de l'ancienne analyse par expressions rgulires ({@link Scanner#getMatchingPart(Pattern)}),
+ * conserve ici comme rfrence.<br>
+ * Elle vrifie d'abord que les deux analyses construisent le mme lment Json pour un document de plusieurs mgaoctets, et gnrent les mmes messages d'erreur pour une srie de documents mal
+ * forms, puis mesure le dbit de chacune sur ce document, en mgaoctets par seconde. Elle mesure aussi le dbit de {@link Json#parse(byte[])} sur le mme document cod en UTF-8, qui ne le
+ * dcode pas au pralable en chaine,  comparer avec celui du dcodage suivi de {@link Json#parse(String)}.<br>
+ * Le document ne contient pas de caractre d'chappement: l'ancienne analyse tronquait les chaines  la premire squence d'chappement ({@link Json#ENCODING_PATTERN} est ancr en dbut de
+ * chaine, et ne trouvait donc que le premier fragment).
+ * @author Ludovic WALLE
+ */
+public class JsonParseBenchmark {
+
+
+
+	/**
+	 * Programme de mesure.
+	 * @param args Nombre d'enregistrements du document (facultatif).
+	 * @throws JsonException
+	 */
+	public static void main(String[] args) throws JsonException {
+		int recordCount = (args.length > 0) ? Integer.parseInt(args[0]) : 20_000;
+		String document = newDocument(recordCount);
+		byte[] bytes = document.getBytes(StandardCharsets.UTF_8);
+		String legacyMessage;
+		String message;
+
+		if (!Json.parse(document).equals(legacyParse(document)) || !Json.parse(document).equals(Json.parse(bytes))) {
+			throw new RuntimeException("Les analyses construisent des lments Json diffrents.");
+		}
+		for (String invalid : INVALID_DOCUMENTS) {
+			legacyMessage = null;
+			message = null;
+			try {
+				legacyParse(invalid);
+			} catch (JsonException | NumberFormatException exception) {
+				legacyMessage = exception.getClass().getSimpleName() + ": " + exception.getMessage();
+			}
+			try {
+				Json.parse(invalid);
+			} catch (JsonException | NumberFormatException exception) {
+				message = exception.getClass().getSimpleName() + ": " + exception.getMessage();
+			}
+			if (!Objects.equals(legacyMessage, message)) {
+				throw new RuntimeException("Messages d'erreur diffrents pour " + invalid + ": " + legacyMessage + " / " + message);
+			}
+			message = null;
+			try {
+				Json.parse(invalid.getBytes(StandardCharsets.UTF_8));
+			} catch (JsonException | NumberFormatException exception) {
+				message = exception.getClass().getSimpleName() + ": " + exception.getMessage();
+			}
+			if (!Objects.equals(legacyMessage, message)) {
+				throw new RuntimeException("Messages d'erreur diffrents pour " + invalid + " cod en UTF-8: " + legacyMessage + " / " + message);
+			}
+		}
+
+		System.out.println("taille(Mo)\tregex(Mo/s)\tparser(Mo/s)\tdcodage+parser(Mo/s)\tutf8(Mo/s)");
+		for (int i = 0; i < ROUNDS; i++) {
+			System.out.println(String.format("%.1f\t%.1f\t%.1f\t%.1f\t%.1f", bytes.length / 1e6, measure(document, true), measure(document, false), measure(bytes, true), measure(bytes, false)));
+		}
+	}
+
+
+
+	/**
+	 * Construit l'lment Json correspondant  la chaine indique, par l'ancienne analyse par expressions rgulires.
+	 * @param string lment Json srialis.
+	 * @return L'lment Json.
+	 * @throws JsonException
+	 */
+	static Json legacyParse(String string) throws JsonException {
+		Json json;
+		Scanner scanner;
+
+		if (string == null) {
+			return null;
+		} else {
+			scanner = new Scanner(string);
+			scanner.skipWhitespaces();
+			if (!scanner.relativeCharIsOneOf(0, '{', '[')) {
+				throw new JsonException("\"{\" ou \"[\" attendu: " + scanner.getFragment(0, 10));
+			} else {
+				json = legacyParse(scanner);
+				if (scanner.getCharsToParseCount() > 0) {
+					throw new JsonException("Caractres non attendus: " + scanner.getFragment(0, 10));
+				}
+				return json;
+			}
+		}
+	}
+
+
+
+	/**
+	 * Construit l'lment Json correspondant  la chaine indique, par l'ancienne analyse par expressions rgulires.
+	 * @param scanner Element Json srialis en cours de parsage.
+	 * @return L'lment Json.
+	 * @throws JsonException
+	 */
+	private static Json legacyParse(Scanner scanner) throws JsonException {
+		JsonArray jsonArray;
+		JsonObject jsonObject;
+		Json jsonName;
+		int index = 0;
+		String string;
+		Matcher matcher;
+		StringBuilder builder;
+
+		scanner.skipWhitespaces();
+
+		if (scanner.currentCharIsOneOf('{')) {
+			jsonObject = new JsonObject();
+			scanner.moveThenSkipWhitespaces(1);
+			if (scanner.currentCharIsOneOf('}')) {
+				scanner.move(1);
+				return jsonObject;
+			} else {
+				for (;;) {
+					index = scanner.getIndex();
+					if (!((jsonName = legacyParse(scanner)) instanceof JsonString)) {
+						throw new JsonException("Nom de proprit Json attendu: " + scanner.getFragment(index, 5, 5));
+					}
+					if (jsonObject.has(((JsonString) jsonName).getValue())) {
+						throw new JsonException("Il a a plusieurs proprits \"" + ((JsonString) jsonName).getValue() + "\" dans le mme objet Json: " + scanner.getFragment(index, 5, 50));
+					}
+					scanner.skipWhitespaces();
+					if (scanner.currentCharIsNoneOf(':')) {
+						throw new JsonException("\":\" attendu: " + scanner.getFragment(5, 5));
+					}
+					scanner.moveThenSkipWhitespaces(1);
+					jsonObject.set(((JsonString) jsonName).getValue(), legacyParse(scanner));
+					scanner.skipWhitespaces();
+					if (scanner.currentCharIsOneOf(',')) {
+						scanner.moveThenSkipWhitespaces(1);
+					} else if (scanner.currentCharIsOneOf('}')) {
+						scanner.move(1);
+						return jsonObject;
+					} else if (scanner.hasCharToParse()) {
+						throw new JsonException("\"" + scanner.getCurrentChar() + "\" non attendu: " + scanner.getFragment(5, 5));
+					} else {
+						throw new JsonException("\",\" ou \"}\" attendu: " + scanner.getFragment(5, 5));
+					}
+				}
+			}
+
+		} else if (scanner.currentCharIsOneOf('[')) {
+			jsonArray = new JsonArray();
+			scanner.moveThenSkipWhitespaces(1);
+			if (scanner.currentCharIsOneOf(']')) {
+				scanner.move(1);
+				return jsonArray;
+			} else {
+				for (;;) {
+					jsonArray.append(legacyParse(scanner));
+					scanner.skipWhitespaces();
+					if (scanner.currentCharIsOneOf(',')) {
+						scanner.moveThenSkipWhitespaces(1);
+					} else if (scanner.currentCharIsOneOf(']')) {
+						scanner.move(1);
+						return jsonArray;
+					} else if (scanner.hasCharToParse()) {
+						throw new JsonException("\"" + scanner.getCurrentChar() + "\" non attendu: " + scanner.getFragment(5, 5));
+					} else {
+						throw new JsonException("\",\" ou \"]\" attendu: " + scanner.getFragment(5, 5));
+					}
+				}
+			}
+
+		} else if ((string = scanner.getMatchingPart(BOOLEAN_PATTERN)) != null) {
+			return new JsonBoolean(Boolean.parseBoolean(string));
+
+		} else if (scanner.getMatchingPart(NULL_PATTERN) != null) {
+			return null;
+
+		} else if ((string = legacyStringMatchingPart(scanner)) != null) {
+			builder = new StringBuilder();
+			matcher = Json.ENCODING_PATTERN.matcher(string);
+			while (matcher.find()) {
+				if (matcher.group(1) != null) {
+					switch (matcher.group(1).charAt(0)) {
+					case '"':
+						builder.append("\"");
+						break;
+					case '/':
+						builder.append("/");
+						break;
+					case 'b':
+						builder.append("\b");
+						break;
+					case 'f':
+						builder.append("\f");
+						break;
+					case 'n':
+						builder.append("\n");
+						break;
+					case 'r':
+						builder.append("\r");
+						break;
+					case 't':
+						builder.append("\t");
+						break;
+					case '\\':
+						builder.append("\\");
+						break;
+					}
+				} else if (matcher.group(2) != null) {
+					builder.append((char) Long.parseLong(matcher.group(2), 16));
+				} else if (matcher.group(3) != null) {
+					builder.append(matcher.group(3));
+				} else {
+					throw new JsonException("Erreur dans le parsage de la chaine Json: " + scanner.getFragment(5, 5));
+				}
+			}
+			return new JsonString(builder.toString());
+
+		} else if ((string = scanner.getMatchingPart(NUMBER_PATTERN)) != null) {
+			if (INTEGER_PATTERN.matcher(string).matches()) {
+				return new JsonNumber(Long.valueOf(string));
+			} else {
+				return new JsonNumber(Double.valueOf(string));
+			}
+
+		} else if (scanner.hasCharToParse()) {
+			throw new JsonException("\"" + scanner.getCurrentChar() + "\" non attendu: " + scanner.getFragment(5, 5));
+		} else {
+			throw new JsonException("\",\" ou \"}\" attendu: " + scanner.getFragment(5, 5));
+		}
+	}
+
+
+
+	/**
+	 * Retourne la chaine json qui commence  la position courante, sans ses guillemets ni dcodage, comme l'ancienne analyse.
+	 * @param scanner Chaine  parcourir.
+	 * @return Le fragment correspondant  une chaine json, ou <code>null</code>.
+	 */
+	private static String legacyStringMatchingPart(Scanner scanner) {
+		int initialIndex = scanner.getIndex();
+		StringBuilder string = new StringBuilder();
+		String fragment;
+
+		if (scanner.currentCharIsOneOf('"')) {
+			scanner.move(1);
+			while ((fragment = scanner.getMatchingPart(Json.STRING_FRAGMENT_PATTERN)) != null) {
+				string.append(fragment);
+			}
+			if (scanner.currentCharIsOneOf('"')) {
+				scanner.move(1);
+				return string.toString();
+			}
+		}
+		scanner.setIndex(initialIndex);
+		return null;
+	}
+
+
+
+	/**
+	 * Retourne le dbit d'analyse mesur sur le document cod en UTF-8 indiqu, en mgaoctets par seconde.
+	 * @param bytes Document Json cod en UTF-8.
+	 * @param decode <code>true</code> pour dcoder le document en chaine puis utiliser {@link Json#parse(String)}, <code>false</code> pour {@link Json#parse(byte[])}.
+	 * @return Le dbit mesur, en mgaoctets par seconde.
+	 * @throws JsonException
+	 */
+	private static double measure(byte[] bytes, boolean decode) throws JsonException {
+		long start = System.nanoTime();
+		int count = 0;
+
+		do {
+			if (decode) {
+				Json.parse(new String(bytes, StandardCharsets.UTF_8));
+			} else {
+				Json.parse(bytes);
+			}
+			count++;
+		} while ((System.nanoTime() - start) < MEASURE_DURATION);
+		return (((double) bytes.length) * count * 1000) / (System.nanoTime() - start);
+	}
+
+
+
+	/**
+	 * Retourne le dbit d'analyse mesur sur le document indiqu, en mgaoctets par seconde.
+	 * @param document Document Json.
+	 * @param legacy <code>true</code> pour l'ancienne analyse par expressions rgulires, <code>false</code> pour {@link Json#parse(String)}.
+	 * @return Le dbit mesur, en mgaoctets par seconde.
+	 * @throws JsonException
+	 */
+	private static double measure(String document, boolean legacy) throws JsonException {
+		long start = System.nanoTime();
+		int count = 0;
+
+		do {
+			if (legacy) {
+				legacyParse(document);
+			} else {
+				Json.parse(document);
+			}
+			count++;
+		} while ((System.nanoTime() - start) < MEASURE_DURATION);
+		return (((double) document.length()) * count * 1000) / (System.nanoTime() - start);
+	}
+
+
+
+	/**
+	 * Construit un document Json ressemblant  une rponse d'API, comportant le nombre d'enregistrements indiqu.
+	 * @param recordCount Nombre d'enregistrements.
+	 * @return Le document Json.
+	 */
+	private static String newDocument(int recordCount) {
+		Random random = new Random(0);
+		StringBuilder builder = new StringBuilder();
+
+		builder.append("{\"total\": ").append(recordCount).append(", \"records\": [\n");
+		for (int i = 0; i < recordCount; i++) {
+			builder.append((i == 0) ? "\t" : ",\n\t");
+			builder.append("{\"id\": ").append(i);
+			builder.append(", \"title\": \"Titre de la notice numro ").append(i).append(" dans le corpus\"");
+			builder.append(", \"score\": ").append(random.nextDouble() * 100);
+			builder.append(", \"year\": ").append(1900 + random.nextInt(125));
+			builder.append(", \"open\": ").append(random.nextBoolean());
+			builder.append(", \"doi\": null");
+			builder.append(", \"authors\": [\"Auteur ").append(random.nextInt(1000)).append("\", \"Auteur ").append(random.nextInt(1000)).append("\"]");
+			builder.append(", \"metrics\": {\"views\": ").append(random.nextInt(100000)).append(", \"ratio\": ").append(random.nextInt(1000)).append("e-3}}");
+		}
+		builder.append("\n]}");
+		return builder.toString();
+	}
+
+
+
+	/**
+	 * Modle de syntaxe des boolens.
+	 */
+	private static final Pattern BOOLEAN_PATTERN = Pattern.compile("\\A(true|false)");
+
+
+
+	/**
+	 * Modele de syntaxe des nombres entiers.
+	 */
+	private static final Pattern INTEGER_PATTERN = Pattern.compile("\\A(-?(?:0|[1-9][0-9]*))\\z");
+
+
+
+	/**
+	 * Documents mal forms.
+	 */
+	static final String[] INVALID_DOCUMENTS = {"", "  ", "x", "\"a\"", "{", "[", "{\"a\"", "{\"a\" ", "{\"a\":", "{\"a\":1", "{\"a\":1,", "{\"a\" 1}", "{a:1}", "{1:2}", "{null:2}", "{\"a\":1,\"a\":2}", "[1,]", "[1 2]", "[01]", "[1.]", "[1e]", "[-]", "[+1]", "[.5]", "[tru]", "[nul]", "[True]", "[\"a]", "[\"a\u0001\"]", "[\"\\x\"]", "[\"\\u12G4\"]", "[\"\\u12\"]", "[99999999999999999999]", "[1] ", "[1]x", "[[[]]", "{\"a\":{\"b\":[1,{\"c\":}]}}", "[1,\"abcdefghijklmnopqrstuvwxyz\" 2]"};
+
+
+
+	/**
+	 * Dure de chaque mesure, en nanosecondes.
+	 */
+	private static final long MEASURE_DURATION = 2_000_000_000L;
+
+
+
+	/**
+	 * Modle de syntaxe des boolens.
+	 */
+	private static final Pattern NULL_PATTERN = Pattern.compile("\\A(null)");
+
+
+
+	/**
+	 * Modle de syntaxe des nombres.
+	 */
+	private static final Pattern NUMBER_PATTERN = Pattern.compile("\\A(-?(?:0|[1-9][0-9]*)(?:\\.[0-9]+)?(?:[eE][-+]?[0-9]+)?)");
+
+
+
+	/**
+	 * Nombre de mesures.
+	 */
+	private static final int ROUNDS = 3;
+
+
+
+}
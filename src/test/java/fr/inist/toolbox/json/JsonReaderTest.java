@@ -0,0 +1,238 @@
+package fr.inist.toolbox.json;
+
+import java.io.*;
+import java.nio.charset.*;
+
+import org.junit.*;
+
+import toolbox.json.*;
+
+
+
+/**
+ * La classe {@link JsonReaderTest} implmente les tests sur les mthodes de la classe {@link JsonReader}.
+ */
+@SuppressWarnings({"static-method", "javadoc"})
+public class JsonReaderTest {
+
+
+
+	/** */
+	@Test public void testNext_1a() throws IOException, JsonException {
+		Assert.assertEquals("START_OBJECT NAME(a) START_ARRAY VALUE(1) VALUE(\"x\") VALUE(true) VALUE(null) END_ARRAY NAME(b) START_OBJECT END_OBJECT END_OBJECT END_DOCUMENT", events("{\"a\":[1,\"x\",true,null],\"b\":{}}"));
+	}
+
+
+
+	/** */
+	@Test public void testNext_1b() throws IOException, JsonException {
+		Assert.assertEquals("START_ARRAY START_ARRAY END_ARRAY START_OBJECT NAME() VALUE(-25) END_OBJECT END_ARRAY END_DOCUMENT", events(" \t[ [ ] , { \"\\u00e9\" : -25 } ]"));
+	}
+
+
+
+	/** */
+	@Test public void testNext_1c() throws IOException, JsonException {
+		try (JsonReader reader = new JsonReader(new StringReader("[{\"a\":[]}]"))) {
+			Assert.assertNull(reader.getEvent());
+			Assert.assertEquals(0, reader.getDepth());
+			Assert.assertEquals(JsonEvent.START_ARRAY, reader.next());
+			Assert.assertEquals(1, reader.getDepth());
+			Assert.assertEquals(JsonEvent.START_OBJECT, reader.next());
+			Assert.assertEquals(2, reader.getDepth());
+			Assert.assertEquals(JsonEvent.NAME, reader.next());
+			Assert.assertEquals("a", reader.getName());
+			Assert.assertNull(reader.getValue());
+			Assert.assertEquals(JsonEvent.START_ARRAY, reader.next());
+			Assert.assertNull(reader.getName());
+			Assert.assertEquals(3, reader.getDepth());
+			Assert.assertEquals(JsonEvent.END_ARRAY, reader.next());
+			Assert.assertEquals(2, reader.getDepth());
+			Assert.assertEquals(JsonEvent.END_OBJECT, reader.next());
+			Assert.assertEquals(JsonEvent.END_ARRAY, reader.next());
+			Assert.assertEquals(0, reader.getDepth());
+			Assert.assertEquals(JsonEvent.END_DOCUMENT, reader.next());
+			Assert.assertEquals(JsonEvent.END_DOCUMENT, reader.next());
+			Assert.assertEquals(JsonEvent.END_DOCUMENT, reader.getEvent());
+		}
+	}
+
+
+
+	/**
+	 * Les blancs qui suivent le document sont accepts, contrairement  {@link Json#parse(String)}.
+	 */
+	@Test public void testNext_2a() throws IOException, JsonException {
+		Assert.assertEquals("START_ARRAY END_ARRAY END_DOCUMENT", events("[] \r\n\t\n"));
+		Assert.assertEquals("JsonException: Caractres non attendus: ... \r\n\t\n", JsonTest.failure(() -> Json.parse("[] \r\n\t\n")));
+	}
+
+
+
+	/** */
+	@Test public void testNext_3a() {
+		Assert.assertEquals("JsonException: \"{\" ou \"[\" attendu (caractre 0)", failure(""));
+		Assert.assertEquals("JsonException: \"{\" ou \"[\" attendu (caractre 2)", failure("  \"a\""));
+		Assert.assertEquals("JsonException: Caractres non attendus (caractre 3)", failure("{} x"));
+		Assert.assertEquals("JsonException: Caractres non attendus (caractre 2)", failure("[][]"));
+	}
+
+
+
+	/** */
+	@Test public void testNext_3b() {
+		Assert.assertEquals("JsonException: \"2\" non attendu (caractre 3)", failure("[1 2]"));
+		Assert.assertEquals("JsonException: \"1\" non attendu (caractre 6)", failure("{\"a\"  1}"));
+		Assert.assertEquals("JsonException: \"a\" non attendu (caractre 1)", failure("{a:1}"));
+		Assert.assertEquals("JsonException: \"]\" non attendu (caractre 3)", failure("[1,]"));
+		Assert.assertEquals("JsonException: \"t\" non attendu (caractre 1)", failure("[tru]"));
+		Assert.assertEquals("JsonException: \"]\" non attendu (caractre 2)", failure("[-]"));
+	}
+
+
+
+	/** */
+	@Test public void testNext_3c() {
+		Assert.assertEquals("JsonException: \",\" ou \"]\" attendu (caractre 2)", failure("[1"));
+		Assert.assertEquals("JsonException: Nom de proprit Json attendu (caractre 1)", failure("{"));
+		Assert.assertEquals("JsonException: \":\" attendu (caractre 4)", failure("{\"a\""));
+		Assert.assertEquals("JsonException: Valeur Json attendue (caractre 5)", failure("{\"a\":"));
+		Assert.assertEquals("JsonException: Fin de chaine Json attendue (caractre 4)", failure("[\"ab"));
+	}
+
+
+
+	/** */
+	@Test public void testNext_3d() {
+		Assert.assertEquals("JsonException: Squence d'chappement Json invalide (caractre 3)", failure("[\"a\\q\"]"));
+		Assert.assertEquals("JsonException: Squence d'chappement Json invalide (caractre 3)", failure("[\"a\\u12G4\"]"));
+		Assert.assertEquals("JsonException: Caractre de contrle non attendu dans une chaine Json (caractre 3)", failure("[\"a\tb\"]"));
+	}
+
+
+
+	/**
+	 * Les positions restent justes au del de la taille du tampon de lecture.
+	 */
+	@Test public void testNext_3e() {
+		StringBuilder builder = new StringBuilder("[");
+
+		while (builder.length() < 20000) {
+			builder.append("\"abcdefghij\",");
+		}
+		Assert.assertEquals("JsonException: \"x\" non attendu (caractre " + builder.length() + ")", failure(builder.append("x]").toString()));
+	}
+
+
+
+	/** */
+	@Test public void testReadJson_1a() throws IOException, JsonException {
+		for (String document : JsonTest.DOCUMENTS) {
+			try (JsonReader reader = new JsonReader(new ByteArrayInputStream(document.getBytes(StandardCharsets.UTF_8)))) {
+				reader.next();
+				Assert.assertEquals(document, Json.parse(document), reader.readJson());
+				Assert.assertEquals(JsonEvent.END_DOCUMENT, reader.next());
+			}
+		}
+	}
+
+
+
+	/** */
+	@Test public void testReadJson_1b() throws IOException, JsonException {
+		try (JsonReader reader = new JsonReader(new StringReader("[{\"a\":1},{\"b\":[2]},3]"))) {
+			Assert.assertEquals(JsonEvent.START_ARRAY, reader.next());
+			Assert.assertEquals(JsonEvent.START_OBJECT, reader.next());
+			Assert.assertEquals(Json.parse("{\"a\":1}"), reader.readJson());
+			Assert.assertEquals(JsonEvent.END_OBJECT, reader.getEvent());
+			Assert.assertEquals(JsonEvent.START_OBJECT, reader.next());
+			Assert.assertEquals(JsonEvent.NAME, reader.next());
+			Assert.assertEquals(Json.parse("[2]"), reader.readJson());
+			Assert.assertEquals(JsonEvent.END_ARRAY, reader.getEvent());
+			Assert.assertEquals(JsonEvent.END_OBJECT, reader.next());
+			Assert.assertEquals(JsonEvent.VALUE, reader.next());
+			Assert.assertEquals(Json.parse("[3]"), new JsonArray(reader.readJson()));
+			Assert.assertEquals(JsonEvent.END_ARRAY, reader.next());
+		}
+	}
+
+
+
+	/** */
+	@Test public void testReadJson_2a() {
+		Assert.assertEquals("JsonException: Il y a plusieurs proprits \"a\" dans le mme objet Json (caractre 11)", JsonTest.failure(() -> {
+			try (JsonReader reader = new JsonReader(new StringReader("{\"a\":1,\"a\":2}"))) {
+				reader.next();
+				reader.readJson();
+			}
+		}));
+		Assert.assertEquals("IllegalStateException: La lecture n'a pas commenc.", JsonTest.failure(() -> {
+			try (JsonReader reader = new JsonReader(new StringReader("[]"))) {
+				reader.readJson();
+			}
+		}));
+	}
+
+
+
+	/** */
+	@Test public void testSkip_1a() throws IOException, JsonException {
+		try (JsonReader reader = new JsonReader(new StringReader("{\"a\":{\"b\":[1,{}]},\"c\":2}"))) {
+			Assert.assertEquals(JsonEvent.START_OBJECT, reader.next());
+			Assert.assertEquals(JsonEvent.NAME, reader.next());
+			reader.skip();
+			Assert.assertEquals(JsonEvent.END_OBJECT, reader.getEvent());
+			Assert.assertEquals(1, reader.getDepth());
+			Assert.assertEquals(JsonEvent.NAME, reader.next());
+			Assert.assertEquals("c", reader.getName());
+			reader.skip();
+			Assert.assertEquals(JsonEvent.VALUE, reader.getEvent());
+			Assert.assertEquals(JsonEvent.END_OBJECT, reader.next());
+			Assert.assertEquals(JsonEvent.END_DOCUMENT, reader.next());
+		}
+	}
+
+
+
+	/**
+	 * Retourne la suite des vnements du document indiqu.
+	 * @param document Document.
+	 * @return La suite des vnements, spars par des espaces, les noms et les valeurs tant indiqus entre parenthses.
+	 * @throws IOException En cas d'erreur de lecture.
+	 * @throws JsonException Si le document est mal form.
+	 */
+	private static String events(String document) throws IOException, JsonException {
+		StringBuilder builder = new StringBuilder();
+		JsonEvent event;
+
+		try (JsonReader reader = new JsonReader(new StringReader(document))) {
+			do {
+				event = reader.next();
+				if (builder.length() > 0) {
+					builder.append(' ');
+				}
+				builder.append(event);
+				if (event == JsonEvent.NAME) {
+					builder.append('(').append(reader.getName()).append(')');
+				} else if (event == JsonEvent.VALUE) {
+					builder.append('(').append(reader.getValue()).append(')');
+				}
+			} while (event != JsonEvent.END_DOCUMENT);
+		}
+		return builder.toString();
+	}
+
+
+
+	/**
+	 * Retourne la classe et le message de l'exception gnre par la lecture complte du document indiqu.
+	 * @param document Document.
+	 * @return La classe et le message de l'exception gnre, ou <code>null</code> si il n'y en a pas.
+	 */
+	private static String failure(String document) {
+		return JsonTest.failure(() -> events(document));
+	}
+
+
+
+}
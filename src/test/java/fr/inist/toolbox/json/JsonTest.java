@@ -0,0 +1,540 @@
+package fr.inist.toolbox.json;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.charset.*;
+import java.util.*;
+
+import org.junit.*;
+
+import toolbox.json.*;
+
+
+
+/**
+ * La classe {@link JsonTest} implmente les tests sur les mthodes de la classe {@link Json}.
+ */
+@SuppressWarnings({"static-method", "javadoc"})
+public class JsonTest {
+
+
+
+	/** */
+	@Test public void testParse_byteArray_0a() throws JsonException {
+		Assert.assertNull(Json.parse((byte[]) null));
+	}
+
+
+
+	/**
+	 * Les lments construits et les messages d'erreur sont les mmes qu'en analysant la chaine dcode.
+	 */
+	@Test public void testParse_byteArray_1a() throws JsonException {
+		for (String document : DOCUMENTS) {
+			Assert.assertEquals(document, Json.parse(document), Json.parse(document.getBytes(StandardCharsets.UTF_8)));
+		}
+		for (String document : JsonParseBenchmark.INVALID_DOCUMENTS) {
+			Assert.assertEquals(document, failure(() -> Json.parse(document)), failure(() -> Json.parse(document.getBytes(StandardCharsets.UTF_8))));
+		}
+	}
+
+
+
+	/** */
+	@Test public void testParse_byteArray_2a() throws JsonException {
+		Assert.assertEquals(new JsonArray(""), Json.parse(new byte[] {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF, '[', '"', (byte) 0xC3, (byte) 0xA9, '"', ']'}));
+	}
+
+
+
+	/** */
+	@Test public void testParse_byteArray_2b() {
+		Assert.assertEquals("JsonException: \"{\" ou \"[\" attendu: ...\uFEFF[]", failure(() -> Json.parse(new byte[] {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF, (byte) 0xEF, (byte) 0xBB, (byte) 0xBF, '[', ']'})));
+	}
+
+
+
+	/** */
+	@Test public void testParse_byteArray_3a() {
+		Assert.assertEquals("JsonException: Octets UTF-8 mal forms: [\"a\uFFFDb\"]", failure(() -> Json.parse(new byte[] {'[', '"', 'a', (byte) 0xFF, 'b', '"', ']'})));
+	}
+
+
+
+	/** */
+	@Test public void testParse_byteArray_3b() {
+		for (byte[] bytes : new byte[][] {{'[', '"', (byte) 0xC3, '"', ']'}, {'[', '"', (byte) 0xC0, (byte) 0xAF, '"', ']'}, {'[', '"', (byte) 0xED, (byte) 0xA0, (byte) 0x80, '"', ']'}, {'[', '"', (byte) 0xF4, (byte) 0x90, (byte) 0x80, (byte) 0x80, '"', ']'}}) {
+			Assert.assertTrue(failure(() -> Json.parse(bytes)), failure(() -> Json.parse(bytes)).startsWith("JsonException: Octets UTF-8 mal forms: "));
+		}
+	}
+
+
+
+	/** */
+	@Test public void testParse_byteArray_3c() {
+		Assert.assertEquals("JsonException: \"\uFFFD\" non attendu: [\uFFFD1]", failure(() -> Json.parse(new byte[] {'[', (byte) 0x80, '1', ']'})));
+	}
+
+
+
+	/** */
+	@Test public void testParse_byteArray_3d() throws JsonException {
+		Assert.assertEquals(new JsonArray("\uFFFD"), Json.parse("[\"\uFFFD\"]".getBytes(StandardCharsets.UTF_8)));
+	}
+
+
+
+	/** */
+	@Test public void testParse_ByteBuffer_0a() throws JsonException {
+		Assert.assertNull(Json.parse((ByteBuffer) null));
+	}
+
+
+
+	/** */
+	@Test public void testParse_ByteBuffer_1a() throws JsonException {
+		byte[] bytes = "xx{\"a\":[\"\",1]}yy".getBytes(StandardCharsets.UTF_8);
+		ByteBuffer buffer = ByteBuffer.wrap(bytes, 2, bytes.length - 4);
+
+		Assert.assertEquals(Json.parse("{\"a\":[\"\",1]}"), Json.parse(buffer));
+		Assert.assertEquals(2, buffer.position());
+	}
+
+
+
+	/** */
+	@Test public void testParse_ByteBuffer_1b() throws JsonException {
+		ByteBuffer buffer;
+
+		for (String document : DOCUMENTS) {
+			buffer = ByteBuffer.allocateDirect(document.length() * 4);
+			buffer.put((byte) 'x').put(document.getBytes(StandardCharsets.UTF_8)).flip().position(1);
+			Assert.assertEquals(document, Json.parse(document), Json.parse(buffer));
+			Assert.assertEquals(1, buffer.position());
+		}
+	}
+
+
+
+	/** */
+	@Test public void testParse_ByteBuffer_1c() {
+		ByteBuffer buffer = ByteBuffer.allocateDirect(8);
+
+		buffer.put(new byte[] {'[', '"', (byte) 0xE9, '"', ']'}).flip();
+		Assert.assertEquals("JsonException: Octets UTF-8 mal forms: [\"\uFFFD\"]", failure(() -> Json.parse(buffer)));
+	}
+
+
+
+	/** */
+	@Test public void testParse_InputStream_0a() throws JsonException, IOException {
+		Assert.assertNull(Json.parse((InputStream) null));
+	}
+
+
+
+	/** */
+	@Test public void testParse_InputStream_1a() throws JsonException, IOException {
+		for (String document : DOCUMENTS) {
+			Assert.assertEquals(document, Json.parse(document), Json.parse(new ByteArrayInputStream(document.getBytes(StandardCharsets.UTF_8))));
+		}
+	}
+
+
+
+	/** */
+	@Test public void testParse_InputStream_1b() throws JsonException, IOException {
+		StringBuilder builder = new StringBuilder("[");
+
+		for (int i = 0; i < 10_000; i++) {
+			builder.append(i).append(",\"\u4E2D\uD83D\uDE00\",");
+		}
+		builder.append("null]");
+		Assert.assertEquals(Json.parse(builder.toString()), Json.parse(new BufferedInputStream(new ByteArrayInputStream(builder.toString().getBytes(StandardCharsets.UTF_8)), 7)));
+	}
+
+
+
+	/** */
+	@Test public void testParse_InputStream_1c() throws JsonException, IOException {
+		Assert.assertEquals(new JsonObject(), Json.parse(new ByteArrayInputStream(new byte[] {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF, ' ', '{', '}'})));
+	}
+
+
+
+	/** */
+	@Test public void testParse_String_0a() throws JsonException {
+		Assert.assertNull(Json.parse((String) null));
+	}
+
+
+
+	/** */
+	@Test public void testParse_String_1a() throws JsonException {
+		Assert.assertEquals(new JsonObject(), Json.parse("{}"));
+	}
+
+
+
+	/** */
+	@Test public void testParse_String_1b() throws JsonException {
+		Assert.assertEquals(new JsonArray(), Json.parse(" \t\r\n[ ]"));
+	}
+
+
+
+	/** */
+	@Test public void testParse_String_1c() throws JsonException {
+		Assert.assertEquals(new JsonObject().set("a", 1L).set("b", "x").set("c", Boolean.TRUE).set("d", Boolean.FALSE).set("e"), Json.parse("{ \"a\" : 1 , \"b\":\"x\",\"c\":true,\"d\":false,\"e\":null }"));
+	}
+
+
+
+	/** */
+	@Test public void testParse_String_1d() throws JsonException {
+		Assert.assertEquals(new JsonArray().append(new JsonArray().append(new JsonObject().set("a", new JsonArray(1L, 2L)))).append(new JsonObject()), Json.parse("[[{\"a\":[1,2]}],{}]"));
+	}
+
+
+
+	/**
+	 * Les lments construits sont les mmes que par l'ancienne analyse par expressions rgulires, pour des documents sans squence d'chappement.
+	 */
+	@Test public void testParse_String_1e() throws JsonException {
+		for (String document : new String[] {"{}", "[]", "[1,-2,0,3.5,-0.25,1e3,1E-3,2.5e+2]", "{\"a\":{\"b\":[true,false,null,\"\"]},\"c\":\"d  \u4E2D\"}", "[[[[[[[[[[1]]]]]]]]]]", "  {\"a\" :\t[ 1 ,\n2 ] }"}) {
+			Assert.assertEquals(document, JsonParseBenchmark.legacyParse(document), Json.parse(document));
+		}
+	}
+
+
+
+	/** */
+	@Test public void testParse_String_2a() throws JsonException {
+		Assert.assertEquals(new JsonArray("\"\\/\b\f\n\r\t"), Json.parse("[\"\\\"\\\\\\/\\b\\f\\n\\r\\t\"]"));
+	}
+
+
+
+	/** */
+	@Test public void testParse_String_2b() throws JsonException {
+		Assert.assertEquals(new JsonArray("a\u4E2Dz"), Json.parse("[\"a\\u00e9\\u4E2dz\"]"));
+	}
+
+
+
+	/** */
+	@Test public void testParse_String_2c() throws JsonException {
+		Assert.assertEquals(new JsonArray("\uD83D\uDE00"), Json.parse("[\"\\uD83D\\uDE00\"]"));
+	}
+
+
+
+	/** */
+	@Test public void testParse_String_2d() throws JsonException {
+		Assert.assertEquals(new JsonArray("x\uD83D\uDE00y"), Json.parse("[\"x\uD83D\uDE00y\"]"));
+	}
+
+
+
+	/** */
+	@Test public void testParse_String_2e() throws JsonException {
+		Assert.assertEquals(new JsonObject().set("a\nb", 1L), Json.parse("{\"a\\nb\":1}"));
+	}
+
+
+
+	/** */
+	@Test public void testParse_String_3a() throws JsonException {
+		Assert.assertEquals(new JsonArray(0L, -0L, 7L, -42L, Long.MAX_VALUE, Long.MIN_VALUE), Json.parse("[0,-0,7,-42,9223372036854775807,-9223372036854775808]"));
+	}
+
+
+
+	/** */
+	@Test public void testParse_String_3b() throws JsonException {
+		Assert.assertEquals(new JsonArray().append(0.5).append(-1.25).append(1e10).append(2.5e-3).append(100.0), Json.parse("[0.5,-1.25,1e10,2.5E-3,1e+2]"));
+	}
+
+
+
+	/** */
+	@Test public void testParse_String_3c() throws JsonException {
+		Assert.assertEquals(Long.class, ((JsonArray) Json.parse("[123456789012345678]")).getNumber(0).getClass());
+		Assert.assertEquals(Double.class, ((JsonArray) Json.parse("[1.0]")).getNumber(0).getClass());
+	}
+
+
+
+	/**
+	 * Les messages d'erreur sont les mmes que ceux de l'ancienne analyse par expressions rgulires.
+	 */
+	@Test public void testParse_String_4a() {
+		for (String document : JsonParseBenchmark.INVALID_DOCUMENTS) {
+			Assert.assertEquals(document, failure(() -> JsonParseBenchmark.legacyParse(document)), failure(() -> Json.parse(document)));
+		}
+	}
+
+
+
+	/** */
+	@Test public void testParse_String_4b() {
+		Assert.assertEquals("JsonException: \"\"\" non attendu: [\"\\x\"]", failure(() -> Json.parse("[\"\\x\"]")));
+		Assert.assertEquals("JsonException: \"\"\" non attendu: [\"\\u12...", failure(() -> Json.parse("[\"\\u12G4\"]")));
+		Assert.assertEquals("JsonException: \"\"\" non attendu: [\"\\u12...", failure(() -> Json.parse("[\"\\u12\"]")));
+		Assert.assertEquals("JsonException: \"\"\" non attendu: [\"a\u0001\"]", failure(() -> Json.parse("[\"a\u0001\"]")));
+	}
+
+
+
+	/** */
+	@Test public void testParse_String_4c() {
+		Assert.assertEquals("JsonException: \"1\" non attendu: [01]", failure(() -> Json.parse("[01]")));
+		Assert.assertEquals("JsonException: \".\" non attendu: [1.]", failure(() -> Json.parse("[1.]")));
+		Assert.assertEquals("JsonException: \"+\" non attendu: [+1]", failure(() -> Json.parse("[+1]")));
+		Assert.assertEquals("JsonException: \"-\" non attendu: [-]", failure(() -> Json.parse("[-]")));
+	}
+
+
+
+	/** */
+	@Test public void testParse_String_4d() {
+		Assert.assertEquals("JsonException: \",\" ou \"]\" attendu: [[[]]", failure(() -> Json.parse("[[[]]")));
+		Assert.assertEquals("JsonException: \"]\" non attendu: ...\":[1,]}", failure(() -> Json.parse("{\"a\":[1,]}")));
+		Assert.assertEquals("JsonException: \"}\" non attendu: ...{\"a\":}]", failure(() -> Json.parse("[{\"a\":}]")));
+	}
+
+
+
+	/** */
+	@Test public void testParse_String_4e() {
+		Assert.assertEquals("JsonException: Caractres non attendus: ...x", failure(() -> Json.parse("[1]x")));
+		Assert.assertEquals("JsonException: Caractres non attendus: ... ", failure(() -> Json.parse("[1] ")));
+		Assert.assertEquals("JsonException: Caractres non attendus: ...[]", failure(() -> Json.parse("{}[]")));
+	}
+
+
+
+	/** */
+	@Test public void testParse_String_4f() {
+		Assert.assertEquals("JsonException: \"{\" ou \"[\" attendu: \"a\"", failure(() -> Json.parse("\"a\"")));
+		Assert.assertEquals("JsonException: \"{\" ou \"[\" attendu: ", failure(() -> Json.parse("")));
+		Assert.assertEquals("JsonException: Il a a plusieurs proprits \"a\" dans le mme objet Json: ...a\":1,\"a\":2}", failure(() -> Json.parse("{\"a\":1,\"a\":2}")));
+	}
+
+
+
+	/** */
+	@Test public void testSerialize_1a() throws JsonException {
+		Assert.assertEquals(SERIALIZED, Json.parse(SERIALIZED).serialize());
+		Assert.assertEquals(SERIALIZED, Json.parse(SERIALIZED).toString());
+	}
+
+
+
+	/** */
+	@Test(expected = NullPointerException.class) public void testSerialize_Appendable_0a() throws IOException, JsonException {
+		Json.parse("[]").serialize((Appendable) null);
+	}
+
+
+
+	/**
+	 * Le rsultat est identique  celui de {@link Json#serialize()}, quelle que soit la destination.
+	 */
+	@Test public void testSerialize_Appendable_1a() throws IOException, JsonException {
+		StringBuilder builder;
+		ByteArrayOutputStream bytes;
+		Json json;
+
+		for (String document : concat(DOCUMENTS, SERIALIZED)) {
+			json = Json.parse(document);
+			builder = new StringBuilder("<");
+			json.serialize(builder);
+			Assert.assertEquals(document, "<" + json.serialize(), builder.toString());
+			bytes = new ByteArrayOutputStream();
+			try (Writer writer = new BufferedWriter(new OutputStreamWriter(bytes, StandardCharsets.UTF_8), 16)) {
+				json.serialize(writer);
+			}
+			Assert.assertArrayEquals(document, json.serialize().getBytes(StandardCharsets.UTF_8), bytes.toByteArray());
+		}
+	}
+
+
+
+	/** */
+	@Test public void testSerialize_Appendable_2a() throws JsonException {
+		Json json = Json.parse(SERIALIZED);
+
+		Assert.assertEquals("IOException: 10", failure(() -> json.serialize(new FailingAppendable(10))));
+		Assert.assertEquals("IOException: 10", failure(() -> json.serialize(new FailingAppendable(10), "")));
+	}
+
+
+
+	/**
+	 * Le rsultat est identique  celui de {@link Json#serialize(String)}, quelle que soit la destination et l'indentation.
+	 */
+	@Test public void testSerialize_AppendableString_1a() throws IOException, JsonException {
+		StringBuilder builder;
+		ByteArrayOutputStream bytes;
+		Json json;
+
+		for (String document : concat(DOCUMENTS, SERIALIZED)) {
+			json = Json.parse(document);
+			for (String indentation : new String[] {null, "", "  ", "\t"}) {
+				builder = new StringBuilder();
+				json.serialize(builder, indentation);
+				Assert.assertEquals(document, json.serialize(indentation), builder.toString());
+				bytes = new ByteArrayOutputStream();
+				try (Writer writer = new BufferedWriter(new OutputStreamWriter(bytes, StandardCharsets.UTF_8), 16)) {
+					json.serialize(writer, indentation);
+				}
+				Assert.assertArrayEquals(document, json.serialize(indentation).getBytes(StandardCharsets.UTF_8), bytes.toByteArray());
+			}
+		}
+	}
+
+
+
+	/** */
+	@Test public void testSerialize_String_1a() throws JsonException {
+		Json json = Json.parse(SERIALIZED);
+
+		Assert.assertEquals(SERIALIZED, json.serialize((String) null));
+		Assert.assertEquals("{\n\t\"a\": [1,-2.5,true,null,\"x\\\"y\\\\z\\u0001<'&>\\u00E9\\u4E2D\\uD83D\\uDE00\\t\\n\"],\n\t\"b\": {\n\t},\n\t\"c\": [],\n\t\"d\": {\n\t\t\"e\": {\n\t\t\t\"f\": [\n\t\t\t\t[]\n\t\t\t]\n\t\t},\n\t\t\"g\": null\n\t}\n}", json.serialize(""));
+		Assert.assertEquals("{\n  \t\"a\": [1,-2.5,true,null,\"x\\\"y\\\\z\\u0001<'&>\\u00E9\\u4E2D\\uD83D\\uDE00\\t\\n\"],\n  \t\"b\": {\n  \t},\n  \t\"c\": [],\n  \t\"d\": {\n  \t\t\"e\": {\n  \t\t\t\"f\": [\n  \t\t\t\t[]\n  \t\t\t]\n  \t\t},\n  \t\t\"g\": null\n  \t}\n  }", json.serialize("  "));
+		Assert.assertEquals("[\n\t{\n\t\t\"a\": 1\n\t},\n\t[],\n\t\"s\"\n]", Json.parse("[{\"a\":1},[],\"s\"]").serialize(""));
+	}
+
+
+
+	/**
+	 * Retourne les documents indiqus, suivis du document supplmentaire indiqu.
+	 * @param documents Documents.
+	 * @param document Document supplmentaire.
+	 * @return Les documents indiqus, suivis du document supplmentaire indiqu.
+	 */
+	static String[] concat(String[] documents, String document) {
+		String[] all = Arrays.copyOf(documents, documents.length + 1);
+
+		all[documents.length] = document;
+		return all;
+	}
+
+
+
+	/**
+	 * Retourne la classe et le message de l'exception gnre par l'analyse indique.
+	 * @param parse Analyse.
+	 * @return La classe et le message de l'exception gnre, ou <code>null</code> si il n'y en a pas.
+	 */
+	static String failure(Parse parse) {
+		try {
+			parse.parse();
+			return null;
+		} catch (Exception exception) {
+			return exception.getClass().getSimpleName() + ": " + exception.getMessage();
+		}
+	}
+
+
+
+	/**
+	 * Documents valides, dont certains avec des squences d'chappement et des caractres non US-ASCII.
+	 */
+	static final String[] DOCUMENTS = {"{}", "[]", " \t\n[1,-2.5e3,true,false,null]", "{\"a\":{\"b\":[\"\",\"x\\ny\\u00e9\"]},\"\":\"\u4E2D\uD83D\uDE00\"}", "\u2003[\"\\\"\\\\\\/\\b\\f\\n\\r\\t\"]", "[[[[[[[[[[{}]]]]]]]]]]"};
+
+
+
+	/**
+	 * Document srialis sans prsentation, avec des conteneurs vides ou imbriqus, des valeurs <code>null</code> et des caractres cods. Les srialisations attendues sont celles de la version
+	 * qui construisait des chaines intermdiaires.
+	 */
+	private static final String SERIALIZED = "{\"a\":[1,-2.5,true,null,\"x\\\"y\\\\z\\u0001<'&>\\u00E9\\u4E2D\\uD83D\\uDE00\\t\\n\"],\"b\":{},\"c\":[],\"d\":{\"e\":{\"f\":[[]]},\"g\":null}}";
+
+
+
+	/**
+	 * La classe {@link FailingAppendable} reprsente une destination qui gnre une {@link IOException} au del d'un nombre de caractres.
+	 */
+	private static final class FailingAppendable implements Appendable {
+
+
+
+		/**
+		 * @param capacity Nombre de caractres accepts.
+		 */
+		FailingAppendable(int capacity) {
+			this.capacity = capacity;
+		}
+
+
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override public Appendable append(char c) throws IOException {
+			return append(String.valueOf(c));
+		}
+
+
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override public Appendable append(CharSequence sequence) throws IOException {
+			return append(sequence, 0, sequence.length());
+		}
+
+
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override public Appendable append(CharSequence sequence, int start, int end) throws IOException {
+			if ((count += end - start) > capacity) {
+				throw new IOException(String.valueOf(capacity));
+			}
+			return this;
+		}
+
+
+
+		/**
+		 * Nombre de caractres accepts.
+		 */
+		private final int capacity;
+
+
+
+		/**
+		 * Nombre de caractres reus.
+		 */
+		private int count = 0;
+
+
+
+	}
+
+
+
+	/**
+	 * L'interface {@link Parse} reprsente une analyse pouvant gnrer une exception.
+	 */
+	interface Parse {
+
+
+
+		/**
+		 * Effectue l'analyse.
+		 * @throws Exception
+		 */
+		void parse() throws Exception;
+
+
+
+	}
+
+
+
+}
@@ -0,0 +1,195 @@
+package fr.inist.toolbox.json;
+
+import java.io.*;
+import java.nio.charset.*;
+
+import org.junit.*;
+
+import toolbox.json.*;
+
+
+
+/**
+ * La classe {@link JsonWriterTest} implmente les tests sur les mthodes de la classe {@link JsonWriter}.
+ */
+@SuppressWarnings({"static-method", "javadoc"})
+public class JsonWriterTest {
+
+
+
+	/** */
+	@Test public void testClose_1a() throws IOException {
+		CountingStream stream = new CountingStream();
+		JsonWriter writer = new JsonWriter(stream);
+
+		writer.beginArray().endArray();
+		writer.close();
+		writer.close();
+		Assert.assertEquals(1, stream.closeCount);
+		Assert.assertEquals("[]", stream.toString("US-ASCII"));
+	}
+
+
+
+	/**
+	 * Le document non termin est transmis et la destination ferme avant que l'exception ne soit gnre.
+	 */
+	@Test public void testClose_2a() throws IOException {
+		CountingStream stream = new CountingStream();
+		JsonWriter writer = new JsonWriter(stream);
+
+		writer.beginObject().name("a").beginArray().value(1);
+		Assert.assertEquals("IllegalStateException: Le document n'est pas termin: 2 objet(s) ou tableau(x) non termin(s).", JsonTest.failure(() -> writer.close()));
+		Assert.assertEquals(1, stream.closeCount);
+		Assert.assertEquals("{\"a\":[1", stream.toString("US-ASCII"));
+		Assert.assertNull(JsonTest.failure(() -> writer.close()));
+		Assert.assertEquals(1, stream.closeCount);
+	}
+
+
+
+	/** */
+	@Test public void testClose_2b() {
+		Assert.assertEquals("IllegalStateException: Le document est vide.", JsonTest.failure(() -> new JsonWriter(new StringWriter()).close()));
+		Assert.assertEquals("IllegalStateException: Le document n'est pas termin: 1 objet(s) ou tableau(x) non termin(s).", JsonTest.failure(() -> new JsonWriter(new StringWriter()).beginObject().name("a").close()));
+	}
+
+
+
+	/**
+	 * Rien ne peut tre crit aprs la fermeture.
+	 */
+	@Test public void testClose_3a() throws IOException {
+		JsonWriter writer = new JsonWriter(new StringWriter());
+
+		writer.beginArray();
+		JsonTest.failure(() -> writer.close());
+		Assert.assertEquals("IllegalStateException: Le gnrateur est ferm.", JsonTest.failure(() -> writer.value(1)));
+		Assert.assertEquals("IllegalStateException: Le gnrateur est ferm.", JsonTest.failure(() -> writer.beginObject()));
+		Assert.assertEquals("IllegalStateException: Le gnrateur est ferm.", JsonTest.failure(() -> writer.endArray()));
+	}
+
+
+
+	/** */
+	@Test public void testEnd_2a() {
+		Assert.assertEquals("IllegalStateException: Pas d'objet  terminer.", JsonTest.failure(() -> new JsonWriter(new StringWriter()).beginArray().endObject()));
+		Assert.assertEquals("IllegalStateException: Pas de tableau  terminer.", JsonTest.failure(() -> new JsonWriter(new StringWriter()).endArray()));
+		Assert.assertEquals("IllegalStateException: Valeur attendue avant la fin de l'objet.", JsonTest.failure(() -> new JsonWriter(new StringWriter()).beginObject().name("a").endObject()));
+	}
+
+
+
+	/** */
+	@Test public void testName_2a() {
+		Assert.assertEquals("IllegalStateException: Nom de proprit en dehors d'un objet: a", JsonTest.failure(() -> new JsonWriter(new StringWriter()).name("a")));
+		Assert.assertEquals("IllegalStateException: Nom de proprit en dehors d'un objet: a", JsonTest.failure(() -> new JsonWriter(new StringWriter()).beginArray().name("a")));
+		Assert.assertEquals("IllegalStateException: Valeur attendue avant le nom de proprit: b", JsonTest.failure(() -> new JsonWriter(new StringWriter()).beginObject().name("a").name("b")));
+	}
+
+
+
+	/**
+	 * Le rsultat est identique  celui de {@link Json#serialize()} pour le mme contenu, vers un {@link Writer} comme vers un {@link OutputStream}.
+	 */
+	@Test public void testValue_1a() throws IOException, JsonException {
+		JsonObject json = new JsonObject();
+		StringWriter string = new StringWriter();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		json.set("a", new JsonArray().append(1).append(-2.5).append(Boolean.TRUE).append((String) null).append("x\"y\\z\u0001<'&>\u4E2D\uD83D\uDE00\t\n"));
+		json.set("b", new JsonObject());
+		json.set("c", new JsonArray());
+		json.set("d", new JsonObject().set("e", Json.parse("{\"f\":[[]]}")).set("g", (String) null));
+		for (JsonWriter writer : new JsonWriter[] {new JsonWriter(string), new JsonWriter(bytes)}) {
+			try {
+				writer.beginObject();
+				writer.name("a").beginArray().value(1).value(-2.5).value(true).nullValue().value("x\"y\\z\u0001<'&>\u4E2D\uD83D\uDE00\t\n").endArray();
+				writer.name("b").beginObject().endObject();
+				writer.name("c").beginArray().endArray();
+				writer.name("d").beginObject().name("e").value(Json.parse("{\"f\":[[]]}")).name("g").value((String) null).endObject();
+				writer.endObject();
+				Assert.assertEquals(0, writer.getDepth());
+			} finally {
+				writer.close();
+			}
+		}
+		Assert.assertEquals(json.serialize(), string.toString());
+		Assert.assertArrayEquals(json.serialize().getBytes(StandardCharsets.UTF_8), bytes.toByteArray());
+	}
+
+
+
+	/**
+	 * Le rsultat est identique  celui de {@link Json#serialize()} au del de la taille du tampon d'criture.
+	 */
+	@Test public void testValue_1b() throws IOException {
+		JsonArray json = new JsonArray();
+		StringWriter string = new StringWriter();
+
+		try (JsonWriter writer = new JsonWriter(string)) {
+			writer.beginArray();
+			for (int i = 0; i < 5000; i++) {
+				json.append(new JsonObject().set("i", i).set("s", "lment " + i));
+				writer.beginObject().name("i").value(i).name("s").value("lment " + i).endObject();
+			}
+			writer.endArray();
+		}
+		Assert.assertEquals(json.serialize(), string.toString());
+	}
+
+
+
+	/** */
+	@Test public void testValue_1c() throws IOException, JsonException {
+		for (String document : JsonTest.DOCUMENTS) {
+			StringWriter string = new StringWriter();
+
+			try (JsonWriter writer = new JsonWriter(string)) {
+				writer.value(Json.parse(document));
+			}
+			Assert.assertEquals(document, Json.parse(document).serialize(), string.toString());
+		}
+	}
+
+
+
+	/** */
+	@Test public void testValue_2a() {
+		Assert.assertEquals("IllegalStateException: Nom de proprit attendu avant la valeur.", JsonTest.failure(() -> new JsonWriter(new StringWriter()).beginObject().value(1)));
+		Assert.assertEquals("IllegalStateException: Nom de proprit attendu avant la valeur.", JsonTest.failure(() -> new JsonWriter(new StringWriter()).beginObject().name("a").value(1).value(2)));
+		Assert.assertEquals("IllegalStateException: Nom de proprit attendu avant la valeur.", JsonTest.failure(() -> new JsonWriter(new StringWriter()).beginObject().beginArray()));
+		Assert.assertEquals("IllegalStateException: Le document est dj termin.", JsonTest.failure(() -> new JsonWriter(new StringWriter()).beginArray().endArray().beginArray()));
+	}
+
+
+
+	/**
+	 * La classe {@link CountingStream} est un {@link ByteArrayOutputStream} qui compte ses fermetures.
+	 */
+	private static final class CountingStream extends ByteArrayOutputStream {
+
+
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override public void close() throws IOException {
+			closeCount++;
+			super.close();
+		}
+
+
+
+		/**
+		 * Nombre de fermetures.
+		 */
+		int closeCount = 0;
+
+
+
+	}
+
+
+
+}
@@ -0,0 +1,268 @@
+package fr.inist.toolbox.parallel;
+
+import java.io.*;
+import java.util.concurrent.atomic.*;
+
+import org.junit.*;
+
+import toolbox.parallel.*;
+import toolbox.parallel.missionners.*;
+import toolbox.parallel.missions.*;
+
+
+
+/**
+ * La classe {@link CheckpointTest} implmente les tests sur les mthodes de la classe {@link Checkpoint}.<br>
+ * Une entreprise est arrte en cours de route, puis reprise  partir de son point de reprise, jusqu' ce que toutes les missions soient effectues: aucune mission ne doit tre perdue ni effectue
+ * deux fois.
+ */
+@SuppressWarnings({"static-method", "javadoc"})
+public class CheckpointTest {
+
+
+
+	/**
+	 * Cre un fichier de point de reprise inexistant.
+	 */
+	@Before public void setUp() throws IOException {
+		file = File.createTempFile(getClass().getSimpleName(), ".txt");
+		file.delete();
+	}
+
+
+
+	/**
+	 * Supprime le fichier de point de reprise.
+	 */
+	@After public void tearDown() {
+		file.delete();
+		new File(file.getPath() + ".tmp").delete();
+	}
+
+
+
+	/** */
+	@Test public void testResume_1a() throws IOException {
+		resume(1, 1);
+	}
+
+
+
+	/** */
+	@Test public void testResume_1b() throws IOException {
+		resume(1, 8);
+	}
+
+
+
+	/** */
+	@Test public void testResume_2a() throws IOException {
+		resume(4, 1);
+	}
+
+
+
+	/** */
+	@Test public void testResume_2b() throws IOException {
+		resume(4, 8);
+	}
+
+
+
+	/**
+	 * Le contenu du fichier est relu  l'identique.
+	 */
+	@Test public void testSave_1a() throws IOException {
+		Checkpoint checkpoint;
+
+		try (Writer writer = new FileWriter(file)) {
+			writer.write("5\n7\n9\n");
+		}
+		checkpoint = new Checkpoint(file, 1000);
+		Assert.assertEquals(5, checkpoint.getLowWaterMark());
+		Assert.assertEquals(2, checkpoint.getPendingCount());
+		Assert.assertTrue(checkpoint.isDone(4));
+		Assert.assertFalse(checkpoint.isDone(5));
+		Assert.assertFalse(checkpoint.isDone(6));
+		Assert.assertTrue(checkpoint.isDone(7));
+		Assert.assertFalse(checkpoint.isDone(8));
+		Assert.assertTrue(checkpoint.isDone(9));
+		checkpoint.save();
+		checkpoint = new Checkpoint(file, 1000);
+		Assert.assertEquals(5, checkpoint.getLowWaterMark());
+		Assert.assertEquals(2, checkpoint.getPendingCount());
+	}
+
+
+
+	/** */
+	@Test public void testSave_2a() throws IOException {
+		try (Writer writer = new FileWriter(file)) {
+			writer.write("5\n3\n");
+		}
+		try {
+			new Checkpoint(file, 1000);
+			Assert.fail();
+		} catch (IOException exception) {
+			Assert.assertEquals("Rang de mission termine infrieur au rang plancher dans " + file + ": 3", exception.getMessage());
+		}
+	}
+
+
+
+	/**
+	 * Effectue les missions en plusieurs fois, en arrtant l'entreprise en cours de route puis en la reprenant, et vrifie que chaque mission est effectue une fois et une seule.
+	 * @param shardCount Nombre de files du distributeur de missions.
+	 * @param batchSize Taille des lots de missions pris par les ouvriers.
+	 * @throws IOException En cas d'erreur de lecture ou d'criture du point de reprise.
+	 */
+	private void resume(int shardCount, int batchSize) throws IOException {
+		AtomicIntegerArray counts = new AtomicIntegerArray(MISSION_COUNT + 1);
+		Checkpoint checkpoint;
+		int total = 0;
+		int done;
+
+		for (int stopAfter : new int[] {MISSION_COUNT / 4, MISSION_COUNT / 3, Integer.MAX_VALUE, Integer.MAX_VALUE}) {
+			checkpoint = new Checkpoint(file, 5);
+			Assert.assertEquals(total, checkpoint.getLowWaterMark() + checkpoint.getPendingCount());
+			done = run(checkpoint, shardCount, batchSize, stopAfter, counts);
+			if (stopAfter < MISSION_COUNT) {
+				Assert.assertTrue(done >= stopAfter);
+				Assert.assertTrue(done < (MISSION_COUNT - total));
+			} else {
+				Assert.assertEquals(MISSION_COUNT - total, done);
+			}
+			total += done;
+		}
+		for (int number = 1; number <= MISSION_COUNT; number++) {
+			Assert.assertEquals("mission " + number, 1, counts.get(number));
+		}
+		checkpoint = new Checkpoint(file, 5);
+		Assert.assertEquals(MISSION_COUNT, checkpoint.getLowWaterMark());
+		Assert.assertEquals(0, checkpoint.getPendingCount());
+	}
+
+
+
+	/**
+	 * Excute une entreprise avec le point de reprise indiqu, en l'arrtant aprs le nombre de missions indiqu.
+	 * @param checkpoint Point de reprise.
+	 * @param shardCount Nombre de files du distributeur de missions.
+	 * @param batchSize Taille des lots de missions pris par les ouvriers.
+	 * @param stopAfter Nombre de missions aprs lequel l'entreprise est arrte.
+	 * @param counts Nombre de fois o chaque mission a t effectue, par numro.
+	 * @return Le nombre de missions effectues.
+	 */
+	private static int run(Checkpoint checkpoint, int shardCount, int batchSize, int stopAfter, AtomicIntegerArray counts) {
+		SequentialNumberMissionner missionner = new SequentialNumberMissionner(1, MISSION_COUNT);
+		CountingWorker worker = new CountingWorker(counts, stopAfter);
+		Enterprise<IntegerMission> enterprise;
+
+		missionner.setBufferCapacity(32);
+		missionner.setShardCount(shardCount);
+		worker.setBatchSize(batchSize);
+		enterprise = new Enterprise<>(4, missionner, worker);
+		enterprise.setCheckpoint(checkpoint);
+		enterprise.run();
+		if (enterprise.hasExceptions()) {
+			throw new RuntimeException(enterprise.getFirstException());
+		}
+		Assert.assertEquals(worker.done.get(), enterprise.getDoneCount());
+		return worker.done.get();
+	}
+
+
+
+	/**
+	 * Fichier du point de reprise.
+	 */
+	private File file;
+
+
+
+	/**
+	 * Nombre de missions.
+	 */
+	private static final int MISSION_COUNT = 1000;
+
+
+
+	/**
+	 * La classe {@link CountingWorker} implmente un ouvrier qui compte les missions qu'il effectue, les termine dans le dsordre, et arrte l'entreprise aprs un nombre de missions.
+	 * @author Ludovic WALLE
+	 */
+	private static class CountingWorker extends Worker<IntegerMission> {
+
+
+
+		/**
+		 * @param counts Nombre de fois o chaque mission a t effectue, par numro.
+		 * @param stopAfter Nombre de missions aprs lequel l'entreprise est arrte.
+		 */
+		public CountingWorker(AtomicIntegerArray counts, int stopAfter) {
+			this.counts = counts;
+			this.done = new AtomicInteger();
+			this.stopAfter = stopAfter;
+		}
+
+
+
+		/**
+		 * @param other Autre ouvrier, dont les compteurs sont partags.
+		 */
+		public CountingWorker(CountingWorker other) {
+			super(other);
+			this.counts = other.counts;
+			this.done = other.done;
+			this.stopAfter = other.stopAfter;
+		}
+
+
+
+		/** {@inheritDoc} */
+		@Override protected int delegateDo(IntegerMission mission) throws InterruptedException {
+			if ((mission.getNumber() % 7) == 0) {
+				Thread.sleep(1);
+			}
+			counts.incrementAndGet(mission.getNumber());
+			if (done.incrementAndGet() == stopAfter) {
+				getEnterprise().forbidForeverNewMissionsStart();
+			}
+			return 1;
+		}
+
+
+
+		/** {@inheritDoc} */
+		@Override protected CountingWorker newOne() {
+			return new CountingWorker(this);
+		}
+
+
+
+		/**
+		 * Nombre de fois o chaque mission a t effectue, par numro.
+		 */
+		private final AtomicIntegerArray counts;
+
+
+
+		/**
+		 * Nombre de missions effectues par tous les ouvriers.
+		 */
+		final AtomicInteger done;
+
+
+
+		/**
+		 * Nombre de missions aprs lequel l'entreprise est arrte.
+		 */
+		private final int stopAfter;
+
+
+
+	}
+
+
+
+}
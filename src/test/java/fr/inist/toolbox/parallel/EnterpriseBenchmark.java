@@ -0,0 +1,187 @@
+package fr.inist.toolbox.parallel;
+
+import toolbox.parallel.*;
+import toolbox.parallel.missionners.*;
+import toolbox.parallel.missions.*;
+
+
+
+/**
+ * La classe {@link EnterpriseBenchmark} mesure le dbit (missions par seconde) d'une {@link Enterprise} effectuant des missions triviales, en fonction du nombre d'ouvriers et de la capacit du
+ * tampon du distributeur de missions et de la taille des lots de missions pris par les ouvriers. Elle le compare au dbit (numros par seconde) obtenu lorsque chaque mission transmet un
+ * intervalle de numros ({@link IntegerChunkMission}).
+ * @author Ludovic WALLE
+ */
+public class EnterpriseBenchmark {
+
+
+
+	/**
+	 * Programme de mesure.
+	 * @param args Nombre de missions par mesure (facultatif).
+	 */
+	public static void main(String[] args) {
+		int missionCount = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000_000;
+
+		System.out.println("ouvriers\ttampon=1\ttampon=" + BUFFER_CAPACITY + "\ttampon=" + BUFFER_CAPACITY + ",lot=" + BATCH_SIZE + "\tintervalles=" + CHUNK_SIZE);
+		for (int workerCount = 1; workerCount <= 64; workerCount *= 2) {
+			System.out.println(workerCount + "\t" + measure(workerCount, 1, 1, missionCount) + "\t" + measure(workerCount, BUFFER_CAPACITY, 1, missionCount) + "\t" + measure(workerCount, BUFFER_CAPACITY, BATCH_SIZE, missionCount) + "\t" + measureChunks(workerCount, missionCount));
+		}
+	}
+
+
+
+	/**
+	 * Retourne le dbit mesur, en missions par seconde.
+	 * @param workerCount Nombre d'ouvriers.
+	 * @param bufferCapacity Capacit du tampon du distributeur de missions.
+	 * @param batchSize Taille des lots de missions pris par les ouvriers.
+	 * @param missionCount Nombre de missions.
+	 * @return Le dbit mesur, en missions par seconde.
+	 */
+	private static long measure(int workerCount, int bufferCapacity, int batchSize, int missionCount) {
+		SequentialNumberMissionner missionner = new SequentialNumberMissionner(1, missionCount);
+		TrivialWorker worker = new TrivialWorker();
+		Enterprise<IntegerMission> enterprise;
+		long start;
+
+		missionner.setBufferCapacity(bufferCapacity);
+		worker.setBatchSize(batchSize);
+		enterprise = new Enterprise<>(workerCount, missionner, worker);
+		start = System.nanoTime();
+		enterprise.run();
+		if (enterprise.hasExceptions()) {
+			throw new RuntimeException(enterprise.getFirstException());
+		}
+		return (enterprise.getDoneCount() * 1_000_000_000L) / Math.max(1, System.nanoTime() - start);
+	}
+
+
+
+	/**
+	 * Retourne le dbit mesur lorsque chaque mission transmet un intervalle de numros, en numros par seconde.
+	 * @param workerCount Nombre d'ouvriers.
+	 * @param numberCount Nombre de numros.
+	 * @return Le dbit mesur, en numros par seconde.
+	 */
+	private static long measureChunks(int workerCount, int numberCount) {
+		Enterprise<IntegerChunkMission> enterprise = new Enterprise<>(workerCount, new SequentialNumberChunkMissionner(1, numberCount, CHUNK_SIZE), new TrivialChunkWorker());
+		long start;
+
+		start = System.nanoTime();
+		enterprise.run();
+		if (enterprise.hasExceptions()) {
+			throw new RuntimeException(enterprise.getFirstException());
+		}
+		return (enterprise.getProducedCount() * 1_000_000_000L) / Math.max(1, System.nanoTime() - start);
+	}
+
+
+
+	/**
+	 * Taille des lots de missions compare au fonctionnement historique (missions prises une par une).
+	 */
+	private static final int BATCH_SIZE = 64;
+
+
+
+	/**
+	 * Capacit du tampon compare au fonctionnement historique (tampon d'une seule mission).
+	 */
+	private static final int BUFFER_CAPACITY = 1024;
+
+
+
+	/**
+	 * Nombre de numros par intervalle.
+	 */
+	private static final int CHUNK_SIZE = 4096;
+
+
+
+	/**
+	 * La classe {@link TrivialChunkWorker} implmente un ouvrier dont les missions transmettent des intervalles de numros dont le traitement ne cote presque rien.
+	 * @author Ludovic WALLE
+	 */
+	private static class TrivialChunkWorker extends Worker<IntegerChunkMission> {
+
+
+
+		/** */
+		public TrivialChunkWorker() {}
+
+
+
+		/**
+		 * @param other Autre ouvrier.
+		 */
+		public TrivialChunkWorker(TrivialChunkWorker other) {
+			super(other);
+		}
+
+
+
+		/** {@inheritDoc} */
+		@Override protected int delegateDo(IntegerChunkMission mission) {
+			int sum = 0;
+
+			for (int i = 0; i < mission.getCount(); i++) {
+				sum += mission.getNumber(i) & 1;
+			}
+			return (sum >= 0) ? mission.getCount() : 0;
+		}
+
+
+
+		/** {@inheritDoc} */
+		@Override protected TrivialChunkWorker newOne() {
+			return new TrivialChunkWorker(this);
+		}
+
+
+
+	}
+
+
+
+	/**
+	 * La classe {@link TrivialWorker} implmente un ouvrier dont les missions ne cotent presque rien.
+	 * @author Ludovic WALLE
+	 */
+	private static class TrivialWorker extends Worker<IntegerMission> {
+
+
+
+		/** */
+		public TrivialWorker() {}
+
+
+
+		/**
+		 * @param other Autre ouvrier.
+		 */
+		public TrivialWorker(TrivialWorker other) {
+			super(other);
+		}
+
+
+
+		/** {@inheritDoc} */
+		@Override protected int delegateDo(IntegerMission mission) {
+			return mission.getNumber() & 1;
+		}
+
+
+
+		/** {@inheritDoc} */
+		@Override protected TrivialWorker newOne() {
+			return new TrivialWorker(this);
+		}
+
+
+
+	}
+
+
+
+}
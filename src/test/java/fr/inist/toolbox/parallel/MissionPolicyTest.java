@@ -0,0 +1,402 @@
+package fr.inist.toolbox.parallel;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.junit.*;
+
+import toolbox.parallel.*;
+import toolbox.parallel.missionners.*;
+import toolbox.parallel.missions.*;
+
+
+
+/**
+ * La classe {@link MissionPolicyTest} implmente les tests sur la politique de traitement des checs de missions ({@link MissionPolicy}) applique par une {@link Enterprise}.
+ */
+@SuppressWarnings({"static-method", "javadoc"})
+public class MissionPolicyTest {
+
+
+
+	/**
+	 * Sans politique, la premire exception arrte l'entreprise.
+	 */
+	@Test(timeout = 60000) public void testAbort_1a() {
+		FlakyWorker worker = new FlakyWorker(7, Integer.MAX_VALUE, false);
+		Enterprise<IntegerMission> enterprise = new Enterprise<>(2, new SequentialNumberMissionner(1, 1_000_000), worker);
+
+		enterprise.run();
+		Assert.assertTrue(enterprise.hasExceptions());
+		Assert.assertEquals("chec de la mission 7", enterprise.getFirstException().getMessage());
+		Assert.assertEquals(1, worker.attempts.get(7));
+		Assert.assertTrue(enterprise.getDoneCount() < 1_000_000);
+	}
+
+
+
+	/**
+	 * Une {@link Error} arrte l'entreprise mme si il y a une politique, sans nouvelle tentative ni quarantaine.
+	 */
+	@Test(timeout = 60000) public void testAbort_1b() {
+		FlakyWorker worker = new FlakyWorker(7, -1, false);
+		ListQuarantine quarantine = new ListQuarantine();
+		Enterprise<IntegerMission> enterprise = new Enterprise<>(2, new SequentialNumberMissionner(1, 1_000_000), worker);
+
+		enterprise.setMissionPolicy(newPolicy(3, quarantine));
+		enterprise.run();
+		Assert.assertTrue(enterprise.getFirstException() instanceof Error);
+		Assert.assertEquals(1, worker.attempts.get(7));
+		Assert.assertTrue(quarantine.missions.isEmpty());
+	}
+
+
+
+	/**
+	 * Si le lot choue, seules les missions qu'il n'a pas signales comme effectues sont refaites, une par une.
+	 */
+	@Test(timeout = 60000) public void testBatch_1a() {
+		FlakyWorker worker = new FlakyWorker(8, 1, false);
+		Enterprise<IntegerMission> enterprise = new Enterprise<>(1, new SequentialNumberMissionner(1, MISSION_COUNT), worker);
+
+		worker.setBatchSize(5);
+		enterprise.setMissionPolicy(newPolicy(2, null));
+		enterprise.run();
+		Assert.assertFalse(enterprise.hasExceptions());
+		Assert.assertEquals(MISSION_COUNT, enterprise.getDoneCount());
+		Assert.assertEquals(MISSION_COUNT, enterprise.getProducedCount());
+		assertAttempts(worker, 8, 2);
+	}
+
+
+
+	/**
+	 * Une mission d'un lot qui choue  toutes ses tentatives est mise en quarantaine avec son propre numro d'ordre, et les autres missions du lot sont effectues une seule fois.
+	 */
+	@Test(timeout = 60000) public void testBatch_1b() {
+		FlakyWorker worker = new FlakyWorker(8, Integer.MAX_VALUE, false);
+		ListQuarantine quarantine = new ListQuarantine();
+		Enterprise<IntegerMission> enterprise = new Enterprise<>(1, new SequentialNumberMissionner(1, MISSION_COUNT), worker);
+
+		worker.setBatchSize(5);
+		enterprise.setMissionPolicy(newPolicy(2, quarantine));
+		enterprise.run();
+		Assert.assertFalse(enterprise.hasExceptions());
+		Assert.assertEquals(MISSION_COUNT - 1, enterprise.getProducedCount());
+		Assert.assertEquals(1, enterprise.getQuarantinedCount());
+		Assert.assertEquals(Arrays.asList(8), quarantine.missions);
+		Assert.assertEquals(Arrays.asList(7L), quarantine.sequences);
+		assertAttempts(worker, 8, 3);
+	}
+
+
+
+	/** */
+	@Test public void testMissionPolicy_0a() {
+		MissionPolicy<IntegerMission> policy = new MissionPolicy<>();
+
+		Assert.assertEquals("IllegalArgumentException: Le nombre maximal de tentatives doit tre strictement positif: 0", failure(() -> policy.setMaxAttempts(0)));
+		Assert.assertEquals("IllegalArgumentException: L'attente entre deux tentatives doit tre positive ou nulle: -1", failure(() -> policy.setBackoff(-1, 0)));
+		Assert.assertEquals("IllegalArgumentException: L'attente maximale entre deux tentatives doit tre suprieure ou gale  l'attente initiale: 1 < 2", failure(() -> policy.setBackoff(2, 1)));
+		Assert.assertEquals("IllegalArgumentException: Le dlai imparti doit tre positif ou nul: -1", failure(() -> policy.setTimeout(-1)));
+	}
+
+
+
+	/**
+	 * Une mission qui a chou  toutes ses tentatives est mise en quarantaine, et l'entreprise continue.
+	 */
+	@Test(timeout = 60000) public void testQuarantine_1a() {
+		FlakyWorker worker = new FlakyWorker(7, Integer.MAX_VALUE, false);
+		ListQuarantine quarantine = new ListQuarantine();
+		Enterprise<IntegerMission> enterprise = new Enterprise<>(2, new SequentialNumberMissionner(1, MISSION_COUNT), worker);
+
+		enterprise.setMissionPolicy(newPolicy(3, quarantine));
+		enterprise.run();
+		Assert.assertFalse(enterprise.hasExceptions());
+		Assert.assertEquals(MISSION_COUNT, enterprise.getDoneCount());
+		Assert.assertEquals(MISSION_COUNT - 1, enterprise.getProducedCount());
+		Assert.assertEquals(1, enterprise.getQuarantinedCount());
+		Assert.assertEquals(2, enterprise.getRetriedCount());
+		Assert.assertEquals(Arrays.asList(7), quarantine.missions);
+		Assert.assertEquals(Arrays.asList(6L), quarantine.sequences);
+		Assert.assertEquals("chec de la mission 7", quarantine.exceptions.get(0).getMessage());
+		assertAttempts(worker, 7, 3);
+	}
+
+
+
+	/**
+	 * Sans destinataire de quarantaine, une mission qui a chou  toutes ses tentatives arrte l'entreprise.
+	 */
+	@Test(timeout = 60000) public void testQuarantine_1b() {
+		FlakyWorker worker = new FlakyWorker(7, Integer.MAX_VALUE, false);
+		Enterprise<IntegerMission> enterprise = new Enterprise<>(2, new SequentialNumberMissionner(1, 1_000_000), worker);
+
+		enterprise.setMissionPolicy(newPolicy(3, null));
+		enterprise.run();
+		Assert.assertEquals("chec de la mission 7", enterprise.getFirstException().getMessage());
+		Assert.assertEquals(3, worker.attempts.get(7));
+		Assert.assertTrue(enterprise.getDoneCount() < 1_000_000);
+	}
+
+
+
+	/**
+	 * Une mission qui russit avant d'avoir puis ses tentatives n'est ni mise en quarantaine, ni compte en chec.
+	 */
+	@Test(timeout = 60000) public void testRetry_1a() {
+		FlakyWorker worker = new FlakyWorker(7, 2, false);
+		ListQuarantine quarantine = new ListQuarantine();
+		Enterprise<IntegerMission> enterprise = new Enterprise<>(2, new SequentialNumberMissionner(1, MISSION_COUNT), worker);
+
+		enterprise.setMissionPolicy(newPolicy(3, quarantine));
+		enterprise.run();
+		Assert.assertFalse(enterprise.hasExceptions());
+		Assert.assertEquals(MISSION_COUNT, enterprise.getProducedCount());
+		Assert.assertEquals(2, enterprise.getRetriedCount());
+		Assert.assertEquals(0, enterprise.getQuarantinedCount());
+		Assert.assertTrue(quarantine.missions.isEmpty());
+		assertAttempts(worker, 7, 3);
+	}
+
+
+
+	/**
+	 * L'attente entre deux tentatives double  chaque tentative, dans la limite de l'attente maximale.
+	 */
+	@Test(timeout = 60000) public void testRetry_1b() {
+		FlakyWorker worker = new FlakyWorker(1, 4, false);
+		Enterprise<IntegerMission> enterprise = new Enterprise<>(1, new SequentialNumberMissionner(1, 1), worker);
+		MissionPolicy<IntegerMission> policy = newPolicy(5, null);
+		long start;
+
+		policy.setBackoff(20, 50);
+		enterprise.setMissionPolicy(policy);
+		start = System.nanoTime();
+		enterprise.run();
+		Assert.assertFalse(enterprise.hasExceptions());
+		Assert.assertTrue((System.nanoTime() - start) >= TimeUnit.MILLISECONDS.toNanos(20 + 40 + 50 + 50));
+		Assert.assertEquals(5, worker.attempts.get(1));
+	}
+
+
+
+	/**
+	 * Une mission qui dpasse le dlai imparti est interrompue, et mise en quarantaine avec une {@link TimeoutException}.
+	 */
+	@Test(timeout = 60000) public void testTimeout_1a() {
+		FlakyWorker worker = new FlakyWorker(7, Integer.MAX_VALUE, true);
+		ListQuarantine quarantine = new ListQuarantine();
+		Enterprise<IntegerMission> enterprise = new Enterprise<>(2, new SequentialNumberMissionner(1, MISSION_COUNT), worker);
+		MissionPolicy<IntegerMission> policy = newPolicy(2, quarantine);
+
+		policy.setTimeout(50);
+		enterprise.setMissionPolicy(policy);
+		enterprise.run();
+		Assert.assertFalse(enterprise.hasExceptions());
+		Assert.assertEquals(MISSION_COUNT - 1, enterprise.getProducedCount());
+		Assert.assertEquals(Arrays.asList(7), quarantine.missions);
+		Assert.assertTrue(quarantine.exceptions.get(0) instanceof TimeoutException);
+		Assert.assertTrue(quarantine.exceptions.get(0).getCause() instanceof InterruptedException);
+		assertAttempts(worker, 7, 2);
+	}
+
+
+
+	/**
+	 * Vrifie que chaque mission a t tente une seule fois, sauf celle indique.
+	 * @param worker Ouvrier.
+	 * @param failing Numro de la mission qui choue.
+	 * @param attempts Nombre de tentatives attendu pour la mission qui choue.
+	 */
+	private static void assertAttempts(FlakyWorker worker, int failing, int attempts) {
+		for (int number = 1; number <= MISSION_COUNT; number++) {
+			Assert.assertEquals("mission " + number, (number == failing) ? attempts : 1, worker.attempts.get(number));
+		}
+	}
+
+
+
+	/**
+	 * Retourne la classe et le message de l'exception gnre par l'action indique.
+	 * @param action Action.
+	 * @return La classe et le message de l'exception gnre, ou <code>null</code> si il n'y en a pas.
+	 */
+	private static String failure(Runnable action) {
+		try {
+			action.run();
+			return null;
+		} catch (RuntimeException exception) {
+			return exception.getClass().getSimpleName() + ": " + exception.getMessage();
+		}
+	}
+
+
+
+	/**
+	 * Cre une politique sans attente entre les tentatives.
+	 * @param maxAttempts Nombre maximal de tentatives.
+	 * @param quarantine Destinataire des missions mises en quarantaine, ou <code>null</code>.
+	 * @return La politique.
+	 */
+	private static MissionPolicy<IntegerMission> newPolicy(int maxAttempts, Quarantine<IntegerMission> quarantine) {
+		MissionPolicy<IntegerMission> policy = new MissionPolicy<>();
+
+		policy.setMaxAttempts(maxAttempts);
+		policy.setBackoff(0, 0);
+		policy.setQuarantine(quarantine);
+		return policy;
+	}
+
+
+
+	/**
+	 * Nombre de missions.
+	 */
+	private static final int MISSION_COUNT = 20;
+
+
+
+	/**
+	 * La classe {@link FlakyWorker} implmente un ouvrier dont une mission choue un certain nombre de fois avant de russir, et qui compte les tentatives de chaque mission.
+	 * @author Ludovic WALLE
+	 */
+	private static class FlakyWorker extends Worker<IntegerMission> {
+
+
+
+		/**
+		 * @param failing Numro de la mission qui choue.
+		 * @param failures Nombre de tentatives de cette mission qui chouent, ou -1 pour qu'elle gnre une {@link Error}.
+		 * @param hanging Indicateur d'chec par dpassement du dlai imparti plutt que par une exception.
+		 */
+		public FlakyWorker(int failing, int failures, boolean hanging) {
+			this.failing = failing;
+			this.failures = failures;
+			this.hanging = hanging;
+			this.attempts = new AtomicIntegerArray(1_000_001);
+		}
+
+
+
+		/**
+		 * @param other Autre ouvrier, dont les compteurs sont partags.
+		 */
+		public FlakyWorker(FlakyWorker other) {
+			super(other);
+			this.failing = other.failing;
+			this.failures = other.failures;
+			this.hanging = other.hanging;
+			this.attempts = other.attempts;
+		}
+
+
+
+		/** {@inheritDoc} */
+		@Override protected int delegateDo(IntegerMission mission) throws InterruptedException {
+			int attempt = attempts.incrementAndGet(mission.getNumber());
+
+			if (mission.getNumber() == failing) {
+				if (failures < 0) {
+					throw new Error("Erreur de la mission " + failing);
+				} else if (attempt <= failures) {
+					if (hanging) {
+						Thread.sleep(60000);
+					}
+					throw new IllegalStateException("chec de la mission " + failing);
+				}
+			}
+			return 1;
+		}
+
+
+
+		/** {@inheritDoc} */
+		@Override protected FlakyWorker newOne() {
+			return new FlakyWorker(this);
+		}
+
+
+
+		/**
+		 * Nombre de tentatives de chaque mission, par numro.
+		 */
+		final AtomicIntegerArray attempts;
+
+
+
+		/**
+		 * Numro de la mission qui choue.
+		 */
+		private final int failing;
+
+
+
+		/**
+		 * Nombre de tentatives de la mission qui choue qui chouent, ou -1 pour qu'elle gnre une {@link Error}.
+		 */
+		private final int failures;
+
+
+
+		/**
+		 * Indicateur d'chec par dpassement du dlai imparti plutt que par une exception.
+		 */
+		private final boolean hanging;
+
+
+
+	}
+
+
+
+	/**
+	 * La classe {@link ListQuarantine} implmente un destinataire des missions mises en quarantaine qui les mmorise.
+	 * @author Ludovic WALLE
+	 */
+	private static class ListQuarantine implements Quarantine<IntegerMission> {
+
+
+
+		/** */
+		public ListQuarantine() {}
+
+
+
+		/** {@inheritDoc} */
+		@Override public synchronized void quarantine(IntegerMission mission, long sequence, Throwable exception) {
+			missions.add(mission.getNumber());
+			sequences.add(sequence);
+			exceptions.add(exception);
+		}
+
+
+
+		/**
+		 * Exceptions des missions mises en quarantaine.
+		 */
+		final List<Throwable> exceptions = new ArrayList<>();
+
+
+
+		/**
+		 * Numros des missions mises en quarantaine.
+		 */
+		final List<Integer> missions = new ArrayList<>();
+
+
+
+		/**
+		 * Numros d'ordre des missions mises en quarantaine.
+		 */
+		final List<Long> sequences = new ArrayList<>();
+
+
+
+	}
+
+
+
+}
@@ -0,0 +1,179 @@
+package fr.inist.toolbox.parallel;
+
+import java.util.*;
+import java.util.stream.*;
+
+import org.junit.*;
+
+import toolbox.parallel.*;
+import toolbox.parallel.missionners.*;
+import toolbox.parallel.missions.*;
+
+
+
+/**
+ * La classe {@link MissionnerSpliteratorTest} implmente les tests sur les mthodes de la classe {@link MissionnerSpliterator}, et sur les flux de missions ({@link Missionner#stream(boolean)}).
+ */
+@SuppressWarnings({"static-method", "javadoc"})
+public class MissionnerSpliteratorTest {
+
+
+
+	/**
+	 * Les missions ne sont signales comme ordonnes que si le tampon du distributeur n'est pas rparti en plusieurs files.
+	 */
+	@Test public void testCharacteristics_1a() {
+		SequentialNumberMissionner missionner = new SequentialNumberMissionner(1, 10);
+
+		Assert.assertEquals(Spliterator.ORDERED | Spliterator.NONNULL, new MissionnerSpliterator<>(missionner).characteristics());
+		missionner.setShardCount(4);
+		Assert.assertEquals(Spliterator.NONNULL, new MissionnerSpliterator<>(missionner).characteristics());
+	}
+
+
+
+	/**
+	 * L'estimation est le nombre de rsultats attendus, diminu des missions retires par le parcours, le dcoupage et le parcours du reste.
+	 */
+	@Test(timeout = 60000) public void testEstimateSize_1a() {
+		SequentialNumberMissionner missionner = new SequentialNumberMissionner(1, 5000);
+		MissionnerSpliterator<IntegerMission> spliterator = new MissionnerSpliterator<>(missionner);
+		Spliterator<IntegerMission> split;
+
+		missionner.start();
+		Assert.assertEquals(5000, missionner.getExpectedCount(true));
+		Assert.assertEquals(5000, spliterator.estimateSize());
+		for (int i = 0; i < 3; i++) {
+			Assert.assertTrue(spliterator.tryAdvance(mission -> {}));
+		}
+		Assert.assertEquals(4997, spliterator.estimateSize());
+		split = spliterator.trySplit();
+		Assert.assertEquals(4997, spliterator.estimateSize() + split.estimateSize());
+		spliterator.forEachRemaining(mission -> {});
+		Assert.assertEquals(0, spliterator.estimateSize());
+		Assert.assertFalse(spliterator.tryAdvance(mission -> {}));
+		Assert.assertNull(spliterator.trySplit());
+	}
+
+
+
+	/**
+	 * L'estimation est sans limite tant que le nombre de rsultats attendus n'est pas calcul, ou si il n'est pas calculable.
+	 */
+	@Test(timeout = 60000) public void testEstimateSize_1b() {
+		SequentialNumberMissionner missionner = new SequentialNumberMissionner(1, 10);
+		IteratorMissionner<IntegerMission> iteratorMissionner = new IteratorMissionner<>(Arrays.asList(new IntegerMission(1), new IntegerMission(2)).iterator());
+		MissionnerSpliterator<IntegerMission> spliterator = new MissionnerSpliterator<>(iteratorMissionner);
+
+		Assert.assertEquals(Long.MAX_VALUE, new MissionnerSpliterator<>(missionner).estimateSize());
+		iteratorMissionner.start();
+		Assert.assertEquals(Missionner.NOT_COMPUTABLE, iteratorMissionner.getExpectedCount(true));
+		Assert.assertEquals(Long.MAX_VALUE, spliterator.estimateSize());
+		Assert.assertTrue(spliterator.tryAdvance(mission -> {}));
+		Assert.assertEquals(Long.MAX_VALUE, spliterator.estimateSize());
+	}
+
+
+
+	/** */
+	@Test public void testMissionnerSpliterator_0a() {
+		try {
+			new MissionnerSpliterator<>(null);
+			Assert.fail();
+		} catch (NullPointerException exception) {}
+	}
+
+
+
+	/**
+	 * Un flux squentiel retourne toutes les missions, dans l'ordre, quelle que soit la capacit du tampon.
+	 */
+	@Test(timeout = 60000) public void testStream_1a() {
+		for (int bufferCapacity : new int[] {1, 7, 1000, 100_000}) {
+			SequentialNumberMissionner missionner = new SequentialNumberMissionner(1, 10_000);
+
+			missionner.setBufferCapacity(bufferCapacity);
+			Assert.assertEquals("capacit=" + bufferCapacity, range(1, 10_000), numbers(missionner.stream(false)));
+			Assert.assertFalse(missionner.hasExceptions());
+		}
+	}
+
+
+
+	/**
+	 * Un flux parallle retourne chaque mission une fois et une seule, que le tampon soit rparti en plusieurs files ou non.
+	 */
+	@Test(timeout = 60000) public void testStream_1b() {
+		for (int shardCount : new int[] {1, 4}) {
+			for (int i = 0; i < 5; i++) {
+				SequentialNumberMissionner missionner = new SequentialNumberMissionner(1, 100_000);
+				List<Integer> numbers;
+
+				missionner.setShardCount(shardCount);
+				numbers = numbers(missionner.stream(true));
+				Collections.sort(numbers);
+				Assert.assertEquals("files=" + shardCount, range(1, 100_000), numbers);
+				Assert.assertFalse(missionner.hasExceptions());
+			}
+		}
+	}
+
+
+
+	/**
+	 * Un flux ordonn parallle garde l'ordre des missions lorsque les rsultats sont collects dans l'ordre.
+	 */
+	@Test(timeout = 60000) public void testStream_1c() {
+		Assert.assertEquals(range(1, 100_000), numbers(new SequentialNumberMissionner(1, 100_000).stream(true)));
+	}
+
+
+
+	/**
+	 * Une exception du distributeur est retransmise au lieu de terminer silencieusement le flux, squentiel ou parallle.
+	 */
+	@Test(timeout = 60000) public void testStream_2a() {
+		for (boolean parallel : new boolean[] {false, true}) {
+			Stream<IntegerMission> stream = Stream.of(new IntegerMission(1), null, new IntegerMission(3));
+
+			try {
+				new IteratorMissionner<>(stream).stream(parallel).count();
+				Assert.fail();
+			} catch (RuntimeException exception) {
+				Assert.assertTrue(exception.getCause() instanceof NullPointerException);
+				Assert.assertEquals("Mission null fournie par le flux.", exception.getCause().getMessage());
+			}
+		}
+	}
+
+
+
+	/**
+	 * Retourne les numros des missions du flux indiqu.
+	 * @param stream Flux.
+	 * @return Les numros des missions, dans l'ordre du flux.
+	 */
+	private static List<Integer> numbers(Stream<IntegerMission> stream) {
+		return stream.map(IntegerMission::getNumber).collect(Collectors.toList());
+	}
+
+
+
+	/**
+	 * Retourne les entiers de l'intervalle indiqu.
+	 * @param first Premier entier.
+	 * @param last Dernier entier.
+	 * @return Les entiers de l'intervalle indiqu.
+	 */
+	private static List<Integer> range(int first, int last) {
+		List<Integer> numbers = new ArrayList<>();
+
+		for (int i = first; i <= last; i++) {
+			numbers.add(i);
+		}
+		return numbers;
+	}
+
+
+
+}
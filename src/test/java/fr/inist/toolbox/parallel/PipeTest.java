@@ -0,0 +1,247 @@
+package fr.inist.toolbox.parallel;
+
+import java.util.concurrent.atomic.*;
+
+import org.junit.*;
+
+import toolbox.parallel.*;
+import toolbox.parallel.missionners.*;
+import toolbox.parallel.missions.*;
+
+
+
+/**
+ * La classe {@link PipeTest} implmente les tests sur les mthodes de la classe {@link Pipe}.
+ */
+@SuppressWarnings({"static-method", "javadoc"})
+public class PipeTest {
+
+
+
+	/**
+	 * Un tage aval lent impose son rythme  l'tage amont: l'avance de l'tage amont reste borne par les capacits des tampons qui les sparent, et le canal ne dpasse jamais sa capacit.
+	 */
+	@Test(timeout = 60000) public void testBackPressure_1a() {
+		Pipeline pipeline = new Pipeline();
+		Pipe<IntegerMission> pipe = pipeline.newPipe(PIPE_CAPACITY);
+		Enterprise<IntegerMission> upstream = new Enterprise<>("upstream", 2, new SequentialNumberMissionner(1, MISSION_COUNT), new ForwardingWorker());
+		SlowWorker worker = new SlowWorker(pipe, upstream);
+		Enterprise<IntegerMission> downstream;
+
+		pipe.getMissionner().setBufferCapacity(1);
+		downstream = new Enterprise<>("downstream", 2, pipe.getMissionner(), worker);
+		upstream.setReceiver(pipe.newReceiver(false, RECEIVER_CAPACITY));
+		pipeline.addStage(upstream);
+		pipeline.addStage(downstream);
+		pipeline.run();
+		Assert.assertFalse(pipeline.hasExceptions());
+		Assert.assertEquals(MISSION_COUNT, upstream.getDoneCount());
+		Assert.assertEquals(MISSION_COUNT, downstream.getDoneCount());
+		Assert.assertEquals(((long) MISSION_COUNT * (MISSION_COUNT + 1)) / 2, worker.sum.get());
+		Assert.assertTrue("taille maximale du canal: " + worker.maxSize.get(), worker.maxSize.get() <= PIPE_CAPACITY);
+		Assert.assertTrue("avance maximale de l'tage amont: " + worker.maxLead.get(), worker.maxLead.get() <= (PIPE_CAPACITY + RECEIVER_CAPACITY + IN_FLIGHT_MARGIN));
+	}
+
+
+
+	/** */
+	@Test public void testNewReceiver_2a() {
+		Pipe<IntegerMission> pipe = new Pipe<>(1);
+
+		Assert.assertEquals(1, pipe.getCapacity());
+		pipe.newReceiver(true, 1);
+		try {
+			pipe.newReceiver(true, 1);
+			Assert.fail();
+		} catch (IllegalStateException exception) {
+			Assert.assertEquals("Le rceptionnaire alimentant le canal a dj t cr.", exception.getMessage());
+		}
+	}
+
+
+
+	/** */
+	@Test public void testPipe_0a() {
+		try {
+			new Pipe<IntegerMission>(0);
+			Assert.fail();
+		} catch (IllegalArgumentException exception) {
+			Assert.assertEquals("La capacit du canal doit tre strictement positive: 0", exception.getMessage());
+		}
+	}
+
+
+
+	/**
+	 * Marge pour les missions dtenues hors des tampons par les ouvriers des deux tages, le rceptionnaire et le distributeur aval (une dizaine au plus ici,  comparer aux
+	 * {@link #MISSION_COUNT} missions d'avance que prendrait l'tage amont sans contre-pression).
+	 */
+	private static final int IN_FLIGHT_MARGIN = 20;
+
+
+
+	/**
+	 * Nombre de missions.
+	 */
+	private static final int MISSION_COUNT = 200;
+
+
+
+	/**
+	 * Capacit du canal.
+	 */
+	private static final int PIPE_CAPACITY = 5;
+
+
+
+	/**
+	 * Capacit du tampon du rceptionnaire alimentant le canal.
+	 */
+	private static final int RECEIVER_CAPACITY = 2;
+
+
+
+	/**
+	 * La classe {@link ForwardingWorker} implmente un ouvrier rapide qui transmet le numro de chaque mission  l'tage suivant.
+	 * @author Ludovic WALLE
+	 */
+	private static class ForwardingWorker extends ProducingWorker<IntegerMission, IntegerMission> {
+
+
+
+		/** */
+		public ForwardingWorker() {}
+
+
+
+		/**
+		 * @param other Autre ouvrier.
+		 */
+		public ForwardingWorker(ForwardingWorker other) {
+			super(other);
+		}
+
+
+
+		/** {@inheritDoc} */
+		@Override protected IntegerMission delegateProduce(IntegerMission mission) {
+			return new IntegerMission(mission.getNumber());
+		}
+
+
+
+		/** {@inheritDoc} */
+		@Override protected ForwardingWorker newOne() {
+			return new ForwardingWorker(this);
+		}
+
+
+
+	}
+
+
+
+	/**
+	 * La classe {@link SlowWorker} implmente un ouvrier lent, qui mesure la taille du canal et l'avance de l'tage amont  chaque mission.
+	 * @author Ludovic WALLE
+	 */
+	private static class SlowWorker extends Worker<IntegerMission> {
+
+
+
+		/**
+		 * @param pipe Canal observ.
+		 * @param upstream Etage amont observ.
+		 */
+		public SlowWorker(Pipe<IntegerMission> pipe, Enterprise<IntegerMission> upstream) {
+			this.pipe = pipe;
+			this.upstream = upstream;
+			this.done = new AtomicInteger();
+			this.maxLead = new AtomicInteger();
+			this.maxSize = new AtomicInteger();
+			this.sum = new AtomicLong();
+		}
+
+
+
+		/**
+		 * @param other Autre ouvrier, dont les mesures sont partages.
+		 */
+		public SlowWorker(SlowWorker other) {
+			super(other);
+			this.pipe = other.pipe;
+			this.upstream = other.upstream;
+			this.done = other.done;
+			this.maxLead = other.maxLead;
+			this.maxSize = other.maxSize;
+			this.sum = other.sum;
+		}
+
+
+
+		/** {@inheritDoc} */
+		@Override protected int delegateDo(IntegerMission mission) throws InterruptedException {
+			maxSize.accumulateAndGet(pipe.getSize(), Math::max);
+			maxLead.accumulateAndGet(upstream.getDoneCount() - done.get(), Math::max);
+			Thread.sleep(2);
+			sum.addAndGet(mission.getNumber());
+			done.incrementAndGet();
+			return 1;
+		}
+
+
+
+		/** {@inheritDoc} */
+		@Override protected SlowWorker newOne() {
+			return new SlowWorker(this);
+		}
+
+
+
+		/**
+		 * Nombre de missions effectues par tous les ouvriers.
+		 */
+		private final AtomicInteger done;
+
+
+
+		/**
+		 * Avance maximale de l'tage amont, en missions.
+		 */
+		final AtomicInteger maxLead;
+
+
+
+		/**
+		 * Taille maximale observe du canal.
+		 */
+		final AtomicInteger maxSize;
+
+
+
+		/**
+		 * Canal observ.
+		 */
+		private final Pipe<IntegerMission> pipe;
+
+
+
+		/**
+		 * Somme des numros des missions effectues.
+		 */
+		final AtomicLong sum;
+
+
+
+		/**
+		 * Etage amont observ.
+		 */
+		private final Enterprise<IntegerMission> upstream;
+
+
+
+	}
+
+
+
+}
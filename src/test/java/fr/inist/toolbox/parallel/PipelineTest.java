@@ -0,0 +1,203 @@
+package fr.inist.toolbox.parallel;
+
+import java.util.*;
+
+import org.junit.*;
+
+import toolbox.parallel.*;
+import toolbox.parallel.missionners.*;
+import toolbox.parallel.missions.*;
+
+
+
+/**
+ * La classe {@link PipelineTest} implmente les tests sur les mthodes de la classe {@link Pipeline}.
+ */
+@SuppressWarnings({"static-method", "javadoc"})
+public class PipelineTest {
+
+
+
+	/** */
+	@Test public void testAddStage_2a() throws InterruptedException {
+		Pipeline pipeline = new Pipeline();
+
+		pipeline.start();
+		pipeline.join();
+		try {
+			pipeline.addStage(new Enterprise<>(1, new SequentialNumberMissionner(1, 1), new StageWorker(0)));
+			Assert.fail();
+		} catch (IllegalStateException exception) {
+			Assert.assertEquals("Les tages ne peuvent tre ajouts qu'avant le dmarrage de la chaine.", exception.getMessage());
+		}
+	}
+
+
+
+	/**
+	 * Les rsultats traversent tous les tages, dans l'ordre lorsque les rceptionnaires sont ordonns.
+	 */
+	@Test(timeout = 60000) public void testRun_1a() {
+		Pipeline pipeline = new Pipeline();
+		Pipe<IntegerMission> first = pipeline.newPipe(8);
+		Pipe<IntegerMission> second = pipeline.newPipe(8);
+		Enterprise<IntegerMission> stage1 = new Enterprise<>("stage1", 3, new SequentialNumberMissionner(1, 300), new StageWorker(0));
+		Enterprise<IntegerMission> stage2 = new Enterprise<>("stage2", 3, first.getMissionner(), new StageWorker(0));
+		Enterprise<IntegerMission> stage3 = new Enterprise<>("stage3", 3, second.getMissionner(), new StageWorker(0));
+		ListReceiver receiver = new ListReceiver();
+		List<Integer> expected = new ArrayList<>();
+
+		stage1.setReceiver(first.newReceiver(true, 4));
+		stage2.setReceiver(second.newReceiver(true, 4));
+		stage3.setReceiver(receiver);
+		pipeline.addStage(stage1);
+		pipeline.addStage(stage2);
+		pipeline.addStage(stage3);
+		pipeline.run();
+		Assert.assertFalse(pipeline.hasExceptions());
+		Assert.assertEquals(0, pipeline.getExceptions().length);
+		for (int number = 1; number <= 300; number++) {
+			expected.add(number + 3);
+		}
+		Assert.assertEquals(expected, receiver.received);
+	}
+
+
+
+	/**
+	 * Une exception dans l'tage aval arrte tous les tages, sans laisser l'tage amont bloqu sur le canal plein.
+	 */
+	@Test(timeout = 60000) public void testRun_2a() {
+		Pipeline pipeline = new Pipeline();
+		Pipe<IntegerMission> pipe = pipeline.newPipe(4);
+		Enterprise<IntegerMission> upstream = new Enterprise<>("upstream", 2, new SequentialNumberMissionner(1, 1_000_000), new StageWorker(0));
+		Enterprise<IntegerMission> downstream = new Enterprise<>("downstream", 2, pipe.getMissionner(), new StageWorker(50));
+
+		upstream.setReceiver(pipe.newReceiver(false, 4));
+		downstream.setReceiver(new ListReceiver());
+		pipeline.addStage(upstream);
+		pipeline.addStage(downstream);
+		pipeline.run();
+		Assert.assertFalse(upstream.isAlive());
+		Assert.assertFalse(downstream.isAlive());
+		Assert.assertTrue(pipeline.hasExceptions());
+		Assert.assertFalse(upstream.hasExceptions());
+		Assert.assertEquals("chec de la mission 50", downstream.getFirstException().getMessage());
+		Assert.assertTrue(upstream.getDoneCount() < 1_000_000);
+	}
+
+
+
+	/**
+	 * Une exception dans l'tage amont arrte tous les tages, sans laisser l'tage aval bloqu sur le canal vide.
+	 */
+	@Test(timeout = 60000) public void testRun_2b() {
+		Pipeline pipeline = new Pipeline();
+		Pipe<IntegerMission> pipe = pipeline.newPipe(4);
+		Enterprise<IntegerMission> upstream = new Enterprise<>("upstream", 2, new SequentialNumberMissionner(1, 1_000_000), new StageWorker(50));
+		Enterprise<IntegerMission> downstream = new Enterprise<>("downstream", 2, pipe.getMissionner(), new StageWorker(0));
+
+		upstream.setReceiver(pipe.newReceiver(true, 4));
+		downstream.setReceiver(new ListReceiver());
+		pipeline.addStage(upstream);
+		pipeline.addStage(downstream);
+		pipeline.run();
+		Assert.assertFalse(upstream.isAlive());
+		Assert.assertFalse(downstream.isAlive());
+		Assert.assertSame(upstream.getFirstException(), pipeline.getExceptions()[0]);
+		Assert.assertEquals("chec de la mission 50", upstream.getFirstException().getMessage());
+		Assert.assertFalse(downstream.hasExceptions());
+		Assert.assertTrue(downstream.getDoneCount() < 1_000_000);
+	}
+
+
+
+	/**
+	 * La classe {@link ListReceiver} implmente un rceptionnaire qui mmorise les numros des rsultats reus, dans l'ordre de rception.
+	 * @author Ludovic WALLE
+	 */
+	private static class ListReceiver extends Receiver<IntegerMission, IntegerMission> {
+
+
+
+		/** */
+		public ListReceiver() {
+			super(true, 4);
+		}
+
+
+
+		/** {@inheritDoc} */
+		@Override protected void delegateReceive(IntegerMission result) {
+			received.add(result.getNumber());
+		}
+
+
+
+		/**
+		 * Numros des rsultats reus, dans l'ordre de rception.
+		 */
+		final List<Integer> received = new ArrayList<>();
+
+
+
+	}
+
+
+
+	/**
+	 * La classe {@link StageWorker} implmente un ouvrier qui transmet  l'tage suivant le numro de chaque mission augment de 1, et qui choue sur un numro donn.
+	 * @author Ludovic WALLE
+	 */
+	private static class StageWorker extends ProducingWorker<IntegerMission, IntegerMission> {
+
+
+
+		/**
+		 * @param failing Numro de la mission qui choue, ou 0 si aucune mission n'choue.
+		 */
+		public StageWorker(int failing) {
+			this.failing = failing;
+		}
+
+
+
+		/**
+		 * @param other Autre ouvrier.
+		 */
+		public StageWorker(StageWorker other) {
+			super(other);
+			this.failing = other.failing;
+		}
+
+
+
+		/** {@inheritDoc} */
+		@Override protected IntegerMission delegateProduce(IntegerMission mission) {
+			if (mission.getNumber() == failing) {
+				throw new IllegalStateException("chec de la mission " + failing);
+			}
+			return new IntegerMission(mission.getNumber() + 1);
+		}
+
+
+
+		/** {@inheritDoc} */
+		@Override protected StageWorker newOne() {
+			return new StageWorker(this);
+		}
+
+
+
+		/**
+		 * Numro de la mission qui choue, ou 0 si aucune mission n'choue.
+		 */
+		private final int failing;
+
+
+
+	}
+
+
+
+}
@@ -0,0 +1,243 @@
+package fr.inist.toolbox.parallel;
+
+import java.time.*;
+import java.util.concurrent.*;
+
+import org.junit.*;
+
+import toolbox.parallel.*;
+import toolbox.parallel.missionners.*;
+import toolbox.parallel.missions.*;
+
+
+
+/**
+ * La classe {@link RateLimiterTest} implmente les tests sur les mthodes de la classe {@link RateLimiter}.<br>
+ * Les dures ne sont vrifies que par des bornes infrieures, les bornes suprieures dpendant de la charge de la machine.
+ */
+@SuppressWarnings({"static-method", "javadoc"})
+public class RateLimiterTest {
+
+
+
+	/** */
+	@Test public void testAcquire_0a() {
+		try {
+			new RateLimiter(1).acquire(-1);
+			Assert.fail();
+		} catch (IllegalArgumentException exception) {
+			Assert.assertEquals("Le nombre de jetons doit tre positif ou nul: -1", exception.getMessage());
+		}
+	}
+
+
+
+	/**
+	 * Un dbit infini ou aucun jeton demand ne fait jamais attendre.
+	 */
+	@Test public void testAcquire_1a() {
+		RateLimiter limiter = new RateLimiter(Double.POSITIVE_INFINITY);
+
+		for (int i = 0; i < 1000; i++) {
+			Assert.assertEquals(0, limiter.acquire(1000));
+		}
+		Assert.assertEquals(0, limiter.getThrottledTime());
+		limiter = new RateLimiter(1);
+		for (int i = 0; i < 1000; i++) {
+			Assert.assertEquals(0, limiter.acquire(0));
+		}
+		Assert.assertEquals(0, limiter.getThrottledTime());
+	}
+
+
+
+	/**
+	 * Le seau est plein au dpart: la rafale est immdiate, le jeton suivant arrive un intervalle plus tard.
+	 */
+	@Test(timeout = 10000) public void testAcquire_1b() {
+		RateLimiter limiter = new RateLimiter(10, 5);
+
+		for (int i = 0; i < 5; i++) {
+			Assert.assertEquals(0, limiter.acquire(1));
+		}
+		Assert.assertTrue(limiter.acquire(1) >= TimeUnit.MILLISECONDS.toNanos(80));
+	}
+
+
+
+	/**
+	 * Les jetons sont distribus au dbit indiqu, et le temps d'attente est comptabilis.
+	 */
+	@Test(timeout = 10000) public void testAcquire_2a() {
+		RateLimiter limiter = new RateLimiter(100);
+		long start = System.nanoTime();
+		long elapsed;
+		long waited = 0;
+
+		for (int i = 0; i <= 20; i++) {
+			waited += limiter.acquire(1);
+		}
+		elapsed = System.nanoTime() - start;
+		Assert.assertTrue(elapsed >= TimeUnit.MILLISECONDS.toNanos(200));
+		Assert.assertTrue(waited >= TimeUnit.MILLISECONDS.toNanos(190));
+		Assert.assertEquals(TimeUnit.NANOSECONDS.toMillis(waited), limiter.getThrottledTime(), 1);
+	}
+
+
+
+	/**
+	 * Plus de jetons que la taille de rafale sont obtenus en attendant qu'ils se soient remplis.
+	 */
+	@Test(timeout = 10000) public void testAcquire_2b() {
+		RateLimiter limiter = new RateLimiter(100, 2);
+
+		Assert.assertEquals(0, limiter.acquire(2));
+		Assert.assertTrue(limiter.acquire(10) >= TimeUnit.MILLISECONDS.toNanos(90));
+	}
+
+
+
+	/**
+	 * L'attente est interrompue si le thread est interrompu.
+	 */
+	@Test(timeout = 10000) public void testAcquire_3a() {
+		RateLimiter limiter = new RateLimiter(0.01);
+		long start;
+
+		limiter.acquire(1);
+		Thread.currentThread().interrupt();
+		start = System.nanoTime();
+		limiter.acquire(1);
+		Assert.assertTrue((System.nanoTime() - start) < TimeUnit.SECONDS.toNanos(5));
+		Assert.assertTrue(Thread.interrupted());
+	}
+
+
+
+	/**
+	 * Une plage horaire qui contient l'heure courante impose son dbit, les autres non.
+	 */
+	@Test public void testAddWindow_1a() {
+		RateLimiter limiter = new RateLimiter(100);
+
+		limiter.addWindow(LocalTime.MIDNIGHT, LocalTime.MIDNIGHT, 5, LocalDate.now().plusDays(2).getDayOfWeek());
+		Assert.assertEquals(100, limiter.getCurrentRate(), 1e-9);
+		limiter.addWindow(LocalTime.MIDNIGHT, LocalTime.MIDNIGHT, 5);
+		limiter.addWindow(LocalTime.MIDNIGHT, LocalTime.MIDNIGHT, 7);
+		Assert.assertEquals(5, limiter.getCurrentRate(), 1e-9);
+		Assert.assertEquals(100, limiter.getRate(), 1e-9);
+	}
+
+
+
+	/** */
+	@Test public void testAddWindow_2a() {
+		try {
+			new RateLimiter(1).addWindow(null, LocalTime.NOON, 1);
+			Assert.fail();
+		} catch (NullPointerException exception) {}
+		try {
+			new RateLimiter(1).addWindow(LocalTime.NOON, LocalTime.MIDNIGHT, 0);
+			Assert.fail();
+		} catch (IllegalArgumentException exception) {
+			Assert.assertEquals("Le dbit doit tre strictement positif: 0.0", exception.getMessage());
+		}
+	}
+
+
+
+	/** */
+	@Test public void testRateLimiter_0a() {
+		try {
+			new RateLimiter(1, 0);
+			Assert.fail();
+		} catch (IllegalArgumentException exception) {
+			Assert.assertEquals("La taille de rafale doit tre strictement positive: 0", exception.getMessage());
+		}
+		for (double rate : new double[] {0, -1, Double.NaN}) {
+			try {
+				new RateLimiter(rate);
+				Assert.fail();
+			} catch (IllegalArgumentException exception) {
+				Assert.assertEquals("Le dbit doit tre strictement positif: " + rate, exception.getMessage());
+			}
+		}
+	}
+
+
+
+	/** */
+	@Test public void testSetRate_1a() {
+		RateLimiter limiter = new RateLimiter(100, 3);
+
+		Assert.assertEquals(3, limiter.getBurst());
+		Assert.assertEquals(100, limiter.getRate(), 1e-9);
+		Assert.assertEquals(100, limiter.getCurrentRate(), 1e-9);
+		limiter.setRate(Double.POSITIVE_INFINITY);
+		Assert.assertEquals(Double.POSITIVE_INFINITY, limiter.getRate(), 0);
+		Assert.assertEquals(0, limiter.acquire(1000));
+		limiter.setRate(50);
+		Assert.assertEquals(50, limiter.getCurrentRate(), 1e-9);
+	}
+
+
+
+	/**
+	 * Une entreprise dont le dbit est limit ne distribue pas ses missions plus vite que le dbit indiqu, quel que soit son nombre d'ouvriers.
+	 */
+	@Test(timeout = 60000) public void testSetRateLimiter_1a() {
+		RateLimiter limiter = new RateLimiter(100);
+		Enterprise<IntegerMission> enterprise = new Enterprise<>(4, new SequentialNumberMissionner(1, 21), new IdleWorker());
+		long start = System.nanoTime();
+
+		enterprise.setRateLimiter(limiter);
+		enterprise.run();
+		Assert.assertFalse(enterprise.hasExceptions());
+		Assert.assertEquals(21, enterprise.getDoneCount());
+		Assert.assertTrue((System.nanoTime() - start) >= TimeUnit.MILLISECONDS.toNanos(200));
+		Assert.assertTrue(limiter.getThrottledTime() > 0);
+	}
+
+
+
+	/**
+	 * La classe {@link IdleWorker} implmente un ouvrier qui ne fait rien.
+	 * @author Ludovic WALLE
+	 */
+	private static class IdleWorker extends Worker<IntegerMission> {
+
+
+
+		/** */
+		public IdleWorker() {}
+
+
+
+		/**
+		 * @param other Autre ouvrier.
+		 */
+		public IdleWorker(IdleWorker other) {
+			super(other);
+		}
+
+
+
+		/** {@inheritDoc} */
+		@Override protected int delegateDo(IntegerMission mission) {
+			return 1;
+		}
+
+
+
+		/** {@inheritDoc} */
+		@Override protected IdleWorker newOne() {
+			return new IdleWorker(this);
+		}
+
+
+
+	}
+
+
+
+}
@@ -0,0 +1,261 @@
+package fr.inist.toolbox.parallel;
+
+import java.util.*;
+
+import org.junit.*;
+
+import toolbox.parallel.*;
+import toolbox.parallel.missionners.*;
+import toolbox.parallel.missions.*;
+
+
+
+/**
+ * La classe {@link ReceiverTest} implmente les tests sur les mthodes de la classe {@link Receiver}.
+ */
+@SuppressWarnings({"static-method", "javadoc"})
+public class ReceiverTest {
+
+
+
+	/** */
+	@Test(timeout = 60000) public void testReceive_1a() {
+		Assert.assertEquals(range(1, MISSION_COUNT), run(true, 1, 1, 4));
+	}
+
+
+
+	/** */
+	@Test(timeout = 60000) public void testReceive_1b() {
+		Assert.assertEquals(range(1, MISSION_COUNT), run(true, 1, 5, 4));
+	}
+
+
+
+	/** */
+	@Test(timeout = 60000) public void testReceive_1c() {
+		Assert.assertEquals(range(1, MISSION_COUNT), run(true, 4, 1, 4));
+	}
+
+
+
+	/** */
+	@Test(timeout = 60000) public void testReceive_1d() {
+		Assert.assertEquals(range(1, MISSION_COUNT), run(true, 4, 5, 4));
+	}
+
+
+
+	/**
+	 * Un tampon d'une seule place impose la rception au fur et  mesure.
+	 */
+	@Test(timeout = 60000) public void testReceive_1e() {
+		Assert.assertEquals(range(1, MISSION_COUNT), run(true, 4, 3, 1));
+	}
+
+
+
+	/**
+	 * Sans ordre, tous les rsultats sont reus une fois et une seule.
+	 */
+	@Test(timeout = 60000) public void testReceive_2a() {
+		List<Integer> received = run(false, 4, 5, 4);
+
+		Collections.sort(received);
+		Assert.assertEquals(range(1, MISSION_COUNT), received);
+	}
+
+
+
+	/**
+	 * Les missions sans rsultat ne bloquent pas la rception des suivantes.
+	 */
+	@Test(timeout = 60000) public void testReceive_3a() {
+		List<Integer> expected = new ArrayList<>();
+
+		for (int number = 1; number <= MISSION_COUNT; number++) {
+			if ((number % 3) != 0) {
+				expected.add(number);
+			}
+		}
+		Assert.assertEquals(expected, run(true, 4, 5, 2, 3));
+	}
+
+
+
+	/** */
+	@Test public void testReceiver_0a() {
+		try {
+			new ListReceiver(true, 0);
+			Assert.fail();
+		} catch (IllegalArgumentException exception) {
+			Assert.assertEquals("La capacit du tampon doit tre strictement positive: 0", exception.getMessage());
+		}
+	}
+
+
+
+	/**
+	 * Retourne les entiers de l'intervalle indiqu.
+	 * @param first Premier entier.
+	 * @param last Dernier entier.
+	 * @return Les entiers de l'intervalle indiqu.
+	 */
+	private static List<Integer> range(int first, int last) {
+		List<Integer> numbers = new ArrayList<>();
+
+		for (int i = first; i <= last; i++) {
+			numbers.add(i);
+		}
+		return numbers;
+	}
+
+
+
+	/**
+	 * Effectue les missions et retourne les rsultats reus, dans l'ordre de rception.
+	 * @param ordered Indicateur de rception des rsultats dans l'ordre des missions.
+	 * @param shardCount Nombre de files du distributeur de missions.
+	 * @param batchSize Taille des lots de missions pris par les ouvriers.
+	 * @param capacity Capacit du tampon du rceptionnaire.
+	 * @return Les rsultats reus, dans l'ordre de rception.
+	 */
+	private static List<Integer> run(boolean ordered, int shardCount, int batchSize, int capacity) {
+		return run(ordered, shardCount, batchSize, capacity, 0);
+	}
+
+
+
+	/**
+	 * Effectue les missions et retourne les rsultats reus, dans l'ordre de rception.
+	 * @param ordered Indicateur de rception des rsultats dans l'ordre des missions.
+	 * @param shardCount Nombre de files du distributeur de missions.
+	 * @param batchSize Taille des lots de missions pris par les ouvriers.
+	 * @param capacity Capacit du tampon du rceptionnaire.
+	 * @param skipped Diviseur des numros des missions qui ne produisent pas de rsultat, ou 0 si elles en produisent toutes.
+	 * @return Les rsultats reus, dans l'ordre de rception.
+	 */
+	private static List<Integer> run(boolean ordered, int shardCount, int batchSize, int capacity, int skipped) {
+		SequentialNumberMissionner missionner = new SequentialNumberMissionner(1, MISSION_COUNT);
+		EchoWorker worker = new EchoWorker(skipped);
+		ListReceiver receiver = new ListReceiver(ordered, capacity);
+		Enterprise<IntegerMission> enterprise;
+
+		missionner.setBufferCapacity(16);
+		missionner.setShardCount(shardCount);
+		worker.setBatchSize(batchSize);
+		enterprise = new Enterprise<>(4, missionner, worker);
+		enterprise.setReceiver(receiver);
+		enterprise.run();
+		if (enterprise.hasExceptions()) {
+			throw new RuntimeException(enterprise.getFirstException());
+		}
+		Assert.assertEquals(receiver.received.size(), receiver.getReceivedCount());
+		Assert.assertEquals(receiver.received.size(), enterprise.getProducedCount());
+		return receiver.received;
+	}
+
+
+
+	/**
+	 * Nombre de missions.
+	 */
+	private static final int MISSION_COUNT = 500;
+
+
+
+	/**
+	 * La classe {@link EchoWorker} implmente un ouvrier qui produit le numro de chaque mission, en terminant les missions dans le dsordre.
+	 * @author Ludovic WALLE
+	 */
+	private static class EchoWorker extends ProducingWorker<IntegerMission, Integer> {
+
+
+
+		/**
+		 * @param skipped Diviseur des numros des missions qui ne produisent pas de rsultat, ou 0 si elles en produisent toutes.
+		 */
+		public EchoWorker(int skipped) {
+			this.skipped = skipped;
+		}
+
+
+
+		/**
+		 * @param other Autre ouvrier.
+		 */
+		public EchoWorker(EchoWorker other) {
+			super(other);
+			this.skipped = other.skipped;
+		}
+
+
+
+		/** {@inheritDoc} */
+		@Override protected Integer delegateProduce(IntegerMission mission) throws InterruptedException {
+			if ((mission.getNumber() % 11) == 0) {
+				Thread.sleep(2);
+			}
+			if ((skipped != 0) && ((mission.getNumber() % skipped) == 0)) {
+				return null;
+			}
+			return mission.getNumber();
+		}
+
+
+
+		/** {@inheritDoc} */
+		@Override protected EchoWorker newOne() {
+			return new EchoWorker(this);
+		}
+
+
+
+		/**
+		 * Diviseur des numros des missions qui ne produisent pas de rsultat, ou 0 si elles en produisent toutes.
+		 */
+		private final int skipped;
+
+
+
+	}
+
+
+
+	/**
+	 * La classe {@link ListReceiver} implmente un rceptionnaire qui mmorise les rsultats reus, dans l'ordre de rception.
+	 * @author Ludovic WALLE
+	 */
+	private static class ListReceiver extends Receiver<IntegerMission, Integer> {
+
+
+
+		/**
+		 * @param ordered Indicateur de rception des rsultats dans l'ordre des missions.
+		 * @param capacity Capacit du tampon des rsultats en attente de rception.
+		 */
+		public ListReceiver(boolean ordered, int capacity) {
+			super(ordered, capacity);
+		}
+
+
+
+		/** {@inheritDoc} */
+		@Override protected void delegateReceive(Integer result) {
+			received.add(result);
+		}
+
+
+
+		/**
+		 * Rsultats reus, dans l'ordre de rception.
+		 */
+		final List<Integer> received = new ArrayList<>();
+
+
+
+	}
+
+
+
+}
@@ -0,0 +1,338 @@
+package fr.inist.toolbox.parallel;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.*;
+
+import toolbox.parallel.*;
+import toolbox.parallel.missionners.*;
+import toolbox.parallel.missions.*;
+
+
+
+/**
+ * La classe {@link RemoteWorkerTest} implmente les tests sur les mthodes de la classe {@link RemoteWorker}.<br>
+ * Les missions sont effectues dans des machines virtuelles filles lances sur l'interface de bouclage, qui consignent chaque mission reue par un fichier dans un rpertoire temporaire, puisqu'elles
+ * ne partagent pas la mmoire du coordinateur.
+ */
+@SuppressWarnings({"static-method", "javadoc"})
+public class RemoteWorkerTest {
+
+
+
+	/**
+	 * Toutes les missions sont effectues une fois, et les rsultats des machines virtuelles filles sont comptabiliss par le coordinateur.
+	 */
+	@Test(timeout = 120000) public void testDo_1a() throws IOException {
+		Path directory = Files.createTempDirectory("RemoteWorkerTest");
+
+		try {
+			Enterprise<IntegerMission> enterprise = new Enterprise<>(3, new SequentialNumberMissionner(1, 200), new RemoteWorker<>(RecordingWorker.class, options(directory, 0, 0, 0)));
+
+			enterprise.run();
+			Assert.assertFalse(enterprise.hasExceptions());
+			Assert.assertEquals(200, enterprise.getDoneCount());
+			Assert.assertEquals(attempts(1, 200), attempts(directory));
+		} finally {
+			delete(directory);
+		}
+	}
+
+
+
+	/**
+	 * Une exception gnre dans une machine virtuelle fille est transmise au coordinateur et arrte l'entreprise.
+	 */
+	@Test(timeout = 120000) public void testDo_2a() throws IOException {
+		Path directory = Files.createTempDirectory("RemoteWorkerTest");
+
+		try {
+			Enterprise<IntegerMission> enterprise = new Enterprise<>(2, new SequentialNumberMissionner(1, 1_000_000), new RemoteWorker<>(RecordingWorker.class, options(directory, 50, 0, 0)));
+
+			enterprise.run();
+			Assert.assertTrue(enterprise.hasExceptions());
+			Assert.assertTrue(enterprise.getFirstException() instanceof IllegalStateException);
+			Assert.assertEquals("chec de la mission 50", enterprise.getFirstException().getMessage());
+			Assert.assertTrue(enterprise.getDoneCount() < 1_000_000);
+		} finally {
+			delete(directory);
+		}
+	}
+
+
+
+	/**
+	 * La mission en cours d'une machine virtuelle fille qui s'arrte brutalement est confie  nouveau une seule fois,  la machine virtuelle fille qui la remplace.
+	 */
+	@Test(timeout = 120000) public void testDo_3a() throws IOException {
+		Path directory = Files.createTempDirectory("RemoteWorkerTest");
+
+		try {
+			Enterprise<IntegerMission> enterprise = new Enterprise<>(2, new SequentialNumberMissionner(1, 100), new RemoteWorker<>(RecordingWorker.class, options(directory, 0, 30, 1)));
+			Map<Integer, Integer> expected = attempts(1, 100);
+
+			enterprise.run();
+			Assert.assertFalse(enterprise.hasExceptions());
+			Assert.assertEquals(100, enterprise.getDoneCount());
+			Assert.assertEquals(1, crashes(directory));
+			expected.put(30, 2);
+			Assert.assertEquals(expected, attempts(directory));
+		} finally {
+			delete(directory);
+		}
+	}
+
+
+
+	/**
+	 * Une mission qui fait systmatiquement s'arrter brutalement les machines virtuelles filles n'est pas confie indfiniment.
+	 */
+	@Test(timeout = 120000) public void testDo_3b() throws IOException {
+		Path directory = Files.createTempDirectory("RemoteWorkerTest");
+
+		try {
+			Enterprise<IntegerMission> enterprise = new Enterprise<>(1, new SequentialNumberMissionner(1, 10), new RemoteWorker<>(RecordingWorker.class, options(directory, 0, 3, Integer.MAX_VALUE)));
+
+			enterprise.run();
+			Assert.assertTrue(enterprise.hasExceptions());
+			Assert.assertTrue(enterprise.getFirstException() instanceof IOException);
+			Assert.assertTrue(enterprise.getFirstException().getMessage().endsWith(" s'est arrte 3 fois sur la mme mission."));
+			Assert.assertEquals(3, crashes(directory));
+			Assert.assertEquals(2, enterprise.getDoneCount());
+		} finally {
+			delete(directory);
+		}
+	}
+
+
+
+	/** */
+	@Test public void testRemoteWorker_0a() {
+		try {
+			new RemoteWorker<IntegerMission>(null);
+			Assert.fail();
+		} catch (NullPointerException exception) {}
+		try {
+			new RemoteWorker<>(RecordingWorker.class, "-Xmx64m", null);
+			Assert.fail();
+		} catch (NullPointerException exception) {}
+		Assert.assertSame(RecordingWorker.class, new RemoteWorker<>(RecordingWorker.class).getWorkerClass());
+	}
+
+
+
+	/**
+	 * Retourne le nombre de fois o chaque mission a t reue par une machine virtuelle fille, d'aprs les fichiers du rpertoire indiqu.
+	 * @param directory Rpertoire.
+	 * @return Le nombre de fois o chaque mission a t reue, par numro de mission.
+	 * @throws IOException En cas d'erreur d'entre/sortie.
+	 */
+	private static Map<Integer, Integer> attempts(Path directory) throws IOException {
+		Map<Integer, Integer> attempts = new TreeMap<>();
+
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, ATTEMPT + "*")) {
+			for (Path file : files) {
+				attempts.merge(Integer.valueOf(file.getFileName().toString().split("-")[1]), 1, Integer::sum);
+			}
+		}
+		return attempts;
+	}
+
+
+
+	/**
+	 * Retourne les missions indiques, reues chacune une fois.
+	 * @param first Numro de la premire mission.
+	 * @param last Numro de la dernire mission.
+	 * @return Le nombre de fois o chaque mission a t reue, par numro de mission.
+	 */
+	private static Map<Integer, Integer> attempts(int first, int last) {
+		Map<Integer, Integer> attempts = new TreeMap<>();
+
+		for (int number = first; number <= last; number++) {
+			attempts.put(number, 1);
+		}
+		return attempts;
+	}
+
+
+
+	/**
+	 * Retourne le nombre de machines virtuelles filles arrtes brutalement, d'aprs les fichiers du rpertoire indiqu.
+	 * @param directory Rpertoire.
+	 * @return Le nombre de machines virtuelles filles arrtes brutalement.
+	 * @throws IOException En cas d'erreur d'entre/sortie.
+	 */
+	private static int crashes(Path directory) throws IOException {
+		int count = 0;
+
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, CRASH + "*")) {
+			for (@SuppressWarnings("unused") Path file : files) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+
+
+	/**
+	 * Supprime le rpertoire indiqu et les fichiers qu'il contient.
+	 * @param directory Rpertoire.
+	 * @throws IOException En cas d'erreur d'entre/sortie.
+	 */
+	private static void delete(Path directory) throws IOException {
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+			for (Path file : files) {
+				Files.delete(file);
+			}
+		}
+		Files.delete(directory);
+	}
+
+
+
+	/**
+	 * Retourne les options des machines virtuelles filles, qui transmettent  leur ouvrier son paramtrage.
+	 * @param directory Rpertoire o sont consignes les missions reues.
+	 * @param failing Numro de la mission qui gnre une exception, ou 0 si aucune.
+	 * @param crashing Numro de la mission qui arrte brutalement la machine virtuelle fille, ou 0 si aucune.
+	 * @param crashCount Nombre de fois o la mission <code>crashing</code> arrte brutalement la machine virtuelle fille.
+	 * @return Les options des machines virtuelles filles.
+	 */
+	private static String[] options(Path directory, int failing, int crashing, int crashCount) {
+		return new String[] {"-Xmx64m", "-D" + DIRECTORY_PROPERTY + "=" + directory, "-D" + FAILING_PROPERTY + "=" + failing, "-D" + CRASHING_PROPERTY + "=" + crashing, "-D" + CRASH_COUNT_PROPERTY + "=" + crashCount};
+	}
+
+
+
+	/**
+	 * Prfixe des fichiers consignant les missions reues.
+	 */
+	private static final String ATTEMPT = "attempt-";
+
+
+
+	/**
+	 * Prfixe des fichiers consignant les arrts brutaux des machines virtuelles filles.
+	 */
+	private static final String CRASH = "crash-";
+
+
+
+	/**
+	 * Proprit indiquant le nombre de fois o la mission qui arrte brutalement la machine virtuelle fille le fait.
+	 */
+	private static final String CRASH_COUNT_PROPERTY = "RemoteWorkerTest.crashCount";
+
+
+
+	/**
+	 * Proprit indiquant le numro de la mission qui arrte brutalement la machine virtuelle fille.
+	 */
+	private static final String CRASHING_PROPERTY = "RemoteWorkerTest.crashing";
+
+
+
+	/**
+	 * Proprit indiquant le rpertoire o sont consignes les missions reues.
+	 */
+	private static final String DIRECTORY_PROPERTY = "RemoteWorkerTest.directory";
+
+
+
+	/**
+	 * Proprit indiquant le numro de la mission qui gnre une exception.
+	 */
+	private static final String FAILING_PROPERTY = "RemoteWorkerTest.failing";
+
+
+
+	/**
+	 * La classe {@link RecordingWorker} implmente un ouvrier excut dans une machine virtuelle fille, qui consigne chaque mission reue par un fichier, et gnre une exception ou arrte
+	 * brutalement sa machine virtuelle sur les missions indiques par les proprits systme.
+	 * @author Ludovic WALLE
+	 */
+	private static class RecordingWorker extends Worker<IntegerMission> {
+
+
+
+		/** */
+		public RecordingWorker() {
+			directory = Paths.get(System.getProperty(DIRECTORY_PROPERTY, "."));
+			failing = Integer.getInteger(FAILING_PROPERTY, 0);
+			crashing = Integer.getInteger(CRASHING_PROPERTY, 0);
+			crashCount = Integer.getInteger(CRASH_COUNT_PROPERTY, 0);
+		}
+
+
+
+		/**
+		 * @param other Autre ouvrier.
+		 */
+		public RecordingWorker(RecordingWorker other) {
+			super(other);
+			directory = other.directory;
+			failing = other.failing;
+			crashing = other.crashing;
+			crashCount = other.crashCount;
+		}
+
+
+
+		/** {@inheritDoc} */
+		@Override protected int delegateDo(IntegerMission mission) throws IOException {
+			Files.createFile(directory.resolve(ATTEMPT + mission.getNumber() + "-" + UUID.randomUUID()));
+			if (mission.getNumber() == failing) {
+				throw new IllegalStateException("chec de la mission " + mission.getNumber());
+			} else if ((mission.getNumber() == crashing) && (crashes(directory) < crashCount)) {
+				Files.createFile(directory.resolve(CRASH + UUID.randomUUID()));
+				Runtime.getRuntime().halt(1);
+			}
+			return 1;
+		}
+
+
+
+		/** {@inheritDoc} */
+		@Override protected RecordingWorker newOne() {
+			return new RecordingWorker(this);
+		}
+
+
+
+		/**
+		 * Nombre de fois o la mission <code>crashing</code> arrte brutalement la machine virtuelle.
+		 */
+		private final int crashCount;
+
+
+
+		/**
+		 * Numro de la mission qui arrte brutalement la machine virtuelle, ou 0 si aucune.
+		 */
+		private final int crashing;
+
+
+
+		/**
+		 * Rpertoire o sont consignes les missions reues.
+		 */
+		private final Path directory;
+
+
+
+		/**
+		 * Numro de la mission qui gnre une exception, ou 0 si aucune.
+		 */
+		private final int failing;
+
+
+
+	}
+
+
+
+}
@@ -0,0 +1,190 @@
+package fr.inist.toolbox.parallel;
+
+import java.util.stream.*;
+
+import toolbox.parallel.*;
+import toolbox.parallel.missionners.*;
+import toolbox.parallel.missions.*;
+
+
+
+/**
+ * La classe {@link StreamBenchmark} compare le dbit (missions par seconde) d'une {@link Enterprise}  celui d'un flux parallle ({@link Stream}), pour des missions triviales puis pour des
+ * missions cotant quelques microsecondes de calcul:
+ * <ul>
+ * <li>une entreprise alimente par un {@link SequentialNumberMissionner},
+ * <li>un flux parallle aliment par un {@link SequentialNumberMissionner} (voir {@link Missionner#stream(boolean)}),
+ * <li>une entreprise alimente par un flux ({@link IteratorMissionner}),
+ * <li>un flux parallle aliment directement par {@link IntStream#rangeClosed(int, int)},  titre de rfrence.
+ * </ul>
+ * L'entreprise emploie autant d'ouvriers que de processeurs, comme le {@link java.util.concurrent.ForkJoinPool} commun utilis par les flux parallles.
+ * @author Ludovic WALLE
+ */
+public class StreamBenchmark {
+
+
+
+	/**
+	 * Programme de mesure.
+	 * @param args Nombre de missions par mesure (facultatif).
+	 */
+	public static void main(String[] args) {
+		int missionCount = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000_000;
+
+		System.out.println("travail\tentreprise\tflux(distributeur)\tentreprise(flux)\tflux(IntStream)");
+		for (int work : new int[] {0, WORK}) {
+			System.out.println(work + "\t" + measureEnterprise(new SequentialNumberMissionner(1, missionCount), work) + "\t" + measureStream(new SequentialNumberMissionner(1, missionCount), work) + "\t" + measureEnterprise(new IteratorMissionner<>(IntStream.rangeClosed(1, missionCount).mapToObj(IntegerMission::new)), work) + "\t" + measureIntStream(missionCount, work));
+		}
+	}
+
+
+
+	/**
+	 * Retourne le dbit mesur pour une entreprise alimente par le distributeur indiqu, en missions par seconde.
+	 * @param missionner Distributeur de missions.
+	 * @param work Nombre d'itrations de calcul par mission.
+	 * @return Le dbit mesur, en missions par seconde.
+	 */
+	private static long measureEnterprise(Missionner<IntegerMission> missionner, int work) {
+		WorkingWorker worker = new WorkingWorker(work);
+		Enterprise<IntegerMission> enterprise;
+		long start;
+
+		missionner.setBufferCapacity(BUFFER_CAPACITY);
+		worker.setBatchSize(BATCH_SIZE);
+		enterprise = new Enterprise<>(Runtime.getRuntime().availableProcessors(), missionner, worker);
+		start = System.nanoTime();
+		enterprise.run();
+		if (enterprise.hasExceptions()) {
+			throw new RuntimeException(enterprise.getFirstException());
+		}
+		return (enterprise.getDoneCount() * 1_000_000_000L) / Math.max(1, System.nanoTime() - start);
+	}
+
+
+
+	/**
+	 * Retourne le dbit mesur pour un flux parallle aliment directement par {@link IntStream#rangeClosed(int, int)}, en missions par seconde.
+	 * @param missionCount Nombre de missions.
+	 * @param work Nombre d'itrations de calcul par mission.
+	 * @return Le dbit mesur, en missions par seconde.
+	 */
+	private static long measureIntStream(int missionCount, int work) {
+		long start = System.nanoTime();
+		long count;
+
+		count = IntStream.rangeClosed(1, missionCount).parallel().filter(number -> work(number, work) >= 0).count();
+		return (count * 1_000_000_000L) / Math.max(1, System.nanoTime() - start);
+	}
+
+
+
+	/**
+	 * Retourne le dbit mesur pour un flux parallle aliment par le distributeur indiqu, en missions par seconde.
+	 * @param missionner Distributeur de missions.
+	 * @param work Nombre d'itrations de calcul par mission.
+	 * @return Le dbit mesur, en missions par seconde.
+	 */
+	private static long measureStream(Missionner<IntegerMission> missionner, int work) {
+		long start;
+		long count;
+
+		missionner.setBufferCapacity(BUFFER_CAPACITY);
+		start = System.nanoTime();
+		count = missionner.stream(true).filter(mission -> work(mission.getNumber(), work) >= 0).count();
+		return (count * 1_000_000_000L) / Math.max(1, System.nanoTime() - start);
+	}
+
+
+
+	/**
+	 * Effectue le nombre indiqu d'itrations de calcul sur le numro indiqu.
+	 * @param number Numro.
+	 * @param work Nombre d'itrations de calcul.
+	 * @return Un rsultat positif ou nul, calcul pour ne pas tre limin par le compilateur.
+	 */
+	private static int work(int number, int work) {
+		int hash = number;
+
+		for (int i = 0; i < work; i++) {
+			hash = (hash * 31) + i;
+		}
+		return hash & Integer.MAX_VALUE;
+	}
+
+
+
+	/**
+	 * Taille des lots de missions pris par les ouvriers.
+	 */
+	private static final int BATCH_SIZE = 64;
+
+
+
+	/**
+	 * Capacit du tampon des distributeurs de missions.
+	 */
+	private static final int BUFFER_CAPACITY = 1024;
+
+
+
+	/**
+	 * Nombre d'itrations de calcul par mission pour les missions non triviales.
+	 */
+	private static final int WORK = 5_000;
+
+
+
+	/**
+	 * La classe {@link WorkingWorker} implmente un ouvrier dont les missions cotent le nombre indiqu d'itrations de calcul.
+	 * @author Ludovic WALLE
+	 */
+	private static class WorkingWorker extends Worker<IntegerMission> {
+
+
+
+		/**
+		 * @param work Nombre d'itrations de calcul par mission.
+		 */
+		public WorkingWorker(int work) {
+			this.work = work;
+		}
+
+
+
+		/**
+		 * @param other Autre ouvrier.
+		 */
+		public WorkingWorker(WorkingWorker other) {
+			super(other);
+			this.work = other.work;
+		}
+
+
+
+		/** {@inheritDoc} */
+		@Override protected int delegateDo(IntegerMission mission) {
+			return (work(mission.getNumber(), work) >= 0) ? 1 : 0;
+		}
+
+
+
+		/** {@inheritDoc} */
+		@Override protected WorkingWorker newOne() {
+			return new WorkingWorker(this);
+		}
+
+
+
+		/**
+		 * Nombre d'itrations de calcul par mission.
+		 */
+		private final int work;
+
+
+
+	}
+
+
+
+}
@@ -0,0 +1,395 @@
+package fr.inist.toolbox.parallel.missionners;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.*;
+
+import org.junit.*;
+
+import toolbox.parallel.missionners.*;
+import toolbox.parallel.missions.*;
+
+
+
+/**
+ * La classe {@link FileDelimitedStringMissionnerTest} implmente les tests sur les mthodes de la classe {@link FileDelimitedStringMissionner}.<br>
+ * La lecture parallle est compare  la lecture squentielle au travers d'un {@link toolbox.DelimitedReader}, avec des tranches et des segments de quelques octets, pour que les chaines dlimites
+ * et les chaines de dbut et de fin chevauchent les limites des tranches et des segments: les chaines dlimites obtenues doivent tre les mmes, dans le mme ordre.
+ */
+@SuppressWarnings({"static-method", "javadoc"})
+public class FileDelimitedStringMissionnerTest {
+
+
+
+	/**
+	 * Cre un fichier vide.
+	 */
+	@Before public void setUp() throws IOException {
+		file = File.createTempFile(getClass().getSimpleName(), ".txt");
+	}
+
+
+
+	/**
+	 * Supprime le fichier.
+	 */
+	@After public void tearDown() {
+		file.delete();
+	}
+
+
+
+	/** */
+	@Test public void testConstructor_0a() {
+		Assert.assertEquals("IllegalArgumentException: Le nombre de lecteurs doit tre strictement positif: 0", failure(() -> parallel(StandardCharsets.UTF_8, "<", ">", 0, 1, 1)));
+		Assert.assertEquals("IllegalArgumentException: La taille des tranches doit tre strictement positive: 0", failure(() -> parallel(StandardCharsets.UTF_8, "<", ">", 1, 0, 1)));
+		Assert.assertEquals("IllegalArgumentException: La taille des segments doit tre strictement positive et au plus 2147483647: 0", failure(() -> parallel(StandardCharsets.UTF_8, "<", ">", 1, 1, 0)));
+		Assert.assertEquals("IllegalArgumentException: Le jeu de caractres ne permet pas de rechercher les chaines de dbut et de fin octet par octet: UTF-16", failure(() -> parallel(StandardCharsets.UTF_16, "<", ">", 1, 1, 1)));
+		Assert.assertEquals("IllegalArgumentException: Les chaines de dbut et de fin ne peuvent pas tre codes dans le jeu de caractres US-ASCII", failure(() -> parallel(StandardCharsets.US_ASCII, "", ">", 1, 1, 1)));
+	}
+
+
+
+	/**
+	 * Le nombre attendu de chaines dlimites, compt dans les octets du fichier, est le nombre de chaines dlimites distribues.
+	 */
+	@Test(timeout = 60000) public void testGetExpectedCount_1a() throws IOException {
+		StringBuilder content = new StringBuilder();
+
+		for (int i = 0; i < 20000; i++) {
+			content.append("<r>").append(i).append("</r>\n");
+		}
+		assertExpectedCount(content.toString(), "<r>", "</r>", 20000);
+	}
+
+
+
+	/**
+	 * La dernire chaine dlimite, sans chaine de fin, n'est ni compte ni distribue.
+	 */
+	@Test(timeout = 60000) public void testGetExpectedCount_1b() throws IOException {
+		assertExpectedCount("<r>1</r><r>2</r><r>non termine", "<r>", "</r>", 2);
+		assertExpectedCount("un\ndeux\ntrois", "", "\n", 2);
+	}
+
+
+
+	/**
+	 * Fichier vide, fichier sans chaine de dbut, chaine de dbut vide et chaine de fin vide.
+	 */
+	@Test(timeout = 60000) public void testGetExpectedCount_1c() throws IOException {
+		assertExpectedCount("", "<r>", "</r>", 0);
+		assertExpectedCount("rien a extraire", "<r>", "</r>", 0);
+		assertExpectedCount("un\ndeux\n\ntrois\n", "", "\n", 4);
+		assertExpectedCount("avant <r>jusqu'au bout", "<r>", "", 1);
+	}
+
+
+
+	/**
+	 * Des chaines dlimites de longueurs varies chevauchent les limites des tranches, ainsi que leurs chaines de dbut et de fin, et du texte hors chaines dlimites les spare.
+	 */
+	@Test public void testRead_1a() throws IOException {
+		StringBuilder content = new StringBuilder();
+
+		for (int i = 0; i < 12; i++) {
+			content.append("x".substring(0, i % 2)).append("<rec>").append(String.join("", Collections.nCopies(i, "d"))).append("</rec>\n");
+		}
+		assertSameRecords(content.toString(), StandardCharsets.US_ASCII, "<rec>", "</rec>", 12);
+	}
+
+
+
+	/**
+	 * Chaines de dbut et de fin identiques d'un seul caractre, rpt.
+	 */
+	@Test public void testRead_2a() throws IOException {
+		assertSameRecords("aaxaayaaaazaa", StandardCharsets.US_ASCII, "a", "a", 5);
+	}
+
+
+
+	/**
+	 * Chaines de dbut et de fin qui se chevauchent l'une l'autre.
+	 */
+	@Test public void testRead_2b() throws IOException {
+		assertSameRecords("abababa ab ba aba bab abba baab ababab", StandardCharsets.US_ASCII, "ab", "ba", 5);
+	}
+
+
+
+	/**
+	 * Chaines de dbut et de fin auto-similaires.
+	 */
+	@Test public void testRead_2c() throws IOException {
+		assertSameRecords("aaaabaaabaaaaaab aab aaab", StandardCharsets.US_ASCII, "aab", "aab", 2);
+	}
+
+
+
+	/**
+	 * Chaine de dbut vide: chaque chaine dlimite commence juste aprs la prcdente.
+	 */
+	@Test public void testRead_3a() throws IOException {
+		assertSameRecords("un\ndeux\n\ntrois\nquatre\n", StandardCharsets.US_ASCII, "", "\n", 5);
+	}
+
+
+
+	/**
+	 * Chaine de fin vide: la chaine dlimite va jusqu' la fin du fichier.
+	 */
+	@Test public void testRead_3b() throws IOException {
+		assertSameRecords("avant <debut> et la suite <jusqu'au bout", StandardCharsets.US_ASCII, "<", "", 1);
+	}
+
+
+
+	/**
+	 * La dernire chaine dlimite n'a pas de chaine de fin: elle n'est pas retourne.
+	 */
+	@Test public void testRead_3c() throws IOException {
+		assertSameRecords("<a>b</a><a>cc</a><a>non termine", StandardCharsets.US_ASCII, "<a>", "</a>", 2);
+		assertSameRecords("un\ndeux\ntrois", StandardCharsets.US_ASCII, "", "\n", 2);
+	}
+
+
+
+	/**
+	 * Fichier vide, et fichier sans chaine de dbut.
+	 */
+	@Test public void testRead_3d() throws IOException {
+		assertSameRecords("", StandardCharsets.US_ASCII, "<", ">", 0);
+		assertSameRecords("", StandardCharsets.US_ASCII, "", "\n", 0);
+		assertSameRecords("rien  extraire", StandardCharsets.ISO_8859_1, "<", ">", 0);
+	}
+
+
+
+	/**
+	 * Chaines de dbut et de fin de plusieurs octets en UTF-8, dont les octets chevauchent les limites des tranches, dans un texte lui mme en caractres de plusieurs octets.
+	 */
+	@Test public void testRead_4a() throws IOException {
+		assertSameRecords("tdbut\u4E2D\u6587 \uD83D\uDE00", StandardCharsets.UTF_8, "", "", 4);
+	}
+
+
+
+	/**
+	 * Plus de lecteurs que de tranches.
+	 */
+	@Test public void testRead_5a() throws IOException {
+		String content = "<1><22><333><4444>";
+		List<String> expected = Arrays.asList("1", "22", "333", "4444");
+
+		write(content, StandardCharsets.US_ASCII);
+		for (int readerCount : new int[] {2, 8, 32}) {
+			Assert.assertEquals(expected, parallel(StandardCharsets.US_ASCII, "<", ">", readerCount, content.length(), 1 << 20));
+			Assert.assertEquals(expected, parallel(StandardCharsets.US_ASCII, "<", ">", readerCount, content.length() / 2, 1 << 20));
+		}
+	}
+
+
+
+	/**
+	 * Vrifie que le nombre attendu de chaines dlimites est le nombre de chaines dlimites distribues, lors d'une lecture squentielle (jeu de caractres par dfaut) et lors d'une lecture
+	 * parallle, plusieurs fois de suite pour que le comptage se termine aussi bien avant qu'aprs la distribution de toutes les missions.
+	 * @param content Contenu du fichier.
+	 * @param from Chaine de dbut.
+	 * @param upto Chaine de fin.
+	 * @param expectedCount Nombre de chaines dlimites attendu.
+	 * @throws IOException En cas d'erreur de lecture ou d'criture du fichier.
+	 */
+	private void assertExpectedCount(String content, String from, String upto, int expectedCount) throws IOException {
+		FileDelimitedStringMissionner missionner;
+
+		Files.write(file.toPath(), content.getBytes(Charset.defaultCharset()));
+		for (int i = 0; i < 20; i++) {
+			missionner = new FileDelimitedStringMissionner(file.getPath(), from, false, upto, false);
+			Assert.assertEquals(expectedCount, strings(missionner).size());
+			Assert.assertEquals(expectedCount, missionner.getExpectedCount(true));
+			Assert.assertFalse(missionner.hasExceptions());
+			missionner = new FileDelimitedStringMissionner(file.getPath(), Charset.defaultCharset(), from, false, upto, false, 3);
+			Assert.assertEquals(expectedCount, strings(missionner).size());
+			Assert.assertEquals(expectedCount, missionner.getExpectedCount(true));
+			Assert.assertFalse(missionner.hasExceptions());
+		}
+	}
+
+
+
+	/**
+	 * Vrifie que la lecture parallle retourne les mmes chaines dlimites, dans le mme ordre, que la lecture squentielle, quelles que soient l'inclusion des chaines de dbut et de fin, la
+	 * taille des tranches (de 1 octet  plus que la taille du fichier), le nombre de lecteurs et la taille des segments.
+	 * @param content Contenu du fichier.
+	 * @param charset Jeu de caractres du fichier.
+	 * @param from Chaine de dbut.
+	 * @param upto Chaine de fin.
+	 * @param expectedCount Nombre de chaines dlimites attendu.
+	 * @throws IOException En cas d'erreur de lecture ou d'criture du fichier.
+	 */
+	private void assertSameRecords(String content, Charset charset, String from, String upto, int expectedCount) throws IOException {
+		int size = write(content, charset);
+		List<String> expected;
+
+		for (boolean fromIncluded : new boolean[] {false, true}) {
+			for (boolean uptoIncluded : new boolean[] {false, true}) {
+				expected = sequential(charset, from, fromIncluded, upto, uptoIncluded);
+				Assert.assertEquals(expectedCount, expected.size());
+				for (int readerCount : new int[] {1, 3, 8}) {
+					for (int chunkSize = 1; chunkSize <= (size + 1); chunkSize++) {
+						for (int segmentSize : new int[] {3, 1 << 20}) {
+							Assert.assertEquals("fromIncluded=" + fromIncluded + ", uptoIncluded=" + uptoIncluded + ", readerCount=" + readerCount + ", chunkSize=" + chunkSize + ", segmentSize=" + segmentSize, expected, parallel(charset, from, fromIncluded, upto, uptoIncluded, readerCount, chunkSize, segmentSize));
+						}
+					}
+				}
+			}
+		}
+	}
+
+
+
+	/**
+	 * Lit le fichier en parallle, avec des chaines de dbut et de fin exclues.
+	 * @param charset Jeu de caractres du fichier.
+	 * @param from Chaine de dbut.
+	 * @param upto Chaine de fin.
+	 * @param readerCount Nombre de lecteurs.
+	 * @param chunkSize Taille des tranches.
+	 * @param segmentSize Taille des segments.
+	 * @return Les chaines dlimites lues, dans l'ordre de distribution.
+	 */
+	private List<String> parallel(Charset charset, String from, String upto, int readerCount, long chunkSize, long segmentSize) {
+		try {
+			return parallel(charset, from, false, upto, false, readerCount, chunkSize, segmentSize);
+		} catch (FileNotFoundException exception) {
+			throw new UncheckedIOException(exception);
+		}
+	}
+
+
+
+	/**
+	 * Lit le fichier en parallle.
+	 * @param charset Jeu de caractres du fichier.
+	 * @param from Chaine de dbut.
+	 * @param fromIncluded Indicateur de chaine de dbut inclue dans la chaine extraite.
+	 * @param upto Chaine de fin.
+	 * @param uptoIncluded Indicateur de chaine de fin inclue dans la chaine extraite.
+	 * @param readerCount Nombre de lecteurs.
+	 * @param chunkSize Taille des tranches.
+	 * @param segmentSize Taille des segments.
+	 * @return Les chaines dlimites lues, dans l'ordre de distribution.
+	 * @throws FileNotFoundException Si le fichier n'existe pas.
+	 */
+	private List<String> parallel(Charset charset, String from, boolean fromIncluded, String upto, boolean uptoIncluded, int readerCount, long chunkSize, long segmentSize) throws FileNotFoundException {
+		return strings(new SmallChunkMissionner(file.getPath(), charset, from, fromIncluded, upto, uptoIncluded, readerCount, chunkSize, segmentSize));
+	}
+
+
+
+	/**
+	 * Lit le fichier squentiellement, au travers d'un {@link toolbox.DelimitedReader}: par le constructeur squentiel si le jeu de caractres est celui par dfaut, par un flux dcodant le jeu de
+	 * caractres indiqu sinon.
+	 * @param charset Jeu de caractres du fichier.
+	 * @param from Chaine de dbut.
+	 * @param fromIncluded Indicateur de chaine de dbut inclue dans la chaine extraite.
+	 * @param upto Chaine de fin.
+	 * @param uptoIncluded Indicateur de chaine de fin inclue dans la chaine extraite.
+	 * @return Les chaines dlimites lues, dans l'ordre de distribution.
+	 * @throws IOException En cas d'erreur de lecture du fichier.
+	 */
+	private List<String> sequential(Charset charset, String from, boolean fromIncluded, String upto, boolean uptoIncluded) throws IOException {
+		if (charset.equals(Charset.defaultCharset())) {
+			return strings(new FileDelimitedStringMissionner(file.getPath(), from, fromIncluded, upto, uptoIncluded));
+		}
+		try (Reader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), charset))) {
+			return strings(new StreamDelimitedStringMissionner(reader, from, fromIncluded, upto, uptoIncluded));
+		}
+	}
+
+
+
+	/**
+	 * Ecrit le contenu indiqu dans le fichier.
+	 * @param content Contenu.
+	 * @param charset Jeu de caractres.
+	 * @return La taille du fichier, en octets.
+	 * @throws IOException En cas d'erreur d'criture du fichier.
+	 */
+	private int write(String content, Charset charset) throws IOException {
+		byte[] bytes = content.getBytes(charset);
+
+		Files.write(file.toPath(), bytes);
+		return bytes.length;
+	}
+
+
+
+	/**
+	 * Retourne la classe et le message de l'exception gnre par l'action indique.
+	 * @param action Action.
+	 * @return La classe et le message de l'exception gnre, ou <code>null</code> si il n'y en a pas.
+	 */
+	private static String failure(Runnable action) {
+		try {
+			action.run();
+			return null;
+		} catch (RuntimeException exception) {
+			return exception.getClass().getSimpleName() + ": " + exception.getMessage();
+		}
+	}
+
+
+
+	/**
+	 * Retourne les chaines des missions du distributeur indiqu, dans l'ordre de distribution.
+	 * @param missionner Distributeur.
+	 * @return Les chaines des missions, dans l'ordre de distribution.
+	 */
+	private static List<String> strings(StreamDelimitedStringMissionner missionner) {
+		return missionner.stream(false).map(StringMission::getString).collect(Collectors.toList());
+	}
+
+
+
+	/**
+	 * Fichier lu.
+	 */
+	private File file;
+
+
+
+	/**
+	 * La classe {@link SmallChunkMissionner} implmente un distributeur lisant le fichier en parallle par tranches et segments de tailles choisies.
+	 * @author Ludovic WALLE
+	 */
+	private static class SmallChunkMissionner extends FileDelimitedStringMissionner {
+
+
+
+		/**
+		 * @param fileName Nom du fichier.
+		 * @param charset Jeu de caractres du fichier.
+		 * @param from Chaine de dbut.
+		 * @param fromIncluded Indicateur de chaine de dbut inclue dans la chaine extraite.
+		 * @param upto Chaine de fin.
+		 * @param uptoIncluded Indicateur de chaine de fin inclue dans la chaine extraite.
+		 * @param readerCount Nombre de lecteurs.
+		 * @param chunkSize Taille des tranches.
+		 * @param segmentSize Taille des segments.
+		 * @throws FileNotFoundException Si le fichier n'existe pas.
+		 */
+		public SmallChunkMissionner(String fileName, Charset charset, String from, boolean fromIncluded, String upto, boolean uptoIncluded, int readerCount, long chunkSize, long segmentSize) throws FileNotFoundException {
+			super(fileName, charset, from, fromIncluded, upto, uptoIncluded, readerCount, chunkSize, segmentSize);
+		}
+
+
+
+	}
+
+
+
+}
@@ -0,0 +1,199 @@
+package fr.inist.toolbox.parallel.missionners;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+import java.util.stream.*;
+
+import org.junit.*;
+
+import toolbox.parallel.*;
+import toolbox.parallel.missionners.*;
+import toolbox.parallel.missions.*;
+
+
+
+/**
+ * La classe {@link IteratorMissionnerTest} implmente les tests sur les mthodes de la classe {@link IteratorMissionner}.
+ */
+@SuppressWarnings({"static-method", "javadoc"})
+public class IteratorMissionnerTest {
+
+
+
+	/**
+	 * Les missions d'un itrateur sont distribues dans l'ordre.
+	 */
+	@Test(timeout = 60000) public void testGetNext_1a() {
+		Assert.assertEquals(range(1, 1000), numbers(new IteratorMissionner<>(missions(1, 1000).iterator())));
+		Assert.assertEquals(Collections.emptyList(), numbers(new IteratorMissionner<>(Collections.<IntegerMission> emptyIterator())));
+	}
+
+
+
+	/**
+	 * Les missions d'un flux, mme parallle, sont distribues dans l'ordre, et le flux est ferm  la fin de la distribution.
+	 */
+	@Test(timeout = 60000) public void testGetNext_1b() throws InterruptedException {
+		for (boolean parallel : new boolean[] {false, true}) {
+			AtomicBoolean closed = new AtomicBoolean();
+			Stream<IntegerMission> stream = IntStream.rangeClosed(1, 10_000).mapToObj(IntegerMission::new).onClose(() -> closed.set(true));
+			IteratorMissionner<IntegerMission> missionner = new IteratorMissionner<>(parallel ? stream.parallel() : stream);
+
+			Assert.assertEquals(range(1, 10_000), numbers(missionner));
+			missionner.join();
+			Assert.assertFalse(missionner.hasExceptions());
+			Assert.assertTrue(closed.get());
+		}
+	}
+
+
+
+	/**
+	 * Une mission <code>null</code> est une erreur, qui arrte la distribution.
+	 */
+	@Test(timeout = 60000) public void testGetNext_2a() {
+		IteratorMissionner<IntegerMission> missionner = new IteratorMissionner<>(Arrays.asList(new IntegerMission(1), null, new IntegerMission(3)).iterator());
+		IntegerMission mission;
+
+		while ((mission = missionner.getNext()) != null) {
+			Assert.assertEquals(1, mission.getNumber());
+		}
+		Assert.assertTrue(missionner.hasExceptions());
+		Assert.assertEquals("Mission null fournie par l'itrateur.", missionner.getExceptions()[0].getMessage());
+	}
+
+
+
+	/** */
+	@Test public void testIteratorMissionner_0a() {
+		try {
+			new IteratorMissionner<>((Iterator<IntegerMission>) null);
+			Assert.fail();
+		} catch (NullPointerException exception) {}
+		try {
+			new IteratorMissionner<>((Stream<IntegerMission>) null);
+			Assert.fail();
+		} catch (NullPointerException exception) {}
+	}
+
+
+
+	/**
+	 * Un distributeur aliment par un flux fait travailler une entreprise jusqu' ce que toutes les missions soient effectues, chacune une fois.
+	 */
+	@Test(timeout = 60000) public void testRun_1a() throws InterruptedException {
+		CollectingWorker worker = new CollectingWorker();
+		AtomicBoolean closed = new AtomicBoolean();
+		IteratorMissionner<IntegerMission> missionner = new IteratorMissionner<>(IntStream.rangeClosed(1, 100_000).mapToObj(IntegerMission::new).onClose(() -> closed.set(true)));
+		Enterprise<IntegerMission> enterprise = new Enterprise<>(4, missionner, worker);
+		List<Integer> numbers;
+
+		enterprise.run();
+		missionner.join();
+		Assert.assertFalse(enterprise.hasExceptions());
+		Assert.assertEquals(100_000, enterprise.getDoneCount());
+		numbers = new ArrayList<>(worker.numbers);
+		Collections.sort(numbers);
+		Assert.assertEquals(range(1, 100_000), numbers);
+		Assert.assertTrue(closed.get());
+	}
+
+
+
+	/**
+	 * Retourne les missions de numros compris dans l'intervalle indiqu.
+	 * @param first Premier numro.
+	 * @param last Dernier numro.
+	 * @return Les missions.
+	 */
+	private static List<IntegerMission> missions(int first, int last) {
+		List<IntegerMission> missions = new ArrayList<>();
+
+		for (int i = first; i <= last; i++) {
+			missions.add(new IntegerMission(i));
+		}
+		return missions;
+	}
+
+
+
+	/**
+	 * Retourne les numros des missions distribues par le distributeur indiqu.
+	 * @param missionner Distributeur.
+	 * @return Les numros des missions, dans l'ordre de distribution.
+	 */
+	private static List<Integer> numbers(IteratorMissionner<IntegerMission> missionner) {
+		return missionner.stream(false).map(IntegerMission::getNumber).collect(Collectors.toList());
+	}
+
+
+
+	/**
+	 * Retourne les entiers de l'intervalle indiqu.
+	 * @param first Premier entier.
+	 * @param last Dernier entier.
+	 * @return Les entiers de l'intervalle indiqu.
+	 */
+	private static List<Integer> range(int first, int last) {
+		List<Integer> numbers = new ArrayList<>();
+
+		for (int i = first; i <= last; i++) {
+			numbers.add(i);
+		}
+		return numbers;
+	}
+
+
+
+	/**
+	 * La classe {@link CollectingWorker} implmente un ouvrier qui collecte les numros des missions qu'il reoit.
+	 * @author Ludovic WALLE
+	 */
+	private static class CollectingWorker extends Worker<IntegerMission> {
+
+
+
+		/** */
+		public CollectingWorker() {
+			this.numbers = Collections.synchronizedList(new ArrayList<>());
+		}
+
+
+
+		/**
+		 * @param other Autre ouvrier, dont la collection est partage.
+		 */
+		public CollectingWorker(CollectingWorker other) {
+			super(other);
+			this.numbers = other.numbers;
+		}
+
+
+
+		/** {@inheritDoc} */
+		@Override protected int delegateDo(IntegerMission mission) {
+			numbers.add(mission.getNumber());
+			return 1;
+		}
+
+
+
+		/** {@inheritDoc} */
+		@Override protected CollectingWorker newOne() {
+			return new CollectingWorker(this);
+		}
+
+
+
+		/**
+		 * Numros collects par tous les ouvriers.
+		 */
+		final List<Integer> numbers;
+
+
+
+	}
+
+
+
+}
@@ -0,0 +1,353 @@
+package fr.inist.toolbox.parallel.missionners;
+
+import java.util.*;
+import java.util.stream.*;
+
+import org.junit.*;
+
+import toolbox.parallel.*;
+import toolbox.parallel.missionners.*;
+import toolbox.parallel.missions.*;
+
+
+
+/**
+ * La classe {@link PriorityMissionnerTest} implmente les tests sur les mthodes de la classe {@link PriorityMissionner}.<br>
+ * Sauf mention contraire, les voies sont remplies et fermes avant le dmarrage du distributeur, pour que l'ordre de distribution ne dpende que de l'ordonnancement.
+ */
+@SuppressWarnings({"static-method", "javadoc"})
+public class PriorityMissionnerTest {
+
+
+
+	/** */
+	@Test public void testPriorityMissionner_0a() {
+		PriorityMissionner<IntegerMission> missionner = new PriorityMissionner<>(1);
+
+		Assert.assertEquals("IllegalArgumentException: La capacit des voies doit tre strictement positive: 0", failure(() -> new PriorityMissionner<IntegerMission>(0)));
+		Assert.assertEquals("IllegalArgumentException: Le poids d'une voie doit tre strictement positif: 0", failure(() -> missionner.addLane(0, 0)));
+		Assert.assertEquals("IllegalArgumentException: Voie inexistante: 0", failure(() -> missionner.closeLane(0)));
+		Assert.assertEquals("IllegalArgumentException: Le nombre de fois qu'une voie peut tre dlaisse doit tre strictement positif: 0", failure(() -> missionner.setStarvationLimit(0)));
+	}
+
+
+
+	/**
+	 * Les voies de plus haute priorit sont servies d'abord, quel que soit l'ordre dans lequel elles ont t cres.
+	 */
+	@Test(timeout = 60000) public void testSelect_1a() throws InterruptedException {
+		PriorityMissionner<IntegerMission> missionner = new PriorityMissionner<>(100);
+
+		missionner.setStarvationLimit(Integer.MAX_VALUE);
+		fill(missionner, missionner.addLane(1, 1), 101, 110);
+		fill(missionner, missionner.addLane(5, 1), 501, 510);
+		fill(missionner, missionner.addLane(3, 100), 301, 310);
+		Assert.assertEquals(concat(range(501, 510), range(301, 310), range(101, 110)), numbers(missionner));
+		Assert.assertEquals(10, missionner.getSelectedCount(0));
+		Assert.assertEquals(10, missionner.getSelectedCount(1));
+		Assert.assertEquals(10, missionner.getSelectedCount(2));
+	}
+
+
+
+	/**
+	 * Les voies de mme priorit se partagent les missions proportionnellement  leur poids, rgulirement: 3 missions sur 4 pour la voie de poids 3 dans toute suite de 4 missions, tant que les
+	 * deux voies ne sont pas vides.
+	 */
+	@Test(timeout = 60000) public void testSelect_2a() throws InterruptedException {
+		PriorityMissionner<IntegerMission> missionner = new PriorityMissionner<>(1000);
+		List<Integer> numbers;
+		int heavy;
+
+		fill(missionner, missionner.addLane(0, 3), 1, 600);
+		fill(missionner, missionner.addLane(0, 1), 10001, 10200);
+		numbers = numbers(missionner);
+		Assert.assertEquals(800, numbers.size());
+		for (int start = 0; start <= (numbers.size() - 4); start++) {
+			heavy = 0;
+			for (int i = start; i < (start + 4); i++) {
+				if (numbers.get(i) <= 600) {
+					heavy++;
+				}
+			}
+			Assert.assertEquals("missions " + start + "  " + (start + 3), 3, heavy);
+		}
+		Assert.assertEquals(600, missionner.getSelectedCount(0));
+		Assert.assertEquals(200, missionner.getSelectedCount(1));
+	}
+
+
+
+	/**
+	 * Aprs un nombre de missions multiple de la somme des poids, chaque voie a t servie exactement selon son poids.
+	 */
+	@Test(timeout = 60000) public void testSelect_2b() throws InterruptedException {
+		PriorityMissionner<IntegerMission> missionner = new PriorityMissionner<>(1000);
+		List<Integer> numbers;
+
+		fill(missionner, missionner.addLane(0, 3), 1, 1000);
+		fill(missionner, missionner.addLane(0, 1), 10001, 11000);
+		numbers = numbers(missionner).subList(0, 400);
+		Assert.assertEquals(300, numbers.stream().filter(number -> number <= 1000).count());
+		Assert.assertEquals(range(1, 300), numbers.stream().filter(number -> number <= 1000).collect(Collectors.toList()));
+		Assert.assertEquals(range(10001, 10100), numbers.stream().filter(number -> number > 1000).collect(Collectors.toList()));
+	}
+
+
+
+	/**
+	 * Une voie de priorit faible, dlaisse le nombre de fois indiqu, est servie: elle reoit au moins une mission sur <code>starvationLimit + 1</code>.
+	 */
+	@Test(timeout = 60000) public void testSelect_3a() throws InterruptedException {
+		PriorityMissionner<IntegerMission> missionner = new PriorityMissionner<>(1000);
+		List<Integer> numbers;
+		int low;
+
+		missionner.setStarvationLimit(4);
+		fill(missionner, missionner.addLane(9, 1), 1, 400);
+		fill(missionner, missionner.addLane(0, 1), 10001, 10050);
+		numbers = numbers(missionner);
+		for (int start = 0; start <= (250 - 5); start++) {
+			low = 0;
+			for (int i = start; i < (start + 5); i++) {
+				if (numbers.get(i) > 400) {
+					low++;
+				}
+			}
+			Assert.assertTrue("missions " + start + "  " + (start + 4), low >= 1);
+		}
+		Assert.assertEquals(range(1, 400), numbers.stream().filter(number -> number <= 400).collect(Collectors.toList()));
+		Assert.assertEquals(50, missionner.getSelectedCount(1));
+	}
+
+
+
+	/**
+	 * Des missions soumises  une entreprise qui fonctionne, dans une voie prioritaire, sont effectues avant les autres missions restantes, et l'entreprise se termine une fois la voie ferme.
+	 */
+	@Test(timeout = 60000) public void testSubmit_1a() throws InterruptedException {
+		PriorityMissionner<IntegerMission> missionner = new PriorityMissionner<>(4);
+		int regular = missionner.addLane(0, 1);
+		int urgent = missionner.addLane(1, 1);
+		CollectingWorker worker = new CollectingWorker(Integer.MAX_VALUE);
+		Enterprise<IntegerMission> enterprise = new Enterprise<>(2, missionner, worker);
+		List<Integer> done;
+
+		missionner.addSource(regular, new SequentialNumberMissionner(1, 1000));
+		enterprise.start();
+		while (worker.numbers.size() < 10) {
+			Thread.sleep(1);
+		}
+		for (int number = 100001; number <= 100020; number++) {
+			missionner.submit(urgent, new IntegerMission(number));
+		}
+		missionner.closeLane(urgent);
+		try {
+			missionner.submit(urgent, new IntegerMission(0));
+			Assert.fail();
+		} catch (IllegalStateException exception) {
+			Assert.assertEquals("La voie est ferme.", exception.getMessage());
+		}
+		enterprise.join();
+		Assert.assertFalse(enterprise.hasExceptions());
+		Assert.assertEquals(1020, enterprise.getDoneCount());
+		Assert.assertEquals(20, missionner.getSelectedCount(urgent));
+		done = new ArrayList<>(worker.numbers);
+		Assert.assertTrue(done.indexOf(100020) < done.indexOf(1000));
+		Collections.sort(done);
+		Assert.assertEquals(concat(range(1, 1000), range(100001, 100020)), done);
+	}
+
+
+
+	/**
+	 * Arrter la distribution alors qu'une voie alimente par un distributeur est pleine termine normalement le thread qui l'alimente, sans exception.
+	 */
+	@Test(timeout = 60000) public void testStopDispensing_1a() throws InterruptedException {
+		for (int i = 0; i < 20; i++) {
+			PriorityMissionner<IntegerMission> missionner = new PriorityMissionner<>(1);
+
+			missionner.addSource(missionner.addLane(0, 1), new SequentialNumberMissionner(1, 1_000_000));
+			for (int number = 1; number <= 3; number++) {
+				Assert.assertEquals(number, missionner.getNext().getNumber());
+			}
+			missionner.stopDispensing();
+			missionner.join();
+			for (Thread thread : Thread.getAllStackTraces().keySet()) {
+				if (thread.getName().equals(missionner.getName() + "Lane0")) {
+					thread.join();
+				}
+			}
+			Assert.assertFalse(missionner.hasExceptions());
+		}
+	}
+
+
+
+	/**
+	 * Une entreprise arrte en cours de route, alors qu'une voie alimente par un distributeur est pleine, se termine sans exception.
+	 */
+	@Test(timeout = 60000) public void testStopDispensing_1b() throws InterruptedException {
+		PriorityMissionner<IntegerMission> missionner = new PriorityMissionner<>(1);
+		CollectingWorker worker = new CollectingWorker(100);
+		Enterprise<IntegerMission> enterprise = new Enterprise<>(2, missionner, worker);
+
+		missionner.addSource(missionner.addLane(0, 1), new SequentialNumberMissionner(1, 1_000_000));
+		enterprise.run();
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			if (thread.getName().equals(missionner.getName() + "Lane0")) {
+				thread.join();
+			}
+		}
+		Assert.assertFalse(missionner.hasExceptions());
+		Assert.assertFalse(enterprise.hasExceptions());
+		Assert.assertTrue(enterprise.getDoneCount() < 1_000_000);
+	}
+
+
+
+	/**
+	 * Retourne la concatnation des listes indiques.
+	 * @param lists Listes.
+	 * @return La concatnation des listes indiques.
+	 */
+	@SafeVarargs private static List<Integer> concat(List<Integer>... lists) {
+		List<Integer> all = new ArrayList<>();
+
+		for (List<Integer> list : lists) {
+			all.addAll(list);
+		}
+		return all;
+	}
+
+
+
+	/**
+	 * Retourne la classe et le message de l'exception gnre par l'action indique.
+	 * @param action Action.
+	 * @return La classe et le message de l'exception gnre, ou <code>null</code> si il n'y en a pas.
+	 */
+	private static String failure(Runnable action) {
+		try {
+			action.run();
+			return null;
+		} catch (RuntimeException exception) {
+			return exception.getClass().getSimpleName() + ": " + exception.getMessage();
+		}
+	}
+
+
+
+	/**
+	 * Remplit la voie indique avec les missions de l'intervalle indiqu, puis la ferme.
+	 * @param missionner Distributeur.
+	 * @param lane Numro de la voie.
+	 * @param first Numro de la premire mission.
+	 * @param last Numro de la dernire mission.
+	 * @throws InterruptedException Si le thread est interrompu.
+	 */
+	private static void fill(PriorityMissionner<IntegerMission> missionner, int lane, int first, int last) throws InterruptedException {
+		for (int number = first; number <= last; number++) {
+			missionner.submit(lane, new IntegerMission(number));
+		}
+		missionner.closeLane(lane);
+	}
+
+
+
+	/**
+	 * Retourne les numros des missions du distributeur indiqu, dans l'ordre de distribution.
+	 * @param missionner Distributeur.
+	 * @return Les numros des missions, dans l'ordre de distribution.
+	 */
+	private static List<Integer> numbers(PriorityMissionner<IntegerMission> missionner) {
+		return missionner.stream(false).map(IntegerMission::getNumber).collect(Collectors.toList());
+	}
+
+
+
+	/**
+	 * Retourne les entiers de l'intervalle indiqu.
+	 * @param first Premier entier.
+	 * @param last Dernier entier.
+	 * @return Les entiers de l'intervalle indiqu.
+	 */
+	private static List<Integer> range(int first, int last) {
+		List<Integer> numbers = new ArrayList<>();
+
+		for (int i = first; i <= last; i++) {
+			numbers.add(i);
+		}
+		return numbers;
+	}
+
+
+
+	/**
+	 * La classe {@link CollectingWorker} implmente un ouvrier lent qui collecte les numros des missions qu'il effectue, dans l'ordre o il les termine, et qui arrte l'entreprise aprs un
+	 * nombre de missions.
+	 * @author Ludovic WALLE
+	 */
+	private static class CollectingWorker extends Worker<IntegerMission> {
+
+
+
+		/**
+		 * @param stopAfter Nombre de missions aprs lequel l'entreprise est arrte, ou {@link Integer#MAX_VALUE} pour ne pas l'arrter.
+		 */
+		public CollectingWorker(int stopAfter) {
+			this.numbers = Collections.synchronizedList(new ArrayList<>());
+			this.stopAfter = stopAfter;
+		}
+
+
+
+		/**
+		 * @param other Autre ouvrier, dont la collection est partage.
+		 */
+		public CollectingWorker(CollectingWorker other) {
+			super(other);
+			this.numbers = other.numbers;
+			this.stopAfter = other.stopAfter;
+		}
+
+
+
+		/** {@inheritDoc} */
+		@Override protected int delegateDo(IntegerMission mission) throws InterruptedException {
+			Thread.sleep(1);
+			numbers.add(mission.getNumber());
+			if (numbers.size() == stopAfter) {
+				getEnterprise().forbidForeverNewMissionsStart();
+			}
+			return 1;
+		}
+
+
+
+		/** {@inheritDoc} */
+		@Override protected CollectingWorker newOne() {
+			return new CollectingWorker(this);
+		}
+
+
+
+		/**
+		 * Numros des missions effectues par tous les ouvriers, dans l'ordre o ils les ont termines.
+		 */
+		final List<Integer> numbers;
+
+
+
+		/**
+		 * Nombre de missions aprs lequel l'entreprise est arrte.
+		 */
+		private final int stopAfter;
+
+
+
+	}
+
+
+
+}
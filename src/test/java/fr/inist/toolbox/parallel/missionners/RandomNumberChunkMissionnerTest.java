@@ -0,0 +1,163 @@
+package fr.inist.toolbox.parallel.missionners;
+
+import java.security.*;
+import java.util.*;
+import java.util.stream.*;
+
+import org.junit.*;
+
+import toolbox.parallel.*;
+import toolbox.parallel.missionners.*;
+import toolbox.parallel.missions.*;
+
+
+
+/**
+ * La classe {@link RandomNumberChunkMissionnerTest} implmente les tests sur les mthodes de la classe {@link RandomNumberChunkMissionner}, par comparaison avec {@link RandomNumberMissionner}
+ * lorsque les numros ne sont pas alatoires (valeurs minimale et maximale gales).
+ */
+@SuppressWarnings({"static-method", "javadoc"})
+public class RandomNumberChunkMissionnerTest {
+
+
+
+	/** */
+	@Test public void testConstructor_0a() {
+		Assert.assertEquals("InvalidParameterException: La valeur minimale du gnrateur alatoire (0) doit tre strictement positive.", failure(() -> new RandomNumberChunkMissionner(0, 10, 1, 1)));
+		Assert.assertEquals("InvalidParameterException: La valeur minimale du gnrateur alatoire (5) doit tre strictement infrieure  la valeur maximale(4).", failure(() -> new RandomNumberChunkMissionner(5, 4, 1, 1)));
+		Assert.assertEquals("InvalidParameterException: Le nombre maximal de numros par mission (0) doit tre strictement positif.", failure(() -> new RandomNumberChunkMissionner(1, 10, 1, 0)));
+	}
+
+
+
+	/**
+	 * Les tableaux contiennent exactement le nombre de numros demand, tous dans l'intervalle, que ce nombre soit un multiple de la taille des tableaux ou non.
+	 */
+	@Test public void testGetNext_1a() {
+		assertNumbers(1, 20, 10_000, 100);
+		assertNumbers(1, 20, 10_003, 100);
+		assertNumbers(1, 20, 99, 100);
+		assertNumbers(1, 20, 1, 1);
+		assertNumbers(1, 20, 0, 10);
+		assertNumbers(Integer.MAX_VALUE - 5, Integer.MAX_VALUE, 1000, 64);
+	}
+
+
+
+	/**
+	 * Avec des valeurs minimale et maximale gales, les tableaux contiennent les mmes numros que les missions unitaires.
+	 */
+	@Test public void testGetNext_1b() {
+		for (int count : new int[] {0, 1, 99, 100, 101, 1000}) {
+			Assert.assertEquals("count=" + count, numbers(new RandomNumberMissionner(7, 7, count)), numbers(assertNumbers(7, 7, count, 100)));
+		}
+	}
+
+
+
+	/**
+	 * Sans limite, tous les tableaux sont complets, et le nombre de rsultats attendus n'est pas calculable.
+	 */
+	@Test(timeout = 60000) public void testGetNext_2a() {
+		RandomNumberChunkMissionner missionner = new RandomNumberChunkMissionner(1, 20, -1, 50);
+		List<IntegerChunkMission> missions = missionner.stream(false).limit(10).collect(Collectors.toList());
+
+		missionner.stopDispensing();
+		Assert.assertEquals(10, missions.size());
+		for (IntegerChunkMission mission : missions) {
+			Assert.assertFalse(mission.isRange());
+			Assert.assertEquals(50, mission.getCount());
+		}
+		Assert.assertEquals(Missionner.NOT_COMPUTABLE, missionner.getExpectedCount(true));
+	}
+
+
+
+	/**
+	 * Vrifie que les tableaux contiennent exactement le nombre de numros demand, que chaque tableau sauf le dernier est complet, que tous les numros sont dans l'intervalle et qu'ils y sont
+	 * tous prsents si ils sont assez nombreux, et que le nombre de rsultats attendus est le nombre de numros.
+	 * @param min Valeur minimale.
+	 * @param max Valeur maximale.
+	 * @param count Nombre de numros.
+	 * @param chunkSize Nombre maximal de numros par mission.
+	 * @return Les missions distribues.
+	 */
+	private static List<IntegerChunkMission> assertNumbers(int min, int max, int count, int chunkSize) {
+		String message = count + " dans " + min + ".." + max + " par " + chunkSize;
+		RandomNumberChunkMissionner missionner = new RandomNumberChunkMissionner(min, max, count, chunkSize);
+		List<IntegerChunkMission> missions = missionner.stream(false).collect(Collectors.toList());
+		Set<Integer> distinct = new HashSet<>();
+		int total = 0;
+
+		for (int index = 0; index < missions.size(); index++) {
+			IntegerChunkMission mission = missions.get(index);
+
+			Assert.assertFalse(message, mission.isRange());
+			if (index < (missions.size() - 1)) {
+				Assert.assertEquals(message, chunkSize, mission.getCount());
+			} else {
+				Assert.assertEquals(message, ((count - 1) % chunkSize) + 1, mission.getCount());
+			}
+			for (int i = 0; i < mission.getCount(); i++) {
+				Assert.assertTrue(message, (mission.getNumber(i) >= min) && (mission.getNumber(i) <= max));
+				distinct.add(mission.getNumber(i));
+			}
+			total += mission.getCount();
+		}
+		Assert.assertEquals(message, (count + chunkSize - 1) / chunkSize, missions.size());
+		Assert.assertEquals(message, count, total);
+		if (count >= (((long) max - min) + 1) * 100) {
+			Assert.assertEquals(message, ((long) max - min) + 1, distinct.size());
+		}
+		Assert.assertEquals(message, count, missionner.getExpectedCount(true));
+		return missions;
+	}
+
+
+
+	/**
+	 * Retourne la classe et le message de l'exception gnre par l'action indique.
+	 * @param action Action.
+	 * @return La classe et le message de l'exception gnre, ou <code>null</code> si il n'y en a pas.
+	 */
+	private static String failure(Runnable action) {
+		try {
+			action.run();
+			return null;
+		} catch (InvalidParameterException exception) {
+			return exception.getClass().getSimpleName() + ": " + exception.getMessage();
+		}
+	}
+
+
+
+	/**
+	 * Retourne les numros des missions indiques.
+	 * @param missions Missions.
+	 * @return Les numros des missions, dans l'ordre.
+	 */
+	private static List<Integer> numbers(List<IntegerChunkMission> missions) {
+		List<Integer> numbers = new ArrayList<>();
+
+		for (IntegerChunkMission mission : missions) {
+			for (int i = 0; i < mission.getCount(); i++) {
+				numbers.add(mission.getNumber(i));
+			}
+		}
+		return numbers;
+	}
+
+
+
+	/**
+	 * Retourne les numros distribus par le gnrateur de missions unitaires indiqu.
+	 * @param missionner Gnrateur.
+	 * @return Les numros distribus, dans l'ordre.
+	 */
+	private static List<Integer> numbers(RandomNumberMissionner missionner) {
+		return missionner.stream(false).map(IntegerMission::getNumber).collect(Collectors.toList());
+	}
+
+
+
+}
@@ -0,0 +1,194 @@
+package fr.inist.toolbox.parallel.missionners;
+
+import java.security.*;
+import java.util.*;
+import java.util.stream.*;
+
+import org.junit.*;
+
+import toolbox.parallel.*;
+import toolbox.parallel.missionners.*;
+import toolbox.parallel.missions.*;
+
+
+
+/**
+ * La classe {@link SequentialNumberChunkMissionnerTest} implmente les tests sur les mthodes de la classe {@link SequentialNumberChunkMissionner}, par comparaison avec
+ * {@link SequentialNumberMissionner}.
+ */
+@SuppressWarnings({"static-method", "javadoc"})
+public class SequentialNumberChunkMissionnerTest {
+
+
+
+	/** */
+	@Test public void testConstructor_0a() {
+		Assert.assertEquals("InvalidParameterException: La valeur minimale du gnrateur squentiel (0) doit tre strictement positive.", failure(() -> new SequentialNumberChunkMissionner(0, 10, 1)));
+		Assert.assertEquals("InvalidParameterException: La valeur minimale du gnrateur squentiel (5) doit tre strictement infrieure  la valeur maximale(4).", failure(() -> new SequentialNumberChunkMissionner(5, 4, 1)));
+		Assert.assertEquals("InvalidParameterException: Le nombre maximal de nombres par mission (0) doit tre strictement positif.", failure(() -> new SequentialNumberChunkMissionner(1, 10, 0)));
+	}
+
+
+
+	/**
+	 * Les intervalles couvrent exactement les mmes nombres que les missions unitaires, dans le mme ordre, que le nombre de nombres soit un multiple de la taille des intervalles ou non.
+	 */
+	@Test public void testGetNext_1a() {
+		assertSameNumbers(1, 100, 10);
+		assertSameNumbers(1, 100, 7);
+		assertSameNumbers(1, 100, 1);
+		assertSameNumbers(1, 100, 99);
+		assertSameNumbers(1, 100, 100);
+		assertSameNumbers(1, 100, 101);
+		assertSameNumbers(37, 37, 5);
+		assertSameNumbers(1000, 5095, 1024);
+	}
+
+
+
+	/**
+	 * Les intervalles qui se terminent  {@link Integer#MAX_VALUE} ne dbordent pas.
+	 */
+	@Test public void testGetNext_1b() {
+		assertSameNumbers(Integer.MAX_VALUE - 10, Integer.MAX_VALUE, 4);
+		assertSameNumbers(Integer.MAX_VALUE - 11, Integer.MAX_VALUE, 4);
+		assertSameNumbers(Integer.MAX_VALUE, Integer.MAX_VALUE, 4);
+	}
+
+
+
+	/**
+	 * Une entreprise dont les ouvriers retournent le nombre de nombres traits comptabilise une mission par intervalle, et autant de rsultats que de nombres attendus, chacun tant trait une fois.
+	 */
+	@Test(timeout = 60000) public void testRun_1a() {
+		ChunkCollectingWorker worker = new ChunkCollectingWorker();
+		Enterprise<IntegerChunkMission> enterprise = new Enterprise<>(4, new SequentialNumberChunkMissionner(1, 100_003, 1000), worker);
+		List<Integer> numbers;
+
+		enterprise.run();
+		Assert.assertFalse(enterprise.hasExceptions());
+		Assert.assertEquals(100_003, enterprise.getExpectedCount(true));
+		Assert.assertEquals(101, enterprise.getDoneCount());
+		Assert.assertEquals(100_003, enterprise.getProducedCount());
+		numbers = new ArrayList<>(worker.numbers);
+		Collections.sort(numbers);
+		Assert.assertEquals(numbers(new SequentialNumberMissionner(1, 100_003)), numbers);
+	}
+
+
+
+	/**
+	 * Vrifie que les intervalles couvrent exactement les mmes nombres que les missions unitaires, dans le mme ordre, que chaque intervalle sauf le dernier est complet, et que le nombre de
+	 * rsultats attendus est le nombre de nombres.
+	 * @param min Valeur minimale.
+	 * @param max Valeur maximale.
+	 * @param chunkSize Nombre maximal de nombres par mission.
+	 */
+	private static void assertSameNumbers(int min, int max, int chunkSize) {
+		String message = min + ".." + max + " par " + chunkSize;
+		SequentialNumberChunkMissionner missionner = new SequentialNumberChunkMissionner(min, max, chunkSize);
+		List<IntegerChunkMission> missions = missionner.stream(false).collect(Collectors.toList());
+		List<Integer> expected = numbers(new SequentialNumberMissionner(min, max));
+		List<Integer> numbers = new ArrayList<>();
+
+		for (int index = 0; index < missions.size(); index++) {
+			IntegerChunkMission mission = missions.get(index);
+
+			Assert.assertTrue(message, mission.isRange());
+			if (index < (missions.size() - 1)) {
+				Assert.assertEquals(message, chunkSize, mission.getCount());
+			} else {
+				Assert.assertEquals(message, ((expected.size() - 1) % chunkSize) + 1, mission.getCount());
+			}
+			for (int i = 0; i < mission.getCount(); i++) {
+				numbers.add(mission.getNumber(i));
+			}
+		}
+		Assert.assertEquals(message, (expected.size() + chunkSize - 1) / chunkSize, missions.size());
+		Assert.assertEquals(message, expected, numbers);
+		Assert.assertEquals(message, expected.size(), missionner.getExpectedCount(true));
+	}
+
+
+
+	/**
+	 * Retourne la classe et le message de l'exception gnre par l'action indique.
+	 * @param action Action.
+	 * @return La classe et le message de l'exception gnre, ou <code>null</code> si il n'y en a pas.
+	 */
+	private static String failure(Runnable action) {
+		try {
+			action.run();
+			return null;
+		} catch (InvalidParameterException exception) {
+			return exception.getClass().getSimpleName() + ": " + exception.getMessage();
+		}
+	}
+
+
+
+	/**
+	 * Retourne les nombres distribus par le gnrateur de missions unitaires indiqu.
+	 * @param missionner Gnrateur.
+	 * @return Les nombres distribus, dans l'ordre.
+	 */
+	private static List<Integer> numbers(SequentialNumberMissionner missionner) {
+		return missionner.stream(false).map(IntegerMission::getNumber).collect(Collectors.toList());
+	}
+
+
+
+	/**
+	 * La classe {@link ChunkCollectingWorker} implmente un ouvrier qui collecte les numros des missions qu'il reoit, et retourne le nombre de numros traits.
+	 * @author Ludovic WALLE
+	 */
+	private static class ChunkCollectingWorker extends Worker<IntegerChunkMission> {
+
+
+
+		/** */
+		public ChunkCollectingWorker() {
+			this.numbers = Collections.synchronizedList(new ArrayList<>());
+		}
+
+
+
+		/**
+		 * @param other Autre ouvrier, dont la collection est partage.
+		 */
+		public ChunkCollectingWorker(ChunkCollectingWorker other) {
+			super(other);
+			this.numbers = other.numbers;
+		}
+
+
+
+		/** {@inheritDoc} */
+		@Override protected int delegateDo(IntegerChunkMission mission) {
+			for (int i = 0; i < mission.getCount(); i++) {
+				numbers.add(mission.getNumber(i));
+			}
+			return mission.getCount();
+		}
+
+
+
+		/** {@inheritDoc} */
+		@Override protected ChunkCollectingWorker newOne() {
+			return new ChunkCollectingWorker(this);
+		}
+
+
+
+		/**
+		 * Numros collects par tous les ouvriers.
+		 */
+		final List<Integer> numbers;
+
+
+
+	}
+
+
+
+}
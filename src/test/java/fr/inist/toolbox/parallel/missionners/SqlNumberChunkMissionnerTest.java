@@ -0,0 +1,253 @@
+package fr.inist.toolbox.parallel.missionners;
+
+import java.sql.*;
+import java.util.*;
+import java.util.stream.*;
+
+import org.h2.jdbcx.*;
+import org.junit.*;
+
+import toolbox.parallel.*;
+import toolbox.parallel.missionners.*;
+import toolbox.parallel.missions.*;
+
+
+
+/**
+ * La classe {@link SqlNumberChunkMissionnerTest} implmente les tests sur les mthodes de la classe {@link SqlNumberChunkMissionner}, par comparaison avec {@link SqlNumberMissionner}, avec une
+ * base de donnes H2 embarque en mmoire.
+ */
+@SuppressWarnings({"static-method", "javadoc"})
+public class SqlNumberChunkMissionnerTest {
+
+
+
+	/**
+	 * Cre la table des numros, vide.
+	 */
+	@Before public void setUp() throws SQLException {
+		dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:" + getClass().getSimpleName() + (databaseCount++) + ";DB_CLOSE_DELAY=-1");
+		connection = dataSource.getConnection();
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("CREATE TABLE numbers (id INTEGER)");
+		}
+	}
+
+
+
+	/**
+	 * Supprime la base de donnes.
+	 */
+	@After public void tearDown() throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("SHUTDOWN");
+		}
+		connection.close();
+	}
+
+
+
+	/** */
+	@Test public void testConstructor_0a() {
+		try {
+			new SqlNumberChunkMissionner(connection, QUERY, false, 0);
+			Assert.fail();
+		} catch (IllegalArgumentException exception) {
+			Assert.assertEquals("Le nombre maximal de numros par mission doit tre strictement positif: 0", exception.getMessage());
+		}
+	}
+
+
+
+	/**
+	 * Les tableaux couvrent exactement les mmes numros que les missions unitaires, dans le mme ordre, que le nombre de numros soit un multiple de la taille des tableaux ou non.
+	 */
+	@Test public void testGetNext_1a() throws SQLException {
+		insert(range(1, 1000));
+		for (int chunkSize : new int[] {1, 7, 10, 100, 999, 1000, 1001}) {
+			assertSameNumbers(QUERY, chunkSize);
+		}
+	}
+
+
+
+	/**
+	 * Les doublons sont distribus autant de fois qu'ils sont prsents, et une requte sans rsultat ne produit aucune mission.
+	 */
+	@Test public void testGetNext_1b() throws SQLException {
+		assertSameNumbers(QUERY, 10);
+		insert(Arrays.asList(5, 3, 3, 8, 5, 1));
+		assertSameNumbers(QUERY, 2);
+		assertSameNumbers(QUERY, 4);
+		assertSameNumbers("SELECT id FROM numbers WHERE id > 100", 4);
+	}
+
+
+
+	/**
+	 * Comme pour les missions unitaires, un numro <code>null</code> termine la distribution.
+	 */
+	@Test public void testGetNext_2a() throws SQLException {
+		insert(Arrays.asList(1, 2, 3, 4, 5, null, 7, 8));
+		Assert.assertEquals(Arrays.asList(1, 2, 3, 4, 5), assertSameNumbers(QUERY, 2));
+		Assert.assertEquals(Arrays.asList(1, 2, 3, 4, 5), assertSameNumbers(QUERY, 5));
+	}
+
+
+
+	/**
+	 * Une entreprise dont les ouvriers retournent le nombre de numros traits comptabilise une mission par tableau, et autant de rsultats que de numros attendus.
+	 */
+	@Test(timeout = 60000) public void testRun_1a() throws SQLException {
+		Enterprise<IntegerChunkMission> enterprise;
+
+		insert(range(1, 10_003));
+		enterprise = new Enterprise<>(4, new SqlNumberChunkMissionner(connection, QUERY, false, 1000), new CountingWorker());
+		enterprise.run();
+		Assert.assertFalse(enterprise.hasExceptions());
+		Assert.assertEquals(10_003, enterprise.getExpectedCount(true));
+		Assert.assertEquals(11, enterprise.getDoneCount());
+		Assert.assertEquals(10_003, enterprise.getProducedCount());
+	}
+
+
+
+	/**
+	 * Vrifie que les tableaux couvrent exactement les mmes numros que les missions unitaires, dans le mme ordre, et que chaque tableau sauf le dernier est complet.
+	 * @param query Requte de slection des numros.
+	 * @param chunkSize Nombre maximal de numros par mission.
+	 * @return Les numros distribus.
+	 */
+	private List<Integer> assertSameNumbers(String query, int chunkSize) {
+		String message = query + " par " + chunkSize;
+		List<IntegerChunkMission> missions = new SqlNumberChunkMissionner(connection, query, false, chunkSize).stream(false).collect(Collectors.toList());
+		List<Integer> expected = new SqlNumberMissionner(connection, query, false).stream(false).map(IntegerMission::getNumber).collect(Collectors.toList());
+		List<Integer> numbers = new ArrayList<>();
+
+		for (int index = 0; index < missions.size(); index++) {
+			IntegerChunkMission mission = missions.get(index);
+
+			if (index < (missions.size() - 1)) {
+				Assert.assertEquals(message, chunkSize, mission.getCount());
+			} else {
+				Assert.assertEquals(message, ((expected.size() - 1) % chunkSize) + 1, mission.getCount());
+			}
+			for (int i = 0; i < mission.getCount(); i++) {
+				numbers.add(mission.getNumber(i));
+			}
+		}
+		Assert.assertEquals(message, (expected.size() + chunkSize - 1) / chunkSize, missions.size());
+		Assert.assertEquals(message, expected, numbers);
+		return numbers;
+	}
+
+
+
+	/**
+	 * Insre les numros indiqus, dans l'ordre.
+	 * @param numbers Numros (peuvent tre <code>null</code>).
+	 * @throws SQLException En cas d'erreur SQL.
+	 */
+	private void insert(List<Integer> numbers) throws SQLException {
+		try (PreparedStatement statement = connection.prepareStatement("INSERT INTO numbers (id) VALUES (?)")) {
+			for (Integer number : numbers) {
+				if (number != null) {
+					statement.setInt(1, number);
+				} else {
+					statement.setNull(1, Types.INTEGER);
+				}
+				statement.addBatch();
+			}
+			statement.executeBatch();
+		}
+	}
+
+
+
+	/**
+	 * Retourne les entiers de l'intervalle indiqu.
+	 * @param first Premier entier.
+	 * @param last Dernier entier.
+	 * @return Les entiers de l'intervalle indiqu.
+	 */
+	private static List<Integer> range(int first, int last) {
+		List<Integer> numbers = new ArrayList<>();
+
+		for (int i = first; i <= last; i++) {
+			numbers.add(i);
+		}
+		return numbers;
+	}
+
+
+
+	/**
+	 * Connexion  la base de donnes du test, partage par les gnrateurs.
+	 */
+	private Connection connection;
+
+
+
+	/**
+	 * Source des connexions  la base de donnes du test.
+	 */
+	private JdbcDataSource dataSource;
+
+
+
+	/**
+	 * Nombre de bases de donnes cres, pour que chaque test ait la sienne.
+	 */
+	private static int databaseCount = 0;
+
+
+
+	/**
+	 * Requte de slection des numros, dans l'ordre d'insertion.
+	 */
+	private static final String QUERY = "SELECT id FROM numbers ORDER BY _ROWID_";
+
+
+
+	/**
+	 * La classe {@link CountingWorker} implmente un ouvrier qui retourne le nombre de numros des missions qu'il reoit.
+	 * @author Ludovic WALLE
+	 */
+	private static class CountingWorker extends Worker<IntegerChunkMission> {
+
+
+
+		/** */
+		public CountingWorker() {}
+
+
+
+		/**
+		 * @param other Autre ouvrier.
+		 */
+		public CountingWorker(CountingWorker other) {
+			super(other);
+		}
+
+
+
+		/** {@inheritDoc} */
+		@Override protected int delegateDo(IntegerChunkMission mission) {
+			return mission.getCount();
+		}
+
+
+
+		/** {@inheritDoc} */
+		@Override protected CountingWorker newOne() {
+			return new CountingWorker(this);
+		}
+
+
+
+	}
+
+
+
+}
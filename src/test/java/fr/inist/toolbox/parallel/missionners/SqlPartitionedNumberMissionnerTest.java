@@ -0,0 +1,377 @@
+package fr.inist.toolbox.parallel.missionners;
+
+import java.sql.*;
+import java.util.*;
+
+import org.h2.jdbcx.*;
+import org.junit.*;
+
+import toolbox.parallel.*;
+import toolbox.parallel.missionners.*;
+import toolbox.parallel.missions.*;
+
+
+
+/**
+ * La classe {@link SqlPartitionedNumberMissionnerTest} implmente les tests sur les mthodes de la classe {@link SqlPartitionedNumberMissionner}, avec une base de donnes H2 embarque en mmoire.
+ */
+@SuppressWarnings({"static-method", "javadoc"})
+public class SqlPartitionedNumberMissionnerTest {
+
+
+
+	/**
+	 * Cre la table des numros, vide.
+	 */
+	@Before public void setUp() throws SQLException {
+		dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:" + getClass().getSimpleName() + (databaseCount++) + ";DB_CLOSE_DELAY=-1");
+		connection = dataSource.getConnection();
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("CREATE TABLE numbers (id INTEGER, kind VARCHAR(10))");
+		}
+	}
+
+
+
+	/**
+	 * Supprime la base de donnes.
+	 */
+	@After public void tearDown() throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("SHUTDOWN");
+		}
+		connection.close();
+	}
+
+
+
+	/** */
+	@Test public void testConstructor_0a() {
+		Assert.assertEquals("NullPointerException: null", failure(() -> new SqlPartitionedNumberMissionner(null, QUERY, "id", 1, 1)));
+		Assert.assertEquals("NullPointerException: null", failure(() -> new SqlPartitionedNumberMissionner(dataSource, null, "id", 1, 1)));
+		Assert.assertEquals("NullPointerException: null", failure(() -> new SqlPartitionedNumberMissionner(dataSource, QUERY, null, 1, 1)));
+		Assert.assertEquals("IllegalArgumentException: Le nombre de partitions doit tre strictement positif: 0", failure(() -> new SqlPartitionedNumberMissionner(dataSource, QUERY, "id", 0, 1)));
+		Assert.assertEquals("IllegalArgumentException: Le nombre maximal de numros par mission doit tre strictement positif: 0", failure(() -> new SqlPartitionedNumberMissionner(dataSource, QUERY, "id", 1, 0)));
+	}
+
+
+
+	/**
+	 * Tous les numros sont distribus une fois et une seule, quel que soit le nombre de partitions.
+	 */
+	@Test public void testRun_1a() throws SQLException {
+		List<Integer> numbers = range(1, 1000);
+
+		insert(numbers);
+		for (int partitionCount : new int[] {1, 2, 3, 4, 7, 16}) {
+			Assert.assertEquals("partitions=" + partitionCount, numbers, run(partitionCount, 7));
+		}
+	}
+
+
+
+	/**
+	 * Les numros situs sur les bornes des partitions (incluse en bas, exclue en haut) ne sont ni perdus ni distribus deux fois, y compris lorsque l'intervalle des valeurs n'est pas un
+	 * multiple du nombre de partitions, et pour des numros ngatifs.
+	 */
+	@Test public void testRun_1b() throws SQLException {
+		insert(Arrays.asList(0, 24, 25, 49, 50, 74, 75, 99));
+		Assert.assertEquals(Arrays.asList(0, 24, 25, 49, 50, 74, 75, 99), run(4, 3));
+		Assert.assertEquals(Arrays.asList(0, 24, 25, 49, 50, 74, 75, 99), run(3, 3));
+		insert(range(-10, -1));
+		Assert.assertEquals(concat(range(-10, -1), Arrays.asList(0, 24, 25, 49, 50, 74, 75, 99)), run(3, 2));
+	}
+
+
+
+	/**
+	 * Les partitions vides, au milieu comme aux extrmits des valeurs, ne bloquent pas la distribution.
+	 */
+	@Test public void testRun_2a() throws SQLException {
+		insert(Arrays.asList(1, 2, 1000));
+		Assert.assertEquals(Arrays.asList(1, 2, 1000), run(10, 1));
+		Assert.assertEquals(Arrays.asList(1, 2, 1000), run(50, 5));
+	}
+
+
+
+	/**
+	 * Plus de partitions que de valeurs possibles, et une seule valeur.
+	 */
+	@Test public void testRun_2b() throws SQLException {
+		insert(Arrays.asList(5, 6, 7));
+		Assert.assertEquals(Arrays.asList(5, 6, 7), run(10, 2));
+		execute("DELETE FROM numbers WHERE id <> 6");
+		Assert.assertEquals(Arrays.asList(6), run(4, 2));
+	}
+
+
+
+	/**
+	 * Une requte sans rsultat ne produit aucune mission.
+	 */
+	@Test public void testRun_2c() throws SQLException {
+		Assert.assertEquals(Collections.emptyList(), run(4, 10));
+		insert(range(1, 10));
+		Assert.assertEquals(Collections.emptyList(), run(4, 10, "SELECT id FROM numbers WHERE id > 100"));
+	}
+
+
+
+	/**
+	 * Les numros <code>null</code> sont ignors, et les doublons sont distribus autant de fois qu'ils sont prsents.
+	 */
+	@Test public void testRun_3a() throws SQLException {
+		insert(Arrays.asList(3, null, 3, 8, null, 1));
+		Assert.assertEquals(Arrays.asList(1, 3, 3, 8), run(2, 2));
+		execute("UPDATE numbers SET id = NULL");
+		Assert.assertEquals(Collections.emptyList(), run(2, 2));
+	}
+
+
+
+	/**
+	 * Les requtes qui filtrent ou renomment la colonne des numros sont acceptes.
+	 */
+	@Test public void testRun_3b() throws SQLException {
+		List<Integer> threes = new ArrayList<>();
+
+		for (int i = 3; i <= 100; i += 3) {
+			threes.add(i);
+		}
+		insert(range(1, 100));
+		execute("UPDATE numbers SET kind = CASE WHEN MOD(id, 3) = 0 THEN 'three' ELSE 'other' END");
+		Assert.assertEquals(threes, run(4, 5, "SELECT id AS number FROM numbers WHERE kind = 'three'", "number"));
+	}
+
+
+
+	/**
+	 * Excute l'ordre SQL indiqu.
+	 * @param sql Ordre SQL.
+	 * @throws SQLException En cas d'erreur SQL.
+	 */
+	private void execute(String sql) throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			statement.execute(sql);
+		}
+	}
+
+
+
+	/**
+	 * Insre les numros indiqus.
+	 * @param numbers Numros (peuvent tre <code>null</code>).
+	 * @throws SQLException En cas d'erreur SQL.
+	 */
+	private void insert(List<Integer> numbers) throws SQLException {
+		try (PreparedStatement statement = connection.prepareStatement("INSERT INTO numbers (id) VALUES (?)")) {
+			for (Integer number : numbers) {
+				if (number != null) {
+					statement.setInt(1, number);
+				} else {
+					statement.setNull(1, Types.INTEGER);
+				}
+				statement.addBatch();
+			}
+			statement.executeBatch();
+		}
+	}
+
+
+
+	/**
+	 * Distribue les numros de la table  plusieurs ouvriers.
+	 * @param partitionCount Nombre de partitions.
+	 * @param chunkSize Nombre maximal de numros par mission.
+	 * @return Les numros traits, tris.
+	 */
+	private List<Integer> run(int partitionCount, int chunkSize) {
+		return run(partitionCount, chunkSize, QUERY);
+	}
+
+
+
+	/**
+	 * Distribue les numros retourns par la requte indique  plusieurs ouvriers.
+	 * @param partitionCount Nombre de partitions.
+	 * @param chunkSize Nombre maximal de numros par mission.
+	 * @param query Requte.
+	 * @return Les numros traits, tris.
+	 */
+	private List<Integer> run(int partitionCount, int chunkSize, String query) {
+		return run(partitionCount, chunkSize, query, "id");
+	}
+
+
+
+	/**
+	 * Distribue les numros retourns par la requte indique  plusieurs ouvriers.
+	 * @param partitionCount Nombre de partitions.
+	 * @param chunkSize Nombre maximal de numros par mission.
+	 * @param query Requte.
+	 * @param key Nom de la colonne des numros.
+	 * @return Les numros traits, tris.
+	 */
+	private List<Integer> run(int partitionCount, int chunkSize, String query, String key) {
+		CollectingWorker worker = new CollectingWorker();
+		Enterprise<IntegerChunkMission> enterprise = new Enterprise<>(4, new SqlPartitionedNumberMissionner(dataSource, query, key, partitionCount, chunkSize), worker);
+		List<Integer> numbers;
+
+		enterprise.run();
+		if (enterprise.hasExceptions()) {
+			throw new RuntimeException(enterprise.getFirstException());
+		}
+		numbers = new ArrayList<>(worker.numbers);
+		Collections.sort(numbers);
+		Assert.assertEquals(numbers.size(), enterprise.getExpectedCount(true));
+		Assert.assertEquals(numbers.size(), enterprise.getProducedCount());
+		for (int size : worker.sizes) {
+			Assert.assertTrue(size <= chunkSize);
+		}
+		return numbers;
+	}
+
+
+
+	/**
+	 * Retourne la concatnation des listes indiques.
+	 * @param first Premire liste.
+	 * @param second Deuxime liste.
+	 * @return La concatnation des listes indiques.
+	 */
+	private static List<Integer> concat(List<Integer> first, List<Integer> second) {
+		List<Integer> all = new ArrayList<>(first);
+
+		all.addAll(second);
+		return all;
+	}
+
+
+
+	/**
+	 * Retourne la classe et le message de l'exception gnre par l'action indique.
+	 * @param action Action.
+	 * @return La classe et le message de l'exception gnre, ou <code>null</code> si il n'y en a pas.
+	 */
+	private static String failure(Runnable action) {
+		try {
+			action.run();
+			return null;
+		} catch (RuntimeException exception) {
+			return exception.getClass().getSimpleName() + ": " + exception.getMessage();
+		}
+	}
+
+
+
+	/**
+	 * Retourne les entiers de l'intervalle indiqu.
+	 * @param first Premier entier.
+	 * @param last Dernier entier.
+	 * @return Les entiers de l'intervalle indiqu.
+	 */
+	private static List<Integer> range(int first, int last) {
+		List<Integer> numbers = new ArrayList<>();
+
+		for (int i = first; i <= last; i++) {
+			numbers.add(i);
+		}
+		return numbers;
+	}
+
+
+
+	/**
+	 * Connexion gardant la base de donnes ouverte pendant le test.
+	 */
+	private Connection connection;
+
+
+
+	/**
+	 * Source des connexions  la base de donnes du test.
+	 */
+	private JdbcDataSource dataSource;
+
+
+
+	/**
+	 * Nombre de bases de donnes cres, pour que chaque test ait la sienne.
+	 */
+	private static int databaseCount = 0;
+
+
+
+	/**
+	 * Requte de slection des numros.
+	 */
+	private static final String QUERY = "SELECT id FROM numbers";
+
+
+
+	/**
+	 * La classe {@link CollectingWorker} implmente un ouvrier qui collecte les numros des missions qu'il reoit.
+	 * @author Ludovic WALLE
+	 */
+	private static class CollectingWorker extends Worker<IntegerChunkMission> {
+
+
+
+		/** */
+		public CollectingWorker() {
+			this.numbers = Collections.synchronizedList(new ArrayList<>());
+			this.sizes = Collections.synchronizedList(new ArrayList<>());
+		}
+
+
+
+		/**
+		 * @param other Autre ouvrier, dont les collections sont partages.
+		 */
+		public CollectingWorker(CollectingWorker other) {
+			super(other);
+			this.numbers = other.numbers;
+			this.sizes = other.sizes;
+		}
+
+
+
+		/** {@inheritDoc} */
+		@Override protected int delegateDo(IntegerChunkMission mission) {
+			for (int i = 0; i < mission.getCount(); i++) {
+				numbers.add(mission.getNumber(i));
+			}
+			sizes.add(mission.getCount());
+			return mission.getCount();
+		}
+
+
+
+		/** {@inheritDoc} */
+		@Override protected CollectingWorker newOne() {
+			return new CollectingWorker(this);
+		}
+
+
+
+		/**
+		 * Numros collects par tous les ouvriers.
+		 */
+		final List<Integer> numbers;
+
+
+
+		/**
+		 * Nombres de numros des missions reues par tous les ouvriers.
+		 */
+		final List<Integer> sizes;
+
+
+
+	}
+
+
+
+}
@@ -0,0 +1,128 @@
+package fr.inist.toolbox.parallel.missions;
+
+import java.io.*;
+
+import org.junit.*;
+
+import toolbox.parallel.missions.*;
+
+
+
+/**
+ * La classe {@link IntegerChunkMissionTest} implmente les tests sur les mthodes de la classe {@link IntegerChunkMission}.
+ */
+@SuppressWarnings({"static-method", "javadoc"})
+public class IntegerChunkMissionTest {
+
+
+
+	/** */
+	@Test public void testGetNumber_0a() {
+		Assert.assertEquals("IndexOutOfBoundsException: Indice de numro invalide: -1", failure(() -> new IntegerChunkMission(10, 3).getNumber(-1)));
+		Assert.assertEquals("IndexOutOfBoundsException: Indice de numro invalide: 3", failure(() -> new IntegerChunkMission(10, 3).getNumber(3)));
+		Assert.assertEquals("IndexOutOfBoundsException: Indice de numro invalide: 0", failure(() -> new IntegerChunkMission(10, 0).getNumber(0)));
+		Assert.assertEquals("IndexOutOfBoundsException: Indice de numro invalide: 2", failure(() -> new IntegerChunkMission(new int[] {4, 5}).getNumber(2)));
+		Assert.assertEquals("IndexOutOfBoundsException: Indice de numro invalide: 0", failure(() -> new IntegerChunkMission(new int[0]).getNumber(0)));
+	}
+
+
+
+	/**
+	 * Un intervalle contient les numros conscutifs  partir du premier.
+	 */
+	@Test public void testGetNumber_1a() {
+		IntegerChunkMission mission = new IntegerChunkMission(10, 3);
+
+		Assert.assertTrue(mission.isRange());
+		Assert.assertEquals(3, mission.getCount());
+		Assert.assertArrayEquals(new int[] {10, 11, 12}, numbers(mission));
+		mission = new IntegerChunkMission(-2, 4);
+		Assert.assertArrayEquals(new int[] {-2, -1, 0, 1}, numbers(mission));
+		mission = new IntegerChunkMission(7, 0);
+		Assert.assertTrue(mission.isRange());
+		Assert.assertEquals(0, mission.getCount());
+	}
+
+
+
+	/**
+	 * Un tableau contient ses numros, dans l'ordre, doublons compris, et n'est pas copi.
+	 */
+	@Test public void testGetNumber_1b() {
+		int[] numbers = {5, 3, 3, Integer.MAX_VALUE, -1};
+		IntegerChunkMission mission = new IntegerChunkMission(numbers);
+
+		Assert.assertFalse(mission.isRange());
+		Assert.assertEquals(5, mission.getCount());
+		Assert.assertArrayEquals(numbers, numbers(mission));
+		numbers[0] = 8;
+		Assert.assertEquals(8, mission.getNumber(0));
+		mission = new IntegerChunkMission(new int[0]);
+		Assert.assertFalse(mission.isRange());
+		Assert.assertEquals(0, mission.getCount());
+	}
+
+
+
+	/** */
+	@Test public void testIntegerChunkMission_0a() {
+		Assert.assertEquals("IllegalArgumentException: Le nombre de numros doit tre positif ou nul: -1", failure(() -> new IntegerChunkMission(1, -1)));
+		Assert.assertEquals("NullPointerException: null", failure(() -> new IntegerChunkMission(null)));
+	}
+
+
+
+	/**
+	 * Les missions, qui peuvent tre transmises  une machine virtuelle fille, gardent leurs numros une fois srialises.
+	 */
+	@Test public void testSerialization_1a() throws IOException, ClassNotFoundException {
+		for (IntegerChunkMission mission : new IntegerChunkMission[] {new IntegerChunkMission(100, 50), new IntegerChunkMission(new int[] {9, 1, 4}), new IntegerChunkMission(3, 0)}) {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			IntegerChunkMission copy;
+
+			try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+				output.writeObject(mission);
+			}
+			try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+				copy = (IntegerChunkMission) input.readObject();
+			}
+			Assert.assertEquals(mission.isRange(), copy.isRange());
+			Assert.assertArrayEquals(numbers(mission), numbers(copy));
+		}
+	}
+
+
+
+	/**
+	 * Retourne la classe et le message de l'exception gnre par l'action indique.
+	 * @param action Action.
+	 * @return La classe et le message de l'exception gnre, ou <code>null</code> si il n'y en a pas.
+	 */
+	private static String failure(Runnable action) {
+		try {
+			action.run();
+			return null;
+		} catch (RuntimeException exception) {
+			return exception.getClass().getSimpleName() + ": " + exception.getMessage();
+		}
+	}
+
+
+
+	/**
+	 * Retourne les numros de la mission indique.
+	 * @param mission Mission.
+	 * @return Les numros de la mission.
+	 */
+	private static int[] numbers(IntegerChunkMission mission) {
+		int[] numbers = new int[mission.getCount()];
+
+		for (int i = 0; i < numbers.length; i++) {
+			numbers[i] = mission.getNumber(i);
+		}
+		return numbers;
+	}
+
+
+
+}